@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.ttzero.excel.reader.Cell;
+import org.ttzero.excel.util.DateUtil;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+import static org.ttzero.excel.entity.IWorksheetWriter.isBigDecimal;
+import static org.ttzero.excel.entity.IWorksheetWriter.isBool;
+import static org.ttzero.excel.entity.IWorksheetWriter.isChar;
+import static org.ttzero.excel.entity.IWorksheetWriter.isDate;
+import static org.ttzero.excel.entity.IWorksheetWriter.isDateTime;
+import static org.ttzero.excel.entity.IWorksheetWriter.isDouble;
+import static org.ttzero.excel.entity.IWorksheetWriter.isFloat;
+import static org.ttzero.excel.entity.IWorksheetWriter.isInt;
+import static org.ttzero.excel.entity.IWorksheetWriter.isLocalDate;
+import static org.ttzero.excel.entity.IWorksheetWriter.isLocalDateTime;
+import static org.ttzero.excel.entity.IWorksheetWriter.isLocalTime;
+import static org.ttzero.excel.entity.IWorksheetWriter.isLong;
+import static org.ttzero.excel.entity.IWorksheetWriter.isShort;
+import static org.ttzero.excel.entity.IWorksheetWriter.isString;
+import static org.ttzero.excel.entity.IWorksheetWriter.isTime;
+
+/**
+ * 单元格值写入器，按列的数据类型预先解析，写入时不再逐个判断数据类型，
+ * 仅支持简单类型，它的转换结果与{@link ICellValueAndStyle#setCellValue}完全一致
+ *
+ * @author guanquan.wang at 2024-03-30 10:16
+ */
+@FunctionalInterface
+public interface CellValueWriter {
+    /**
+     * 将非{@code null}值写入单元格
+     *
+     * @param cell 单元格
+     * @param e    单元格的值
+     */
+    void write(Cell cell, Object e);
+
+    CellValueWriter STRING = (cell, e) -> cell.setString(e.toString());
+    CellValueWriter HYPERLINK = (cell, e) -> cell.setHyperlink(e.toString());
+    CellValueWriter DATE = (cell, e) -> cell.setDateTime(DateUtil.toDateTimeValue((java.util.Date) e));
+    CellValueWriter TIMESTAMP = (cell, e) -> cell.setDateTime(DateUtil.toDateTimeValue((Timestamp) e));
+    CellValueWriter CHAR = (cell, e) -> cell.setChar((Character) e);
+    CellValueWriter SHORT = (cell, e) -> cell.setInt((Short) e);
+    CellValueWriter INT = (cell, e) -> cell.setInt((Integer) e);
+    CellValueWriter LONG = (cell, e) -> cell.setLong((Long) e);
+    CellValueWriter FLOAT = (cell, e) -> cell.setDouble((Float) e);
+    CellValueWriter DOUBLE = (cell, e) -> cell.setDouble((Double) e);
+    CellValueWriter BOOL = (cell, e) -> cell.setBool((Boolean) e);
+    CellValueWriter DECIMAL = (cell, e) -> cell.setDecimal((BigDecimal) e);
+    CellValueWriter LOCAL_DATE = (cell, e) -> cell.setDateTime(DateUtil.toDateValue((java.time.LocalDate) e));
+    CellValueWriter LOCAL_DATE_TIME = (cell, e) -> cell.setDateTime(DateUtil.toDateTimeValue((java.time.LocalDateTime) e));
+    CellValueWriter TIME = (cell, e) -> cell.setTime(DateUtil.toTimeValue((java.sql.Time) e));
+    CellValueWriter LOCAL_TIME = (cell, e) -> cell.setTime(DateUtil.toTimeValue((java.time.LocalTime) e));
+
+    /**
+     * 根据数据类型获取单元格值写入器，判断顺序与{@link ICellValueAndStyle#setCellValue}保持一致
+     *
+     * @param clazz      列数据类型
+     * @param columnType 列属性 0: 默认 1: 媒体（图片） 2: 超链接
+     * @return 单元格值写入器，媒体、未知类型或{@code clazz}为{@code null}时返回{@code null}
+     */
+    static CellValueWriter of(Class<?> clazz, int columnType) {
+        if (clazz == null) return null;
+        if (isString(clazz)) return columnType == 1 ? null : columnType == 2 ? HYPERLINK : STRING;
+        if (isDate(clazz)) return DATE;
+        if (isDateTime(clazz)) return TIMESTAMP;
+        if (isChar(clazz)) return CHAR;
+        if (isShort(clazz)) return SHORT;
+        if (isInt(clazz)) return INT;
+        if (isLong(clazz)) return LONG;
+        if (isFloat(clazz)) return FLOAT;
+        if (isDouble(clazz)) return DOUBLE;
+        if (isBool(clazz)) return BOOL;
+        if (isBigDecimal(clazz)) return DECIMAL;
+        if (isLocalDate(clazz)) return LOCAL_DATE;
+        if (isLocalDateTime(clazz)) return LOCAL_DATE_TIME;
+        if (isTime(clazz)) return TIME;
+        if (isLocalTime(clazz)) return LOCAL_TIME;
+        return null;
+    }
+}
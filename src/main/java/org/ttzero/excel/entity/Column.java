@@ -104,6 +104,20 @@ public class Column {
      * 表格头的样式索引, -1表示未设置
      */
     protected int headerStyleIndex = -1;
+    /**
+     * 样式值与样式索引的直接映射缓存，每项保存{@code style << 32 | (index + 1)}，
+     * 只由装填行块的线程访问，参考{@link RowBlockPipeline}
+     */
+    private long[] xfMemo;
+    /**
+     * 缓存对应的全局样式对象
+     */
+    private Styles memoStyles;
+    /**
+     * 按列数据类型预先解析的单元格值写入器，以及解析时对应的数据类型，只由装填行块的线程访问
+     */
+    private CellValueWriter cellValueWriter;
+    private Class<?> cellValueWriterClazz;
     /**
      * 列宽，表头行高
      */
@@ -167,6 +181,10 @@ public class Column {
      * </pre></blockquote>
      */
     protected int option;
+    /**
+     * 自适应共享字符串采样得到的唯一值占比，{@code -1}表示未采样
+     */
+    protected double distinctRatio = -1D;
     /**
      * 图片效果，可以简单使用内置的{@link org.ttzero.excel.drawing.PresetPictureEffect} 28种效果
      */
@@ -586,6 +604,40 @@ public class Column {
         return cellStyleIndex >= 0 ? cellStyleIndex : (cellStyleIndex = styles != null && cellStyle != null ? styles.of(cellStyle) : -1);
     }
 
+    /**
+     * 获取样式值在全局样式库中的索引，列内使用一个小型直接映射缓存保存最近使用的样式值，
+     * 稳定状态下基础样式和动态样式的转换结果均无需查询全局样式库
+     *
+     * @param style 样式值
+     * @return 样式索引
+     */
+    public int styleIndexOf(int style) {
+        long[] memo = xfMemo;
+        if (memo == null || memoStyles != styles) {
+            xfMemo = memo = new long[8];
+            memoStyles = styles;
+        }
+        int i = (style ^ (style >>> 12) ^ (style >>> 24)) & 7;
+        long e = memo[i];
+        if ((int) e != 0 && (int) (e >>> 32) == style) return (int) e - 1;
+        int xf = styles.of(style);
+        memo[i] = ((long) style << 32) | (xf + 1);
+        return xf;
+    }
+
+    /**
+     * 获取按列数据类型预先解析的单元格值写入器，数据类型变化后重新解析
+     *
+     * @return 单元格值写入器，媒体、未知类型或未设置数据类型时返回{@code null}
+     */
+    public CellValueWriter getCellValueWriter() {
+        if (cellValueWriterClazz != clazz) {
+            cellValueWriter = CellValueWriter.of(clazz, getColumnType());
+            cellValueWriterClazz = clazz;
+        }
+        return cellValueWriter;
+    }
+
     /**
      * 获取表头单元格样式索引，不包含动态样式
      *
@@ -662,6 +714,26 @@ public class Column {
         return this;
     }
 
+    /**
+     * 获取自适应共享字符串采样得到的唯一值占比，参考{@link Sheet#setAdaptiveShareSamples(int)}
+     *
+     * @return 唯一值占比，范围{@code [0, 1]}，{@code -1}表示未采样
+     */
+    public double getDistinctRatio() {
+        return distinctRatio;
+    }
+
+    /**
+     * 设置自适应共享字符串采样得到的唯一值占比，由输出协议在采样结束后设置
+     *
+     * @param distinctRatio 唯一值占比
+     * @return 当前列
+     */
+    public Column setDistinctRatio(double distinctRatio) {
+        this.distinctRatio = distinctRatio;
+        return this;
+    }
+
     /**
      * 设置当前列统一“格式化”样式
      *
@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.ttzero.excel.entity.e7.XMLCellValueAndStyle;
+import org.ttzero.excel.reader.Cell;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 列式工作表，数据源为按列存储的基本类型数组，适用于数据已经按列保存的场景（比如分析计算的结果），
+ * 不需要再将数据转为行对象，写入时直接按数组下标取值写入单元格，没有反射也没有逐行的对象分配。
+ *
+ * <p>支持{@code int[]}，{@code long[]}，{@code double[]}，{@code String[]}以及字典编码的字符串列，
+ * 字典编码列由编码数组和字典组成，编码为负数时表示{@code null}。所有列的长度必须一致，
+ * 列的样式、格式化和动态样式与其它工作表一致，超过行数限制时自动分页</p>
+ *
+ * <pre>
+ * new Workbook()
+ *     .addSheet(new ColumnarSheet("Sales")
+ *         .addColumn(new Column("ID"), ids)
+ *         .addColumn(new Column("City"), cityCodes, cityDictionary)
+ *         .addColumn(new Column("Amount").setNumFmt("#,##0.00"), amounts))
+ *     .writeTo(Paths.get("/tmp/sales.xlsx"));</pre>
+ *
+ * @author guanquan.wang at 2024-04-02 10:05
+ */
+public class ColumnarSheet extends Sheet {
+    /**
+     * 列与列数据，key为添加时的列
+     */
+    protected final Map<Column, Vector> vectorMap = new IdentityHashMap<>();
+    /**
+     * 按添加顺序保存的列
+     */
+    protected final List<Column> vectorColumns = new ArrayList<>();
+    /**
+     * 与{@code columns}一一对应的列数据，表头排序后解析
+     */
+    protected Vector[] vectors;
+    /**
+     * 当前工作表的起始和结束下标（不包含）
+     */
+    protected int start, end;
+
+    /**
+     * 实例化工作表，未指定工作表名称时默认以{@code 'Sheet'+id}命名
+     */
+    public ColumnarSheet() {
+        super();
+    }
+
+    /**
+     * 实例化工作表并指定工作表名称
+     *
+     * @param name 工作表名称
+     */
+    public ColumnarSheet(String name) {
+        super(name);
+    }
+
+    /**
+     * 添加{@code int}列
+     *
+     * @param column 列
+     * @param values 列数据
+     * @return 当前工作表
+     */
+    public ColumnarSheet addColumn(Column column, int[] values) {
+        return addVector(column, int.class, new IntVector(values));
+    }
+
+    /**
+     * 添加{@code long}列
+     *
+     * @param column 列
+     * @param values 列数据
+     * @return 当前工作表
+     */
+    public ColumnarSheet addColumn(Column column, long[] values) {
+        return addVector(column, long.class, new LongVector(values));
+    }
+
+    /**
+     * 添加{@code double}列
+     *
+     * @param column 列
+     * @param values 列数据
+     * @return 当前工作表
+     */
+    public ColumnarSheet addColumn(Column column, double[] values) {
+        return addVector(column, double.class, new DoubleVector(values));
+    }
+
+    /**
+     * 添加字符串列，{@code null}值写空单元格
+     *
+     * @param column 列
+     * @param values 列数据
+     * @return 当前工作表
+     */
+    public ColumnarSheet addColumn(Column column, String[] values) {
+        return addVector(column, String.class, new DictionaryVector(null, values));
+    }
+
+    /**
+     * 添加字典编码的字符串列，单元格的值为{@code dictionary[codes[i]]}，编码为负数时写空单元格
+     *
+     * @param column     列
+     * @param codes      编码数组
+     * @param dictionary 字典
+     * @return 当前工作表
+     */
+    public ColumnarSheet addColumn(Column column, int[] codes, String[] dictionary) {
+        if (dictionary == null) throw new IllegalArgumentException("The dictionary must not be null");
+        return addVector(column, String.class, new DictionaryVector(codes, dictionary));
+    }
+
+    protected ColumnarSheet addVector(Column column, Class<?> clazz, Vector vector) {
+        if (headerReady) throw new ExcelWriteException("Can not add column after the header is ready");
+        if (column.getClazz() == null) column.setClazz(clazz);
+        vectorColumns.add(column);
+        vectorMap.put(column, vector);
+        return this;
+    }
+
+    /**
+     * 获取表头信息，多行表头时列数据绑定到尾部列
+     *
+     * @return 表头信息
+     */
+    @Override
+    protected Column[] getHeaderColumns() {
+        if (headerReady) return columns;
+        int size = -1;
+        columns = new Column[vectorColumns.size()];
+        for (int i = 0; i < columns.length; i++) {
+            Column column = columns[i] = vectorColumns.get(i);
+            Vector vector = vectorMap.get(column);
+            if (size < 0) size = vector.size();
+            else if (size != vector.size()) {
+                throw new ExcelWriteException("The length of column [" + column.getName() + "] is " + vector.size() + ", expected " + size);
+            }
+            // The tail column contains the main information after reversed
+            if (column.tail != null) vectorMap.put(column.tail, vector);
+        }
+        end = Math.max(size, 0);
+        return columns;
+    }
+
+    /**
+     * 获取表头并按排序后的列解析列数据
+     *
+     * @return 表头信息
+     */
+    @Override
+    public Column[] getAndSortHeaderColumns() {
+        Column[] columns = super.getAndSortHeaderColumns();
+        if (vectors == null || vectors.length != columns.length) {
+            vectors = new Vector[columns.length];
+            for (int i = 0; i < columns.length; i++) vectors[i] = vectorMap.get(columns[i]);
+        }
+        return columns;
+    }
+
+    /**
+     * 分页处理，如果达到分页条件时会复制一个新的工作表插入到当前位置之后
+     */
+    @Override
+    protected void paging() {
+        int len = end, limit = getRowLimit();
+        if (len - start > limit) {
+            end = start + limit;
+            shouldClose = false;
+
+            int n = id;
+            for (int i = end; i < len; ) {
+                ColumnarSheet copy = getClass().cast(clone());
+                copy.start = i;
+                copy.end = (i = Math.min(i + limit, len));
+                workbook.insertSheet(n++, copy);
+            }
+            // Close on the last copy worksheet
+            workbook.getSheetAt(n - 1).shouldClose = true;
+        }
+    }
+
+    /**
+     * 重置{@code RowBlock}行块数据，直接从列数组中取值写入单元格
+     */
+    @Override
+    protected void resetBlockData() {
+        int end = Math.min(start + rowBlock.capacity(), this.end), len = columns.length;
+        boolean typedValueSupported = cellValueAndStyle instanceof XMLCellValueAndStyle
+            && ((XMLCellValueAndStyle) cellValueAndStyle).isTypedValueSupported();
+        for (; start < end; rows++, start++) {
+            Row row = rowBlock.next();
+            row.index = rows;
+            row.height = getRowHeight();
+            Cell[] cells = row.realloc(len);
+            for (int i = 0; i < len; i++) {
+                Column hc = columns[i];
+                Vector vector = vectors[i];
+                // Clear cells
+                Cell cell = cells[i];
+                cell.clear();
+
+                if (vector == null) {
+                    cellValueAndStyle.reset(row, cell, null, hc);
+                } else if (typedValueSupported && hc.getColumnType() == 0 && hc.getConversion() == null && hc.styleProcessor == null) {
+                    if (!vector.write(cell, start)) cellValueAndStyle.setNullValue(row, cell, hc);
+                    cell.xf = cellValueAndStyle.getStyleIndex(row, hc, null);
+                } else {
+                    // The conversion, style processor, media and hyperlink columns
+                    cellValueAndStyle.reset(row, cell, vector.get(start), hc);
+                }
+            }
+        }
+    }
+
+    /**
+     * 列数据
+     */
+    protected static abstract class Vector {
+        /**
+         * 数据长度
+         *
+         * @return 数据长度
+         */
+        protected abstract int size();
+
+        /**
+         * 将指定下标的值写入单元格
+         *
+         * @param cell 单元格
+         * @param i    下标
+         * @return 值为{@code null}时返回{@code false}，此时单元格未被修改
+         */
+        protected abstract boolean write(Cell cell, int i);
+
+        /**
+         * 获取指定下标的值，仅在有转换器或动态样式时使用
+         *
+         * @param i 下标
+         * @return 装箱后的值
+         */
+        protected abstract Object get(int i);
+    }
+
+    protected static class IntVector extends Vector {
+        private final int[] values;
+
+        protected IntVector(int[] values) {
+            this.values = values;
+        }
+
+        @Override
+        protected int size() {
+            return values.length;
+        }
+
+        @Override
+        protected boolean write(Cell cell, int i) {
+            cell.setInt(values[i]);
+            return true;
+        }
+
+        @Override
+        protected Object get(int i) {
+            return values[i];
+        }
+    }
+
+    protected static class LongVector extends Vector {
+        private final long[] values;
+
+        protected LongVector(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        protected int size() {
+            return values.length;
+        }
+
+        @Override
+        protected boolean write(Cell cell, int i) {
+            cell.setLong(values[i]);
+            return true;
+        }
+
+        @Override
+        protected Object get(int i) {
+            return values[i];
+        }
+    }
+
+    protected static class DoubleVector extends Vector {
+        private final double[] values;
+
+        protected DoubleVector(double[] values) {
+            this.values = values;
+        }
+
+        @Override
+        protected int size() {
+            return values.length;
+        }
+
+        @Override
+        protected boolean write(Cell cell, int i) {
+            cell.setDouble(values[i]);
+            return true;
+        }
+
+        @Override
+        protected Object get(int i) {
+            return values[i];
+        }
+    }
+
+    /**
+     * 字符串列，{@code codes}为{@code null}时{@code dictionary}即为列数据
+     */
+    protected static class DictionaryVector extends Vector {
+        private final int[] codes;
+        private final String[] dictionary;
+
+        protected DictionaryVector(int[] codes, String[] dictionary) {
+            this.codes = codes;
+            this.dictionary = dictionary;
+        }
+
+        @Override
+        protected int size() {
+            return codes != null ? codes.length : dictionary.length;
+        }
+
+        @Override
+        protected boolean write(Cell cell, int i) {
+            String v = (String) get(i);
+            if (v == null) return false;
+            cell.setString(v);
+            return true;
+        }
+
+        @Override
+        protected Object get(int i) {
+            if (codes == null) return dictionary[i];
+            int code = codes[i];
+            return code >= 0 ? dictionary[code] : null;
+        }
+    }
+}
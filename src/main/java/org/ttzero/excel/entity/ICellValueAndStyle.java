@@ -81,7 +81,7 @@ public interface ICellValueAndStyle {
         if (hc.styleProcessor != null) {
             style = hc.styleProcessor.build(o, style, hc.styles);
         }
-        return hc.styles.of(style);
+        return hc.styleIndexOf(style);
     }
 
     /**
@@ -95,7 +95,7 @@ public interface ICellValueAndStyle {
      */
     default <T> void setStyleDesign(T o, Cell cell, Column hc, StyleProcessor<T> styleProcessor) {
         if (styleProcessor != null && hc.styles != null) {
-            cell.xf = hc.styles.of(styleProcessor.build(o, hc.styles.getStyleByIndex(cell.xf), hc.styles));
+            cell.xf = hc.styleIndexOf(styleProcessor.build(o, hc.styles.getStyleByIndex(cell.xf), hc.styles));
         }
     }
 
@@ -26,11 +26,13 @@ import org.ttzero.excel.annotation.IgnoreExport;
 import org.ttzero.excel.annotation.MediaColumn;
 import org.ttzero.excel.annotation.StyleDesign;
 import org.ttzero.excel.drawing.PresetPictureEffect;
+import org.ttzero.excel.entity.e7.XMLCellValueAndStyle;
 import org.ttzero.excel.manager.Const;
 import org.ttzero.excel.processor.ConversionProcessor;
 import org.ttzero.excel.processor.Converter;
 import org.ttzero.excel.processor.StyleProcessor;
 import org.ttzero.excel.reader.Cell;
+import org.ttzero.excel.util.LambdaAccessors;
 import org.ttzero.excel.util.StringUtil;
 
 import java.beans.IntrospectionException;
@@ -49,7 +51,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 import static org.ttzero.excel.util.ReflectUtil.listDeclaredFields;
 import static org.ttzero.excel.util.ReflectUtil.listReadMethods;
@@ -142,6 +149,18 @@ public class ListSheet<T> extends Sheet {
      * 数据产生者，简化分片查询
      */
     protected BiFunction<Integer, T, List<T>> dataSupplier;
+    /**
+     * 预取深度，大于0时异步预取{@code dataSupplier}的后续数据
+     */
+    protected int prefetchDepth;
+    /**
+     * 预取数据使用的线程池，为{@code null}时使用内部守护线程
+     */
+    protected Executor prefetchExecutor;
+    /**
+     * 异步预取数据生产者，复制的分页工作表共用同一个预取数据生产者
+     */
+    protected PrefetchSupplier<T> prefetchSupplier;
 
     /**
      * 设置行级动态样式处理器，作用于整行优先级高于单元格动态样式处理器
@@ -317,6 +336,32 @@ public class ListSheet<T> extends Sheet {
         return this;
     }
 
+    /**
+     * 开启异步预取，写入当前批数据的同时预先拉取{@code dataSupplier}的后续{@code depth}批数据，
+     * 适用于分页查询数据库或远程接口较慢的场景，仅对{@link #setData(BiFunction)}设置的数据生产者有效
+     *
+     * @param depth 预取深度，最多预取{@code depth}批数据，0表示关闭预取
+     * @return 当前工作表
+     */
+    public ListSheet<T> setPrefetch(int depth) {
+        return setPrefetch(depth, null);
+    }
+
+    /**
+     * 开启异步预取，写入当前批数据的同时预先拉取{@code dataSupplier}的后续{@code depth}批数据，
+     * 适用于分页查询数据库或远程接口较慢的场景，仅对{@link #setData(BiFunction)}设置的数据生产者有效
+     *
+     * @param depth    预取深度，最多预取{@code depth}批数据，0表示关闭预取
+     * @param executor 拉取数据的线程池，由调用方管理，为{@code null}时使用内部守护线程
+     * @return 当前工作表
+     */
+    public ListSheet<T> setPrefetch(int depth, Executor executor) {
+        if (depth < 0) throw new ExcelWriteException("The prefetch depth must not be negative");
+        this.prefetchDepth = depth;
+        this.prefetchExecutor = executor;
+        return this;
+    }
+
     /**
      * 获取队列中第一个非{@code null}对象用于解析
      *
@@ -360,6 +405,10 @@ public class ListSheet<T> extends Sheet {
                 shouldClose = false;
             }
         }
+        if (shouldClose && prefetchSupplier != null) {
+            prefetchSupplier.close();
+            prefetchSupplier = null;
+        }
         if (shouldClose && data != null) {
             // Some Collection not support #remove
 //            data.clear();
@@ -380,6 +429,9 @@ public class ListSheet<T> extends Sheet {
         // Find the end index of row-block
         int end = getEndIndex(), len = columns.length;
         boolean hasGlobalStyleProcessor = (extPropMark & 2) == 2;
+        // The built-in converters do not use the boxed value when the column has no processor
+        boolean primitive = cellValueAndStyle instanceof XMLCellValueAndStyle
+            && ((XMLCellValueAndStyle) cellValueAndStyle).isTypedValueSupported();
         try {
             for (; start < end; rows++, start++) {
                 Row row = rowBlock.next();
@@ -400,6 +452,15 @@ public class ListSheet<T> extends Sheet {
                      */
                     if (column.isIgnoreValue() || isNull)
                         e = null;
+                    // Unboxed primitive value
+                    else if (primitive && column.styleProcessor == null && column.getConversion() == null
+                        && resetPrimitive(row, cell, o, column)) {
+                        if (hasGlobalStyleProcessor) {
+                            cellValueAndStyle.setStyleDesign(o, cell, column, getStyleProcessor());
+                        }
+                        continue;
+                    }
+                    else if (column.getter != null) e = column.getter.apply(o);
                     else {
                         if (column.getMethod() != null)
                             e = column.getMethod().invoke(o);
@@ -420,6 +481,24 @@ public class ListSheet<T> extends Sheet {
         }
     }
 
+    /**
+     * 通过基本类型取值函数设置单元格的值和样式，取值过程不产生装箱对象
+     *
+     * @param row    行信息
+     * @param cell   单元格
+     * @param o      行数据
+     * @param column 当前列
+     * @return false: 当前列没有基本类型取值函数
+     */
+    protected boolean resetPrimitive(Row row, Cell cell, Object o, EntryColumn column) {
+        if (column.intGetter != null) cell.setInt(column.intGetter.applyAsInt(o));
+        else if (column.longGetter != null) cell.setLong(column.longGetter.applyAsLong(o));
+        else if (column.doubleGetter != null) cell.setDouble(column.doubleGetter.applyAsDouble(o));
+        else return false;
+        cell.xf = cellValueAndStyle.getStyleIndex(row, column, null);
+        return true;
+    }
+
     /**
      * 加载数据，内部调用{@link #more}获取数据并判断是否需要分页，超过工作表行上限则调用{@link #paging}分页
      */
@@ -669,6 +748,13 @@ public class ListSheet<T> extends Sheet {
         // Merge Header Style defined on Entry Class
         mergeGlobalSetting(clazz);
 
+        // Generate the getters instead of reflection
+        for (Column col : columns) {
+            for (Column c = col; c != null; c = c.next) {
+                if (c instanceof EntryColumn) ((EntryColumn) c).bindAccessors();
+            }
+        }
+
         return columns.length;
     }
 
@@ -1030,7 +1116,12 @@ public class ListSheet<T> extends Sheet {
         if (dataSupplier != null) {
             int offset = left() + (rowBlock != null ? rowBlock.getTotal() : 0);
             if (copySheet) offset += copyCount * workbook.getSheetAt(id - 2).size();
-            return dataSupplier.apply(offset, data != null && !data.isEmpty() ? data.get(data.size() - 1) : null);
+            T last = data != null && !data.isEmpty() ? data.get(data.size() - 1) : null;
+            if (prefetchDepth > 0) {
+                if (prefetchSupplier == null) prefetchSupplier = new PrefetchSupplier<>(dataSupplier, prefetchDepth, prefetchExecutor);
+                return prefetchSupplier.apply(offset, last);
+            }
+            return dataSupplier.apply(offset, last);
         }
         return null;
     }
@@ -1135,6 +1226,16 @@ public class ListSheet<T> extends Sheet {
          * 当前列对应的Bean字段
          */
         public Field field;
+        /**
+         * 取值函数，初始化表头时根据{@code method}或{@code field}生成，无法生成时为{@code null}并回退到反射取值
+         */
+        public Function<Object, Object> getter;
+        /**
+         * 基本类型取值函数，仅当列的数据类型为对应的基本类型时生成，取值时不产生装箱对象
+         */
+        public ToIntFunction<Object> intGetter;
+        public ToLongFunction<Object> longGetter;
+        public ToDoubleFunction<Object> doubleGetter;
 
         public EntryColumn() {
             super();
@@ -1207,6 +1308,10 @@ public class ListSheet<T> extends Sheet {
                 EntryColumn o = (EntryColumn) other;
                 this.method = o.method;
                 this.field = o.field;
+                this.getter = o.getter;
+                this.intGetter = o.intGetter;
+                this.longGetter = o.longGetter;
+                this.doubleGetter = o.doubleGetter;
             }
             if (other.next != null) {
                 addSubColumn(new EntryColumn(other.next));
@@ -1230,5 +1335,29 @@ public class ListSheet<T> extends Sheet {
         public Field getField() {
             return field;
         }
+
+        /**
+         * 根据{@code method}或{@code field}生成取值函数，优先使用get方法
+         */
+        public void bindAccessors() {
+            getter = null; intGetter = null; longGetter = null; doubleGetter = null;
+            if (method != null) {
+                getter = LambdaAccessors.getter(method);
+                Class<?> type = method.getReturnType();
+                if (type == getClazz()) {
+                    intGetter = LambdaAccessors.intGetter(method);
+                    longGetter = LambdaAccessors.longGetter(method);
+                    doubleGetter = LambdaAccessors.doubleGetter(method);
+                }
+            } else if (field != null) {
+                getter = LambdaAccessors.getter(field);
+                Class<?> type = field.getType();
+                if (type == getClazz()) {
+                    intGetter = LambdaAccessors.intGetter(field);
+                    longGetter = LambdaAccessors.longGetter(field);
+                    doubleGetter = LambdaAccessors.doubleGetter(field);
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.ttzero.excel.processor.ParamProcessor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 分区查询工作表，将一个大查询按分区拆分为多个查询，每个分区使用独立的数据库连接执行，
+ * 分区的参数由{@link ParamProcessor}设置，可以使用{@link #ranges}按主键范围分区或者使用{@link #modulo}取模分区。
+ *
+ * <p>默认所有分区按顺序合并到同一个工作表，写当前分区数据的同时在线程池中提前执行后续{@code parallelism - 1}个分区的查询，
+ * 超过行数限制时与{@link StatementSheet}一样自动分页。也可以使用{@link #split}将每个分区拆分为独立的工作表，
+ * 配合{@link Workbook#setParallelExecutor}并行渲染各分区。</p>
+ *
+ * <p>分区使用的数据库连接由{@link ConnectionProvider}提供，分区数据写完后关闭，
+ * 连接池的{@code DataSource}可以直接使用{@code dataSource::getConnection}</p>
+ *
+ * <pre>
+ * String sql = "select id, name, age from student where id between ? and ?";
+ * new Workbook()
+ *     .addSheet(new PartitionedStatementSheet(dataSource::getConnection, sql
+ *         , PartitionedStatementSheet.ranges(1, 1_000_000, 8)))
+ *     .writeTo(Paths.get("/tmp/student.xlsx"));</pre>
+ *
+ * @author guanquan.wang at 2024-04-01 09:45
+ * @see StatementSheet
+ */
+public class PartitionedStatementSheet extends ResultSetSheet {
+    /**
+     * 数据库连接提供者
+     */
+    protected ConnectionProvider connectionProvider;
+    /**
+     * SQL语句，各分区共用
+     */
+    protected String sql;
+    /**
+     * 分区参数处理器，按顺序合并
+     */
+    protected ParamProcessor[] partitions;
+    /**
+     * 同时执行查询的最大分区数（包含当前正在写的分区）
+     */
+    protected int parallelism = 4;
+    /**
+     * 执行分区查询的线程池，为{@code null}时内部创建
+     */
+    protected Executor executor;
+    /**
+     * 分区游标，分页时由副本共享
+     */
+    protected Cursor cursor;
+
+    /**
+     * 实例化分区查询工作表
+     *
+     * @param connectionProvider 数据库连接提供者
+     * @param sql                SQL语句
+     * @param partitions         分区参数处理器
+     * @param columns            表头信息
+     */
+    public PartitionedStatementSheet(ConnectionProvider connectionProvider, String sql, ParamProcessor[] partitions, final Column... columns) {
+        this(null, connectionProvider, sql, partitions, columns);
+    }
+
+    /**
+     * 实例化分区查询工作表并指定工作表名
+     *
+     * @param name               工作表名
+     * @param connectionProvider 数据库连接提供者
+     * @param sql                SQL语句
+     * @param partitions         分区参数处理器
+     * @param columns            表头信息
+     */
+    public PartitionedStatementSheet(String name, ConnectionProvider connectionProvider, String sql, ParamProcessor[] partitions, final Column... columns) {
+        super(name, columns);
+        if (connectionProvider == null) {
+            throw new ExcelWriteException("Constructor worksheet error.\nMiss the parameter ConnectionProvider");
+        }
+        if (partitions == null || partitions.length == 0) {
+            throw new ExcelWriteException("Constructor worksheet error.\nMiss the parameter partitions");
+        }
+        this.connectionProvider = connectionProvider;
+        this.sql = sql;
+        this.partitions = partitions;
+    }
+
+    /**
+     * 设置同时执行查询的最大分区数，同时也是同时占用的最大连接数，默认为4
+     *
+     * @param parallelism 最大分区数
+     * @return 当前工作表
+     */
+    public PartitionedStatementSheet setParallelism(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("The parallelism must be greater than 0");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * 设置执行分区查询的线程池，线程池由调用方管理，导出完成后不会被关闭
+     *
+     * @param executor 线程池
+     * @return 当前工作表
+     */
+    public PartitionedStatementSheet setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * 将每个分区拆分为独立的工作表，工作表名为{@code 工作表名-分区序号}，未指定工作表名时使用默认名称，
+     * 拆分后的工作表只复制表头、连接提供者和SQL语句，配合{@link Workbook#setParallelExecutor}可并行渲染各分区
+     *
+     * <pre>
+     * Workbook workbook = new Workbook().setParallelExecutor(executor);
+     * for (Sheet sheet : new PartitionedStatementSheet(dataSource::getConnection, sql, PartitionedStatementSheet.modulo(4)).split()) {
+     *     workbook.addSheet(sheet);
+     * }
+     * workbook.writeTo(Paths.get("/tmp/student.xlsx"));</pre>
+     *
+     * @return 每个分区一个工作表
+     */
+    public PartitionedStatementSheet[] split() {
+        PartitionedStatementSheet[] sheets = new PartitionedStatementSheet[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            Column[] copyColumns = null;
+            if (columns != null) {
+                copyColumns = new Column[columns.length];
+                for (int j = 0; j < columns.length; j++) copyColumns[j] = SQLColumn.of(columns[j]);
+            }
+            sheets[i] = new PartitionedStatementSheet(name != null ? name + "-" + (i + 1) : null, connectionProvider, sql
+                , new ParamProcessor[] { partitions[i] }, copyColumns).setParallelism(1).setExecutor(executor);
+        }
+        return sheets;
+    }
+
+    /**
+     * 按主键范围分区，将闭区间{@code [min, max]}平均拆分为{@code n}个连续的区间，
+     * 区间的上下界分别设置为第1个和第2个参数，适用于{@code where id between ? and ?}
+     *
+     * @param min 最小值（包含）
+     * @param max 最大值（包含）
+     * @param n   分区数
+     * @return 分区参数处理器
+     */
+    public static ParamProcessor[] ranges(long min, long max, int n) {
+        if (n < 1) throw new IllegalArgumentException("The number of partitions must be greater than 0");
+        if (max < min) throw new IllegalArgumentException("The max value must be greater than or equal to min value");
+        long size = (max - min) / n + 1;
+        ParamProcessor[] partitions = new ParamProcessor[n];
+        for (int i = 0; i < n; i++) {
+            long from = min + size * i, to = i < n - 1 ? Math.min(from + size - 1, max) : max;
+            partitions[i] = ps -> {
+                ps.setLong(1, from);
+                ps.setLong(2, to);
+            };
+        }
+        return partitions;
+    }
+
+    /**
+     * 取模分区，第1个参数设置为分区数{@code n}，第2个参数设置为分区序号，适用于{@code where id % ? = ?}，
+     * 注意取模分区按分区顺序合并，合并后的数据不再按主键排序
+     *
+     * @param n 分区数
+     * @return 分区参数处理器
+     */
+    public static ParamProcessor[] modulo(int n) {
+        if (n < 1) throw new IllegalArgumentException("The number of partitions must be greater than 0");
+        ParamProcessor[] partitions = new ParamProcessor[n];
+        for (int i = 0; i < n; i++) {
+            int remainder = i;
+            partitions[i] = ps -> {
+                ps.setInt(1, n);
+                ps.setInt(2, remainder);
+            };
+        }
+        return partitions;
+    }
+
+    /**
+     * 当前分区的数据读完后切换到下一个分区
+     *
+     * @return 有下一行时返回{@code true}
+     * @throws SQLException if a database access error occurs
+     */
+    @Override
+    protected boolean nextRow() throws SQLException {
+        if (cursor == null || cursor.exhausted) return false;
+        while (!rs.next()) {
+            ResultSet next = cursor.next();
+            if (next == null) return false;
+            rs = next;
+        }
+        return true;
+    }
+
+    /**
+     * 关闭数据源并关闭所有分区的连接
+     *
+     * @throws IOException if I/O error occur
+     */
+    @Override
+    public void close() throws IOException {
+        super.close();
+        if (shouldClose && cursor != null) {
+            cursor.close();
+        }
+    }
+
+    /**
+     * 落盘，将工作表写到指定路径
+     *
+     * @param path 指定保存路径
+     * @throws IOException if I/O error occur
+     */
+    @Override
+    public void writeTo(Path path) throws IOException {
+        if (sheetWriter != null) {
+            if (!copySheet) {
+                // Execute the partitions
+                cursor = new Cursor(this);
+                rs = cursor.next();
+
+                // Check the header information is exists
+                getAndSortHeaderColumns();
+            }
+
+            if (rowBlock == null) {
+                rowBlock = new RowBlock(getRowBlockSize());
+            } else rowBlock.reopen();
+
+            sheetWriter.writeTo(path);
+        } else {
+            throw new ExcelWriteException("Worksheet writer is not instanced.");
+        }
+    }
+
+    /**
+     * 数据库连接提供者，分区数据写完后关闭连接
+     */
+    @FunctionalInterface
+    public interface ConnectionProvider {
+        /**
+         * 获取一个数据库连接
+         *
+         * @return 数据库连接
+         * @throws SQLException if a database access error occurs
+         */
+        Connection getConnection() throws SQLException;
+    }
+
+    /**
+     * 分区游标，按顺序返回各分区的{@code ResultSet}，并保持最多{@code parallelism}个分区的查询同时执行
+     */
+    protected static class Cursor implements AutoCloseable {
+        private final PartitionedStatementSheet sheet;
+        private final Executor executor;
+        private final ExecutorService ownExecutor;
+        private final Deque<CompletableFuture<Segment>> pending = new ArrayDeque<>();
+        private int index;
+        private Segment current;
+        private volatile boolean closed;
+        private boolean exhausted;
+
+        protected Cursor(PartitionedStatementSheet sheet) {
+            this.sheet = sheet;
+            if (sheet.executor != null) {
+                this.executor = sheet.executor;
+                this.ownExecutor = null;
+            } else {
+                this.executor = this.ownExecutor = Executors.newFixedThreadPool(Math.min(sheet.parallelism, sheet.partitions.length), r -> {
+                    Thread t = new Thread(r, "eec-partition");
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+        }
+
+        /**
+         * 关闭当前分区并返回下一个分区的{@code ResultSet}
+         *
+         * @return 下一个分区的{@code ResultSet}，没有更多分区时返回{@code null}
+         */
+        protected ResultSet next() {
+            if (exhausted || closed) return null;
+            fill();
+            CompletableFuture<Segment> head = pending.poll();
+            if (head == null) {
+                exhausted = true;
+                return null;
+            }
+            if (current != null) current.close();
+            current = join(head);
+            // Keep the next partitions executing
+            fill();
+            return current.rs;
+        }
+
+        private void fill() {
+            for (; index < sheet.partitions.length && pending.size() + (current != null ? 1 : 0) < sheet.parallelism; index++) {
+                ParamProcessor pp = sheet.partitions[index];
+                pending.add(CompletableFuture.supplyAsync(() -> open(pp), executor));
+            }
+        }
+
+        private Segment open(ParamProcessor pp) {
+            if (closed) return null;
+            Connection con = null;
+            PreparedStatement ps = null;
+            try {
+                con = sheet.connectionProvider.getConnection();
+                ps = con.prepareStatement(sheet.sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                try {
+                    ps.setFetchSize(Integer.MIN_VALUE);
+                    ps.setFetchDirection(ResultSet.FETCH_REVERSE);
+                } catch (SQLException e) {
+                    sheet.LOGGER.debug("Not support fetch size value of {}", Integer.MIN_VALUE);
+                }
+                if (pp != null) pp.build(ps);
+                return new Segment(con, ps, ps.executeQuery());
+            } catch (SQLException | RuntimeException e) {
+                new Segment(con, ps, null).close();
+                throw e instanceof ExcelWriteException ? (ExcelWriteException) e : new ExcelWriteException(e);
+            }
+        }
+
+        private static Segment join(CompletableFuture<Segment> future) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw new ExcelWriteException(cause);
+            }
+        }
+
+        /**
+         * 关闭当前分区，已提交的分区在查询完成后关闭，关闭内部创建的线程池
+         */
+        @Override
+        public void close() {
+            closed = true;
+            exhausted = true;
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+            for (CompletableFuture<Segment> future; (future = pending.poll()) != null; ) {
+                future.whenComplete((s, e) -> {
+                    if (s != null) s.close();
+                });
+            }
+            if (ownExecutor != null) ownExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 一个分区的连接、Statement和查询结果
+     */
+    protected static class Segment {
+        protected final Connection con;
+        protected final PreparedStatement ps;
+        protected final ResultSet rs;
+
+        protected Segment(Connection con, PreparedStatement ps, ResultSet rs) {
+            this.con = con;
+            this.ps = ps;
+            this.rs = rs;
+        }
+
+        protected void close() {
+            try {
+                if (rs != null) rs.close();
+            } catch (SQLException e) { } // Ignore
+            try {
+                if (ps != null) ps.close();
+            } catch (SQLException e) { } // Ignore
+            try {
+                if (con != null) con.close();
+            } catch (SQLException e) { } // Ignore
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+
+/**
+ * 异步预取数据生产者，包装一个{@code dataSupplier}，在当前批数据写入的同时使用{@code Executor}
+ * 预先拉取后续{@code depth}批数据，最多只会预取{@code depth}批数据以限制内存占用。
+ *
+ * <p>后一批数据的入参由前一批数据计算而来：{@code offset}为已拉取数据的记录数，{@code T}为上一批数据中最后一个对象，
+ * 与同步调用{@code dataSupplier}的入参完全一致，所以同一时间最多只有一个{@code dataSupplier}在执行。
+ * 如果调用方传入的{@code offset}与预取的不一致则丢弃已预取的数据并从指定位置重新拉取。</p>
+ *
+ * <p>未指定{@code Executor}时内部创建一个守护线程，并在{@link #close}时关闭，外部指定的{@code Executor}由调用方管理</p>
+ *
+ * @param <T> 数据类型
+ * @author guanquan.wang at 2024-03-30 15:42
+ */
+public class PrefetchSupplier<T> implements BiFunction<Integer, T, List<T>>, AutoCloseable {
+    /**
+     * 原始数据生产者
+     */
+    private final BiFunction<Integer, T, List<T>> supplier;
+    /**
+     * 预取深度
+     */
+    private final int depth;
+    private final Executor executor;
+    /**
+     * 内部创建的线程池，关闭时一并关闭
+     */
+    private final ExecutorService ownExecutor;
+    /**
+     * 已提交的预取任务，按拉取顺序排列
+     */
+    private final Deque<CompletableFuture<Page<T>>> pending = new ArrayDeque<>();
+    private volatile boolean closed;
+
+    /**
+     * 创建预取数据生产者，使用内部守护线程拉取数据
+     *
+     * @param supplier 原始数据生产者
+     * @param depth    预取深度，最多预取{@code depth}批数据
+     */
+    public PrefetchSupplier(BiFunction<Integer, T, List<T>> supplier, int depth) {
+        this(supplier, depth, null);
+    }
+
+    /**
+     * 创建预取数据生产者
+     *
+     * @param supplier 原始数据生产者
+     * @param depth    预取深度，最多预取{@code depth}批数据
+     * @param executor 拉取数据的线程池，为{@code null}时使用内部守护线程
+     */
+    public PrefetchSupplier(BiFunction<Integer, T, List<T>> supplier, int depth, Executor executor) {
+        if (supplier == null) throw new IllegalArgumentException("The data supplier must not be null");
+        if (depth < 1) throw new IllegalArgumentException("The prefetch depth must be greater than 0");
+        this.supplier = supplier;
+        this.depth = depth;
+        if (executor != null) {
+            this.executor = executor;
+            this.ownExecutor = null;
+        } else {
+            this.executor = this.ownExecutor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "eec-prefetch");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * 获取下一批数据，如果已预取则直接返回预取结果，否则等待拉取完成，返回前提交后续批次的预取任务
+     *
+     * @param offset 已拉取数据的记录数
+     * @param last   上一批数据中最后一个对象
+     * @return 数据，{@code null}和空数组表示结束
+     */
+    @Override
+    public List<T> apply(Integer offset, T last) {
+        if (closed) return null;
+        CompletableFuture<Page<T>> head = pending.poll();
+        Page<T> page = head != null ? join(head) : null;
+        // Cursor mismatch, discard the prefetched pages
+        if (page == null || page.offset != offset) {
+            cancel();
+            page = join(CompletableFuture.supplyAsync(() -> fetch(offset, last), executor));
+        }
+        // Prefetch the next pages
+        if (page.list != null && !page.list.isEmpty()) fill(page);
+        return page.list;
+    }
+
+    /**
+     * 提交预取任务，保持{@code depth}批预取数据，后一批数据在前一批完成后才开始拉取
+     */
+    private void fill(Page<T> current) {
+        CompletableFuture<Page<T>> tail = pending.peekLast();
+        if (tail == null) {
+            int offset = current.nextOffset();
+            T last = current.last();
+            tail = CompletableFuture.supplyAsync(() -> fetch(offset, last), executor);
+            pending.add(tail);
+        }
+        while (pending.size() < depth) {
+            tail = tail.thenApplyAsync(p -> p.list != null && !p.list.isEmpty() ? fetch(p.nextOffset(), p.last()) : p, executor);
+            pending.add(tail);
+        }
+    }
+
+    private Page<T> fetch(int offset, T last) {
+        return new Page<>(offset, closed ? null : supplier.apply(offset, last));
+    }
+
+    private static <T> Page<T> join(CompletableFuture<Page<T>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    private void cancel() {
+        for (CompletableFuture<Page<T>> future; (future = pending.poll()) != null; ) future.cancel(false);
+    }
+
+    /**
+     * 取消所有预取任务，关闭内部创建的线程
+     */
+    @Override
+    public void close() {
+        closed = true;
+        cancel();
+        if (ownExecutor != null) ownExecutor.shutdown();
+    }
+
+    /**
+     * 一批数据以及拉取这批数据时的{@code offset}
+     */
+    private static class Page<T> {
+        private final int offset;
+        private final List<T> list;
+
+        Page(int offset, List<T> list) {
+            this.offset = offset;
+            this.list = list;
+        }
+
+        int nextOffset() {
+            return offset + list.size();
+        }
+
+        T last() {
+            return list.get(list.size() - 1);
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.ttzero.excel.entity;
 
+import org.ttzero.excel.entity.e7.XMLCellValueAndStyle;
 import org.ttzero.excel.manager.Const;
 import org.ttzero.excel.processor.StyleProcessor;
 import org.ttzero.excel.reader.Cell;
@@ -45,6 +46,12 @@ import static java.sql.Types.TIME;
 import static java.sql.Types.TIMESTAMP;
 import static java.sql.Types.TINYINT;
 import static java.sql.Types.VARCHAR;
+import static org.ttzero.excel.entity.IWorksheetWriter.isChar;
+import static org.ttzero.excel.entity.IWorksheetWriter.isDouble;
+import static org.ttzero.excel.entity.IWorksheetWriter.isFloat;
+import static org.ttzero.excel.entity.IWorksheetWriter.isInt;
+import static org.ttzero.excel.entity.IWorksheetWriter.isLong;
+import static org.ttzero.excel.entity.IWorksheetWriter.isString;
 
 /**
  * {@code ResultSetSheet}的数据源为{@link ResultSet}一般情况下它用于存储过程，
@@ -241,8 +248,11 @@ public class ResultSetSheet extends Sheet {
     protected void resetBlockData() {
         int len = columns.length, n = 0, limit = getRowLimit();
         boolean hasGlobalStyleProcessor = (extPropMark & 2) == 2;
+        // 简单类型直接从ResultSet取值写入单元格
+        boolean typedValueSupported = cellValueAndStyle instanceof XMLCellValueAndStyle
+            && ((XMLCellValueAndStyle) cellValueAndStyle).isTypedValueSupported();
         try {
-            for (int rbs = rowBlock.capacity(); n++ < rbs && rows < limit && rs.next(); rows++) {
+            for (int rbs = rowBlock.capacity(); n++ < rbs && rows < limit && nextRow(); rows++) {
                 Row row = rowBlock.next();
                 row.index = rows;
                 row.height = getRowHeight();
@@ -254,6 +264,16 @@ public class ResultSetSheet extends Sheet {
                     Cell cell = cells[i - 1];
                     cell.clear();
 
+                    if (typedValueSupported && hc.extractor != null && hc.ri > 0
+                        && hc.getConversion() == null && hc.styleProcessor == null) {
+                        if (!hc.extractor.extract(rs, hc.ri, cell)) cellValueAndStyle.setNullValue(row, cell, hc);
+                        cell.xf = cellValueAndStyle.getStyleIndex(row, hc, null);
+                        if (hasGlobalStyleProcessor) {
+                            cellValueAndStyle.setStyleDesign(rs, cell, hc, getStyleProcessor());
+                        }
+                        continue;
+                    }
+
                     Object e;
                     if (hc.ri > 0) {
                         switch (hc.sqlType) {
@@ -296,6 +316,16 @@ public class ResultSetSheet extends Sheet {
         } else shouldClose = true;
     }
 
+    /**
+     * 移动到下一行数据，子类可覆写此方法切换数据源{@code ResultSet}
+     *
+     * @return 有下一行时返回{@code true}
+     * @throws SQLException if a database access error occurs
+     */
+    protected boolean nextRow() throws SQLException {
+        return rs.next();
+    }
+
     /**
      * 获取表头，未指定表头时从{@link ResultSetMetaData}源数据中获取，
      * 优先使用别名做为表头，列顺序与query字段一致
@@ -337,6 +367,7 @@ public class ResultSetSheet extends Sheet {
                         LOGGER.warn("The specified type {} is different from metadata column type {}", column.clazz, metaClazz);
 //                        column.clazz = metaClazz;
                     }
+                    column.extractor = extractorOf(column);
                 }
                 columns = newColumns;
             } else {
@@ -345,6 +376,7 @@ public class ResultSetSheet extends Sheet {
                     SQLColumn column = new SQLColumn(metaData.getColumnLabel(i), metaData.getColumnType(i)
                         , columnTypeToClass(metaData.getColumnType(i)));
                     column.ri = StringUtil.isNotEmpty(column.key) ? findByKey(metaData, column.key) : i;
+                    column.extractor = extractorOf(column);
                     columns[i - 1] = column;
                 }
             }
@@ -404,6 +436,67 @@ public class ResultSetSheet extends Sheet {
         return clazz;
     }
 
+    /**
+     * 根据SQL类型和列数据类型获取取值器，只有整数、长整数、浮点数和字符串有取值器，
+     * 列数据类型与SQL类型不匹配或者非普通列（媒体、超链接）时返回{@code null}，这些列依然按对象取值
+     *
+     * @param column 列
+     * @return 取值器{@link SQLValueExtractor}，不支持时返回{@code null}
+     */
+    protected SQLValueExtractor extractorOf(SQLColumn column) {
+        Class<?> clazz = column.clazz;
+        if (clazz == null || column.getColumnType() != 0) return null;
+        switch (column.sqlType) {
+            case INTEGER:
+            case TINYINT:
+            case SMALLINT:    return isInt(clazz) && !isChar(clazz) ? SQLValueExtractor.INT : null;
+            case BIGINT:      return isLong(clazz) ? SQLValueExtractor.LONG : null;
+            case REAL:
+            case FLOAT:
+            case DOUBLE:      return isFloat(clazz) || isDouble(clazz) ? SQLValueExtractor.DOUBLE : null;
+            case VARCHAR:
+            case LONGVARCHAR: return isString(clazz) ? SQLValueExtractor.STRING : null;
+            default:          return null;
+        }
+    }
+
+    /**
+     * SQL简单类型取值器，按列预先解析，直接从{@code ResultSet}中取基本类型写入单元格，避免装箱和逐个判断数据类型。
+     * 数值类型与{@link ResultSet#getInt}等方法保持一致，SQL {@code NULL}写入{@code 0}
+     */
+    @FunctionalInterface
+    public interface SQLValueExtractor {
+        /**
+         * 从{@code ResultSet}中取值并写入单元格
+         *
+         * @param rs   数据源
+         * @param ri   ResultSet下标
+         * @param cell 单元格
+         * @return 值为{@code null}时返回{@code false}，此时单元格未被修改
+         * @throws SQLException if a database access error occurs
+         */
+        boolean extract(ResultSet rs, int ri, Cell cell) throws SQLException;
+
+        SQLValueExtractor INT = (rs, ri, cell) -> {
+            cell.setInt(rs.getInt(ri));
+            return true;
+        };
+        SQLValueExtractor LONG = (rs, ri, cell) -> {
+            cell.setLong(rs.getLong(ri));
+            return true;
+        };
+        SQLValueExtractor DOUBLE = (rs, ri, cell) -> {
+            cell.setDouble(rs.getDouble(ri));
+            return true;
+        };
+        SQLValueExtractor STRING = (rs, ri, cell) -> {
+            String v = rs.getString(ri);
+            if (v == null) return false;
+            cell.setString(v);
+            return true;
+        };
+    }
+
     /**
      * {@code ResultSetSheet}独有的列对象，除了{@link Column}包含的信息外，它还保存当列对应的SQL类型和
      * {@code ResultSet}下标，有了下标后续列取值可直接根据{@code ri}直接取值
@@ -417,6 +510,10 @@ public class ResultSetSheet extends Sheet {
          * ResultSet下标
          */
         public int ri;
+        /**
+         * 简单类型取值器，为{@code null}时按对象取值
+         */
+        public SQLValueExtractor extractor;
 
         public SQLColumn(String name, int sqlType, Class<?> clazz) {
             super(name, clazz);
@@ -429,6 +526,7 @@ public class ResultSetSheet extends Sheet {
                 SQLColumn o = (SQLColumn) other;
                 this.sqlType = o.sqlType;
                 this.ri = o.ri;
+                this.extractor = o.extractor;
             }
             if (other.next != null) {
                 addSubColumn(new SQLColumn(other.next));
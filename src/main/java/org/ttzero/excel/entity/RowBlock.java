@@ -89,6 +89,18 @@ public class RowBlock implements Iterator<Row> {
         return this;
     }
 
+    /**
+     * 重新打开行块并接续装填总数，流水线模式下多个行块轮流装填时使用
+     *
+     * @param total 此前已装填的数据个数
+     * @return 当前行块
+     */
+    final RowBlock reopen(int total) {
+        eof = false;
+        this.total = total;
+        return this;
+    }
+
     /**
      * 游标复原
      *
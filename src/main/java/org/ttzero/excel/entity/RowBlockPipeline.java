@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 行块流水线，由独立的生产线程调用{@link Sheet#nextBlock()}装填行块，输出协议在当前线程序列化上一个行块，
+ * 使取数（反射、类型转换、JDBC {@code rs.next()}等）与XML序列化和磁盘写入同时进行。
+ *
+ * <p>流水线由固定数量的行块组成一个环，生产线程只能装填空闲的行块，输出协议每次获取下一个行块时归还上一个行块，
+ * 所以内存占用是有界的。第一个行块在当前线程装填，生产线程在第二次获取行块时才启动，
+ * 以保证输出表头前的工作表状态与顺序模式一致。</p>
+ *
+ * <p>生产任务默认由一个独立的守护线程执行，也可以指定线程池执行，指定的线程池由调用方管理。
+ * 关闭流水线时中断生产任务并最多等待{@link #CLOSE_TIMEOUT_MILLIS}毫秒，
+ * 阻塞在不响应中断的I/O（如JDBC查询）上的生产任务超时后仅输出警告日志，不会无限期阻塞关闭</p>
+ *
+ * <p>线程约束：启动生产任务后只有生产线程调用{@link Sheet#resetBlockData()}，列上的装填缓存
+ * （{@link Column#styleIndexOf(int)}的样式映射缓存和{@link Column#getCellValueWriter()}解析的值写入器）
+ * 只由装填行块的线程读写，第一个行块在当前线程装填，启动生产任务之前的修改对生产线程可见。
+ * 输出协议不修改列的属性，自适应共享字符串的采样结果保存在输出协议中，数据全部写完后才回写到列。
+ * 行块通过阻塞队列在两个线程间交接，保证行块内容的可见性</p>
+ *
+ * <p>注意：开启流水线后{@link Sheet#resetBlockData()}将在生产线程中执行，自定义工作表和样式处理器不能依赖当前线程的上下文，
+ * 也不能在装填时修改输出协议会读取的列属性</p>
+ *
+ * @author guanquan.wang at 2024-03-21 15:12
+ */
+public class RowBlockPipeline implements Supplier<RowBlock>, Closeable {
+    /**
+     * 默认环大小，一个正在序列化，一个已装填待序列化，一个正在装填
+     */
+    public static final int DEFAULT_RING_SIZE = 3;
+    /**
+     * 关闭流水线时等待生产任务结束的最长时间（毫秒）
+     */
+    public static final long CLOSE_TIMEOUT_MILLIS = 10_000L;
+    /**
+     * 生产线程异常结束标记
+     */
+    private static final RowBlock END = new RowBlock(1);
+    private static final Logger LOGGER = LoggerFactory.getLogger(RowBlockPipeline.class);
+    private final Sheet sheet;
+    private final BlockingQueue<RowBlock> free, filled;
+    private final int ringSize;
+    private final Executor executor;
+    /**
+     * 生产任务结束标记
+     */
+    private final CountDownLatch done = new CountDownLatch(1);
+    private RowBlock current;
+    /**
+     * 正在执行生产任务的线程，读写均在当前对象锁内，以免中断到线程池中的其它任务
+     */
+    private Thread producer;
+    private boolean started;
+    private volatile boolean closed;
+    private long closeTimeoutMillis = CLOSE_TIMEOUT_MILLIS;
+    private volatile Throwable error;
+    private int total;
+    private boolean eof;
+
+    public RowBlockPipeline(Sheet sheet) {
+        this(sheet, DEFAULT_RING_SIZE);
+    }
+
+    public RowBlockPipeline(Sheet sheet, int ringSize) {
+        this(sheet, ringSize, null);
+    }
+
+    /**
+     * 使用指定的线程池执行生产任务
+     *
+     * @param sheet 工作表
+     * @param ringSize 环大小
+     * @param executor 线程池，{@code null}表示启动一个独立的守护线程
+     */
+    public RowBlockPipeline(Sheet sheet, int ringSize, Executor executor) {
+        this(sheet, ringSize, 0, executor);
+    }
+
+    /**
+     * 从指定的装填总数开始装填，用于接续此前已装填的行块
+     *
+     * @param sheet 工作表
+     * @param ringSize 环大小
+     * @param total 此前已装填的数据个数
+     * @param executor 线程池，{@code null}表示启动一个独立的守护线程
+     */
+    RowBlockPipeline(Sheet sheet, int ringSize, int total, Executor executor) {
+        if (ringSize < 2) throw new IllegalArgumentException("The ring size must be greater than 1");
+        this.sheet = sheet;
+        this.ringSize = ringSize;
+        this.free = new ArrayBlockingQueue<>(ringSize);
+        this.filled = new ArrayBlockingQueue<>(ringSize);
+        this.total = total;
+        this.executor = executor;
+    }
+
+    /**
+     * 设置关闭流水线时等待生产任务结束的最长时间
+     *
+     * @param closeTimeoutMillis 最长等待时间（毫秒）
+     * @return 当前流水线
+     */
+    RowBlockPipeline setCloseTimeout(long closeTimeoutMillis) {
+        this.closeTimeoutMillis = closeTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * 获取下一个已装填的行块，同时归还上一个行块
+     *
+     * @return 行块，数据结束后返回{@code null}
+     */
+    @Override
+    public RowBlock get() {
+        if (eof) return null;
+        // The first block is filled in the current thread
+        if (current == null) {
+            current = fill(sheet.rowBlock != null ? sheet.rowBlock : new RowBlock(sheet.getRowBlockSize()));
+            eof = current.isEOF();
+            return current;
+        }
+        if (!started) start();
+        else free.add(current);
+        try {
+            current = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExcelWriteException(e);
+        }
+        if (current == END) {
+            eof = true;
+            Throwable t = error;
+            if (t instanceof RuntimeException) throw (RuntimeException) t;
+            if (t instanceof Error) throw (Error) t;
+            throw new ExcelWriteException(t);
+        }
+        eof = current.isEOF();
+        return current;
+    }
+
+    /**
+     * 装填行块，必须保证行块的装填总数是连续的
+     *
+     * @param block 空闲行块
+     * @return 已装填的行块
+     */
+    private RowBlock fill(RowBlock block) {
+        sheet.rowBlock = block.reopen(total);
+        RowBlock rowBlock = sheet.nextBlock();
+        total = rowBlock.getTotal();
+        return rowBlock;
+    }
+
+    /**
+     * 启动生产任务，当前行块正在序列化，其余行块空闲
+     */
+    private void start() {
+        int capacity = current.capacity();
+        for (int i = 1; i < ringSize; i++) free.add(new RowBlock(capacity));
+        started = true;
+        if (executor != null) {
+            try {
+                executor.execute(this::produce);
+            } catch (RuntimeException e) {
+                done.countDown();
+                throw e;
+            }
+        } else {
+            Thread thread = new Thread(this::produce, "EEC-RowBlock-" + sheet.getName());
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * 循环装填空闲行块直到数据结束
+     */
+    private void produce() {
+        synchronized (this) {
+            if (closed) {
+                done.countDown();
+                return;
+            }
+            producer = Thread.currentThread();
+        }
+        try {
+            RowBlock rowBlock;
+            do {
+                rowBlock = fill(free.take());
+                filled.put(rowBlock);
+                // The interruption may be swallowed by the I/O of data source
+            } while (!rowBlock.isEOF() && !closed);
+        } catch (InterruptedException e) {
+            // Closed
+        } catch (Throwable t) {
+            error = t;
+            filled.offer(END);
+        } finally {
+            synchronized (this) {
+                producer = null;
+                // Do not leak the interruption to the next task of a pooled thread
+                Thread.interrupted();
+            }
+            done.countDown();
+        }
+    }
+
+    /**
+     * 停止生产任务，默认最多等待{@link #CLOSE_TIMEOUT_MILLIS}毫秒
+     */
+    @Override
+    public void close() {
+        if (!started) return;
+        synchronized (this) {
+            closed = true;
+            if (producer != null) producer.interrupt();
+        }
+        try {
+            if (!done.await(closeTimeoutMillis, TimeUnit.MILLISECONDS))
+                LOGGER.warn("The row-block producer of worksheet [{}] is still running after {} ms, it may be blocked in an uninterruptible I/O", sheet.getName(), closeTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
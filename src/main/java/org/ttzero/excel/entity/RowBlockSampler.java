@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 行块采样器，第一次获取行块时预先装填前{@code N}个行块，输出协议可以在写表头之前通过{@link #getSamples()}
+ * 获取这些行块计算自适应列宽，采样的行块依次输出后再继续从工作表装填后续行块。
+ *
+ * <p>采样的行块是相互独立的实例，所以采样期间内存中最多驻留{@code N}个行块，
+ * 开启流水线时采样结束后的行块交由{@link RowBlockPipeline}装填</p>
+ *
+ * @author guanquan.wang at 2024-03-25 10:36
+ */
+public class RowBlockSampler implements Supplier<RowBlock>, Closeable {
+    private final Sheet sheet;
+    private final int sampleBlocks;
+    private final boolean pipelined;
+    private List<RowBlock> samples;
+    private RowBlockPipeline pipeline;
+    private RowBlock last;
+    private int index, total;
+
+    public RowBlockSampler(Sheet sheet, int sampleBlocks) {
+        this(sheet, sampleBlocks, false);
+    }
+
+    public RowBlockSampler(Sheet sheet, int sampleBlocks, boolean pipelined) {
+        if (sampleBlocks < 1) throw new IllegalArgumentException("The sample blocks must be greater than 0");
+        this.sheet = sheet;
+        this.sampleBlocks = sampleBlocks;
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * 获取采样的行块，行块的游标不受影响，采样的行块全部输出后返回空集合
+     *
+     * @return 采样的行块
+     */
+    public List<RowBlock> getSamples() {
+        if (samples == null) sample();
+        return samples;
+    }
+
+    /**
+     * 获取下一个行块，优先输出采样的行块
+     *
+     * @return 行块，数据结束后返回{@code null}
+     */
+    @Override
+    public RowBlock get() {
+        if (samples == null) sample();
+        if (index < samples.size()) return last = samples.get(index++);
+        // Release the sampled blocks
+        if (!samples.isEmpty()) samples = Collections.emptyList();
+        if (last == null || last.isEOF()) return null;
+        if (pipelined) {
+            if (pipeline == null) {
+                Executor executor = sheet.getWorkbook() != null ? sheet.getWorkbook().getPipelineExecutor() : null;
+                pipeline = new RowBlockPipeline(sheet, RowBlockPipeline.DEFAULT_RING_SIZE, total, executor);
+            }
+            return last = pipeline.get();
+        }
+        return last = sheet.nextBlock();
+    }
+
+    /**
+     * 装填采样行块，最后一个采样行块留在工作表中继续装填后续数据
+     */
+    private void sample() {
+        samples = new ArrayList<>(Math.min(sampleBlocks, 16));
+        RowBlock block = sheet.rowBlock != null ? sheet.rowBlock : new RowBlock(sheet.getRowBlockSize());
+        int capacity = block.capacity();
+        for (; ; ) {
+            sheet.rowBlock = block.reopen(total);
+            RowBlock rowBlock = sheet.nextBlock();
+            total = rowBlock.getTotal();
+            samples.add(rowBlock);
+            if (rowBlock.isEOF() || samples.size() >= sampleBlocks) break;
+            block = new RowBlock(capacity);
+        }
+    }
+
+    /**
+     * 停止流水线
+     */
+    @Override
+    public void close() {
+        if (pipeline != null) pipeline.close();
+    }
+}
@@ -16,6 +16,8 @@
 
 package org.ttzero.excel.entity;
 
+import org.ttzero.excel.common.hash.HashFunction;
+import org.ttzero.excel.common.hash.Hashing;
 import org.ttzero.excel.util.FileUtil;
 
 import java.io.Closeable;
@@ -24,6 +26,7 @@ import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.InvalidMarkException;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -70,6 +73,45 @@ public class SharedStringTable implements Closeable, Iterable<String> {
      */
     protected int defaultBufferSize = 1 << 12;
 
+    /**
+     * Open-addressing hash index of all entries, it is created on the first
+     * search and then maintained by {@code push}. Each slot has two longs
+     * {@code [hash << 32 | index + 1, offset]}, the zero index marks an empty
+     * slot. The slots are kept in heap up to {@link #maxHeapSlots} and spilled
+     * to a temp file beyond that, so the lookup is a constant-time probe and
+     * verify at any table size.
+     */
+    private IndexSlots hashIndex;
+
+    /**
+     * The number of indexed entries
+     */
+    private long indexSize;
+
+    /**
+     * Read buffer to verify the candidate entries
+     */
+    private ByteBuffer probe;
+
+    /**
+     * Max slots of the heap index
+     */
+    private int maxHeapSlots = MAX_HEAP_SLOTS;
+
+    /**
+     * Initial slots of the hash index
+     */
+    private static final int INITIAL_INDEX_SLOTS = 1 << 12;
+
+    /**
+     * Max slots kept in heap, the heap index holds 1M entries and takes 32M
+     * heap memory (48M while growing), it is spilled to a temp file when
+     * there are more entries
+     */
+    private static final int MAX_HEAP_SLOTS = 1 << 21;
+
+    private static final HashFunction MURMUR3_32 = Hashing.murmur3_32();
+
     /**
      * Create a temp file to storage shared strings
      *
@@ -158,6 +200,7 @@ public class SharedStringTable implements Closeable, Iterable<String> {
             }
         }
 
+        if (hashIndex != null) addIndex(hashBytes(bytes, 0, bytes.length), count, position());
         buffer.putInt(bytes.length);
         buffer.put(bytes);
         return count++;
@@ -174,6 +217,7 @@ public class SharedStringTable implements Closeable, Iterable<String> {
         if (buffer.remaining() < 4) {
             flush();
         }
+        if (hashIndex != null) addIndex(hashChar(~c), count, position());
         buffer.putInt(~c);
         return count++;
     }
@@ -186,7 +230,8 @@ public class SharedStringTable implements Closeable, Iterable<String> {
      * @throws IOException if io error occur
      */
     public int find(char c) throws IOException {
-        return find(c, 0L);
+        ensureIndex();
+        return findIndexed(~c);
     }
 
     /**
@@ -236,7 +281,201 @@ public class SharedStringTable implements Closeable, Iterable<String> {
      * @throws IOException if io error occur
      */
     public int find(String key) throws IOException {
-        return find(key, 0L);
+        ensureIndex();
+        int len;
+        if (key == null || (len = key.length()) == 0) return findIndexed(~(char) 0xFFFF);
+        if (len == 1) return findIndexed(~key.charAt(0));
+        return findIndexed(key.getBytes(UTF_8));
+    }
+
+    /**
+     * Create the hash index and index the exists entries if not created
+     *
+     * @throws IOException if I/O error occur
+     */
+    private void ensureIndex() throws IOException {
+        if (hashIndex != null) return;
+        long slots = INITIAL_INDEX_SLOTS;
+        for (; count >= slots >> 1; slots <<= 1) ;
+        hashIndex = newIndex(slots);
+        indexSize = 0L;
+        probe = ByteBuffer.allocate(defaultBufferSize).order(ByteOrder.LITTLE_ENDIAN);
+        if (count > 0) indexExistsEntries();
+    }
+
+    /**
+     * Create the index slots, in heap if possible otherwise in a temp file
+     *
+     * @param slots the number of slots (power of 2)
+     * @return the empty index slots
+     * @throws IOException if I/O error occur
+     */
+    private IndexSlots newIndex(long slots) throws IOException {
+        return slots <= maxHeapSlots ? new HeapSlots((int) slots) : new FileSlots(slots);
+    }
+
+    /**
+     * Settings the max slots of the heap index, the index is spilled to a temp file
+     * when it grows beyond this size
+     *
+     * @param maxHeapSlots the max slots (power of 2)
+     */
+    void setMaxHeapSlots(int maxHeapSlots) {
+        this.maxHeapSlots = maxHeapSlots;
+    }
+
+    /**
+     * Scan the exists entries and add them into the hash index
+     *
+     * @throws IOException if I/O error occur
+     */
+    private void indexExistsEntries() throws IOException {
+        flush();
+        long end = channel.position(), offset = 4L;
+        channel.position(offset);
+        ByteBuffer rb = ByteBuffer.allocate(defaultBufferSize).order(ByteOrder.LITTLE_ENDIAN);
+        rb.flip();
+        byte[] bytes = new byte[128];
+        for (int i = 0, n = count; i < n; i++) {
+            if (rb.remaining() < 4) {
+                rb.compact();
+                for (; rb.position() < 4; ) if (channel.read(rb) < 0) throw new IOException("Unexpected end of the table");
+                rb.flip();
+            }
+            int a = rb.getInt();
+            if (a < 0) {
+                addIndex(hashChar(a), i, offset);
+                offset += 4;
+                continue;
+            }
+            if (a > bytes.length) bytes = new byte[a];
+            int k = Math.min(rb.remaining(), a);
+            rb.get(bytes, 0, k);
+            if (k < a) {
+                ByteBuffer rest = ByteBuffer.wrap(bytes, k, a - k);
+                for (; rest.hasRemaining(); ) if (channel.read(rest) < 0) throw new IOException("Unexpected end of the table");
+            }
+            addIndex(hashBytes(bytes, 0, a), i, offset);
+            offset += 4 + a;
+        }
+        channel.position(end);
+    }
+
+    /**
+     * Add an entry into the hash index, double the slots if the load factor reaches 0.5
+     *
+     * @param hash the entry hash
+     * @param index the entry index
+     * @param offset the entry offset in the table file
+     * @throws IOException if I/O error occur
+     */
+    private void addIndex(int hash, int index, long offset) throws IOException {
+        if (indexSize >= hashIndex.slots() >> 1) growIndex();
+        putSlot(hashIndex, hash, index, offset);
+        indexSize++;
+    }
+
+    private static void putSlot(IndexSlots table, int hash, int index, long offset) throws IOException {
+        long mask = table.slots() - 1, i = hash & 0xFFFFFFFFL & mask;
+        for (; table.key(i) != 0L; i = (i + 1) & mask) ;
+        table.put(i, (long) hash << 32 | (index + 1) & 0xFFFFFFFFL, offset);
+    }
+
+    /**
+     * Double the slots of the hash index, it moves to a temp file when
+     * the slots exceed the {@link #maxHeapSlots}
+     *
+     * @throws IOException if I/O error occur
+     */
+    private void growIndex() throws IOException {
+        IndexSlots old = hashIndex, table = newIndex(old.slots() << 1);
+        try {
+            for (long i = 0L, n = old.slots(); i < n; i++) {
+                long v = old.key(i);
+                if (v != 0L) putSlot(table, (int) (v >>> 32), (int) v - 1, old.offset(i));
+            }
+        } catch (IOException | RuntimeException e) {
+            table.close();
+            throw e;
+        }
+        hashIndex = table;
+        old.close();
+    }
+
+    /**
+     * Find the character entry by the hash index
+     *
+     * @param v the stored value of character ({@code ~c})
+     * @return the min index of the entry, -1 if not found
+     * @throws IOException if I/O error occur
+     */
+    private int findIndexed(int v) throws IOException {
+        int hash = hashChar(v), found = -1;
+        long mask = hashIndex.slots() - 1;
+        for (long i = hash & 0xFFFFFFFFL & mask, k; (k = hashIndex.key(i)) != 0L; i = (i + 1) & mask) {
+            int index = (int) k - 1;
+            if ((int) (k >>> 32) != hash || found >= 0 && index > found) continue;
+            if (readEntry(hashIndex.offset(i), 4) && probe.getInt(0) == v) found = index;
+        }
+        return found;
+    }
+
+    /**
+     * Find the string entry by the hash index
+     *
+     * @param bytes the UTF-8 bytes of string
+     * @return the min index of the entry, -1 if not found
+     * @throws IOException if I/O error occur
+     */
+    private int findIndexed(byte[] bytes) throws IOException {
+        int hash = hashBytes(bytes, 0, bytes.length), found = -1;
+        long mask = hashIndex.slots() - 1;
+        for (long i = hash & 0xFFFFFFFFL & mask, k; (k = hashIndex.key(i)) != 0L; i = (i + 1) & mask) {
+            int index = (int) k - 1;
+            if ((int) (k >>> 32) != hash || found >= 0 && index > found) continue;
+            if (readEntry(hashIndex.offset(i), bytes.length + 4) && probe.getInt(0) == bytes.length) {
+                int j = 0;
+                for (; j < bytes.length && probe.get(j + 4) == bytes[j]; j++) ;
+                if (j == bytes.length) found = index;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Read the entry into the probe buffer, the entry may be still in the write buffer
+     *
+     * @param offset the entry offset in the table file
+     * @param len the bytes to read
+     * @return false if there has no enough bytes
+     * @throws IOException if I/O error occur
+     */
+    private boolean readEntry(long offset, int len) throws IOException {
+        if (probe.capacity() < len) probe = ByteBuffer.allocate(tableSizeFor(len)).order(ByteOrder.LITTLE_ENDIAN);
+        probe.clear().limit(len);
+        long end = channel.position();
+        // In the write buffer
+        if (offset >= end) {
+            int p = (int) (offset - end);
+            if (p + len > buffer.position()) return false;
+            for (int i = 0; i < len; i++) probe.put(i, buffer.get(p + i));
+            return true;
+        }
+        channel.position(offset);
+        try {
+            for (; probe.hasRemaining(); ) if (channel.read(probe) < 0) break;
+        } finally {
+            channel.position(end);
+        }
+        return !probe.hasRemaining();
+    }
+
+    static int hashChar(int v) {
+        return MURMUR3_32.newHasher().putBytes(new byte[] { (byte) v, (byte) (v >>> 8), (byte) (v >>> 16), (byte) (v >>> 24) }).hash().asInt();
+    }
+
+    static int hashBytes(byte[] bytes, int off, int len) {
+        return MURMUR3_32.newHasher().putBytes(bytes, off, len).hash().asInt();
     }
 
     /**
@@ -440,6 +679,11 @@ public class SharedStringTable implements Closeable, Iterable<String> {
         commit();
         // Release
         buffer = null;
+        if (hashIndex != null) {
+            hashIndex.close();
+            hashIndex = null;
+        }
+        probe = null;
         if (channel != null) {
             channel.close();
         }
@@ -590,4 +834,169 @@ public class SharedStringTable implements Closeable, Iterable<String> {
         }
     }
 
+
+    /**
+     * The slots of the hash index
+     */
+    private static abstract class IndexSlots implements Closeable {
+        abstract long slots();
+
+        abstract long key(long i) throws IOException;
+
+        abstract long offset(long i) throws IOException;
+
+        abstract void put(long i, long key, long offset) throws IOException;
+
+        @Override
+        public void close() throws IOException { }
+    }
+
+    /**
+     * The slots in a heap long array
+     */
+    private static class HeapSlots extends IndexSlots {
+        private final long[] table;
+
+        private HeapSlots(int slots) {
+            table = new long[slots << 1];
+        }
+
+        @Override
+        long slots() {
+            return table.length >> 1;
+        }
+
+        @Override
+        long key(long i) {
+            return table[(int) i << 1];
+        }
+
+        @Override
+        long offset(long i) {
+            return table[((int) i << 1) + 1];
+        }
+
+        @Override
+        void put(long i, long key, long offset) {
+            int p = (int) i << 1;
+            table[p] = key;
+            table[p + 1] = offset;
+        }
+    }
+
+    /**
+     * The slots spilled to a temp file, they are read and written by 4K pages
+     * through a small LRU page cache. A probe chain is usually in one page and
+     * the rehash moves forward in two regions of the new table, so both of them
+     * touch only a few pages.
+     */
+    private static class FileSlots extends IndexSlots {
+        private static final int PAGE_SHIFT = 12, SLOT_SHIFT = 4, CACHE_PAGES = 8;
+        private final long slots;
+        private final Path path;
+        private final FileChannel channel;
+        private final Page[] pages = new Page[CACHE_PAGES];
+        private int cached;
+
+        private FileSlots(long slots) throws IOException {
+            this.slots = slots;
+            path = Files.createTempFile("+", ".idx");
+            try {
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                // A sparse file, the unwritten slots are read as zero
+                channel.write(ByteBuffer.allocate(1), (slots << SLOT_SHIFT) - 1);
+            } catch (IOException e) {
+                FileUtil.rm(path);
+                throw e;
+            }
+        }
+
+        @Override
+        long slots() {
+            return slots;
+        }
+
+        @Override
+        long key(long i) throws IOException {
+            return page(i).buf.getLong(position(i));
+        }
+
+        @Override
+        long offset(long i) throws IOException {
+            return page(i).buf.getLong(position(i) + 8);
+        }
+
+        @Override
+        void put(long i, long key, long offset) throws IOException {
+            Page page = page(i);
+            int p = position(i);
+            page.buf.putLong(p, key);
+            page.buf.putLong(p + 8, offset);
+            page.dirty = true;
+        }
+
+        private static int position(long i) {
+            return (int) (i << SLOT_SHIFT) & ((1 << PAGE_SHIFT) - 1);
+        }
+
+        /**
+         * Returns the cached page of the slot, the least recently used page
+         * is written back and reused if the cache is full
+         *
+         * @param i the slot
+         * @return the page contains the slot
+         * @throws IOException if I/O error occur
+         */
+        private Page page(long i) throws IOException {
+            long no = i >>> (PAGE_SHIFT - SLOT_SHIFT);
+            if (cached > 0 && pages[0].no == no) return pages[0];
+            int k = 1;
+            for (; k < cached && pages[k].no != no; k++) ;
+            if (k >= cached) {
+                if (cached < CACHE_PAGES) {
+                    pages[k = cached++] = new Page();
+                } else {
+                    k = cached - 1;
+                    pages[k].flush(channel);
+                }
+                pages[k].load(channel, no);
+            }
+            Page page = pages[k];
+            System.arraycopy(pages, 0, pages, 1, k);
+            return pages[0] = page;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                FileUtil.rm(path);
+            }
+        }
+
+        private static class Page {
+            private final ByteBuffer buf = ByteBuffer.allocate(1 << PAGE_SHIFT);
+            private long no;
+            private boolean dirty;
+
+            private void load(FileChannel channel, long no) throws IOException {
+                this.no = no;
+                dirty = false;
+                buf.clear();
+                long pos = no << PAGE_SHIFT;
+                for (; buf.hasRemaining(); ) if (channel.read(buf, pos + buf.position()) < 0) break;
+                // Unwritten tail
+                for (; buf.hasRemaining(); ) buf.put((byte) 0);
+            }
+
+            private void flush(FileChannel channel) throws IOException {
+                if (!dirty) return;
+                buf.clear();
+                long pos = no << PAGE_SHIFT;
+                for (; buf.hasRemaining(); ) channel.write(buf, pos + buf.position());
+                dirty = false;
+            }
+        }
+    }
 }
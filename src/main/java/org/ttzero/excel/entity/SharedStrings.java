@@ -16,8 +16,6 @@
 
 package org.ttzero.excel.entity;
 
-import org.ttzero.excel.common.hash.BloomFilter;
-import org.ttzero.excel.common.hash.Funnels;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.ttzero.excel.manager.TopNS;
@@ -50,10 +48,10 @@ import static org.ttzero.excel.util.FileUtil.exists;
  * it first determines whether it exists. If it exists, returns the index
  * in the Table (zero base), otherwise add it in to the last element of
  * Table and returns the current subscript.
- * Introduced Google BloomFilter to increase filtering speed, the
- * BloomFilter estimates the amount of data to be 1 million, and the false
- * positive rate is {@code 0.3%}. When the number exceeds {@code 2^17},
- * it will be converted to inline string.
+ * The table keeps a hash index of all unique entries, so the lookup is a
+ * constant-time probe and verify. The index is in heap for the first 1M
+ * entries and spilled to a temp file when the workbook contains more
+ * unique strings.
  * <p>
  * A hot zone is also designed internally to cache multiple occurrences,
  * the default size is {@code 512}, and the LRU elimination algorithm is used.
@@ -63,6 +61,9 @@ import static org.ttzero.excel.util.FileUtil.exists;
  * Characters are handled differently. ASCII characters use the built-in array
  * cache subscript. The over {@code 0x7F} characters will be converted to strings and
  * searched using strings.
+ * <p>
+ * The {@code get} methods are synchronized, so that the worksheets can be
+ * rendered concurrently.
  *
  * @author guanquan.wang on 2017/10/10.
  */
@@ -75,11 +76,6 @@ public class SharedStrings implements Storable, Closeable {
      */
     private int count;
 
-    /**
-     * Import google BloomFilter to check keyword not exists
-     */
-    private BloomFilter<String> filter;
-
     /**
      * Cache ASCII value
      */
@@ -98,14 +94,8 @@ public class SharedStrings implements Storable, Closeable {
      */
     private SharedStringTable sst;
 
-    private int j;
     // For debug
-    private int total_char_cache, total_sst_find, total_hot, filter_constructor = 1;
-
-    /**
-     * The number of expected insertions to the constructed bloom
-     */
-    private final long expectedInsertions = 1L << 17;
+    private int total_char_cache, total_sst_find, total_hot, total_sst_miss;
 
     /**
      * Create a temp file to storage all text cells
@@ -118,9 +108,6 @@ public class SharedStrings implements Storable, Closeable {
             ascii = new int[1 << 7];
             // -1 means the keyword not exists
             Arrays.fill(ascii, -1);
-            // Create a 2^17 expected insertions and 0.3% fpp bloom filter 2.84M
-            filter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, 0.0003);
-
             try {
                 temp = Files.createTempFile("~", "sst");
                 writer = new ExtBufferedWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8));
@@ -140,7 +127,7 @@ public class SharedStrings implements Storable, Closeable {
      * @return the index in ShareString
      * @throws IOException if I/O error occur
      */
-    public int get(char c) throws IOException {
+    public synchronized int get(char c) throws IOException {
         // An ASCII keyword
         if (c < 128) {
             int n = ascii[c];
@@ -166,46 +153,28 @@ public class SharedStrings implements Storable, Closeable {
      * -1 if cache full, please write as 'inlineStr'
      * @throws IOException if I/O error occur
      */
-    public int get(String key) throws IOException {
+    public synchronized int get(String key) throws IOException {
         count++;
-        // The keyword not exists
-        if (!filter.mightContain(key)) {
-            // Reset the filter
-            if (j >= expectedInsertions) {
-                resetBloomFilter();
-            }
-            // Add to bloom if not full
-            filter.put(key);
-            j++;
-            return add(key);
-        }
         // Check the keyword exists in cache
         Integer n = hot.get(key);
-        // TODO Create a B+ tree to store key and index
-        if (n == null) {
-            if (sst.size() <= expectedInsertions) {
-                // Find in temp file
-                n = sst.find(key);
-                total_sst_find++;
-                // Append to last and cache it
-                if (n < 0) {
-                    n = add(key);
-                }
-            } else {
-                // @Mark: Convert to inline string
-                n = add(key);
-            }
-            hot.put(key, n);
-        } else {
+        if (n != null) {
             total_hot++;
+            return n;
         }
+        // Find in the hash index of temp file
+        n = sst.find(key);
+        total_sst_find++;
+        // The keyword not exists
+        if (n < 0) {
+            total_sst_miss++;
+            return add(key);
+        }
+        // Cache the keyword which read twice and above
+        hot.put(key, n);
         return n;
     }
 
     private int add(String key) throws IOException {
-        // Convert to inline string when the cache full
-//        if (sst.size() > expectedInsertions) return -1;
-
         // Add to table
         int n = sst.push(key);
         // Ignore write into SST
@@ -291,26 +260,19 @@ public class SharedStrings implements Storable, Closeable {
     }
 
     /**
-     * Reset the bloom filter
+     * Report the lookup statistics to the metrics listener, the ASCII
+     * character cache is counted as the hot zone
+     *
+     * @param listener the metrics listener
      */
-    private void resetBloomFilter() {
-        filter_constructor++;
-//        expectedInsertions <<= 1;
-        filter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, 0.0003);
-//        for (String key : hot) {
-//            filter.put(key);
-//        }
-        for (Cache.Entry<String, Integer> e : hot) {
-            filter.put(e.getKey());
-        }
-        j = hot.size();
+    public synchronized void reportTo(WriteMetricsListener listener) {
+        listener.onSharedStrings(count, total_hot + total_char_cache, total_sst_miss, total_sst_find);
     }
 
     @Override
     public void close() throws IOException {
-        LOGGER.debug("Total: {}, Hot: {}, SST: {}, Char Cache: {}, Filter Constructor: {}"
-            , count, total_hot, total_sst_find, total_char_cache, filter_constructor);
-        filter = null;
+        LOGGER.debug("Total: {}, Hot: {}, SST: {}, Char Cache: {}"
+            , count, total_hot, total_sst_find, total_char_cache);
         if (hot != null) {
             hot.clear();
             hot = null;
@@ -34,6 +34,7 @@ import org.ttzero.excel.manager.RelManager;
 import org.ttzero.excel.reader.Cell;
 import org.ttzero.excel.reader.Dimension;
 import org.ttzero.excel.util.FileUtil;
+import org.ttzero.excel.util.UTF8BufferedWriter;
 
 import java.awt.Color;
 import java.io.ByteArrayInputStream;
@@ -134,6 +135,18 @@ public abstract class Sheet implements Cloneable, Storable {
      * 自适应列宽标记，优先级从小到大为 0: 未设置 1: 自适应列宽 2: 固定宽度
      */
     protected int autoSize;
+    /**
+     * 自适应列宽采样行块数，大于0时根据前N个行块计算列宽并在输出数据前写入列宽
+     */
+    protected int autoSizeSampleBlocks;
+    /**
+     * 自适应共享字符串的采样数，大于0时字符串列根据前N个值的唯一值占比决定使用共享字符串还是内嵌字符串
+     */
+    protected int adaptiveShareSamples;
+    /**
+     * 自适应共享字符串的唯一值占比阈值，采样的唯一值占比小于等于此值时使用共享字符串
+     */
+    protected double adaptiveShareRatio = 0.5D;
     /**
      * 默认列宽
      */
@@ -445,6 +458,79 @@ public abstract class Sheet implements Cloneable, Storable {
         return this;
     }
 
+    /**
+     * 设置自适应列宽的采样行块数，默认为{@code 0}即扫描全部数据，待数据全部写完后再回写表头的列宽，
+     * 这种方式需要先将工作表写入可随机读写的临时文件。
+     *
+     * <p>设置采样行块数后将预先装填前{@code N}个行块并根据这些行块计算列宽，列宽在{@code <sheetData>}之前一次性写入，
+     * 无需回写表头所以自适应列宽的工作表也可以直接写入输出流，代价是采样之后的数据不参与列宽计算，
+     * 同时采样的行块会驻留内存直到被写出</p>
+     *
+     * @param blocks 采样行块数，小于等于0时扫描全部数据
+     * @return 当前工作表
+     */
+    public Sheet setAutoSizeSampleBlocks(int blocks) {
+        this.autoSizeSampleBlocks = Math.max(blocks, 0);
+        return this;
+    }
+
+    /**
+     * 获取自适应列宽的采样行块数
+     *
+     * @return 采样行块数，{@code 0}表示扫描全部数据
+     */
+    public int getAutoSizeSampleBlocks() {
+        return autoSizeSampleBlocks;
+    }
+
+    /**
+     * 设置自适应共享字符串的采样数，默认为{@code 0}即由列的{@link org.ttzero.excel.entity.Column#isShare()}静态决定。
+     *
+     * <p>开启后输出协议为每个字符串列维护一个HyperLogLog基数估算器，统计前{@code N}个非空值的唯一值占比，
+     * 占比小于等于{@link #setAdaptiveShareRatio(double)}时该列切换为共享字符串，否则切换为内嵌字符串({@code inlineStr})，
+     * 采样期间的值依然按列的原始设置输出。采样结果可以通过{@link org.ttzero.excel.entity.Column#isShare()}和
+     * {@link org.ttzero.excel.entity.Column#getDistinctRatio()}查看，便于调整静态设置</p>
+     *
+     * @param samples 每列采样的值个数，小于等于0时关闭自适应
+     * @return 当前工作表
+     */
+    public Sheet setAdaptiveShareSamples(int samples) {
+        this.adaptiveShareSamples = Math.max(samples, 0);
+        return this;
+    }
+
+    /**
+     * 获取自适应共享字符串的采样数
+     *
+     * @return 采样数，{@code 0}表示未开启自适应
+     */
+    public int getAdaptiveShareSamples() {
+        return adaptiveShareSamples;
+    }
+
+    /**
+     * 设置自适应共享字符串的唯一值占比阈值，默认{@code 0.5}
+     *
+     * @param ratio 唯一值占比阈值，范围{@code [0, 1]}
+     * @return 当前工作表
+     */
+    public Sheet setAdaptiveShareRatio(double ratio) {
+        if (ratio < 0D || ratio > 1D) {
+            throw new ExcelWriteException("The distinct ratio must be between 0 and 1.");
+        }
+        this.adaptiveShareRatio = ratio;
+        return this;
+    }
+
+    /**
+     * 获取自适应共享字符串的唯一值占比阈值
+     *
+     * @return 唯一值占比阈值
+     */
+    public double getAdaptiveShareRatio() {
+        return adaptiveShareRatio;
+    }
+
     /**
      * 设置斑马线填充样式，为了不影响正常阅读建议使用浅色，默认无斑马线
      *
@@ -1195,7 +1281,7 @@ public abstract class Sheet implements Cloneable, Storable {
     public void afterSheetAccess(Path workSheetPath) throws IOException {
         // relationship
         if (sheetWriter instanceof XMLWorksheetWriter) {
-            relManager.write(workSheetPath, getFileName());
+            workbook.writeRelationships(relManager, workSheetPath, getFileName());
         }
 
         // others ...
@@ -1355,10 +1441,25 @@ public abstract class Sheet implements Cloneable, Storable {
     }
 
     private static final char[][] cache = new char[200][];
+    /**
+     * ASCII编码的列标识缓存，与{@link #cache}的范围相同并在类加载时填充，多线程写工作表时只读
+     */
+    private static final byte[][] bytesCache = new byte[cache.length][];
+
+    /**
+     * 列下标转为ASCII编码的Excel列标识，结果与{@link #int2Col(int)}一致，输出协议可直接写入字节流
+     *
+     * @param n 列下标
+     * @return ASCII编码的Excel列标识
+     */
+    public static byte[] int2ColBytes(int n) {
+        return n >= 0 && n < bytesCache.length ? bytesCache[n] : UTF8BufferedWriter.ascii(int2Col(n));
+    }
 
     static {
         for (int i = 0; i < 200; i++) {
             cache[i] = calcColChar(i);
+            bytesCache[i] = UTF8BufferedWriter.ascii(cache[i]);
         }
     }
 
@@ -59,6 +59,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.function.BiFunction;
 
 import static org.ttzero.excel.entity.style.Styles.INDEX_FONT;
@@ -207,6 +208,14 @@ public class TemplateSheet extends Sheet {
      * 填充数据缓存
      */
     protected Map<String, ValueWrapper> namespaceMapper = new HashMap<>();
+    /**
+     * 预取深度，大于0时异步预取数据生产者的后续数据
+     */
+    protected int prefetchDepth;
+    /**
+     * 预取数据使用的线程池，为{@code null}时使用内部守护线程
+     */
+    protected Executor prefetchExecutor;
     /**
      * 实例化模板工作表，默认以第一个工作表做为模板
      *
@@ -426,6 +435,46 @@ public class TemplateSheet extends Sheet {
         return this;
     }
 
+    /**
+     * 开启异步预取，填充当前批数据的同时预先拉取数据生产者的后续{@code depth}批数据，
+     * 仅对{@link #setData(String, BiFunction)}绑定的数据生产者有效
+     *
+     * @param depth 预取深度，最多预取{@code depth}批数据，0表示关闭预取
+     * @return 当前工作表
+     */
+    public TemplateSheet setPrefetch(int depth) {
+        return setPrefetch(depth, null);
+    }
+
+    /**
+     * 开启异步预取，填充当前批数据的同时预先拉取数据生产者的后续{@code depth}批数据，
+     * 仅对{@link #setData(String, BiFunction)}绑定的数据生产者有效
+     *
+     * @param depth    预取深度，最多预取{@code depth}批数据，0表示关闭预取
+     * @param executor 拉取数据的线程池，由调用方管理，为{@code null}时使用内部守护线程
+     * @return 当前工作表
+     */
+    public TemplateSheet setPrefetch(int depth, Executor executor) {
+        if (depth < 0) throw new ExcelWriteException("The prefetch depth must not be negative");
+        this.prefetchDepth = depth;
+        this.prefetchExecutor = executor;
+        // 包装已绑定的数据生产者
+        for (ValueWrapper vw : namespaceMapper.values()) vw.supplier = prefetch(vw.supplier);
+        return this;
+    }
+
+    /**
+     * 开启预取时将数据生产者包装为{@link PrefetchSupplier}
+     *
+     * @param supplier 数据生产者
+     * @return 包装后的数据生产者
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected BiFunction<Integer, Object, List<?>> prefetch(BiFunction<Integer, Object, List<?>> supplier) {
+        if (prefetchDepth <= 0 || supplier == null || supplier instanceof PrefetchSupplier) return supplier;
+        return (BiFunction) new PrefetchSupplier<>((BiFunction) supplier, prefetchDepth, prefetchExecutor);
+    }
+
     /**
      * 绑定一个{@code Supplier}到默认命名空间，适用于未知长度或数量最大的数组
      *
@@ -452,11 +501,11 @@ public class TemplateSheet extends Sheet {
             vw = new ValueWrapper();
             namespaceMapper.put(namespace, vw);
         }
-        vw.supplier = dataSupplier;
+        vw.supplier = prefetch(dataSupplier);
 
         // 加载第一批数据预处理数据类型
         if (dataSupplier != null) {
-            List list = dataSupplier.apply(0, null);
+            List list = vw.supplier.apply(0, null);
             Object oo = getFirstObject(list);
             if (oo != null) {
                 vw.size += list.size();
@@ -766,6 +815,9 @@ public class TemplateSheet extends Sheet {
     public void close() throws IOException {
         super.close();
         if (reader != null) reader.close();
+        for (ValueWrapper vw : namespaceMapper.values()) {
+            if (vw.supplier instanceof PrefetchSupplier) ((PrefetchSupplier<?>) (Object) vw.supplier).close();
+        }
     }
 
     /**
@@ -16,24 +16,38 @@
 
 package org.ttzero.excel.entity;
 
+import org.ttzero.excel.common.hash.HashCode;
 import org.ttzero.excel.entity.csv.CSVWorkbookWriter;
 import org.ttzero.excel.entity.e7.ContentType;
 import org.ttzero.excel.entity.e7.XMLWorkbookWriter;
 import org.ttzero.excel.entity.style.Fill;
 import org.ttzero.excel.entity.style.PatternType;
 import org.ttzero.excel.entity.style.Styles;
+import org.ttzero.excel.manager.RelManager;
 import org.ttzero.excel.manager.docProps.Core;
 import org.ttzero.excel.util.FileUtil;
 import org.ttzero.excel.util.StringUtil;
+import org.ttzero.excel.util.RemoteMediaDownloader;
+import org.ttzero.excel.util.ZipCompression;
+import org.ttzero.excel.util.ZipUtil;
 
 import java.awt.Color;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 
 import static org.ttzero.excel.util.FileUtil.exists;
@@ -109,6 +123,10 @@ public class Workbook implements Storable {
      * 全局自适应列宽标识
      */
     private boolean autoSize;
+    /**
+     * 流式输出标识
+     */
+    private boolean streaming;
     /**
      * 作者，未指定时将默认取当前系统登录名
      */
@@ -153,11 +171,59 @@ public class Workbook implements Storable {
     /**
      * 全局Drawing记数器
      */
-    private int drawingCounter;
+    private final AtomicInteger drawingCounter;
     /**
      * 全局多媒体记数器（当前仅支持图片）
      */
-    private int mediaCounter;
+    private final AtomicInteger mediaCounter;
+    /**
+     * 全局多媒体索引，key为图片内容的murmur3-128摘要，value为已保存的图片文件名，内容相同的图片只保存一份
+     */
+    private final Map<HashCode, String> mediaIndex;
+    /**
+     * 子工作薄预留的图片编号，预留编号在合并时无论图片是否重复都会占用一个最终编号，普通工作薄为{@code null}
+     */
+    private final BitSet reservedMedia;
+    /**
+     * 子工作薄登记的关联关系，key为相对于xl目录的部件路径，合并时按最终编号输出，普通工作薄为{@code null}
+     */
+    private final Map<String, RelManager> forkRelationships;
+    /**
+     * 子工作薄的第一个工作表在父工作薄中的下标，普通工作薄为{@code -1}
+     */
+    private final int forkIndex;
+    /**
+     * 并行写工作表的线程池，为{@code null}时按顺序逐个写工作表
+     */
+    private Executor parallelExecutor;
+    /**
+     * 压缩设置
+     */
+    private ZipCompression compression;
+    /**
+     * 远程图片下载器，为{@code null}时在写线程中逐个同步下载
+     */
+    private RemoteMediaDownloader remoteMediaDownloader;
+    /**
+     * 导出指标监听器
+     */
+    private WriteMetricsListener writeMetricsListener;
+    /**
+     * 流水线模式标识
+     */
+    private boolean pipelined;
+    /**
+     * 流水线生产线程池，为{@code null}时每个工作表启动一个独立的守护线程
+     */
+    private Executor pipelineExecutor;
+    /**
+     * 自适应列宽采样行块数
+     */
+    private int autoSizeSampleBlocks;
+    /**
+     * 紧凑输出模式标识
+     */
+    private boolean compact;
 
     /**
      * 创建一个未命名工作薄
@@ -166,7 +232,7 @@ public class Workbook implements Storable {
      * 查找名为'non-name-file'的配置，有且不为空时以该配置为文件名否则以'Non name'作为文件名</p>
      */
     public Workbook() {
-        this(null);
+        this(null, null);
     }
 
     /**
@@ -190,6 +256,47 @@ public class Workbook implements Storable {
         sheets = new Sheet[3]; // Create three worksheet
         i18N = new I18N();
         contentType = new ContentType();
+        drawingCounter = new AtomicInteger();
+        mediaCounter = new AtomicInteger();
+        mediaIndex = new ConcurrentHashMap<>();
+        reservedMedia = null;
+        forkRelationships = null;
+        forkIndex = -1;
+    }
+
+    /**
+     * 创建一个与{@code parent}共享共享字符串和样式的子工作薄，图片、Drawing计数器、图片索引和ContentType是子工作薄私有的，
+     * 渲染时分配的是子工作薄内的本地编号，合并时再按工作表顺序从父工作薄分配最终编号
+     *
+     * @param parent 父工作薄
+     * @param index  子工作薄的第一个工作表在父工作薄中的下标
+     */
+    private Workbook(Workbook parent, int index) {
+        this.name = parent.name;
+        this.creator = parent.creator;
+        this.sheets = new Sheet[3];
+        this.i18N = parent.i18N;
+        this.contentType = new ContentType();
+        this.drawingCounter = new AtomicInteger();
+        this.mediaCounter = new AtomicInteger();
+        this.mediaIndex = new ConcurrentHashMap<>();
+        this.reservedMedia = new BitSet();
+        this.forkRelationships = new LinkedHashMap<>();
+        this.forkIndex = index;
+        this.workbookWriter = parent.workbookWriter;
+        this.sst = parent.getSharedStrings();
+        this.styles = parent.getStyles();
+        this.waterMark = parent.waterMark;
+        this.autoSize = parent.autoSize;
+        this.zebraFill = parent.zebraFill;
+        this.forceExport = parent.forceExport;
+        this.progressConsumer = parent.progressConsumer;
+        this.remoteMediaDownloader = parent.remoteMediaDownloader;
+        this.writeMetricsListener = parent.writeMetricsListener;
+        this.pipelined = parent.pipelined;
+        this.pipelineExecutor = parent.pipelineExecutor;
+        this.autoSizeSampleBlocks = parent.autoSizeSampleBlocks;
+        this.compact = parent.compact;
     }
 
     /**
@@ -331,6 +438,223 @@ public class Workbook implements Storable {
         return autoSize;
     }
 
+    /**
+     * 设置流式输出，开启后工作表数据边生成边压缩直接写入目标流，不再先落盘为完整的临时文件再复制，
+     * 可以减少一次磁盘读写并降低首字节延迟。包含自适应列宽的工作表需要回写列宽所以依然会先写临时文件，
+     * 模板导出不支持流式输出
+     *
+     * @param streaming true: 流式输出，false：先写临时文件（默认）
+     * @return 当前工作薄
+     */
+    public Workbook setStreaming(boolean streaming) {
+        this.streaming = streaming;
+        return this;
+    }
+
+    /**
+     * 获取当前工作薄是否为流式输出
+     *
+     * @return true: 流式输出
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * 设置并行写工作表的线程池，设置后各工作表将在线程池中并发渲染，适用于包含多个相互独立且耗时的工作表，
+     * 比如多个查询不同表的{@link StatementSheet}。并行写时共享字符串和样式均为线程安全，
+     * 工作表分页也不受影响，图片和Drawing在合并时按工作表顺序重新编号，最终的{@code workbook.xml}和关联关系与顺序写完全一致。
+     *
+     * <p>注意：各工作表的数据源需要相互独立，多个工作表共用同一个非线程安全的数据源（如同一个{@code Connection}）时不要开启并行写，
+     * 线程池由调用方管理，导出完成后不会被关闭</p>
+     *
+     * @param parallelExecutor 线程池，{@code null}表示顺序写（默认）
+     * @return 当前工作薄
+     */
+    public Workbook setParallelExecutor(Executor parallelExecutor) {
+        this.parallelExecutor = parallelExecutor;
+        return this;
+    }
+
+    /**
+     * 获取并行写工作表的线程池
+     *
+     * @return 线程池，{@code null}表示顺序写
+     */
+    public Executor getParallelExecutor() {
+        return parallelExecutor;
+    }
+
+    /**
+     * 设置流水线模式，开启后每个工作表将由独立的生产线程装填下一个行块，输出协议同时序列化上一个行块，
+     * 使取数与XML序列化和磁盘写入同时进行，适用于取数较慢（如反射转换较多或JDBC查询）的场景，
+     * 详情参考{@link RowBlockPipeline}
+     *
+     * @param pipelined true: 开启流水线，false：取数与序列化交替进行（默认）
+     * @return 当前工作薄
+     */
+    public Workbook setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+        return this;
+    }
+
+    /**
+     * 设置流水线模式并指定装填行块的线程池，未指定线程池时每个工作表启动一个独立的守护线程，
+     * 指定的线程池由调用方管理，工作薄不会关闭它
+     *
+     * @param pipelined true: 开启流水线，false：取数与序列化交替进行（默认）
+     * @param executor 装填行块的线程池，{@code null}表示每个工作表启动一个独立的守护线程
+     * @return 当前工作薄
+     */
+    public Workbook setPipelined(boolean pipelined, Executor executor) {
+        this.pipelined = pipelined;
+        this.pipelineExecutor = executor;
+        return this;
+    }
+
+    /**
+     * 获取当前工作薄是否开启流水线模式
+     *
+     * @return true: 开启流水线
+     */
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    /**
+     * 获取流水线模式装填行块的线程池
+     *
+     * @return 线程池，{@code null}表示每个工作表启动一个独立的守护线程
+     */
+    public Executor getPipelineExecutor() {
+        return pipelineExecutor;
+    }
+
+    /**
+     * 设置全局自适应列宽的采样行块数，未单独设置采样行块数的工作表将使用此值，
+     * 详情参考{@link Sheet#setAutoSizeSampleBlocks(int)}
+     *
+     * @param blocks 采样行块数，小于等于0时扫描全部数据（默认）
+     * @return 当前工作薄
+     */
+    public Workbook setAutoSizeSampleBlocks(int blocks) {
+        this.autoSizeSampleBlocks = Math.max(blocks, 0);
+        return this;
+    }
+
+    /**
+     * 获取全局自适应列宽的采样行块数
+     *
+     * @return 采样行块数，{@code 0}表示扫描全部数据
+     */
+    public int getAutoSizeSampleBlocks() {
+        return autoSizeSampleBlocks;
+    }
+
+    /**
+     * 设置紧凑输出模式，开启后工作表将省略可推断的属性以减少XML体积，包括连续单元格的坐标{@code r="A1"}、
+     * 默认样式{@code s="0"}以及行的{@code spans}属性，Excel和本工具的读取器均可根据单元格的位置推断坐标
+     *
+     * @param compact true: 紧凑输出，false：输出全部属性（默认）
+     * @return 当前工作薄
+     */
+    public Workbook setCompact(boolean compact) {
+        this.compact = compact;
+        return this;
+    }
+
+    /**
+     * 获取当前工作薄是否开启紧凑输出模式
+     *
+     * @return true: 紧凑输出
+     */
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * 设置压缩参数，可以按条目类型（工作表、图片和其它）分别指定压缩级别或不压缩，
+     * 指定线程池后较大的工作表将被切分为多个数据块并发压缩，未设置时所有条目均使用{@link ZipUtil#MIDDLE_COMPRESSION}级别压缩
+     *
+     * @param compression 压缩参数{@link ZipCompression}
+     * @return 当前工作薄
+     */
+    public Workbook setCompression(ZipCompression compression) {
+        this.compression = compression;
+        return this;
+    }
+
+    /**
+     * 获取压缩参数
+     *
+     * @return 压缩参数，未设置时返回{@code null}
+     */
+    public ZipCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * 设置远程图片下载器，设置后导出远程图片时将并发下载并直接写入临时文件，
+     * 可以限制总并发数、单个域名的并发数以及超时时间，下载器由调用方关闭
+     *
+     * @param remoteMediaDownloader 远程图片下载器{@link RemoteMediaDownloader}
+     * @return 当前工作薄
+     */
+    public Workbook setRemoteMediaDownloader(RemoteMediaDownloader remoteMediaDownloader) {
+        this.remoteMediaDownloader = remoteMediaDownloader;
+        return this;
+    }
+
+    /**
+     * 获取远程图片下载器
+     *
+     * @return 远程图片下载器，未设置时返回{@code null}
+     */
+    public RemoteMediaDownloader getRemoteMediaDownloader() {
+        return remoteMediaDownloader;
+    }
+
+    /**
+     * 设置导出指标监听器，设置后将统计数据拉取、序列化、共享字符串、样式、图片和压缩等各阶段的耗时
+     * 以及各部件的字节数，未设置时不做任何统计
+     *
+     * @param writeMetricsListener 导出指标监听器{@link WriteMetricsListener}
+     * @return 当前工作薄
+     */
+    public Workbook setWriteMetricsListener(WriteMetricsListener writeMetricsListener) {
+        this.writeMetricsListener = writeMetricsListener;
+        return this;
+    }
+
+    /**
+     * 获取导出指标监听器
+     *
+     * @return 导出指标监听器，未设置时返回{@code null}
+     */
+    public WriteMetricsListener getWriteMetricsListener() {
+        return writeMetricsListener;
+    }
+
+    /**
+     * 创建一个与当前工作薄共享共享字符串和样式等全局资源的子工作薄，子工作薄拥有独立的工作表数组、图片编号和ContentType，
+     * 并行写时用于隔离各工作表的分页，外部用户勿用
+     *
+     * @param index 子工作薄的第一个工作表在当前工作薄中的下标
+     * @return 子工作薄
+     */
+    public Workbook fork(int index) {
+        return new Workbook(this, index);
+    }
+
+    /**
+     * 获取子工作薄的第一个工作表在父工作薄中的下标
+     *
+     * @return 子工作薄返回创建时指定的下标，普通工作薄返回{@code -1}
+     */
+    public int getForkIndex() {
+        return forkIndex;
+    }
+
     /**
      * 强制导出
      * 
@@ -684,6 +1008,18 @@ public class Workbook implements Storable {
         }
     }
 
+    /**
+     * 导出到{@link WritableByteChannel}，配合{@link #setStreaming(boolean)}使用时数据将边压缩边写入通道，
+     * 该方法不会关闭通道
+     *
+     * @param channel 输出通道
+     * @throws IOException         I/O操作异常
+     * @throws ExcelWriteException 其它运行时异常
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException, ExcelWriteException {
+        writeTo(Channels.newOutputStream(channel));
+    }
+
     /**
      * 指定输出路径，File可以是文件夹或者文件
      *
@@ -830,7 +1166,7 @@ public class Workbook implements Storable {
      * @return 图片记数器
      */
     public int incrementDrawingCounter() {
-        return ++drawingCounter;
+        return drawingCounter.incrementAndGet();
     }
 
     /**
@@ -839,7 +1175,7 @@ public class Workbook implements Storable {
      * @return 图片数量
      */
     public int getDrawingCounter() {
-        return drawingCounter;
+        return drawingCounter.get();
     }
 
     /**
@@ -848,7 +1184,97 @@ public class Workbook implements Storable {
      * @return 媒体记数器
      */
     public int incrementMediaCounter() {
-        return ++mediaCounter;
+        return mediaCounter.incrementAndGet();
+    }
+
+    /**
+     * 预留图片编号，用于分配编号时还不知道图片内容的场景（如远程图片和水印），
+     * 预留的编号不会因为图片内容重复而释放
+     *
+     * @return 图片编号
+     */
+    public int reserveMediaId() {
+        int id = mediaCounter.incrementAndGet();
+        if (reservedMedia != null) {
+            synchronized (reservedMedia) {
+                reservedMedia.set(id);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * 判断子工作薄的图片编号是否由{@link #reserveMediaId()}预留
+     *
+     * @param id 图片编号
+     * @return true: 预留编号
+     */
+    public boolean isReservedMedia(int id) {
+        if (reservedMedia == null) return false;
+        synchronized (reservedMedia) {
+            return reservedMedia.get(id);
+        }
+    }
+
+    /**
+     * 查找相同内容的已保存图片
+     *
+     * @param hash 图片内容的murmur3-128摘要
+     * @return 已保存的文件名，不存在时返回{@code null}
+     */
+    public String getMedia(HashCode hash) {
+        return mediaIndex.get(hash);
+    }
+
+    /**
+     * 获取已保存图片的索引
+     *
+     * @return 只读的图片索引，key为图片内容的murmur3-128摘要，value为已保存的图片文件名
+     */
+    public Map<HashCode, String> getMediaIndex() {
+        return Collections.unmodifiableMap(mediaIndex);
+    }
+
+    /**
+     * 登记图片内容摘要与文件名，如果已存在相同内容的图片则返回已保存的文件名，
+     * 调用方应直接引用该文件而不需要再次保存
+     *
+     * @param hash 图片内容的murmur3-128摘要
+     * @param name 图片文件名
+     * @return 相同内容的已保存文件名，不存在时返回{@code null}
+     */
+    public String putMediaIfAbsent(HashCode hash, String name) {
+        return mediaIndex.putIfAbsent(hash, name);
+    }
+
+    /**
+     * 输出部件的关联关系，子工作薄的工作表、图片和Drawing编号在合并前还不确定，
+     * 所以只登记在子工作薄中，由并行写合并时修改为最终编号后输出
+     *
+     * @param relManager 关联关系
+     * @param parent     部件所在目录
+     * @param name       部件文件名
+     * @throws IOException if I/O error occur
+     */
+    public void writeRelationships(RelManager relManager, Path parent, String name) throws IOException {
+        if (forkRelationships == null) relManager.write(parent, name);
+        else {
+            synchronized (forkRelationships) {
+                forkRelationships.put(parent.getFileName() + "/" + name, relManager);
+            }
+        }
+    }
+
+    /**
+     * 获取子工作薄登记的关联关系
+     *
+     * @return key为相对于xl目录的部件路径（如{@code drawings/drawing1.xml}），普通工作薄返回空集合
+     */
+    public Map<String, RelManager> getForkRelationships() {
+        if (forkRelationships == null) return Collections.emptyMap();
+        synchronized (forkRelationships) {
+            return new LinkedHashMap<>(forkRelationships);
+        }
     }
 
     /**
@@ -857,6 +1283,6 @@ public class Workbook implements Storable {
      * @return 含有多媒体的工作表个数
      */
     public int getMediaCounter() {
-        return mediaCounter;
+        return mediaCounter.get();
     }
 }
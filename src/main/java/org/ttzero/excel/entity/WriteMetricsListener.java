@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+/**
+ * 导出指标监听器，通过{@link Workbook#setWriteMetricsListener}设置后由工作薄输出协议在各阶段完成时回调，
+ * 用于将各阶段的耗时、共享字符串的命中情况以及各部件的字节数导出到外部监控系统，找出导出过程中的瓶颈。
+ *
+ * <p>所有耗时的单位均为纳秒，工作表的阶段耗时在该工作表写完后汇总回调一次而不是每个行块回调一次，
+ * 其中{@link Stage#SERIALIZE}包含嵌套在其中的共享字符串查找、样式索引和图片处理的耗时。
+ * 并行写工作表时回调可能来自多个线程，实现类需要自行保证线程安全</p>
+ *
+ * <pre>
+ * new Workbook().setWriteMetricsListener(new WriteMetricsListener() {
+ *     &#64;Override
+ *     public void onStage(Sheet sheet, Stage stage, long nanos) {
+ *         registry.timer("excel." + stage.name().toLowerCase()).record(nanos, TimeUnit.NANOSECONDS);
+ *     }
+ * })</pre>
+ *
+ * @author guanquan.wang at 2024-04-03 09:40
+ */
+public interface WriteMetricsListener {
+
+    /**
+     * 导出阶段
+     */
+    enum Stage {
+        /**
+         * 拉取数据并转换为行块，即{@link Sheet#nextBlock}的耗时，流水线模式下为等待行块的耗时
+         */
+        FETCH,
+        /**
+         * 将行块序列化为XML，直接写压缩流时包含工作表数据的压缩耗时
+         */
+        SERIALIZE,
+        /**
+         * 图片的读取、复制和下载
+         */
+        MEDIA,
+        /**
+         * 样式索引，全局样式在所有工作表共享所以此阶段回调时工作表为{@code null}
+         */
+        STYLE,
+        /**
+         * 压缩，回调时工作表为{@code null}
+         */
+        COMPRESS
+    }
+
+    /**
+     * 阶段完成
+     *
+     * @param sheet 工作表，非工作表阶段时为{@code null}
+     * @param stage 阶段
+     * @param nanos 耗时（纳秒）
+     */
+    default void onStage(Sheet sheet, Stage stage, long nanos) { }
+
+    /**
+     * 工作表写入完成，行速率为{@code rows * 1_000_000_000L / nanos}
+     *
+     * @param sheet 工作表
+     * @param rows  总行数
+     * @param nanos 总耗时（纳秒）
+     */
+    default void onSheetCompleted(Sheet sheet, int rows, long nanos) { }
+
+    /**
+     * 共享字符串查找统计，所有工作表写完后回调一次
+     *
+     * @param lookups     查找总次数
+     * @param hotHits     热点缓存命中次数（包含ASCII字符缓存）
+     * @param indexMisses 哈希索引未命中次数，即新增的字符串
+     * @param diskFinds   在共享字符串表中查找的次数
+     */
+    default void onSharedStrings(long lookups, long hotHits, long indexMisses, long diskFinds) { }
+
+    /**
+     * 部件写入完成
+     *
+     * @param part  部件在压缩包中的路径，如{@code xl/worksheets/sheet1.xml}
+     * @param bytes 未压缩的字节数
+     */
+    default void onPartWritten(String part, long bytes) { }
+}
@@ -31,8 +31,10 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -40,15 +42,17 @@ import java.util.Set;
  */
 @TopNS(prefix = "", value = "Types", uri = "http://schemas.openxmlformats.org/package/2006/content-types")
 public class ContentType implements Storable {
+    // The worksheets rendered in parallel add types at the same time, all accesses are synchronized.
+    // Keep the insertion order, the parallel writer adds the types of each worksheet in sequential order
     private final Set<? super Type> set;
     private final RelManager relManager;
 
     public ContentType() {
-        set = new HashSet<>();
+        set = new LinkedHashSet<>();
         relManager = new RelManager();
     }
 
-    public void addRel(Relationship rel) {
+    public synchronized void addRel(Relationship rel) {
         relManager.add(rel);
     }
 
@@ -132,16 +136,27 @@ public class ContentType implements Storable {
         }
     }
 
-    public void add(Type type) {
+    public synchronized void add(Type type) {
         set.add(type);
     }
 
-    public boolean hasDrawings() {
+    /**
+     * Returns a snapshot of the added types
+     *
+     * @return the types in the order of adding
+     */
+    synchronized List<Type> getTypes() {
+        List<Type> types = new ArrayList<>(set.size());
+        for (Object o : set) types.add((Type) o);
+        return types;
+    }
+
+    public synchronized boolean hasDrawings() {
         return set.stream().anyMatch(t -> Const.ContentType.DRAWINGS.equals(((Type) t).contentType) || ((Type) t).contentType.startsWith("image/"));
     }
 
     @java.lang.Override
-    public void writeTo(Path root) throws IOException {
+    public synchronized void writeTo(Path root) throws IOException {
         // relationship
         relManager.write(root, null);
         // write self
@@ -16,12 +16,72 @@
 
 package org.ttzero.excel.entity.e7;
 
+import org.ttzero.excel.entity.CellValueWriter;
+import org.ttzero.excel.entity.Column;
 import org.ttzero.excel.entity.ICellValueAndStyle;
+import org.ttzero.excel.entity.Row;
+import org.ttzero.excel.reader.Cell;
 
 /**
  * @author guanquan.wang at 2019-09-25 11:25
  */
 public class XMLCellValueAndStyle implements ICellValueAndStyle {
+    /**
+     * 是否使用列预先解析的单元格值写入器，子类覆写{@link #setCellValue}时禁用
+     */
+    protected final boolean useCellValueWriter;
+    /**
+     * 是否支持跳过值对象直接写入简单类型，子类覆写{@link #reset}、{@link #setCellValue}或{@link #getStyleIndex}时禁用，
+     * 斑马线样式的{@code getStyleIndex}在没有动态样式时不依赖单元格的值，所以仍然支持
+     */
+    protected final boolean typedValueSupported;
+
+    public XMLCellValueAndStyle() {
+        this.useCellValueWriter = isDeclaredBy(ICellValueAndStyle.class, "setCellValue", Row.class, Cell.class
+            , Object.class, Column.class, Class.class, boolean.class);
+        this.typedValueSupported = useCellValueWriter
+            && isDeclaredBy(XMLCellValueAndStyle.class, "reset", Row.class, Cell.class, Object.class, Column.class)
+            && (isDeclaredBy(ICellValueAndStyle.class, "getStyleIndex", Row.class, Column.class, Object.class)
+            || isDeclaredBy(XMLZebraLineCellValueAndStyle.class, "getStyleIndex", Row.class, Column.class, Object.class))
+            && isDeclaredBy(ICellValueAndStyle.class, "setNullValue", Row.class, Cell.class, Column.class);
+    }
+
+    /**
+     * 是否支持跳过值对象直接将简单类型写入单元格，为{@code true}时调用方可以直接调用{@code Cell#setInt}等方法
+     * 写入值，再通过{@link #getStyleIndex}获取样式，结果与{@link #reset}一致
+     *
+     * @return 未覆写值和样式相关方法时返回{@code true}
+     */
+    public boolean isTypedValueSupported() {
+        return typedValueSupported;
+    }
+
+    private boolean isDeclaredBy(Class<?> declaringClass, String name, Class<?>... parameterTypes) {
+        try {
+            return getClass().getMethod(name, parameterTypes).getDeclaringClass() == declaringClass;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 重置单元格的值和样式，简单类型直接使用列预先解析的单元格值写入器，不再逐个判断数据类型
+     *
+     * @param row  行信息
+     * @param cell 单元格
+     * @param e    单元格的值
+     * @param hc   当前列的表头
+     */
+    @Override
+    public void reset(Row row, Cell cell, Object e, Column hc) {
+        CellValueWriter writer;
+        if (e != null && useCellValueWriter && hc.getConversion() == null && (writer = hc.getCellValueWriter()) != null) {
+            writer.write(cell, e);
+        } else {
+            setCellValue(row, cell, e, hc, hc.getClazz(), hc.getConversion() != null);
+        }
+        cell.xf = getStyleIndex(row, hc, e);
+    }
 
 //    /**
 //     * Int value conversion to others
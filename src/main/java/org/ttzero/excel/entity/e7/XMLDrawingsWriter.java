@@ -36,6 +36,7 @@ import org.ttzero.excel.drawing.Shape3D;
 import org.ttzero.excel.entity.IDrawingsWriter;
 import org.ttzero.excel.entity.Picture;
 import org.ttzero.excel.entity.Relationship;
+import org.ttzero.excel.entity.Workbook;
 import org.ttzero.excel.entity.style.ColorIndex;
 import org.ttzero.excel.manager.Const;
 import org.ttzero.excel.manager.RelManager;
@@ -79,9 +80,25 @@ public class XMLDrawingsWriter implements IDrawingsWriter {
      */
     protected long[] bits;
     protected int countDown;
+    /**
+     * The workbook which writes the relationship, {@code null} means write it directly
+     */
+    protected Workbook workbook;
 
     public XMLDrawingsWriter(Path path) {
+        this(path, null);
+    }
+
+    /**
+     * Create a drawings writer whose relationship is written by the workbook,
+     * the forked workbook defers it until the media are numbered
+     *
+     * @param path the drawing path
+     * @param workbook the workbook
+     */
+    public XMLDrawingsWriter(Path path, Workbook workbook) {
         this.path = path;
+        this.workbook = workbook;
         this.relManager = new RelManager();
         try {
             if (!exists(path.getParent())) {
@@ -112,7 +129,8 @@ public class XMLDrawingsWriter implements IDrawingsWriter {
         }
         // End tag
         bw.write("</xdr:wsDr>");
-        relManager.write(path.getParent(), path.getFileName().toString());
+        if (workbook != null) workbook.writeRelationships(relManager, path.getParent(), path.getFileName().toString());
+        else relManager.write(path.getParent(), path.getFileName().toString());
         FileUtil.close(bw);
         bw = null;
     }
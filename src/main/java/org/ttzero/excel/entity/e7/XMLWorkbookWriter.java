@@ -23,6 +23,7 @@ import org.dom4j.Namespace;
 import org.dom4j.QName;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.ttzero.excel.common.hash.HashCode;
 import org.ttzero.excel.entity.ListSheet;
 import org.ttzero.excel.manager.TopNS;
 import org.ttzero.excel.entity.Comments;
@@ -35,6 +36,7 @@ import org.ttzero.excel.entity.SharedStrings;
 import org.ttzero.excel.entity.Sheet;
 import org.ttzero.excel.entity.WaterMark;
 import org.ttzero.excel.entity.Workbook;
+import org.ttzero.excel.entity.WriteMetricsListener;
 import org.ttzero.excel.manager.Const;
 import org.ttzero.excel.manager.RelManager;
 import org.ttzero.excel.manager.docProps.App;
@@ -47,12 +49,21 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipOutputStream;
 
 import static org.ttzero.excel.util.FileUtil.exists;
 
@@ -113,13 +124,26 @@ public class XMLWorkbookWriter implements IWorkbookWriter {
      */
     @Override
     public void writeTo(Path path) throws IOException {
-        Path zip = workbook.getTemplate() == null ? createTemp() : template();
+        Path zip;
+        if (isStreaming()) {
+            zip = Files.createTempFile(Const.EEC_PREFIX, Const.Suffix.EXCEL_07);
+            try (OutputStream os = Files.newOutputStream(zip)) {
+                writeDirect(os);
+            } catch (Exception e) {
+                FileUtil.rm(zip);
+                throw e;
+            }
+        } else zip = workbook.getTemplate() == null ? createTemp() : template();
         reMarkPath(zip, path);
         FileUtil.rm(zip);
     }
 
     @Override
     public void writeTo(OutputStream os) throws IOException {
+        if (isStreaming()) {
+            writeDirect(os);
+            return;
+        }
         Path zip = workbook.getTemplate() == null ? createTemp() : template();
         Files.copy(zip, os);
         FileUtil.rm(zip);
@@ -127,11 +151,27 @@ public class XMLWorkbookWriter implements IWorkbookWriter {
 
     @Override
     public void writeTo(File file) throws IOException {
+        if (isStreaming()) {
+            try (OutputStream os = Files.newOutputStream(file.toPath())) {
+                writeDirect(os);
+            }
+            return;
+        }
         Path zip = workbook.getTemplate() == null ? createTemp() : template();
         FileUtil.cp(zip, file);
         FileUtil.rm(zip);
     }
 
+    /**
+     * Check whether the workbook can be written in streaming mode,
+     * the template workbook always writes to the temporary file.
+     *
+     * @return true if streaming
+     */
+    protected boolean isStreaming() {
+        return workbook.isStreaming() && workbook.getTemplate() == null;
+    }
+
 
     // --- PRIVATE FUNCTIONS
 
@@ -218,8 +258,15 @@ public class XMLWorkbookWriter implements IWorkbookWriter {
         // styles
         workbook.getStyles().writeTo(root.resolve("styles.xml"));
 
+        WriteMetricsListener metricsListener = workbook.getWriteMetricsListener();
+        if (metricsListener != null) {
+            metricsListener.onStage(null, WriteMetricsListener.Stage.STYLE, workbook.getStyles().getTimingNanos());
+            workbook.getStyles().setTiming(false);
+        }
+
         // share string
         try (SharedStrings sst = workbook.getSharedStrings()) {
+            if (metricsListener != null) sst.reportTo(metricsListener);
             sst.writeTo(root);
         }
     }
@@ -332,6 +379,318 @@ public class XMLWorkbookWriter implements IWorkbookWriter {
 
     //////////////////////////////////////////////////////
     protected Path createTemp() throws IOException, ExcelWriteException {
+        initWorksheets();
+
+        Path root = null;
+        try {
+            root = FileUtil.mktmp(Const.EEC_PREFIX);
+            LOGGER.debug("Create temporary folder {}", root);
+
+            Path xl = Files.createDirectory(root.resolve("xl"));
+
+            // Write worksheet data
+            if (workbook.getParallelExecutor() != null) {
+                writeParallel(xl, workbook.getParallelExecutor());
+            } else {
+                // One by one
+                for (int i = 0; i < workbook.getSize(); i++) {
+                    Sheet e = workbook.getSheetAt(i);
+                    e.writeTo(xl);
+                    e.close();
+                }
+            }
+
+            // Write SharedString, Styles and workbook.xml
+            writeGlobalAttribute(xl);
+            LOGGER.debug("All sheets have completed writing, starting to compression ...");
+
+            // Zip compress
+            WriteMetricsListener metricsListener = workbook.getWriteMetricsListener();
+            Path zipFile;
+            if (metricsListener != null) {
+                long t = System.nanoTime();
+                zipFile = ZipUtil.zipExcludeRoot(root, workbook.getCompression(), root, metricsListener::onPartWritten);
+                metricsListener.onStage(null, WriteMetricsListener.Stage.COMPRESS, System.nanoTime() - t);
+            } else zipFile = workbook.getCompression() != null ? ZipUtil.zipExcludeRoot(root, workbook.getCompression(), root)
+                : ZipUtil.zipExcludeRoot(root, root);
+            LOGGER.debug("Compression completed. {}", zipFile);
+
+            // Delete source files
+            FileUtil.rm_rf(root.toFile(), true);
+            LOGGER.debug("Clean up temporary files");
+            return zipFile;
+        } catch (Exception e) {
+            // Remove temp path
+            if (root != null) FileUtil.rm_rf(root);
+            workbook.getSharedStrings().close();
+            throw e;
+        }
+    }
+
+    /**
+     * Write the workbook into the output stream directly. The worksheet data is
+     * compressed into the zip stream while it is generated, only the global parts
+     * and the worksheets which include auto-width columns are staged in the temporary folder.
+     * The output stream will not be closed.
+     *
+     * @param os the destination output stream
+     * @throws IOException if I/O error occur
+     */
+    protected void writeDirect(OutputStream os) throws IOException {
+        initWorksheets();
+
+        Path root = null;
+        try {
+            root = FileUtil.mktmp(Const.EEC_PREFIX);
+            LOGGER.debug("Create temporary folder {}", root);
+
+            Path xl = Files.createDirectory(root.resolve("xl"));
+
+            ZipOutputStream zos = ZipUtil.openZipStream(os, workbook.getCompression());
+            // The zip stream can not be shared by threads, so parallel worksheets are staged
+            if (workbook.getParallelExecutor() != null) {
+                writeParallel(xl, workbook.getParallelExecutor());
+            } else {
+                // Write worksheet data one by one
+                for (int i = 0; i < workbook.getSize(); i++) {
+                    Sheet e = workbook.getSheetAt(i);
+                    IWorksheetWriter worksheetWriter = e.getSheetWriter();
+                    if (worksheetWriter instanceof XMLWorksheetWriter) {
+                        ((XMLWorksheetWriter) worksheetWriter).setZipOutputStream(zos);
+                    }
+                    e.writeTo(xl);
+                    e.close();
+                }
+            }
+
+            // Write SharedString, Styles and workbook.xml
+            writeGlobalAttribute(xl);
+            LOGGER.debug("All sheets have completed writing, appending the staged files ...");
+
+            // Append the staged files and finish the zip stream
+            WriteMetricsListener metricsListener = workbook.getWriteMetricsListener();
+            long t = metricsListener != null ? System.nanoTime() : 0L;
+            ZipUtil.zipExcludeRoot(zos, root, metricsListener != null ? metricsListener::onPartWritten : null);
+            zos.close();
+            if (metricsListener != null) metricsListener.onStage(null, WriteMetricsListener.Stage.COMPRESS, System.nanoTime() - t);
+            LOGGER.debug("Compression completed.");
+
+            // Delete source files
+            FileUtil.rm_rf(root.toFile(), true);
+            LOGGER.debug("Clean up temporary files");
+        } catch (Exception e) {
+            // Remove temp path
+            if (root != null) FileUtil.rm_rf(root);
+            workbook.getSharedStrings().close();
+            throw e;
+        }
+    }
+
+    /**
+     * Render the worksheets concurrently.
+     * <p>
+     * Each worksheet is rendered with a forked workbook which shares the global resources
+     * (SharedStrings and Styles) but keeps its own worksheet array, ContentType, drawing and
+     * media counters and media index, so the paging copies are inserted into the fork instead
+     * of shifting the worksheets being rendered by other threads. Every fork writes into a
+     * private staging folder with local numbers and registers the relationships of its
+     * worksheets and drawings instead of writing them.
+     * <p>
+     * After all tasks completed the worksheets are inserted into the workbook in the same order
+     * as sequential writing, then the forks are merged one by one in that order: the drawings
+     * and media take the final numbers from the workbook counters, a picture which is already
+     * stored by the previous worksheets is referenced instead of stored again, the comments
+     * take the final worksheet id, and the registered relationships are written with the
+     * remapped targets. So the output is identical to sequential writing.
+     *
+     * @param xl       the xl path
+     * @param executor the executor to render worksheets
+     * @throws IOException if I/O error occur
+     */
+    protected void writeParallel(Path xl, Executor executor) throws IOException {
+        int size = workbook.getSize();
+        Path staging = FileUtil.mktmp(Const.EEC_PREFIX);
+        try {
+            Workbook[] forks = new Workbook[size];
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[size];
+            for (int i = 0; i < size; i++) {
+                Workbook fork = forks[i] = workbook.fork(i);
+                Sheet sheet = workbook.getSheetAt(i);
+                fork.addSheet(sheet);
+                sheet.setId(fork.getSize());
+                Path part = Files.createDirectories(staging.resolve(String.valueOf(i)).resolve("xl"));
+                futures[i] = CompletableFuture.runAsync(() -> {
+                    try {
+                        for (int j = 0; j < fork.getSize(); j++) {
+                            Sheet e = fork.getSheetAt(j);
+                            e.writeTo(part);
+                            e.close();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor);
+            }
+
+            try {
+                CompletableFuture.allOf(futures).join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw new ExcelWriteException(cause);
+            }
+            LOGGER.debug("All worksheets have completed rendering, starting to merge ...");
+
+            // Snapshot the local id before inserting into the workbook
+            List<Sheet> sheets = new ArrayList<>();
+            List<Integer> localIds = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                Workbook fork = forks[i];
+                for (int j = 0; j < fork.getSize(); j++) {
+                    Sheet e = fork.getSheetAt(j);
+                    sheets.add(e);
+                    localIds.add(e.getId());
+                }
+            }
+
+            for (int i = 0, n = 0; i < sheets.size(); i++) {
+                Sheet e = sheets.get(i);
+                // The original worksheet is already located at index n
+                if (n >= workbook.getSize() || workbook.getSheetAt(n) != e) workbook.insertSheet(n, e);
+                e.setWorkbook(workbook);
+                e.setId(++n);
+            }
+
+            for (int i = 0, k = 0; i < size; i++) {
+                Workbook fork = forks[i];
+                // The local part name (relative to the xl path) to the final part name
+                Map<String, String> names = new HashMap<>();
+                for (int j = 0; j < fork.getSize(); j++, k++) {
+                    Sheet e = sheets.get(k);
+                    int localId = localIds.get(k);
+                    names.put("worksheets/sheet" + localId + Const.Suffix.XML, "worksheets/" + e.getFileName());
+                    Comments comments = e.getComments();
+                    // The comments rendered by the fork are named by the local id
+                    if (comments != null) {
+                        names.put("comments" + comments.id + Const.Suffix.XML, "comments" + e.getId() + Const.Suffix.XML);
+                        names.put("drawings/vmlDrawing" + comments.id + Const.Suffix.VML, "drawings/vmlDrawing" + e.getId() + Const.Suffix.VML);
+                        comments.id = e.getId();
+                    }
+                }
+                for (int j = 1; j <= fork.getDrawingCounter(); j++) {
+                    names.put("drawings/drawing" + j + Const.Suffix.XML, "drawings/drawing" + workbook.incrementDrawingCounter() + Const.Suffix.XML);
+                }
+                Path part = staging.resolve(String.valueOf(i)).resolve("xl");
+                numberMedia(fork, part.resolve("media"), names);
+                mergeFork(fork, part, xl, names);
+            }
+        } finally {
+            FileUtil.rm_rf(staging.toFile(), true);
+        }
+    }
+
+    /**
+     * Take the final media numbers for the pictures of a fork in the order of rendering.
+     * <p>
+     * A new picture takes the next number of the workbook, a picture which is already stored
+     * by the previous worksheets is deleted and references the stored one, and a reserved
+     * number (remote picture or watermark) is always taken, the same as sequential writing.
+     *
+     * @param fork  the forked workbook
+     * @param media the staging media path
+     * @param names the local part name to the final part name
+     * @throws IOException if I/O error occur
+     */
+    protected void numberMedia(Workbook fork, Path media, Map<String, String> names) throws IOException {
+        if (fork.getMediaCounter() == 0) return;
+        // The media files are named by the local number, as image{id}.{extension}
+        Map<Integer, String> files = new HashMap<>();
+        if (exists(media)) {
+            try (Stream<Path> stream = Files.list(media)) {
+                for (Path path : (Iterable<Path>) stream::iterator) {
+                    String name = path.getFileName().toString();
+                    int i = name.indexOf('.');
+                    if (!name.startsWith("image") || i <= 5) continue;
+                    try {
+                        files.put(Integer.valueOf(name.substring(5, i)), name);
+                    } catch (NumberFormatException e) {
+                        // Ignore the other files
+                    }
+                }
+            }
+        }
+        Map<String, HashCode> hashes = new HashMap<>();
+        for (Map.Entry<HashCode, String> entry : fork.getMediaIndex().entrySet()) {
+            hashes.put(entry.getValue(), entry.getKey());
+        }
+
+        for (int k = 1; k <= fork.getMediaCounter(); k++) {
+            String name = files.get(k);
+            HashCode hash = name != null ? hashes.get(name) : null;
+            String stored = hash != null ? workbook.getMedia(hash) : null;
+            int id = stored == null || fork.isReservedMedia(k) ? workbook.incrementMediaCounter() : 0;
+            // Download failed or the content is stored by this fork
+            if (name == null) continue;
+            if (stored == null) {
+                stored = "image" + id + name.substring(name.indexOf('.'));
+                if (hash != null) workbook.putMediaIfAbsent(hash, stored);
+            } else Files.delete(media.resolve(name));
+            names.put("media/" + name, "media/" + stored);
+        }
+    }
+
+    /**
+     * Merge the content types, files and relationships of a fork into the workbook
+     * with the final part names
+     *
+     * @param fork  the forked workbook
+     * @param part  the staging xl path
+     * @param xl    the xl path
+     * @param names the local part name to the final part name
+     * @throws IOException if I/O error occur
+     */
+    protected void mergeFork(Workbook fork, Path part, Path xl, Map<String, String> names) throws IOException {
+        // Keep the content types in worksheet order
+        for (ContentType.Type type : fork.getContentType().getTypes()) {
+            if (type instanceof ContentType.Override) {
+                String partName = ((ContentType.Override) type).getPartName()
+                    , name = partName.startsWith("/xl/") ? names.get(partName.substring(4)) : null;
+                if (name != null) type = new ContentType.Override(type.getContentType(), "/xl/" + name);
+            }
+            workbook.addContentType(type);
+        }
+
+        List<Path> paths;
+        try (Stream<Path> stream = Files.walk(part)) {
+            paths = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            String name = part.relativize(path).toString().replace(File.separatorChar, '/');
+            Path target = xl.resolve(names.getOrDefault(name, name));
+            if (!exists(target.getParent())) Files.createDirectories(target.getParent());
+            Files.move(path, target);
+        }
+
+        for (Map.Entry<String, RelManager> entry : fork.getForkRelationships().entrySet()) {
+            RelManager rels = entry.getValue();
+            for (Relationship rel : rels.getRelationships()) {
+                String target = rel.getTarget(), name = target.startsWith("../") ? names.get(target.substring(3)) : null;
+                if (name != null) rel.setTarget("../" + name);
+            }
+            String name = names.getOrDefault(entry.getKey(), entry.getKey());
+            int i = name.lastIndexOf('/');
+            rels.write(xl.resolve(name.substring(0, i)), name.substring(i + 1));
+        }
+    }
+
+    /**
+     * Initialize the worksheets before writing
+     */
+    protected void initWorksheets() {
+        // Measure the style interning
+        if (workbook.getWriteMetricsListener() != null) workbook.getStyles().setTiming(true);
+
         Sheet[] sheets = workbook.getSheets();
         for (int i = 0; i < sheets.length; i++) {
             Sheet sheet = sheets[i];
@@ -346,6 +705,9 @@ public class XMLWorkbookWriter implements IWorkbookWriter {
                     sheet.fixedSize();
                 }
             }
+            if (sheet.getAutoSizeSampleBlocks() == 0) {
+                sheet.setAutoSizeSampleBlocks(workbook.getAutoSizeSampleBlocks());
+            }
 
             if (workbook.getZebraFill() != null && sheet.getZebraFillStyle() < 0) {
                 sheet.setZebraLine(workbook.getZebraFill());
@@ -373,39 +735,6 @@ public class XMLWorkbookWriter implements IWorkbookWriter {
             }
         }
         LOGGER.debug("Sheet initialization completed.");
-
-        Path root = null;
-        try {
-            root = FileUtil.mktmp(Const.EEC_PREFIX);
-            LOGGER.debug("Create temporary folder {}", root);
-
-            Path xl = Files.createDirectory(root.resolve("xl"));
-
-            // Write worksheet data one by one
-            for (int i = 0; i < workbook.getSize(); i++) {
-                Sheet e = workbook.getSheetAt(i);
-                e.writeTo(xl);
-                e.close();
-            }
-
-            // Write SharedString, Styles and workbook.xml
-            writeGlobalAttribute(xl);
-            LOGGER.debug("All sheets have completed writing, starting to compression ...");
-
-            // Zip compress
-            Path zipFile = ZipUtil.zipExcludeRoot(root, root);
-            LOGGER.debug("Compression completed. {}", zipFile);
-
-            // Delete source files
-            FileUtil.rm_rf(root.toFile(), true);
-            LOGGER.debug("Clean up temporary files");
-            return zipFile;
-        } catch (Exception e) {
-            // Remove temp path
-            if (root != null) FileUtil.rm_rf(root);
-            workbook.getSharedStrings().close();
-            throw e;
-        }
     }
 
     protected void reMarkPath(Path zip, Path path) throws IOException {
@@ -18,6 +18,10 @@ package org.ttzero.excel.entity.e7;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.ttzero.excel.common.hash.HashCode;
+import org.ttzero.excel.common.hash.HashFunction;
+import org.ttzero.excel.common.hash.Hasher;
+import org.ttzero.excel.common.hash.Hashing;
 import org.ttzero.excel.entity.IDrawingsWriter;
 import org.ttzero.excel.entity.Picture;
 import org.ttzero.excel.entity.WaterMark;
@@ -36,8 +40,11 @@ import org.ttzero.excel.entity.Panes;
 import org.ttzero.excel.entity.Relationship;
 import org.ttzero.excel.entity.Row;
 import org.ttzero.excel.entity.RowBlock;
+import org.ttzero.excel.entity.RowBlockPipeline;
+import org.ttzero.excel.entity.RowBlockSampler;
 import org.ttzero.excel.entity.SharedStrings;
 import org.ttzero.excel.entity.Sheet;
+import org.ttzero.excel.entity.WriteMetricsListener;
 import org.ttzero.excel.manager.Const;
 import org.ttzero.excel.validation.Validation;
 import org.ttzero.excel.reader.Cell;
@@ -47,7 +54,11 @@ import org.ttzero.excel.reader.GridFactory;
 import org.ttzero.excel.util.ExtBufferedWriter;
 import org.ttzero.excel.util.FileSignatures;
 import org.ttzero.excel.util.FileUtil;
+import org.ttzero.excel.util.HyperLogLog;
+import org.ttzero.excel.util.RemoteMediaDownloader;
 import org.ttzero.excel.util.StringUtil;
+import org.ttzero.excel.util.UTF8BufferedWriter;
+import org.ttzero.excel.util.ZipUtil;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -57,7 +68,6 @@ import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
 import java.net.HttpURLConnection;
@@ -70,15 +80,23 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.ttzero.excel.entity.Sheet.int2Col;
+import static org.ttzero.excel.entity.Sheet.int2ColBytes;
 import static org.ttzero.excel.reader.Cell.BINARY;
 import static org.ttzero.excel.reader.Cell.BOOL;
 import static org.ttzero.excel.reader.Cell.BYTE_BUFFER;
@@ -99,6 +117,7 @@ import static org.ttzero.excel.reader.Cell.UNALLOCATED;
 import static org.ttzero.excel.util.ExtBufferedWriter.stringSize;
 import static org.ttzero.excel.util.FileUtil.exists;
 import static org.ttzero.excel.util.StringUtil.isNotEmpty;
+import static org.ttzero.excel.util.UTF8BufferedWriter.ascii;
 
 /**
  * XML工作表输出
@@ -112,6 +131,34 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
      * LOGGER
      */
     protected final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    /**
+     * The hash function to deduplicate media content
+     */
+    protected static final HashFunction MURMUR3_128 = Hashing.murmur3_128();
+
+    /**
+     * Pre-encoded tags of the rows and cells
+     */
+    protected static final byte[] ROW_START = ascii("<row r=\"");
+    protected static final byte[] ROW_SPANS = ascii("\" spans=\"");
+    protected static final byte[] ROW_END = ascii("</row>");
+    protected static final byte[] CELL_START = ascii("<c");
+    protected static final byte[] CELL_REF = ascii(" r=\"");
+    protected static final byte[] CELL_STYLE = ascii(" s=\"");
+    protected static final byte[] CELL_BOOL = ascii(" t=\"b\">");
+    protected static final byte[] CELL_STR_FORMULA = ascii(" t=\"str\"><f>");
+    protected static final byte[] CELL_SST = ascii(" t=\"s\"><v>");
+    protected static final byte[] CELL_INLINE_STR = ascii(" t=\"inlineStr\"><is><t>");
+    protected static final byte[] CELL_INLINE_STR_END = ascii("</t></is></c>");
+    protected static final byte[] CELL_EMPTY_END = ascii("/>");
+    protected static final byte[] VALUE_END = ascii("</v></c>");
+    protected static final byte[] FORMULA_START = ascii("<f>");
+    protected static final byte[] FORMULA_END = ascii("</f>");
+    protected static final byte[] VALUE_START = ascii("<v>");
+    protected static final byte[] VALUE_CLOSE = ascii("</v>");
+    protected static final byte[] CELL_END = ascii("</c>");
+    protected static final byte[] TAG_END = ascii("\">");
+    protected static final byte[] EMPTY_END = ascii("\"/>");
 
     // the storage path
     protected Path workSheetPath, mediaPath;
@@ -144,6 +191,10 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
 
     // 自适应列宽专用
     protected double[] columnWidths;
+    /**
+     * 自适应列宽的采样行块，不为{@code null}时在写表头前根据采样计算列宽，不再回写表头
+     */
+    protected List<RowBlock> sampleBlocks;
     /**
      * 关系管理器（worksheet的副本）
      */
@@ -152,6 +203,43 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
      * 超链接管理
      */
     protected Map<String, List<String>> hyperlinkMap;
+    /**
+     * 直接输出的压缩流，不为{@code null}时工作表数据直接写入压缩流不再落盘到临时文件
+     */
+    protected ZipOutputStream zipOutputStream;
+    /**
+     * 紧凑输出模式，省略连续单元格的坐标、默认样式和行的{@code spans}属性
+     */
+    protected boolean compact;
+    /**
+     * 当前行上一个输出的单元格列号，紧凑模式下用于判断单元格坐标是否可以省略
+     */
+    protected int lastCellColumn;
+    /**
+     * 自适应共享字符串的基数估算器，按列下标保存，采样结束后置空
+     */
+    protected HyperLogLog[] shareSketches;
+    /**
+     * 自适应共享字符串已采样的值个数，{@code -1}表示该列已作出决定
+     */
+    protected int[] shareSampled;
+    /**
+     * 自适应共享字符串采样得到的唯一值占比，{@code -1}表示该列尚未作出决定。决定只保存在输出协议中，
+     * 数据写完后才回写到列，避免流水线模式下与装填行块的生产线程同时修改列的属性
+     */
+    protected double[] shareRatios;
+    /**
+     * 并发下载中的远程图片，按提交顺序排列，只在写线程中完成收尾
+     */
+    protected Deque<RemoteDownload> remoteDownloads;
+    /**
+     * 导出指标监听器，为{@code null}时不统计各阶段耗时
+     */
+    protected WriteMetricsListener metricsListener;
+    /**
+     * 各阶段累计耗时（纳秒）
+     */
+    protected long startNanos, fetchNanos, serializeNanos, mediaNanos;
 
     public XMLWorksheetWriter() { }
 
@@ -171,7 +259,10 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         Path sheetPath = initWriter(path);
 
         // Get the first block
-        RowBlock rowBlock = supplier.get();
+        RowBlock rowBlock = fetch(supplier);
+
+        // Fix the auto-width columns from the sampled blocks
+        if (supplier instanceof RowBlockSampler) sampleBlocks = ((RowBlockSampler) supplier).getSamples();
 
         // write before
         writeBefore();
@@ -179,6 +270,7 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         // Write body data
         beforeSheetData(sheet.getNonHeader() == 1);
 
+        long bodyStart = metricsListener != null ? System.nanoTime() : 0L, fetched = fetchNanos;
         if (rowBlock != null && rowBlock.hasNext()) {
             if (progressConsumer == null) {
                 do {
@@ -186,17 +278,18 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
                     writeRowBlock(rowBlock);
                     // end of row
                     if (rowBlock.isEOF()) break;
-                } while ((rowBlock = supplier.get()) != null);
+                } while ((rowBlock = fetch(supplier)) != null);
             } else {
                 do {
                     // write row-block data and fire progress event
                     writeRowBlockFireProgress(rowBlock);
                     // end of row
                     if (rowBlock.isEOF()) break;
-                } while ((rowBlock = supplier.get()) != null);
+                } while ((rowBlock = fetch(supplier)) != null);
                 if (rowBlock != null && rowBlock.lastRow() != null) progressConsumer.accept(sheet, rowBlock.lastRow().getIndex());
             }
         }
+        if (metricsListener != null) serializeNanos += System.nanoTime() - bodyStart - (fetchNanos - fetched);
 
         totalRows = rowBlock != null ? rowBlock.getTotal() : 0;
 
@@ -207,9 +300,11 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         sheet.afterSheetAccess(workSheetPath);
 
         // Resize if include auto-width column
-        if (includeAutoWidth) {
+        if (includeAutoWidth && columnWidths != null) {
             resizeColumnWidth(sheetPath.toFile(), totalRows);
         }
+
+        if (metricsListener != null) fireMetrics();
     }
 
     /**
@@ -220,54 +315,54 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
      */
     @Override
     public void writeTo(Path path) throws IOException {
-        Path sheetPath = initWriter(path);
-
-        // Get the first block
-        RowBlock rowBlock = sheet.nextBlock();
-
-        // write before
-        writeBefore();
-
-        // Write body data
-        beforeSheetData(sheet.getNonHeader() == 1);
-
-        if (rowBlock.hasNext()) {
-            if (progressConsumer == null) {
-                for (; ; ) {
-                    // write row-block data
-                    writeRowBlock(rowBlock);
-                    // end of row
-                    if (rowBlock.isEOF()) break;
-                    // Get the next block
-                    rowBlock = sheet.nextBlock();
-                }
-            } else {
-                for (; ; ) {
-                    // write row-block data and fire progress event
-                    writeRowBlockFireProgress(rowBlock);
-                    // end of row
-                    if (rowBlock.isEOF()) break;
-                    // Get the next block
-                    rowBlock = sheet.nextBlock();
-                }
-                if (rowBlock.lastRow() != null) progressConsumer.accept(sheet, rowBlock.lastRow().getIndex());
+        boolean pipelined = sheet.getWorkbook() != null && sheet.getWorkbook().isPipelined();
+        // Fix the auto-width columns from the first N row-blocks
+        if (sheet.getAutoSizeSampleBlocks() > 0 && hasAutoSizeColumn()) {
+            try (RowBlockSampler sampler = new RowBlockSampler(sheet, sheet.getAutoSizeSampleBlocks(), pipelined)) {
+                writeTo(path, sampler);
             }
+            return;
         }
+        // Fill the next row-block in another thread while serializing
+        if (pipelined) {
+            try (RowBlockPipeline pipeline = new RowBlockPipeline(sheet, RowBlockPipeline.DEFAULT_RING_SIZE, sheet.getWorkbook().getPipelineExecutor())) {
+                writeTo(path, pipeline);
+            }
+            return;
+        }
+        writeTo(path, sheet::nextBlock);
+    }
 
-        totalRows = rowBlock.getTotal();
-
-        // write end
-        writeAfter(totalRows);
-
-        // Write some final info
-        sheet.afterSheetAccess(workSheetPath);
-
-        // Resize if include auto-width column
-        if (includeAutoWidth) {
-            resizeColumnWidth(sheetPath.toFile(), totalRows);
+    /**
+     * 从行块提供者拉取下一个行块，设置了导出指标监听器时累计拉取耗时
+     *
+     * @param supplier 行块提供者
+     * @return 行块
+     */
+    protected RowBlock fetch(Supplier<RowBlock> supplier) {
+        if (metricsListener == null) return supplier.get();
+        long t = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            fetchNanos += System.nanoTime() - t;
         }
     }
 
+    /**
+     * 回调工作表的各阶段耗时，直接写入压缩流时同时回调工作表部件的字节数
+     */
+    protected void fireMetrics() {
+        metricsListener.onStage(sheet, WriteMetricsListener.Stage.FETCH, fetchNanos);
+        metricsListener.onStage(sheet, WriteMetricsListener.Stage.SERIALIZE, serializeNanos);
+        if (mediaNanos > 0L) metricsListener.onStage(sheet, WriteMetricsListener.Stage.MEDIA, mediaNanos);
+        // The staged worksheets are reported when compressing
+        if (canWriteDirect() && bw instanceof UTF8BufferedWriter) {
+            metricsListener.onPartWritten("xl/worksheets/" + sheet.getFileName(), ((UTF8BufferedWriter) bw).size());
+        }
+        metricsListener.onSheetCompleted(sheet, totalRows, System.nanoTime() - startNanos);
+    }
+
     protected Path initWriter(Path root) throws IOException {
         this.workSheetPath = root.resolve("worksheets");
         if (!exists(this.workSheetPath)) {
@@ -276,7 +371,12 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
 
         Path sheetPath = workSheetPath.resolve(sheet.getFileName());
 
-        this.bw = new ExtBufferedWriter(Files.newBufferedWriter(sheetPath, StandardCharsets.UTF_8));
+        // Write into the zip entry directly
+        if (canWriteDirect()) {
+            zipOutputStream.putNextEntry(new ZipEntry("xl/worksheets/" + sheet.getFileName()));
+            this.bw = new UTF8BufferedWriter(ZipUtil.entryOutputStream(zipOutputStream));
+        }
+        else this.bw = new UTF8BufferedWriter(Files.newOutputStream(sheetPath));
 
         if (sst == null) this.sst = sheet.getWorkbook().getSharedStrings();
         if (styles == null) this.styles = sheet.getWorkbook().getStyles();
@@ -289,9 +389,19 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
             throw new IndexOutOfBoundsException("The start row index must be less than row-limit, current(" + startHeaderRow + ") >= limit(" + getRowLimit() + ")");
         startRow = startHeaderRow;
 
+        // Omit the inferable attributes
+        compact = sheet.getWorkbook() != null && sheet.getWorkbook().isCompact();
+
         // Init progress window
         progressConsumer = sheet.getProgressConsumer();
 
+        // Init metrics
+        metricsListener = sheet.getWorkbook() != null ? sheet.getWorkbook().getWriteMetricsListener() : null;
+        if (metricsListener != null) {
+            startNanos = System.nanoTime();
+            fetchNanos = serializeNanos = mediaNanos = 0L;
+        }
+
         // Fire progress event
         if (progressConsumer != null) progressConsumer.accept(sheet, 0);
 
@@ -304,6 +414,42 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         return sheetPath;
     }
 
+    /**
+     * 设置直接输出的压缩流，设置后工作表数据将直接写入压缩流，包含自适应列宽且未设置采样行块数
+     * {@link Sheet#setAutoSizeSampleBlocks(int)}的工作表需要回写表头所以依然先写临时文件
+     *
+     * @param zipOutputStream 压缩流
+     * @return 当前输出协议
+     */
+    public XMLWorksheetWriter setZipOutputStream(ZipOutputStream zipOutputStream) {
+        this.zipOutputStream = zipOutputStream;
+        return this;
+    }
+
+    /**
+     * 判断工作表数据是否可以直接写入压缩流
+     *
+     * @return true: 直接写入压缩流
+     */
+    protected boolean canWriteDirect() {
+        return zipOutputStream != null && (sheet.getAutoSizeSampleBlocks() > 0 || !hasAutoSizeColumn());
+    }
+
+    /**
+     * 判断工作表是否包含自适应列宽的列
+     *
+     * @return true: 包含自适应列宽的列
+     */
+    protected boolean hasAutoSizeColumn() {
+        Column[] columns = sheet.getColumns();
+        if (columns != null) {
+            for (Column col : columns) {
+                if (col.getAutoSize() == 1) return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Rest worksheet
      *
@@ -349,6 +495,7 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         e.totalRows = 0;
         e.drawingsWriter = null;
         e.comments = null;
+        e.remoteDownloads = null;
         return copy;
     }
 
@@ -484,6 +631,28 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         // End target --sheetData
         bw.write("</sheetData>");
 
+        // Wait for the concurrent downloads
+        if (metricsListener != null && remoteDownloads != null && !remoteDownloads.isEmpty()) {
+            long t = System.nanoTime();
+            awaitRemoteDownloads(0);
+            mediaNanos += System.nanoTime() - t;
+        } else awaitRemoteDownloads(0);
+
+        // 数据量不足采样数时依然按已采样的值作出决定
+        if (shareSketches != null) {
+            for (int i = 0; i < shareSketches.length; i++) {
+                if (shareSampled[i] >= 0) decideShare(columns[i], i);
+            }
+            shareSketches = null;
+        }
+        // 数据已全部装填，回写采样结果
+        if (shareRatios != null) {
+            for (int i = 0; i < shareRatios.length; i++) {
+                if (shareRatios[i] >= 0D) columns[i].setShare(shareRatios[i] <= sheet.getAdaptiveShareRatio()).setDistinctRatio(shareRatios[i]);
+            }
+            shareRatios = null;
+        }
+
         // 写完数据后调用工作表处理全局属性
         sheet.afterSheetDataWriter(total);
 
@@ -552,21 +721,25 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         // Row number
         int r = rows + startRow;
 
-        bw.write("<row r=\"");
+        bw.write(ROW_START);
         bw.writeInt(r);
+        lastCellColumn = 0;
         // default data row height 16.5
         if (rowHeight != null && rowHeight >= 0D) {
             bw.write("\" customHeight=\"1\" ht=\"");
             bw.write(rowHeight);
         }
-        if (this.columns.length > 0) {
-            bw.write("\" spans=\"");
-            bw.writeInt(this.columns[0].realColIndex);
-            bw.write(':');
-            bw.writeInt(this.columns[this.columns.length - 1].realColIndex);
-        } else {
-            bw.write("\" spans=\"1:");
-            bw.writeInt(columns);
+        // The spans is optional in compact mode
+        if (!compact) {
+            if (this.columns.length > 0) {
+                bw.write(ROW_SPANS);
+                bw.writeInt(this.columns[0].realColIndex);
+                bw.write(':');
+                bw.writeInt(this.columns[this.columns.length - 1].realColIndex);
+            } else {
+                bw.write("\" spans=\"1:");
+                bw.writeInt(columns);
+            }
         }
         bw.write("\">");
         return r;
@@ -583,22 +756,24 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         // Row number
         int r = row.getIndex() + startRow;
 
-        bw.write("<row r=\"");
+        bw.write(ROW_START);
         bw.writeInt(r);
+        lastCellColumn = 0;
         Double rowHeight = row.getHeight();
         // default data row height 16.5
         if (rowHeight != null && rowHeight >= 0D) {
             bw.write("\" customHeight=\"1\" ht=\"");
             bw.write(rowHeight);
         }
-        if (row.lc - row.fc >= 1) {
-            bw.write("\" spans=\"");
+        // The spans is optional in compact mode
+        if (!compact && row.lc - row.fc >= 1) {
+            bw.write(ROW_SPANS);
             bw.writeInt(row.fc + 1);
             bw.write(':');
             bw.writeInt(row.lc);
         }
-        else if (this.columns.length > 0) {
-            bw.write("\" spans=\"");
+        else if (!compact && this.columns.length > 0) {
+            bw.write(ROW_SPANS);
             bw.writeInt(this.columns[0].realColIndex);
             bw.write(':');
             bw.writeInt(this.columns[this.columns.length - 1].realColIndex);
@@ -623,13 +798,13 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         Cell[] cells = row.getCells();
         int r = startRow(row);
         if (row.lc > row.fc) {
-            bw.write("\">");
+            bw.write(TAG_END);
 
             // 循环写单元格
             for (int i = row.fc; i < row.lc; i++) writeCell(cells[i], r, i);
 
-            bw.write("</row>");
-        } else bw.write("\"/>");
+            bw.write(ROW_END);
+        } else bw.write(EMPTY_END);
     }
 
     /**
@@ -661,7 +836,8 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         }
 
         // 图片
-        if (!valueOnly) {
+        if (!valueOnly && cell.mediaType != UNALLOCATED) {
+            long t = metricsListener != null ? System.nanoTime() : 0L;
             switch (cell.mediaType) {
                 case REMOTE_URL  : writeRemoteMedia(cell.stringVal, row, col); break;
                 case FILE        : writeFile(cell.path, row, col);             break;
@@ -669,6 +845,31 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
                 case BINARY      : writeBinary(cell.binary, row, col);         break;
                 case BYTE_BUFFER : writeBinary(cell.byteBuffer, row, col);     break;
             }
+            if (metricsListener != null) mediaNanos += System.nanoTime() - t;
+        }
+    }
+
+    /**
+     * 写单元格的起始标签和坐标、样式属性，紧凑模式下与上一个单元格相邻时省略坐标，默认样式{@code 0}省略样式
+     *
+     * @param column 列号（从1开始）
+     * @param row    行号
+     * @param xf     样式索引
+     * @throws IOException if I/O error occur
+     */
+    protected void startCell(int column, int row, int xf) throws IOException {
+        bw.write(CELL_START);
+        if (!compact || column != lastCellColumn + 1) {
+            bw.write(CELL_REF);
+            bw.write(int2ColBytes(column));
+            bw.writeInt(row);
+            bw.write('"');
+        }
+        lastCellColumn = column;
+        if (!compact || xf != 0) {
+            bw.write(CELL_STYLE);
+            bw.writeInt(xf);
+            bw.write('"');
         }
     }
 
@@ -682,11 +883,6 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
      */
     protected void writeString(Cell cell, int row, int col) throws IOException {
         Column hc = getColumn(col);
-        bw.write("<c r=\"");
-        bw.write(int2Col(hc.getRealColIndex()));
-        bw.writeInt(row);
-        bw.write("\" s=\"");
-
         int xf = cell.xf;
         String s = cell.stringVal;
         boolean notEmpty = s != null && s.length() > 0;
@@ -698,38 +894,83 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
             dim.add(new String(int2Col(col + 1)) + row);
         }
 
-        bw.writeInt(xf);
+        startCell(hc.getRealColIndex(), row, xf);
 
         if (cell.f) {
-            bw.write("\" t=\"str\"><f>");
+            bw.write(CELL_STR_FORMULA);
             bw.escapeWrite(cell.formula);
-            bw.write("</f>");
+            bw.write(FORMULA_END);
             if (notEmpty) {
-                bw.write("<v>");
+                bw.write(VALUE_START);
                 bw.escapeWrite(s);
-                bw.write("</v>");
+                bw.write(VALUE_CLOSE);
             }
-            bw.write("</c>");
+            bw.write(CELL_END);
         } else if (notEmpty) {
+            if (shareSketches != null && col < shareSketches.length && shareSampled[col] >= 0) sampleShare(hc, col, s);
             int i;
-            if (hc.isShare() && (i = sst.get(s)) >= 0) {
-                bw.write("\" t=\"s\"><v>");
+            if (isShare(hc, col) && (i = sst.get(s)) >= 0) {
+                bw.write(CELL_SST);
                 bw.writeInt(i);
-                bw.write("</v></c>");
+                bw.write(VALUE_END);
             } else {
-                bw.write("\" t=\"inlineStr\"><is><t>");
+                bw.write(CELL_INLINE_STR);
                 bw.escapeWrite(s); // escape text
-                bw.write("</t></is></c>");
+                bw.write(CELL_INLINE_STR_END);
             }
-        } else bw.write("\"/>");
+        } else bw.write(CELL_EMPTY_END);
 
         // TODO optimize If auto-width
-        if (hc.getAutoSize() == 1) {
+        if (hc.getAutoSize() == 1 && columnWidths != null) {
             double ln;
             if (columnWidths[col] < (ln = stringWidth(s, xf))) columnWidths[col] = ln;
         }
     }
 
+    /**
+     * 自适应共享字符串采样，采样数达到{@link Sheet#getAdaptiveShareSamples()}后决定该列是否共享
+     *
+     * @param hc  列
+     * @param col 列下标
+     * @param s   字符串
+     */
+    protected void sampleShare(Column hc, int col, String s) {
+        HyperLogLog sketch = shareSketches[col];
+        if (sketch == null) shareSketches[col] = sketch = new HyperLogLog();
+        sketch.add(s);
+        if (++shareSampled[col] >= sheet.getAdaptiveShareSamples()) decideShare(hc, col);
+    }
+
+    /**
+     * 根据采样的唯一值占比决定列使用共享字符串还是内嵌字符串
+     *
+     * @param hc  列
+     * @param col 列下标
+     */
+    protected void decideShare(Column hc, int col) {
+        HyperLogLog sketch = shareSketches[col];
+        int n = shareSampled[col];
+        if (sketch != null && n > 0) {
+            double ratio = shareRatios[col] = Math.min(1D, (double) sketch.cardinality() / n);
+            LOGGER.debug("Column [{}] distinct ratio {} of {} samples, share: {}", hc.getName(), ratio, n, ratio <= sheet.getAdaptiveShareRatio());
+        }
+        shareSketches[col] = null;
+        shareSampled[col] = -1;
+    }
+
+    /**
+     * 判断列是否使用共享字符串，自适应共享字符串作出决定后以采样结果为准
+     *
+     * @param hc  列
+     * @param col 列下标
+     * @return true: 共享
+     */
+    protected boolean isShare(Column hc, int col) {
+        double ratio;
+        return shareRatios != null && col < shareRatios.length && (ratio = shareRatios[col]) >= 0D
+            ? ratio <= sheet.getAdaptiveShareRatio() : hc.isShare();
+    }
+
     /**
      * 写数字
      *
@@ -740,19 +981,15 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
      */
     protected void writeNumeric(Cell cell, int row, int col) throws IOException {
         Column hc = getColumn(col);
-        bw.write("<c r=\"");
-        bw.write(int2Col(hc.getRealColIndex()));
-        bw.writeInt(row);
-        bw.write("\" s=\"");
-        bw.writeInt(cell.xf);
-        bw.write("\">");
+        startCell(hc.getRealColIndex(), row, cell.xf);
+        bw.write('>');
         if (cell.f) {
-            bw.write("<f>");
+            bw.write(FORMULA_START);
             bw.escapeWrite(cell.formula);
-            bw.write("</f>");
+            bw.write(FORMULA_END);
         }
-        bw.write("<v>");
-        boolean autoSize = hc.getAutoSize() == 1;
+        bw.write(VALUE_START);
+        boolean autoSize = hc.getAutoSize() == 1 && columnWidths != null;
         String s = null;
         switch (cell.t) {
             case NUMERIC:
@@ -774,7 +1011,7 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
                 bw.write(s = cell.decimal.toString());
                 break;
         }
-        bw.write("</v></c>");
+        bw.write(VALUE_END);
 
         if (autoSize && s != null) {
             double n;
@@ -795,23 +1032,19 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
      */
     protected void writeBool(Cell cell, int row, int col) throws IOException {
         Column hc = getColumn(col);
-        bw.write("<c r=\"");
-        bw.write(int2Col(hc.getRealColIndex()));
-        bw.writeInt(row);
-        bw.write("\" t=\"b\" s=\"");
-        bw.writeInt(cell.xf);
-        bw.write("\">");
+        startCell(hc.getRealColIndex(), row, cell.xf);
+        bw.write(CELL_BOOL);
         if (cell.f) {
-            bw.write("<f>");
+            bw.write(FORMULA_START);
             bw.escapeWrite(cell.formula);
-            bw.write("</f>");
+            bw.write(FORMULA_END);
         }
-        bw.write("<v>");
+        bw.write(VALUE_START);
         bw.writeInt(cell.boolVal ? 1 : 0);
-        bw.write("</v></c>");
+        bw.write(VALUE_END);
 
         // TODO optimize If auto-width
-        if (hc.getAutoSize() == 1) {
+        if (hc.getAutoSize() == 1 && columnWidths != null) {
             double ln;
             if (columnWidths[col] < (ln = stringWidth(Boolean.toString(cell.boolVal), cell.xf))) columnWidths[col] = ln;
         }
@@ -827,29 +1060,26 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
      */
     protected void writeChar(Cell cell, int row, int col) throws IOException {
         Column hc = getColumn(col);
-        bw.write("<c r=\"");
-        bw.write(int2Col(hc.getRealColIndex()));
-        bw.writeInt(row);
-        bw.write("\" s=\"");
-        bw.writeInt(cell.xf);
+        startCell(hc.getRealColIndex(), row, cell.xf);
         char c = cell.charVal;
         if (cell.f) {
-            bw.write("\" t\"str\"><f>");
+            bw.write(CELL_STR_FORMULA);
             bw.escapeWrite(cell.formula);
-            bw.write("</f><v>");
+            bw.write(FORMULA_END);
+            bw.write(VALUE_START);
             bw.escapeWrite(c);
-            bw.write("</v></c>");
-        } else if (hc.isShare()) {
-            bw.write("\" t=\"s\"><v>");
+            bw.write(VALUE_END);
+        } else if (isShare(hc, col)) {
+            bw.write(CELL_SST);
             bw.writeInt(sst.get(c));
-            bw.write("</v></c>");
+            bw.write(VALUE_END);
         } else {
-            bw.write("\" t=\"inlineStr\"><is><t>");
+            bw.write(CELL_INLINE_STR);
             bw.escapeWrite(c);
-            bw.write("</t></is></c>");
+            bw.write(CELL_INLINE_STR_END);
         }
         // TODO optimize If auto-width
-        if (hc.getAutoSize() == 1) {
+        if (hc.getAutoSize() == 1 && columnWidths != null) {
             Font font = getFont(cell.xf);
             double n = (c > 0x4E00 ? font.getSize() : font.getFontMetrics().charWidth(c)) / 6.0D * 1.16D;
             if (columnWidths[col] < n) columnWidths[col] = n;
@@ -871,16 +1101,14 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         Fill fill = styles.getFill(style);
         Border border = styles.getBorder(style);
         if (fill != null && fill.getPatternType() != PatternType.none || border != null && border.isEffectiveBorder() || cell.f) {
-            bw.write("<c r=\"");
-            bw.write(int2Col(getColumn(col).getRealColIndex()));
-            bw.writeInt(row);
-            bw.write("\" s=\"");
-            bw.writeInt(cell.xf);
+            startCell(getColumn(col).getRealColIndex(), row, cell.xf);
             if (cell.f) {
-                bw.write("\"><f>");
+                bw.write('>');
+                bw.write(FORMULA_START);
                 bw.escapeWrite(cell.formula);
-                bw.write("</f></c>");
-            } else bw.write("\"/>");
+                bw.write(FORMULA_END);
+                bw.write(CELL_END);
+            } else bw.write(CELL_EMPTY_END);
         }
     }
 
@@ -899,10 +1127,18 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
             LOGGER.warn("File types that are not allowed");
             return;
         }
-        int id = sheet.getWorkbook().incrementMediaCounter();
-        String name = "image" + id + "." + signature.extension;
-        // Store in disk
-        Files.write(mediaPath.resolve(name), bytes, StandardOpenOption.CREATE_NEW);
+        HashCode hash = mediaHash(bytes, 0, bytes.length);
+        String name = sheet.getWorkbook().getMedia(hash);
+        int id = 0;
+        // Only the new content takes a media number
+        if (name == null) {
+            id = sheet.getWorkbook().incrementMediaCounter();
+            name = "image" + id + "." + signature.extension;
+            String stored = sheet.getWorkbook().putMediaIfAbsent(hash, name);
+            // Store in disk
+            if (stored == null) Files.write(mediaPath.resolve(name), bytes, StandardOpenOption.CREATE_NEW);
+            else name = stored;
+        }
 
         // Write picture
         writePictureDirect(id, name, column, row, signature);
@@ -924,14 +1160,23 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
             LOGGER.warn("File types that are not allowed");
             return;
         }
-        int id = sheet.getWorkbook().incrementMediaCounter();
-        String name = "image" + id + "." + signature.extension;
         // Reset buffer position
         byteBuffer.position(position);
-        // Store in disk
-        SeekableByteChannel channel = Files.newByteChannel(mediaPath.resolve(name), StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW);
-        channel.write(byteBuffer);
-        channel.close();
+        HashCode hash = mediaHash(byteBuffer);
+        String name = sheet.getWorkbook().getMedia(hash);
+        int id = 0;
+        // Only the new content takes a media number
+        if (name == null) {
+            id = sheet.getWorkbook().incrementMediaCounter();
+            name = "image" + id + "." + signature.extension;
+            String stored = sheet.getWorkbook().putMediaIfAbsent(hash, name);
+            // Store in disk
+            if (stored == null) {
+                SeekableByteChannel channel = Files.newByteChannel(mediaPath.resolve(name), StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW);
+                channel.write(byteBuffer);
+                channel.close();
+            } else name = stored;
+        }
 
         // Write picture
         writePictureDirect(id, name, column, row, signature);
@@ -952,10 +1197,18 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
             LOGGER.warn("File types that are not allowed");
             return;
         }
-        int id = sheet.getWorkbook().incrementMediaCounter();
-        String name = "image" + id + "." + signature.extension;
-        // Store
-        Files.copy(path, mediaPath.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+        HashCode hash = mediaHash(path);
+        String name = sheet.getWorkbook().getMedia(hash);
+        int id = 0;
+        // Only the new content takes a media number
+        if (name == null) {
+            id = sheet.getWorkbook().incrementMediaCounter();
+            name = "image" + id + "." + signature.extension;
+            String stored = sheet.getWorkbook().putMediaIfAbsent(hash, name);
+            // Store
+            if (stored == null) Files.copy(path, mediaPath.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+            else name = stored;
+        }
 
         // Write picture
         writePictureDirect(id, name, column, row, signature);
@@ -974,6 +1227,7 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         int n;
 
         OutputStream os = null;
+        Path tmp = null;
         try {
             n = stream.read(bytes);
             // Empty stream
@@ -983,14 +1237,33 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
                 LOGGER.warn("File types that are not allowed");
                 return;
             }
-            int id = sheet.getWorkbook().incrementMediaCounter();
-            String name = "image" + id + "." + signature.extension;
-            os = Files.newOutputStream(mediaPath.resolve(name));
+            // The content is unknown until copied, so copy into a temp file first
+            tmp = Files.createTempFile(mediaPath, "stream", ".tmp");
+            Hasher hasher = MURMUR3_128.newHasher();
+            os = Files.newOutputStream(tmp);
             os.write(bytes, 0, n);
+            hasher.putBytes(bytes, 0, n);
 
             if (n == bytes.length) {
-                while ((n = stream.read(bytes)) > 0)
+                while ((n = stream.read(bytes)) > 0) {
                     os.write(bytes, 0, n);
+                    hasher.putBytes(bytes, 0, n);
+                }
+            }
+            os.close();
+            os = null;
+            HashCode hash = hasher.hash();
+            String name = sheet.getWorkbook().getMedia(hash);
+            int id = 0;
+            // Only the new content takes a media number
+            if (name == null) {
+                id = sheet.getWorkbook().incrementMediaCounter();
+                name = "image" + id + "." + signature.extension;
+                String stored = sheet.getWorkbook().putMediaIfAbsent(hash, name);
+                if (stored == null) {
+                    Files.move(tmp, mediaPath.resolve(name));
+                    tmp = null;
+                } else name = stored;
             }
 
             // Write picture
@@ -1006,6 +1279,12 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
                     os.close();
                 } catch (IOException e) { } // Ignore
             }
+            // Remove the copy of the stored content
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) { } // Ignore
+            }
         }
     }
 
@@ -1019,7 +1298,8 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
      */
     protected void writeRemoteMedia(String url, int row, int column) throws IOException {
         Picture picture = createPicture(column, row);
-        picture.id = sheet.getWorkbook().incrementMediaCounter();
+        // The content is unknown until downloaded, so the media number is reserved
+        picture.id = sheet.getWorkbook().reserveMediaId();
 
         // 实例化drawingsWriter
         if (drawingsWriter == null) createDrawingsWriter();
@@ -1047,13 +1327,19 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         }
         // 实例化drawingsWriter
         if (drawingsWriter == null) createDrawingsWriter();
-        int id = sheet.getWorkbook().incrementMediaCounter();
-        picture.id = id;
-        String name = "image" + id + "." + signature.extension;
+        HashCode hash = mediaHash(picture.localPath);
+        String name = sheet.getWorkbook().getMedia(hash);
+        // Only the new content takes a media number
+        if (name == null) {
+            picture.id = sheet.getWorkbook().incrementMediaCounter();
+            name = "image" + picture.id + "." + signature.extension;
+            String stored = sheet.getWorkbook().putMediaIfAbsent(hash, name);
+            // Store
+            if (stored == null) Files.copy(picture.localPath, mediaPath.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+            else name = stored;
+        }
         picture.picName = name;
         picture.size = signature.width << 16 | signature.height;
-        // Store
-        Files.copy(picture.localPath, mediaPath.resolve(name), StandardCopyOption.REPLACE_EXISTING);
 
         // Write picture
         // Drawing
@@ -1074,21 +1360,7 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         // There has no column to reset width
         if (columns.length <= 0 || rows <= 0) return;
         // Collect column width
-        for (int i = 0; i < columns.length; i++) {
-            Column hc = columns[i];
-            int k = hc.getAutoSize();
-            // If fixed width or media cell
-            if (k == 2 || hc.getColumnType() == 1) {
-                double width = hc.width >= 0.0D ? hc.width: sheet.getDefaultWidth();
-                hc.width = BigDecimal.valueOf(Math.min(width + 0.65D, Const.Limit.COLUMN_WIDTH)).setScale(2, BigDecimal.ROUND_HALF_UP).doubleValue();
-                continue;
-            }
-            double len = columnWidths[i] > 0 ? columnWidths[i] : sheet.getDefaultWidth();
-            double width = (sheet.getNonHeader() == 1 ? len : Math.max(stringWidth(hc.name, hc.getHeaderStyleIndex() == -1 ? sheet.defaultHeadStyleIndex() : hc.getHeaderStyleIndex()), len)) + 1.86D;
-            if (hc.width > 0.000001D) width = Math.min(width, hc.width + 0.65D);
-            if (width > Const.Limit.COLUMN_WIDTH) width = Const.Limit.COLUMN_WIDTH;
-            hc.width = BigDecimal.valueOf(width).setScale(2, BigDecimal.ROUND_HALF_UP).doubleValue();
-        }
+        fixColumnWidths();
 
         if (bw != null) {
             try {
@@ -1109,7 +1381,7 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         _writer.includeAutoWidth = includeAutoWidth;
         _writer.styles = styles;
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        _writer.bw = new ExtBufferedWriter(new OutputStreamWriter(baos, StandardCharsets.UTF_8));
+        _writer.bw = new UTF8BufferedWriter(baos);
         _writer.writeBefore();
         _writer.bw.close();
 
@@ -1121,12 +1393,94 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         }
     }
 
+    /**
+     * Calculate the final width of each column from the measured cell widths
+     */
+    protected void fixColumnWidths() {
+        for (int i = 0; i < columns.length; i++) {
+            Column hc = columns[i];
+            int k = hc.getAutoSize();
+            // If fixed width or media cell
+            if (k == 2 || hc.getColumnType() == 1) {
+                double width = hc.width >= 0.0D ? hc.width: sheet.getDefaultWidth();
+                hc.width = BigDecimal.valueOf(Math.min(width + 0.65D, Const.Limit.COLUMN_WIDTH)).setScale(2, BigDecimal.ROUND_HALF_UP).doubleValue();
+                continue;
+            }
+            double len = columnWidths[i] > 0 ? columnWidths[i] : sheet.getDefaultWidth();
+            double width = (sheet.getNonHeader() == 1 ? len : Math.max(stringWidth(hc.name, hc.getHeaderStyleIndex() == -1 ? sheet.defaultHeadStyleIndex() : hc.getHeaderStyleIndex()), len)) + 1.86D;
+            if (hc.width > 0.000001D) width = Math.min(width, hc.width + 0.65D);
+            if (width > Const.Limit.COLUMN_WIDTH) width = Const.Limit.COLUMN_WIDTH;
+            hc.width = BigDecimal.valueOf(width).setScale(2, BigDecimal.ROUND_HALF_UP).doubleValue();
+        }
+    }
+
+    /**
+     * Fix the auto-width columns from the sampled row-blocks, the {@code <cols>} will be
+     * written before {@code <sheetData>} so there is no need to rewrite the header
+     *
+     * @param blocks the sampled row-blocks
+     */
+    protected void sampleColumnWidths(List<RowBlock> blocks) {
+        int rows = 0;
+        for (RowBlock block : blocks) {
+            for (int i = 0, n = block.size(); i < n; i++) {
+                Row row = block.get(i);
+                Cell[] cells = row.getCells();
+                for (int j = row.fc, len = Math.min(row.lc, columns.length); j < len; j++) {
+                    if (columns[j].getAutoSize() != 1) continue;
+                    double w = cellWidth(cells[j], j);
+                    if (columnWidths[j] < w) columnWidths[j] = w;
+                }
+            }
+            rows += block.size();
+        }
+        if (columns.length > 0 && rows > 0) fixColumnWidths();
+        // The widths are fixed, skip measuring when writing cells
+        columnWidths = null;
+    }
+
+    /**
+     * Returns the display width of the cell value, it is the same as measured when writing
+     *
+     * @param cell the cell
+     * @param col  the column index
+     * @return the width
+     */
+    protected double cellWidth(Cell cell, int col) {
+        String s;
+        switch (cell.t) {
+            case INLINESTR:
+            case SST:
+                return cell.mediaType <= UNALLOCATED ? stringWidth(cell.stringVal, cell.xf) : 0.0D;
+            case NUMERIC:  s = Integer.toString(cell.intVal);     break;
+            case LONG:     s = Long.toString(cell.longVal);       break;
+            case DATE:
+            case DATETIME:
+            case DOUBLE:
+            case TIME:     s = Double.toString(cell.doubleVal);   break;
+            case DECIMAL:  s = cell.decimal.toString();           break;
+            case BOOL:     return stringWidth(Boolean.toString(cell.boolVal), cell.xf);
+            case CHARACTER:
+                Font font = getFont(cell.xf);
+                char c = cell.charVal;
+                return (c > 0x4E00 ? font.getSize() : font.getFontMetrics().charWidth(c)) / 6.0D * 1.16D;
+            default: return 0.0D;
+        }
+        Column hc = getColumn(col);
+        return hc.getNumFmt() != null ? hc.getNumFmt().calcNumWidth(s.length(), getFont(cell.xf)) : stringWidth(s, cell.xf);
+    }
+
     /**
      * Release resources
      */
     @Override
     public void close() {
         FileUtil.close(bw);
+        try {
+            awaitRemoteDownloads(0);
+        } catch (IOException e) {
+            LOGGER.warn("Complete remote resources error", e);
+        }
         // Close drawing writer
         FileUtil.close(drawingsWriter);
     }
@@ -1179,7 +1533,7 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
             char[] col = int2Col(hc.getRealColIndex());
             bw.write(col);
             n -= col.length;
-            size = includeAutoWidth || sheet.getNonHeader() == 1 ? size + startRow - 1 : size + startRow + columns[0].subColumnSize() - 1;
+            size = includeAutoWidth && columnWidths != null || sheet.getNonHeader() == 1 ? size + startRow - 1 : size + startRow + columns[0].subColumnSize() - 1;
             bw.writeInt(size > getRowLimit() ? getRowLimit() : size);
             n -= stringSize(size);
         }
@@ -1208,7 +1562,7 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
             bw.write("\"");
         }
         // Default select the first worksheet
-        if (sheet.getId() == 1) bw.write(" tabSelected=\"1\"");
+        if (sheet.getId() == 1 && sheet.getWorkbook().getForkIndex() <= 0) bw.write(" tabSelected=\"1\"");
 
         // Freeze Panes
         o = sheet.getExtPropValue(Const.ExtendPropertyKey.FREEZE);
@@ -1369,6 +1723,14 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         }
         startRow = startHeaderRow + headerRow;
         sheetDataReady = 1;
+
+        // 表头之后开始自适应共享字符串采样
+        if (sheet.getAdaptiveShareSamples() > 0 && columns.length > 0) {
+            shareSketches = new HyperLogLog[columns.length];
+            shareSampled = new int[columns.length];
+            shareRatios = new double[columns.length];
+            Arrays.fill(shareRatios, -1D);
+        }
     }
 
     /**
@@ -1451,7 +1813,7 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         if (waterMark != null && waterMark.canWrite()) {
             Path media = workSheetPath.getParent().resolve("media");
             if (!exists(media)) Files.createDirectory(media);
-            Path image = media.resolve("image" + sheet.getWorkbook().incrementMediaCounter() + waterMark.getSuffix());
+            Path image = media.resolve("image" + sheet.getWorkbook().reserveMediaId() + waterMark.getSuffix());
 
             Files.copy(waterMark.get(), image);
             Relationship r = new Relationship("../media/" + image.getFileName(), Const.Relationship.IMAGE);
@@ -1593,7 +1955,7 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
             int id = sheet.getWorkbook().incrementDrawingCounter();
             sheet.getWorkbook().addContentType(new ContentType.Override(Const.ContentType.DRAWINGS, "/xl/drawings/drawing" + id + ".xml"));
             sheet.addRel(new Relationship("../drawings/drawing" + id + ".xml", Const.Relationship.DRAWINGS));
-            drawingsWriter = new XMLDrawingsWriter(workSheetPath.getParent().resolve("drawings").resolve("drawing" + id + ".xml"));
+            drawingsWriter = new XMLDrawingsWriter(workSheetPath.getParent().resolve("drawings").resolve("drawing" + id + ".xml"), sheet.getWorkbook());
         }
         return drawingsWriter;
     }
@@ -1602,14 +1964,24 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
      * Download remote resources
      *
      * By default, only HTTP or HTTPS protocols are supported.
-     * Use {@code HttpURLConnection} to synchronously download remote resources.
-     * For more complex scenarios (asynchronous download, Connection pool, authentication, FTP, etc.), please override this method
+     * If a {@link RemoteMediaDownloader} is specified by {@link org.ttzero.excel.entity.Workbook#setRemoteMediaDownloader},
+     * the resources are downloaded concurrently into temp files, otherwise use {@code HttpURLConnection}
+     * to synchronously download remote resources.
+     * For more complex scenarios (Connection pool, authentication, FTP, etc.), please override this method
      *
      * @param picture {@link Picture} info
      * @param url remote url
      * @throws IOException if I/O error occur.
      */
     public void downloadRemoteResource(Picture picture, String url) throws IOException {
+        RemoteMediaDownloader downloader = sheet.getWorkbook().getRemoteMediaDownloader();
+        if (downloader != null && !url.isEmpty() && url.charAt(0) == 'h') {
+            if (remoteDownloads == null) remoteDownloads = new ArrayDeque<>();
+            remoteDownloads.add(new RemoteDownload(picture, downloader.download(url, mediaPath.resolve("image" + picture.id + ".download"))));
+            // Complete the finished downloads and limit the pending count
+            awaitRemoteDownloads(downloader.getMaxConcurrency() << 2);
+            return;
+        }
         try {
             // Support http or https
             if (url.charAt(0) == 'h') {
@@ -1651,8 +2023,10 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         FileSignatures.Signature signature = FileSignatures.test(ByteBuffer.wrap(body));
         if (signature != null && signature.isTrusted()) {
             String name = "image" + picture.id + "." + signature.extension;
+            String stored = sheet.getWorkbook().putMediaIfAbsent(mediaHash(body, 0, body.length), name);
             // Store onto disk
-            Files.write(mediaPath.resolve(name), body, StandardOpenOption.CREATE_NEW);
+            if (stored == null) Files.write(mediaPath.resolve(name), body, StandardOpenOption.CREATE_NEW);
+            else name = stored;
             picture.picName = name;
             picture.size = signature.width << 16 | signature.height;
             // Add global contentType
@@ -1663,6 +2037,127 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
         drawingsWriter.complete(picture);
     }
 
+    /**
+     * Complete downloading, check the file signatures of the temp file and set the subscript {@code Picture.idx} to idle
+     *
+     * @param picture {@link Picture} info
+     * @param tmp the downloaded temp file, {@code null} if download failed
+     * @throws IOException if I/O error occur.
+     */
+    public void remoteDownloadCompleted(Picture picture, Path tmp) throws IOException {
+        FileSignatures.Signature signature = null;
+        if (tmp != null) {
+            // Test file signatures
+            try (SeekableByteChannel channel = Files.newByteChannel(tmp, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(1 << 9);
+                channel.read(buffer);
+                buffer.flip();
+                if (buffer.remaining() >= 32) signature = FileSignatures.test(buffer);
+            }
+        }
+        LOGGER.debug("completed Row: {} file: {}", picture.row, tmp);
+        if (signature != null && signature.isTrusted()) {
+            String name = "image" + picture.id + "." + signature.extension;
+            String stored = sheet.getWorkbook().putMediaIfAbsent(mediaHash(tmp), name);
+            // Move onto the media path
+            if (stored == null) Files.move(tmp, mediaPath.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+            else {
+                Files.delete(tmp);
+                name = stored;
+            }
+            picture.picName = name;
+            picture.size = signature.width << 16 | signature.height;
+            // Add global contentType
+            sheet.getWorkbook().addContentType(new ContentType.Default(signature.contentType, signature.extension));
+        } else if (tmp != null) {
+            Files.deleteIfExists(tmp);
+            LOGGER.warn("File types that are not allowed");
+        }
+
+        // Setting idle
+        drawingsWriter.complete(picture);
+    }
+
+    /**
+     * Complete the concurrent downloads in submission order until the number of pending downloads
+     * is not greater than {@code limit}, the finished downloads are always completed
+     *
+     * @param limit the max number of pending downloads, 0 means wait for all
+     * @throws IOException if I/O error occur.
+     */
+    protected void awaitRemoteDownloads(int limit) throws IOException {
+        if (remoteDownloads == null) return;
+        for (RemoteDownload d; (d = remoteDownloads.peek()) != null && (remoteDownloads.size() > limit || d.future.isDone()); ) {
+            remoteDownloads.poll();
+            Path tmp;
+            try {
+                tmp = d.future.join();
+            } catch (CancellationException | CompletionException e) {
+                tmp = null;
+            }
+            remoteDownloadCompleted(d.picture, tmp);
+        }
+    }
+
+    /**
+     * A concurrent download of remote media
+     */
+    protected static class RemoteDownload {
+        protected final Picture picture;
+        protected final CompletableFuture<Path> future;
+
+        protected RemoteDownload(Picture picture, CompletableFuture<Path> future) {
+            this.picture = picture;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Returns the murmur3-128 hash of media content, the same content is stored only once in a workbook
+     *
+     * @param bytes the media content
+     * @param off   the start offset
+     * @param len   the number of bytes
+     * @return the hash code
+     */
+    protected static HashCode mediaHash(byte[] bytes, int off, int len) {
+        return MURMUR3_128.newHasher().putBytes(bytes, off, len).hash();
+    }
+
+    /**
+     * Returns the murmur3-128 hash of the remaining content, the buffer position is not changed
+     *
+     * @param buffer the media content
+     * @return the hash code
+     */
+    protected static HashCode mediaHash(ByteBuffer buffer) {
+        if (buffer.hasArray()) return mediaHash(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        Hasher hasher = MURMUR3_128.newHasher();
+        ByteBuffer dup = buffer.duplicate();
+        byte[] bytes = new byte[Math.min(dup.remaining(), 1 << 13)];
+        for (int n; (n = Math.min(dup.remaining(), bytes.length)) > 0; ) {
+            dup.get(bytes, 0, n);
+            hasher.putBytes(bytes, 0, n);
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * Returns the murmur3-128 hash of the file content
+     *
+     * @param path the media file
+     * @return the hash code
+     * @throws IOException if I/O error occur
+     */
+    protected static HashCode mediaHash(Path path) throws IOException {
+        Hasher hasher = MURMUR3_128.newHasher();
+        try (InputStream is = Files.newInputStream(path)) {
+            byte[] bytes = new byte[1 << 13];
+            for (int n; (n = is.read(bytes)) > 0; ) hasher.putBytes(bytes, 0, n);
+        }
+        return hasher.hash();
+    }
+
     // Write picture
     protected void writePictureDirect(int id, String name, int column, int row, FileSignatures.Signature signature) throws IOException {
         Picture picture = createPicture(column, row);
@@ -1712,11 +2207,15 @@ public class XMLWorksheetWriter implements IWorksheetWriter {
             includeAutoWidth |= col.getAutoSize() == 1;
             hasSharedString |= col.isShare();
         }
+        // 自适应共享字符串，采样结束前无法确定是否共享
+        hasSharedString |= sheet.getAdaptiveShareSamples() > 0;
         // 初始化SharedStringsTable
         if (hasSharedString) sst.init();
         // 如果有自适应列宽则创建临时数组
         if (includeAutoWidth) {
             columnWidths = new double[columns.length];
+            // 根据采样行块提前确定列宽
+            if (sampleBlocks != null) sampleColumnWidths(sampleBlocks);
         }
     }
 
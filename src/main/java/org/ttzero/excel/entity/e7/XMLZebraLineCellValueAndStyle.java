@@ -67,7 +67,7 @@ public class XMLZebraLineCellValueAndStyle extends XMLCellValueAndStyle {
         if (hc.styleProcessor != null) {
             style = hc.styleProcessor.build(o, style, hc.styles);
         }
-        return hc.styles.of(style);
+        return hc.styleIndexOf(style);
     }
 
 
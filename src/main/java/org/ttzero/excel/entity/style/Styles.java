@@ -38,11 +38,9 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -81,10 +79,20 @@ public class Styles implements Storable {
      * LOGGER
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(Styles.class);
-    private final Map<Integer, Integer> map;
+    /**
+     * Open-addressing style value to index table, the {@code xfs} saves
+     * {@code index + 1} and zero marks an empty slot
+     */
+    private int[] keys, xfs;
+    private int mask, size;
     private final AtomicInteger counter;
     private int[] styleIndex;
     private Document document;
+    /**
+     * Measure the time spent in {@link #of(int)} if true
+     */
+    private boolean timing;
+    private long timingNanos;
 
     private List<Font> fonts;
     private List<NumFmt> numFmts;
@@ -98,7 +106,9 @@ public class Styles implements Storable {
     private Set<Integer> dateFmtCache;
 
     private Styles() {
-        map = new HashMap<>();
+        keys = new int[1 << 6];
+        xfs = new int[1 << 6];
+        mask = (1 << 6) - 1;
         counter = new AtomicInteger();
         styleIndex = new int[10];
     }
@@ -110,11 +120,42 @@ public class Styles implements Storable {
      * @param s 样式值
      * @return 样式索引
      */
-    public int of(int s) {
-        int n = map.getOrDefault(s, -1);
+    public synchronized int of(int s) {
+        if (!timing) return intern(s);
+        long t = System.nanoTime();
+        try {
+            return intern(s);
+        } finally {
+            timingNanos += System.nanoTime() - t;
+        }
+    }
+
+    /**
+     * 开启或关闭样式索引的耗时统计，开启时重置已统计的耗时
+     *
+     * @param timing true: 开启统计
+     * @return 当前样式库
+     */
+    public synchronized Styles setTiming(boolean timing) {
+        this.timing = timing;
+        if (timing) timingNanos = 0L;
+        return this;
+    }
+
+    /**
+     * 获取样式索引的累计耗时，仅在开启统计{@link #setTiming(boolean)}时有效
+     *
+     * @return 累计耗时（纳秒）
+     */
+    public synchronized long getTimingNanos() {
+        return timingNanos;
+    }
+
+    private int intern(int s) {
+        int n = indexOf(s);
         if (n == -1) {
             n = counter.getAndIncrement();
-            map.put(s, n);
+            put(s, n);
             if (n >= styleIndex.length) {
                 styleIndex = Arrays.copyOf(styleIndex, styleIndex.length << 1);
             }
@@ -123,13 +164,59 @@ public class Styles implements Storable {
         return n;
     }
 
+    /**
+     * Returns the index of style value, -1 if not exists
+     */
+    private int indexOf(int s) {
+        for (int i = mix(s) & mask, n; (n = xfs[i]) != 0; i = (i + 1) & mask) {
+            if (keys[i] == s) return n - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Put or replace the index of style value
+     */
+    private void put(int s, int n) {
+        int i = mix(s) & mask;
+        for (; xfs[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == s) {
+                xfs[i] = n + 1;
+                return;
+            }
+        }
+        keys[i] = s;
+        xfs[i] = n + 1;
+        // Keep the load factor under 0.5
+        if (++size > mask >> 1) rehash();
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys, oldXfs = xfs;
+        keys = new int[oldKeys.length << 1];
+        xfs = new int[oldKeys.length << 1];
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldXfs[j] == 0) continue;
+            int i = mix(oldKeys[j]) & mask;
+            for (; xfs[i] != 0; i = (i + 1) & mask) ;
+            keys[i] = oldKeys[j];
+            xfs[i] = oldXfs[j];
+        }
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
     /**
      * 通过样式索引查询样式值
      *
      * @param styleIndex 样式索引
      * @return 样式值，查找失败时返回{@code -1}
      */
-    public int getStyleByIndex(int styleIndex) {
+    public synchronized int getStyleByIndex(int styleIndex) {
         if (styleIndex >= counter.get()) {
             return -1;
         }
@@ -142,7 +229,7 @@ public class Styles implements Storable {
      * @return the total styles
      */
     public int size() {
-        return map.size();
+        return size;
     }
 
     public static final int INDEX_NUMBER_FORMAT = 24;
@@ -385,7 +472,7 @@ public class Styles implements Storable {
                 String wrapText = getAttr(alignment, "wrapText");
                 style |= ("1".equals(wrapText) || "true".equalsIgnoreCase(wrapText) ? 1 : 0) << INDEX_WRAP_TEXT;
             }
-            self.map.put(style, i);
+            self.put(style, i);
             if (i >= self.styleIndex.length) {
                 self.styleIndex = Arrays.copyOf(self.styleIndex, self.styleIndex.length << 1);
             }
@@ -394,8 +481,8 @@ public class Styles implements Storable {
         }
         self.counter.set(i);
         // Test number format
-        for (Integer styleIndex : self.map.values()) {
-            self.isDate(styleIndex);
+        for (int j = 0; j < self.xfs.length; j++) {
+            if (self.xfs[j] != 0) self.isDate(self.xfs[j] - 1);
         }
 
         return self;
@@ -409,7 +496,7 @@ public class Styles implements Storable {
      * @param numFmt 格式化{@link NumFmt}
      * @return 样式值中“格式化”部分的2进制值
      */
-    public final int addNumFmt(NumFmt numFmt) {
+    public final synchronized int addNumFmt(NumFmt numFmt) {
         if (numFmt.getId() < 0 || numFmt.getId() > 58) {
             if (isEmpty(numFmt.getCode())) {
                 throw new NullPointerException("NumFmt code");
@@ -445,7 +532,7 @@ public class Styles implements Storable {
      * @param font 字体{@link Font}
      * @return 样式值中“字体”部分的2进制值
      */
-    public final int addFont(Font font) {
+    public final synchronized int addFont(Font font) {
         if (isEmpty(font.getName())) {
             throw new IllegalArgumentException("Font name not support.");
         }
@@ -465,7 +552,7 @@ public class Styles implements Storable {
      * @param fill 填充{@link Font}
      * @return 样式值中“填充”部分的2进制值
      */
-    public final int addFill(Fill fill) {
+    public final synchronized int addFill(Fill fill) {
         int i = fills.indexOf(fill);
         if (i <= -1) {
             i = fills.size();
@@ -482,7 +569,7 @@ public class Styles implements Storable {
      * @param border 边框{@link Border}
      * @return 样式值中“边框”部分的2进制值
      */
-    public final int addBorder(Border border) {
+    public final synchronized int addBorder(Border border) {
         int i = borders.indexOf(border);
         if (i <= -1) {
             i = borders.size();
@@ -568,7 +655,7 @@ public class Styles implements Storable {
             for (Border border : borders) border.toDom(element);
         }
 
-        Element cellXfs = root.element("cellXfs").addAttribute("count", String.valueOf(map.size()));
+        Element cellXfs = root.element("cellXfs").addAttribute("count", String.valueOf(size));
 
         for (int i = 0, len = counter.get(); i < len; i++) {
             int[] styles = unpack(styleIndex[i]);
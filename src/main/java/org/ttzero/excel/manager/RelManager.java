@@ -33,6 +33,7 @@ import java.lang.reflect.Field;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.ttzero.excel.util.FileUtil.exists;
@@ -82,6 +83,15 @@ public class RelManager implements Serializable {
         return -1;
     }
 
+    /**
+     * Returns all relationships
+     *
+     * @return the relationships in the order of adding
+     */
+    public List<Relationship> getRelationships() {
+        return relationships != null ? relationships : Collections.emptyList();
+    }
+
     public Relationship getByTarget(String target) {
         int n = indexOf(target);
         return n == -1 ? null : relationships.get(n);
@@ -246,29 +246,63 @@ public class ExcelReader implements Closeable {
      * 返回一个工作表的流，它将按顺序解析当前excel包含所有工作表（含隐藏工作表），
      * 此方法默认{@code load}工作表所以外部无需再次调用{@code load}方法
      *
+     * <p>调用{@link #concurrent()}开启并发读取模式后可以使用{@code sheets().parallel()}并行读取多个工作表</p>
+     *
      * @return 一个顺序的工作表流
      */
     public Stream<Sheet> sheets() {
-        Iterator<Sheet> iter = new Iterator<Sheet>() {
-            int n = 0;
-
-            @Override
-            public boolean hasNext() {
-                return n < sheets.length;
-            }
-
-            @Override
-            public Sheet next() {
+        // Split by array so that the parallel stream can dispatch one worksheet per task
+        return StreamSupport.stream(Spliterators.<Sheet>spliterator(sheets, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .map(sheet -> {
                 try {
                     // test and load sheet data
-                    return sheets[n++].load();
+                    return sheet.load();
                 } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
+            });
+    }
+
+    /**
+     * 开启并发读取模式，开启后可以在多个线程中同时读取不同的工作表，比如{@code reader.sheets().parallel()}
+     * 或者将工作表提交到线程池中读取，同一个工作表仍然只能在一个线程中读取。
+     *
+     * <p>开启时会将共享字符串全部读取完成，数量较少时复制到一个不可变的数组中，数量较多时保存在磁盘索引中，
+     * 每个线程拥有独立的前向页、后向页和热点缓存，只有从磁盘加载页时需要同步。每个工作表都使用独立的
+     * 输入流，需要在读取工作表前调用</p>
+     *
+     * <pre>
+     * try (ExcelReader reader = ExcelReader.read(path).concurrent()) {
+     *     reader.sheets().parallel().forEach(sheet -&gt; ...);
+     * }</pre>
+     *
+     * @return 当前Excel解析器
+     */
+    public ExcelReader concurrent() {
+        return concurrent(SharedStrings.DEFAULT_CONCURRENT_COPY_LIMIT);
+    }
+
+    /**
+     * 开启并发读取模式并指定复制到内存的共享字符串上限，共享字符串数量不超过该值时复制到一个不可变的数组中，
+     * 超过时保存在磁盘索引中由各线程独立的缓存页访问，详情参考{@link #concurrent()}
+     *
+     * @param copyLimit 复制到内存的共享字符串上限，默认{@link SharedStrings#DEFAULT_CONCURRENT_COPY_LIMIT}
+     * @return 当前Excel解析器
+     */
+    public ExcelReader concurrent(int copyLimit) {
+        if (sharedStringTable != null && !sharedStringTable.isConcurrent()) {
+            try {
+                sharedStringTable = sharedStringTable.toConcurrent(copyLimit);
+            } catch (IOException e) {
+                throw new ExcelReadException("Load the shared strings error occur.", e);
             }
-        };
-        return StreamSupport.stream(Spliterators.spliterator(iter, sheets.length
-            , Spliterator.ORDERED | Spliterator.NONNULL), false);
+            if (sheets != null) {
+                for (Sheet sheet : sheets) {
+                    if (sheet instanceof XMLSheet) ((XMLSheet) sheet).setSharedStrings(sharedStringTable);
+                }
+            }
+        }
+        return this;
     }
 
     /**
@@ -603,6 +637,32 @@ public class ExcelReader implements Closeable {
         return sharedStringTable;
     }
 
+    /**
+     * 开启或关闭工作表的解析统计，开启后统计每个工作表解压的字节数、解析的行数和单元格数以及
+     * 查找行、解析单元格和绑定对象的耗时，需要在读取工作表前调用。共享字符串的统计不受此开关影响
+     *
+     * @param enabled true: 开启统计
+     * @return 当前Excel解析器
+     */
+    public ExcelReader setStatsEnabled(boolean enabled) {
+        if (sheets != null) {
+            for (Sheet sheet : sheets) {
+                if (sheet instanceof XMLSheet) ((XMLSheet) sheet).setStatsEnabled(enabled);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 获取读取统计的快照，包含共享字符串的缓存命中情况，开启{@link #setStatsEnabled(boolean)}时
+     * 同时包含每个工作表的解析统计
+     *
+     * @return 读取统计{@link ReaderStats}
+     */
+    public ReaderStats getStats() {
+        return ReaderStats.of(sharedStringTable, sheets);
+    }
+
     /**
      * 判断文件格式，读取少量文件头字节来判断是否为BIFF和ZIP的文件签名
      *
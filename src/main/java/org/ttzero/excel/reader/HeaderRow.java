@@ -24,6 +24,7 @@ import org.ttzero.excel.entity.Column;
 import org.ttzero.excel.entity.ListSheet;
 import org.ttzero.excel.manager.Const;
 import org.ttzero.excel.processor.Converter;
+import org.ttzero.excel.util.LambdaAccessors;
 import org.ttzero.excel.util.StringUtil;
 
 import java.beans.IntrospectionException;
@@ -44,6 +45,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
 import java.util.stream.Collectors;
 
 import static org.ttzero.excel.entity.IWorksheetWriter.isBool;
@@ -81,12 +87,14 @@ public class HeaderRow extends Row {
     public static final int  CAMEL_CASE = 1 << 2;
 
     protected String[] names;
-    protected Class<?> clazz;
+    protected volatile Class<?> clazz;
     protected Object t;
     /* The column name and column position mapping */
     protected Map<String, Integer> mapping;
     /* Storage header column */
     protected ListSheet.EntryColumn[] columns;
+    /* The compiled setters of each column, {@code null} if the binding falls back to reflection */
+    protected CellSetter[] setters;
 
     // Specify total rows of header
     protected int headRows;
@@ -179,7 +187,6 @@ public class HeaderRow extends Row {
      * @return the header row
      */
     protected HeaderRow setClass(Class<?> clazz) {
-        this.clazz = clazz;
         // Parse Field
         Field[] declaredFields = listDeclaredFields(clazz, c -> !ignoreColumn(c));
 
@@ -321,6 +328,12 @@ public class HeaderRow extends Row {
                 .map(e -> (e instanceof ListSheet.EntryColumn) ? (ListSheet.EntryColumn) e : new ListSheet.EntryColumn(e))
                 .toArray(ListSheet.EntryColumn[]::new);
 
+        // Compile the setters once
+        compileSetters();
+
+        // Publish the class at last, the rows parsed in parallel test it without lock
+        this.clazz = clazz;
+
         return this;
     }
 
@@ -456,18 +469,39 @@ public class HeaderRow extends Row {
     }
 
     void put(Row row, Object t) throws IllegalAccessException, InvocationTargetException {
+        ReaderStats.SheetStats stats = row.stats;
+        if (stats == null) {
+            put0(row, t);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            put0(row, t);
+        } finally {
+            stats.bindNanos += System.nanoTime() - start;
+        }
+    }
+
+    private void put0(Row row, Object t) throws IllegalAccessException, InvocationTargetException {
         int i = 0;
         try {
-            for (; i < columns.length; i++) {
-                if (columns[i].method != null)
-                    methodPut(i, row, t);
-                else
-                    fieldPut(i, row, t);
+            if (setters != null) {
+                for (; i < setters.length; i++) setters[i].put(row, t);
+            } else {
+                for (; i < columns.length; i++) {
+                    if (columns[i].method != null)
+                        methodPut(i, row, t);
+                    else
+                        fieldPut(i, row, t);
+                }
             }
         }
         catch (IllegalAccessException | InvocationTargetException ex) {
             throw ex;
         }
+        catch (SetterInvocationException ex) {
+            throw new InvocationTargetException(ex.getCause());
+        }
         catch (Exception ex) {
             ListSheet.EntryColumn c = columns[i];
             int rowNum = row.getRowNum();
@@ -480,6 +514,163 @@ public class HeaderRow extends Row {
         }
     }
 
+    /**
+     * Compile a setter for each column, the setters are resolved by the column type once,
+     * and the {@code int}, {@code long} and {@code double} members are set without boxing.
+     * <p>
+     * The compiled setters are disabled if the {@link #fieldPut} or {@link #methodPut} is overridden
+     */
+    protected void compileSetters() {
+        if (columns == null || isPutOverridden()) {
+            setters = null;
+            return;
+        }
+        CellSetter[] setters = new CellSetter[columns.length];
+        for (int i = 0; i < columns.length; i++) setters[i] = compileSetter(i);
+        this.setters = setters;
+    }
+
+    /**
+     * Compile the setter of the specified column, it falls back to {@link #fieldPut} or
+     * {@link #methodPut} if the column has a converter, or the column type does not match
+     * the member type, or the member cannot be accessed
+     *
+     * @param i the index of columns
+     * @return the setter
+     */
+    protected CellSetter compileSetter(int i) {
+        ListSheet.EntryColumn ec = columns[i];
+        final Method method = ec.method;
+        final Field field = ec.field;
+        CellSetter fallback = method != null ? (row, t) -> methodPut(i, row, t) : (row, t) -> fieldPut(i, row, t);
+        Class<?> clazz = ec.clazz;
+        if (ec.converter != null || clazz == null || clazz == RowNum.class
+            || (method != null ? method.getParameterCount() != 1 || method.getParameterTypes()[0] != clazz
+            : field == null || field.getType() != clazz)) return fallback;
+
+        final int c = ec.colIndex;
+        if (clazz == int.class) {
+            ObjIntConsumer<Object> s = method != null ? invoker(LambdaAccessors.intSetter(method)) : LambdaAccessors.intSetter(field);
+            return s != null ? (row, t) -> s.accept(t, row.getInt(row.getCell(c), 0)) : fallback;
+        }
+        if (clazz == long.class) {
+            ObjLongConsumer<Object> s = method != null ? invoker(LambdaAccessors.longSetter(method)) : LambdaAccessors.longSetter(field);
+            return s != null ? (row, t) -> s.accept(t, row.getLong(row.getCell(c), 0L)) : fallback;
+        }
+        if (clazz == double.class) {
+            ObjDoubleConsumer<Object> s = method != null ? invoker(LambdaAccessors.doubleSetter(method)) : LambdaAccessors.doubleSetter(field);
+            return s != null ? (row, t) -> s.accept(t, row.getDouble(row.getCell(c), 0.0D)) : fallback;
+        }
+
+        BiFunction<Row, Cell, Object> reader = readerOf(clazz);
+        if (reader == null) return fallback;
+        BiConsumer<Object, Object> s = method != null ? invoker(LambdaAccessors.setter(method)) : LambdaAccessors.setter(field);
+        return s != null ? (row, t) -> s.accept(t, reader.apply(row, row.getCell(c))) : fallback;
+    }
+
+    /**
+     * Returns the cell reader of the specified type, the same as the type chain in {@link #fieldPut}
+     *
+     * @param clazz the column type
+     * @return the cell reader, {@code null} if the type is not supported
+     */
+    protected static BiFunction<Row, Cell, Object> readerOf(Class<?> clazz) {
+        if (clazz == String.class) return Row::getString;
+        if (clazz == Integer.class) return Row::getInt;
+        if (clazz == Long.class) return Row::getLong;
+        if (clazz == java.util.Date.class || clazz == java.sql.Date.class) return Row::getDate;
+        if (clazz == java.sql.Timestamp.class) return Row::getTimestamp;
+        if (clazz == Double.class) return Row::getDouble;
+        if (clazz == Float.class) return Row::getFloat;
+        if (clazz == Boolean.class) return Row::getBoolean;
+        if (clazz == BigDecimal.class) return Row::getDecimal;
+        if (clazz == float.class) return (row, c) -> { Float v = row.getFloat(c); return v != null ? v : 0.0F; };
+        if (clazz == boolean.class) return (row, c) -> { Boolean v = row.getBoolean(c); return v != null ? v : false; };
+        if (clazz == java.sql.Time.class) return Row::getTime;
+        if (clazz == LocalDateTime.class) return Row::getLocalDateTime;
+        if (clazz == LocalDate.class) return Row::getLocalDate;
+        if (clazz == LocalTime.class) return Row::getLocalTime;
+        if (clazz == Character.class) return Row::getChar;
+        if (clazz == Byte.class) return Row::getByte;
+        if (clazz == Short.class) return Row::getShort;
+        if (clazz == char.class) return (row, c) -> { Character v = row.getChar(c); return v != null ? v : '\0'; };
+        if (clazz == byte.class) return (row, c) -> { Byte v = row.getByte(c); return v != null ? v : (byte) 0; };
+        if (clazz == short.class) return (row, c) -> { Short v = row.getShort(c); return v != null ? v : (short) 0; };
+        return null;
+    }
+
+    /**
+     * Check if the {@link #fieldPut} or {@link #methodPut} is overridden by subclass
+     */
+    private boolean isPutOverridden() {
+        for (Class<?> c = getClass(); c != HeaderRow.class; c = c.getSuperclass()) {
+            for (Method m : c.getDeclaredMethods()) {
+                if (("fieldPut".equals(m.getName()) || "methodPut".equals(m.getName()))
+                    && Arrays.equals(m.getParameterTypes(), PUT_PARAMETER_TYPES)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static final Class<?>[] PUT_PARAMETER_TYPES = { int.class, Row.class, Object.class };
+
+    /*
+     * The exceptions thrown by setter method are wrapped as InvocationTargetException like Method#invoke
+     */
+    private static ObjIntConsumer<Object> invoker(ObjIntConsumer<Object> s) {
+        return s != null ? (o, v) -> {
+            try {
+                s.accept(o, v);
+            } catch (Throwable e) {
+                throw new SetterInvocationException(e);
+            }
+        } : null;
+    }
+
+    private static ObjLongConsumer<Object> invoker(ObjLongConsumer<Object> s) {
+        return s != null ? (o, v) -> {
+            try {
+                s.accept(o, v);
+            } catch (Throwable e) {
+                throw new SetterInvocationException(e);
+            }
+        } : null;
+    }
+
+    private static ObjDoubleConsumer<Object> invoker(ObjDoubleConsumer<Object> s) {
+        return s != null ? (o, v) -> {
+            try {
+                s.accept(o, v);
+            } catch (Throwable e) {
+                throw new SetterInvocationException(e);
+            }
+        } : null;
+    }
+
+    private static BiConsumer<Object, Object> invoker(BiConsumer<Object, Object> s) {
+        return s != null ? (o, v) -> {
+            try {
+                s.accept(o, v);
+            } catch (Throwable e) {
+                throw new SetterInvocationException(e);
+            }
+        } : null;
+    }
+
+    /**
+     * Set the cell value of row into the object
+     */
+    @FunctionalInterface
+    protected interface CellSetter {
+        void put(Row row, Object t) throws IllegalAccessException, InvocationTargetException;
+    }
+
+    private static class SetterInvocationException extends RuntimeException {
+        SetterInvocationException(Throwable cause) {
+            super(cause);
+        }
+    }
+
     protected void fieldPut(int i, Row row, Object t) throws IllegalAccessException {
         ListSheet.EntryColumn ec = columns[i];
         int c = ec.colIndex;
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.reader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 读取统计，包含共享字符串的缓存命中情况和每个工作表的解析吞吐量，通过{@link ExcelReader#getStats()}获取，
+ * 返回的对象是调用时的快照，可以根据统计数据调整共享字符串的{@code cacheSize}和{@code hotSize}
+ *
+ * <p>工作表的统计需要在读取前调用{@link ExcelReader#setStatsEnabled(boolean)}开启，未开启时只包含共享字符串的统计。
+ * 所有耗时单位均为纳秒，其中{@code nextRow}的耗时不包含单元格解析的耗时</p>
+ *
+ * <pre>
+ * try (ExcelReader reader = ExcelReader.read(path).setStatsEnabled(true)) {
+ *     reader.sheet(0).rows().forEach(row -&gt; ...);
+ *     ReaderStats stats = reader.getStats();
+ *     System.out.println(stats.getHotHitRate());
+ * }</pre>
+ *
+ * @author guanquan.wang at 2024-04-04 10:15
+ */
+public class ReaderStats {
+    /**
+     * 共享字符串查找总次数
+     */
+    private long sstLookups;
+    /**
+     * 命中前向页和后向页的次数
+     */
+    private long sstForwardHits, sstBackwardHits;
+    /**
+     * 命中热点缓存的次数
+     */
+    private long sstHotHits;
+    /**
+     * 从XML中解析共享字符串页的次数
+     */
+    private long sstPageLoads;
+    /**
+     * 从磁盘索引{@link IndexSharedStringTable}读取页的次数
+     */
+    private long sstDiskReads;
+    /**
+     * 共享字符串的页大小和热点缓存大小
+     */
+    private int sstPageSize, sstHotSize;
+    /**
+     * 工作表统计
+     */
+    private List<SheetStats> sheets = Collections.emptyList();
+
+    /**
+     * 创建读取统计快照
+     *
+     * @param sst    共享字符串，可能为{@code null}
+     * @param sheets 工作表
+     * @return 读取统计
+     */
+    static ReaderStats of(SharedStrings sst, Sheet[] sheets) {
+        ReaderStats stats = new ReaderStats();
+        if (sst != null) {
+            stats.sstLookups = sst.getTotal();
+            stats.sstForwardHits = sst.getForwardHits();
+            stats.sstBackwardHits = sst.getBackwardHits();
+            stats.sstHotHits = sst.getHotHits();
+            stats.sstPageLoads = sst.getPageLoads();
+            stats.sstDiskReads = sst.getDiskReads();
+            stats.sstPageSize = sst.getPageSize();
+            stats.sstHotSize = sst.getHotSize();
+        }
+        if (sheets != null) {
+            List<SheetStats> list = new ArrayList<>(sheets.length);
+            for (Sheet sheet : sheets) {
+                if (sheet instanceof XMLSheet && ((XMLSheet) sheet).stats != null)
+                    list.add(((XMLSheet) sheet).stats.copy());
+            }
+            stats.sheets = Collections.unmodifiableList(list);
+        }
+        return stats;
+    }
+
+    /**
+     * 获取共享字符串查找总次数
+     *
+     * @return 查找总次数
+     */
+    public long getSstLookups() {
+        return sstLookups;
+    }
+
+    /**
+     * 获取命中前向页的次数
+     *
+     * @return 命中前向页的次数
+     */
+    public long getSstForwardHits() {
+        return sstForwardHits;
+    }
+
+    /**
+     * 获取命中后向页的次数
+     *
+     * @return 命中后向页的次数
+     */
+    public long getSstBackwardHits() {
+        return sstBackwardHits;
+    }
+
+    /**
+     * 获取命中热点缓存的次数
+     *
+     * @return 命中热点缓存的次数
+     */
+    public long getSstHotHits() {
+        return sstHotHits;
+    }
+
+    /**
+     * 获取从XML中解析共享字符串页的次数
+     *
+     * @return 解析页的次数
+     */
+    public long getSstPageLoads() {
+        return sstPageLoads;
+    }
+
+    /**
+     * 获取从磁盘索引读取页的次数，频繁读取说明{@code cacheSize}过小或数据离散
+     *
+     * @return 磁盘读取次数
+     */
+    public long getSstDiskReads() {
+        return sstDiskReads;
+    }
+
+    /**
+     * 获取共享字符串的页大小（{@code cacheSize}）
+     *
+     * @return 页大小
+     */
+    public int getSstPageSize() {
+        return sstPageSize;
+    }
+
+    /**
+     * 获取热点缓存大小（{@code hotSize}）
+     *
+     * @return 热点缓存大小
+     */
+    public int getSstHotSize() {
+        return sstHotSize;
+    }
+
+    /**
+     * 获取热点缓存命中率，未命中前向页和后向页的查找中由热点缓存命中的比例
+     *
+     * @return 命中率[0, 1]，没有需要热点缓存的查找时返回{@code 0}
+     */
+    public double getHotHitRate() {
+        long n = sstLookups - sstForwardHits - sstBackwardHits;
+        return n > 0 ? (double) sstHotHits / n : 0.0D;
+    }
+
+    /**
+     * 获取所有开启统计的工作表统计
+     *
+     * @return 工作表统计，按工作表顺序排列
+     */
+    public List<SheetStats> getSheets() {
+        return sheets;
+    }
+
+    @Override
+    public String toString() {
+        return "SST: {Lookups: " + sstLookups + ", Forward: " + sstForwardHits + ", Backward: " + sstBackwardHits
+            + ", Hot: " + sstHotHits + ", PageLoads: " + sstPageLoads + ", DiskReads: " + sstDiskReads + "}, Sheets: " + sheets;
+    }
+
+    /**
+     * 工作表统计，由解析线程累加
+     */
+    public static class SheetStats {
+        final String name;
+        /**
+         * 解压后的字节数
+         */
+        long inflatedBytes;
+        /**
+         * 解析的行数和单元格数
+         */
+        long rows, cells;
+        /**
+         * 查找行、解析单元格和绑定对象的耗时
+         */
+        long nextRowNanos, parseNanos, bindNanos;
+
+        SheetStats(String name) {
+            this.name = name;
+        }
+
+        SheetStats copy() {
+            SheetStats o = new SheetStats(name);
+            o.inflatedBytes = inflatedBytes;
+            o.rows = rows;
+            o.cells = cells;
+            o.nextRowNanos = nextRowNanos;
+            o.parseNanos = parseNanos;
+            o.bindNanos = bindNanos;
+            return o;
+        }
+
+        /**
+         * 获取工作表名
+         *
+         * @return 工作表名
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 获取解压后的字节数，重置工作表后重新读取的字节也会被统计
+         *
+         * @return 解压后的字节数
+         */
+        public long getInflatedBytes() {
+            return inflatedBytes;
+        }
+
+        /**
+         * 获取解析的行数，包含空行
+         *
+         * @return 行数
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * 获取解析的单元格数，按每行的列范围统计
+         *
+         * @return 单元格数
+         */
+        public long getCells() {
+            return cells;
+        }
+
+        /**
+         * 获取查找行的耗时，包含读取和解压但不包含单元格解析
+         *
+         * @return 耗时（纳秒）
+         */
+        public long getNextRowNanos() {
+            return nextRowNanos;
+        }
+
+        /**
+         * 获取单元格解析的耗时
+         *
+         * @return 耗时（纳秒）
+         */
+        public long getParseNanos() {
+            return parseNanos;
+        }
+
+        /**
+         * 获取行数据绑定为对象的耗时
+         *
+         * @return 耗时（纳秒）
+         */
+        public long getBindNanos() {
+            return bindNanos;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": {InflatedBytes: " + inflatedBytes + ", Rows: " + rows + ", Cells: " + cells
+                + ", NextRow: " + nextRowNanos + "ns, Parse: " + parseNanos + "ns, Bind: " + bindNanos + "ns}";
+        }
+    }
+}
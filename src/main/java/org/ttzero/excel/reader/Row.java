@@ -104,6 +104,10 @@ public class Row {
      * The global styles
      */
     protected Styles styles;
+    /**
+     * The parse statistics, {@code null} if the statistics is disabled
+     */
+    protected ReaderStats.SheetStats stats;
 
     /**
      * 获取行号，与你打开Excel文件看到的一样从1开始
@@ -517,6 +521,36 @@ public class Row {
         return n;
     }
 
+    /**
+     * 获取单元格的值并转为{@code int}类型，数字类型的单元格直接取值不产生装箱
+     *
+     * @param columnIndex 单元格索引
+     * @param defaultValue 单元格无值时返回的默认值
+     * @return {@code numeric}和{@code string}类型能强转为{@code int}，其余类型返回默认值
+     */
+    public int getInt(int columnIndex, int defaultValue) {
+        Cell c = getCell(columnIndex);
+        return getInt(c, defaultValue);
+    }
+
+    /**
+     * 获取单元格的值并转为{@code int}类型，数字类型的单元格直接取值不产生装箱
+     *
+     * @param c 单元格{@link Cell}
+     * @param defaultValue 单元格无值时返回的默认值
+     * @return {@code numeric}和{@code string}类型能强转为{@code int}，其余类型返回默认值
+     */
+    public int getInt(Cell c, int defaultValue) {
+        switch (c.t) {
+            case NUMERIC    : return c.intVal;
+            case LONG       : return (int) c.longVal;
+            case DOUBLE     : return (int) c.doubleVal;
+            default         :
+                Integer n = getInt(c);
+                return n != null ? n : defaultValue;
+        }
+    }
+
     /**
      * 获取单元格的值并转为{@code Long}类型
      *
@@ -570,6 +604,36 @@ public class Row {
         return l;
     }
 
+    /**
+     * 获取单元格的值并转为{@code long}类型，数字类型的单元格直接取值不产生装箱
+     *
+     * @param columnIndex 单元格索引
+     * @param defaultValue 单元格无值时返回的默认值
+     * @return {@code numeric}和{@code string}类型能强转为{@code long}，其余类型返回默认值
+     */
+    public long getLong(int columnIndex, long defaultValue) {
+        Cell c = getCell(columnIndex);
+        return getLong(c, defaultValue);
+    }
+
+    /**
+     * 获取单元格的值并转为{@code long}类型，数字类型的单元格直接取值不产生装箱
+     *
+     * @param c 单元格{@link Cell}
+     * @param defaultValue 单元格无值时返回的默认值
+     * @return {@code numeric}和{@code string}类型能强转为{@code long}，其余类型返回默认值
+     */
+    public long getLong(Cell c, long defaultValue) {
+        switch (c.t) {
+            case LONG       : return c.longVal;
+            case NUMERIC    : return c.intVal;
+            case DOUBLE     : return (long) c.doubleVal;
+            default         :
+                Long l = getLong(c);
+                return l != null ? l : defaultValue;
+        }
+    }
+
     /**
      * 获取单元格的值并转为{@code String}类型
      *
@@ -693,6 +757,36 @@ public class Row {
         return d;
     }
 
+    /**
+     * 获取单元格的值并转为{@code double}类型，数字类型的单元格直接取值不产生装箱
+     *
+     * @param columnIndex 单元格索引
+     * @param defaultValue 单元格无值时返回的默认值
+     * @return 单元格有值时强转为{@code double}否则返回默认值，此接口可能抛{@code NumberFormatException}异常
+     */
+    public double getDouble(int columnIndex, double defaultValue) {
+        Cell c = getCell(columnIndex);
+        return getDouble(c, defaultValue);
+    }
+
+    /**
+     * 获取单元格的值并转为{@code double}类型，数字类型的单元格直接取值不产生装箱
+     *
+     * @param c 单元格{@link Cell}
+     * @param defaultValue 单元格无值时返回的默认值
+     * @return 单元格有值时强转为{@code double}否则返回默认值，此接口可能抛{@code NumberFormatException}异常
+     */
+    public double getDouble(Cell c, double defaultValue) {
+        switch (c.t) {
+            case DOUBLE     : return c.doubleVal;
+            case NUMERIC    : return c.intVal;
+            case LONG       : return c.longVal;
+            default         :
+                Double d = getDouble(c);
+                return d != null ? d : defaultValue;
+        }
+    }
+
     /**
      * 获取单元格的值并转为{@code java.math.BigDecimal}类型
      *
@@ -1245,7 +1339,9 @@ public class Row {
         }
         // reset class info
         if (!hr.is(clazz)) {
-            hr.setClass(clazz);
+            synchronized (hr) {
+                if (!hr.is(clazz)) hr.setClass(clazz);
+            }
         }
         T t;
         try {
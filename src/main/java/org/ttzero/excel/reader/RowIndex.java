@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.reader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 行检查点索引，记录工作表每隔{@code interval}行的行号和该行{@code <row>}标签在解压后的字节偏移量，
+ * 用于{@link Sheet#seek(int)}和{@link Sheet#rows(int, int)}快速定位到指定行。
+ *
+ * <p>定位时直接跳过检查点之前的解压字节，不需要解码字符也不需要解析行和单元格。索引通过扫描解压后的原始字节创建，
+ * 可以通过{@link #save(Path)}保存到文件，下次读取相同文件时通过{@link #load(Path)}加载后设置到工作表，
+ * 索引中保存了工作表的大小和CRC，与工作表不匹配的索引将被忽略</p>
+ *
+ * <pre>
+ * XMLSheet sheet = (XMLSheet) reader.sheet(0);
+ * sheet.getRowIndex().save(indexPath);
+ * ...
+ * sheet.setRowIndex(RowIndex.load(indexPath)).rows(900_000, 900_100).forEach(row -&gt; ...);</pre>
+ *
+ * @author guanquan.wang at 2024-04-08 10:20
+ */
+public class RowIndex {
+    /**
+     * 默认间隔行数
+     */
+    public static final int DEFAULT_INTERVAL = 1 << 10;
+    /**
+     * 文件标识"EECR"
+     */
+    private static final int MAGIC = 0x45454352, VERSION = 1;
+    /**
+     * 工作表解压后的大小和CRC
+     */
+    private final long size, crc;
+    /**
+     * 检查点间隔行数
+     */
+    private final int interval;
+    /**
+     * 检查点的行号，递增
+     */
+    private int[] rowNums;
+    /**
+     * 检查点的字节偏移量
+     */
+    private long[] offsets;
+    /**
+     * 检查点数量
+     */
+    private int count;
+
+    RowIndex(long size, long crc, int interval) {
+        this.size = size;
+        this.crc = crc;
+        this.interval = interval;
+        this.rowNums = new int[16];
+        this.offsets = new long[16];
+    }
+
+    /**
+     * 扫描解压后的工作表字节创建索引，{@code <row>}标签都是ASCII字符，所以不需要解码字符
+     *
+     * @param is       工作表输入流，由调用方关闭
+     * @param size     工作表解压后的大小
+     * @param crc      工作表的CRC
+     * @param interval 间隔行数
+     * @return 行检查点索引
+     * @throws IOException 读取异常
+     */
+    static RowIndex build(InputStream is, long size, long crc, int interval) throws IOException {
+        if (interval < 1) throw new IllegalArgumentException("The interval must be greater than 0");
+        RowIndex index = new RowIndex(size, crc, interval);
+        byte[] buf = new byte[1 << 16];
+        // The offset of buf[0]
+        long base = 0L;
+        int n = 0, i = 0, rows = 0, lastRowNum = 0;
+        for (boolean eof = false; ; ) {
+            // Keep at least a whole row tag in buffer
+            if (!eof && n - i <= 256) {
+                if (i > 0) {
+                    System.arraycopy(buf, i, buf, 0, n - i);
+                    base += i;
+                    n -= i;
+                    i = 0;
+                }
+                for (int len; n < buf.length && (len = is.read(buf, n, buf.length - n)) >= 0; n += len) ;
+                if (n < buf.length) eof = true;
+            }
+            for (int limit = eof ? n - 5 : n - 256; i < limit; i++) {
+                if (buf[i] == '<' && buf[i + 1] == 'r' && buf[i + 2] == 'o' && buf[i + 3] == 'w'
+                    && (buf[i + 4] <= ' ' || buf[i + 4] == '>' || buf[i + 4] == '/')) break;
+            }
+            if (i >= (eof ? n - 5 : n - 256)) {
+                if (eof) break;
+                continue;
+            }
+            int rowNum = rowNumAt(buf, i, n);
+            // The r attribute is omitted, the row follows the previous one
+            if (rowNum <= 0) rowNum = lastRowNum + 1;
+            if (rows++ % interval == 0) index.add(rowNum, base + i);
+            lastRowNum = rowNum;
+            i += 4;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the {@code r} attribute of the row tag
+     */
+    private static int rowNumAt(byte[] buf, int i, int to) {
+        for (i += 4; i < to - 3 && buf[i] != '>'; i++) {
+            if (buf[i] <= ' ' && buf[i + 1] == 'r' && buf[i + 2] == '=') {
+                int n = 0;
+                for (i += 4; i < to && buf[i] >= '0' && buf[i] <= '9'; i++) n = n * 10 + buf[i] - '0';
+                return n;
+            }
+        }
+        return -1;
+    }
+
+    private void add(int rowNum, long offset) {
+        if (count == rowNums.length) {
+            rowNums = Arrays.copyOf(rowNums, count << 1);
+            offsets = Arrays.copyOf(offsets, count << 1);
+        }
+        rowNums[count] = rowNum;
+        offsets[count++] = offset;
+    }
+
+    /**
+     * 查找行号小于等于{@code rowNum}的最后一个检查点
+     *
+     * @param rowNum 行号（从1开始）
+     * @return 检查点下标，没有时返回{@code -1}
+     */
+    int floor(int rowNum) {
+        int i = Arrays.binarySearch(rowNums, 0, count, rowNum);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    /**
+     * 判断索引是否属于指定工作表
+     *
+     * @param size 工作表解压后的大小
+     * @param crc  工作表的CRC
+     * @return true: 匹配
+     */
+    boolean matches(long size, long crc) {
+        return this.size == size && this.crc == crc;
+    }
+
+    /**
+     * 获取检查点间隔行数
+     *
+     * @return 间隔行数
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * 获取检查点数量
+     *
+     * @return 检查点数量
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * 获取检查点的行号
+     *
+     * @param i 检查点下标
+     * @return 行号（从1开始）
+     */
+    public int getRowNum(int i) {
+        if (i < 0 || i >= count) throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + count);
+        return rowNums[i];
+    }
+
+    /**
+     * 获取检查点在解压后的工作表中的字节偏移量
+     *
+     * @param i 检查点下标
+     * @return 字节偏移量
+     */
+    public long getOffset(int i) {
+        if (i < 0 || i >= count) throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + count);
+        return offsets[i];
+    }
+
+    /**
+     * 保存索引到文件
+     *
+     * @param path 索引文件路径
+     * @throws IOException 写文件异常
+     */
+    public void save(Path path) throws IOException {
+        try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            os.writeInt(MAGIC);
+            os.writeInt(VERSION);
+            os.writeLong(size);
+            os.writeLong(crc);
+            os.writeInt(interval);
+            os.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                os.writeInt(rowNums[i]);
+                os.writeLong(offsets[i]);
+            }
+        }
+    }
+
+    /**
+     * 从文件加载索引
+     *
+     * @param path 索引文件路径
+     * @return 行检查点索引
+     * @throws IOException 读文件异常或者文件格式不正确
+     */
+    public static RowIndex load(Path path) throws IOException {
+        try (DataInputStream is = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (is.readInt() != MAGIC || is.readInt() != VERSION)
+                throw new IOException("The file [" + path + "] is not a row index.");
+            RowIndex index = new RowIndex(is.readLong(), is.readLong(), is.readInt());
+            int count = is.readInt();
+            index.rowNums = new int[Math.max(count, 1)];
+            index.offsets = new long[Math.max(count, 1)];
+            for (int i = 0; i < count; i++) index.add(is.readInt(), is.readLong());
+            return index;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Interval: " + interval + ", Checkpoints: " + count;
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.reader;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A splitting row spliterator of {@link XMLSheet}, the thread which holds this spliterator
+ * inflates the worksheet and slices the xml into chunks at the {@code <row>} boundaries, each
+ * chunk is a {@link Spliterator} which parses rows into its own {@link XMLRow}, so the chunks
+ * can be parsed by the fork-join workers at the same time. The chunk can be split again at
+ * the middle {@code <row>}.
+ * <p>
+ * The blank rows are skipped like {@link XMLSheet#dataIterator()}. The rows of one chunk are
+ * shared (memory reused) just like the sequential iterator, so it must be converted before
+ * collecting.
+ *
+ * @author guanquan.wang at 2024-04-07 09:30
+ */
+class RowSpliterator implements Spliterator<Row> {
+    /**
+     * The number of characters per chunk
+     */
+    static final int CHUNK_SIZE = 1 << 16;
+    /**
+     * A chunk smaller than this will not be split
+     */
+    static final int MIN_SPLIT_SIZE = 1 << 12;
+    /**
+     * Estimated characters per row if the row number is unknown
+     */
+    static final int CHARS_PER_ROW = 64;
+
+    private final XMLSheet sheet;
+    private final SharedStrings sst;
+    /**
+     * The chunk being consumed by current spliterator
+     */
+    private Chunk current;
+    /**
+     * Estimated number of remaining rows
+     */
+    private long est;
+
+    RowSpliterator(XMLSheet sheet) {
+        this.sheet = sheet;
+        // The chunks are parsed at the same time, the lookups must be thread-safe
+        this.sst = sheet.sst != null && !sheet.sst.isConcurrent() ? SharedStrings.synchronizedView(sheet.sst) : sheet.sst;
+        Dimension dim = sheet.dimension;
+        int rowNum = sheet.sRow != null ? Math.max(sheet.sRow.getRowNum(), 0) : 0;
+        this.est = dim != null && dim.lastRow > rowNum ? dim.lastRow - rowNum : Long.MAX_VALUE;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Row> action) {
+        for (; ; ) {
+            if (current == null && (current = slice()) == null) return false;
+            if (current.tryAdvance(action)) return true;
+            current = null;
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Row> action) {
+        for (; current != null || (current = slice()) != null; current = null) {
+            current.forEachRemaining(action);
+        }
+    }
+
+    @Override
+    public Spliterator<Row> trySplit() {
+        // The prefix is the chunk being consumed or the next chunk
+        Chunk chunk = current;
+        if (chunk != null) current = null;
+        else chunk = slice();
+        return chunk;
+    }
+
+    @Override
+    public long estimateSize() {
+        return est;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * Read and slice the next chunk from the worksheet
+     *
+     * @return the next chunk, or {@code null} if the end of sheet data
+     */
+    private Chunk slice() {
+        XMLSheet sheet = this.sheet;
+        if (sheet.eof) return null;
+        char[] cb = sheet.cb;
+        // Move the remaining characters to the beginning
+        int n = sheet.length - sheet.nChar;
+        if (n > 0 && sheet.nChar > 0) System.arraycopy(cb, sheet.nChar, cb, 0, n);
+        else if (n < 0) n = 0;
+        if (cb.length < CHUNK_SIZE) cb = sheet.cb = Arrays.copyOf(cb, CHUNK_SIZE);
+        sheet.nChar = 0;
+        sheet.length = n;
+
+        try {
+            for (; ; ) {
+                // Fill the buffer
+                int len = 0;
+                while (sheet.reader != null && n < cb.length && (len = sheet.reader.read(cb, n, cb.length - n)) >= 0) n += len;
+                sheet.length = n;
+
+                // End of file, the tail is the last chunk
+                if (len < 0 || sheet.reader == null) {
+                    sheet.eof = true;
+                    if (sheet.reader != null) {
+                        sheet.reader.close();
+                        sheet.reader = null;
+                    }
+                    sheet.nChar = n;
+                    int first = indexOfRow(cb, 0, n);
+                    if (first < 0) return null;
+                    int firstNum = rowNumAt(cb, first, n);
+                    Dimension dim = sheet.dimension;
+                    long size = dim != null && firstNum > 0 && dim.lastRow >= firstNum ? dim.lastRow - firstNum + 1 : n / CHARS_PER_ROW + 1;
+                    est = 0L;
+                    return new Chunk(Arrays.copyOfRange(cb, first, n), 0, n - first, size);
+                }
+
+                // Slice at the beginning of the last row
+                int cut = lastIndexOfRow(cb, n);
+                int first = cut > 0 ? indexOfRow(cb, 0, cut) : -1;
+                if (first < 0 || first >= cut) {
+                    // The row is greater than buffer size
+                    cb = sheet.cb = Arrays.copyOf(cb, cb.length << 1);
+                    continue;
+                }
+                int firstNum = rowNumAt(cb, first, cut), lastNum = rowNumAt(cb, cut, n);
+                long size = firstNum > 0 && lastNum > firstNum ? lastNum - firstNum : (cut - first) / CHARS_PER_ROW + 1;
+                Chunk chunk = new Chunk(Arrays.copyOfRange(cb, first, cut), 0, cut - first, size);
+                sheet.nChar = cut;
+                if (est != Long.MAX_VALUE) est = Math.max(est - size, 0L);
+                return chunk;
+            }
+        } catch (IOException e) {
+            throw new ExcelReadException("Parse row data error", e);
+        }
+    }
+
+    /**
+     * Test the {@code <row} tag, the {@code <rowBreaks>} and others are excluded
+     */
+    static boolean isRowTag(char[] cb, int i) {
+        return cb[i] == '<' && cb[i + 1] == 'r' && cb[i + 2] == 'o' && cb[i + 3] == 'w'
+            && (cb[i + 4] <= ' ' || cb[i + 4] == '>' || cb[i + 4] == '/');
+    }
+
+    /**
+     * Returns the index of the first {@code <row} tag in the range
+     */
+    static int indexOfRow(char[] cb, int from, int to) {
+        for (int i = from, n = to - 5; i < n; i++) {
+            if (isRowTag(cb, i)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the last {@code <row} tag
+     */
+    static int lastIndexOfRow(char[] cb, int to) {
+        for (int i = to - 6; i >= 0; i--) {
+            if (isRowTag(cb, i)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the {@code r} attribute of the row tag, or {@code -1} if not found
+     */
+    static int rowNumAt(char[] cb, int i, int to) {
+        for (i += 4; i < to - 3 && cb[i] != '>'; i++) {
+            if (cb[i] <= ' ' && cb[i + 1] == 'r' && cb[i + 2] == '=') {
+                int a = i += 4;
+                for (; i < to && cb[i] >= '0' && cb[i] <= '9'; i++) ;
+                return i > a && i < to ? SharedStrings.toInt(cb, a, i) : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A chunk of complete rows, the characters are read only and can be shared by split chunks
+     */
+    class Chunk implements Spliterator<Row> {
+        private final char[] cb;
+        private int pos;
+        private final int end;
+        private long est;
+        private XMLRow row;
+
+        Chunk(char[] cb, int pos, int end, long est) {
+            this.cb = cb;
+            this.pos = pos;
+            this.end = end;
+            this.est = est;
+        }
+
+        /**
+         * Parse the next non-blank row
+         *
+         * @return the row or {@code null} if end of chunk
+         */
+        private XMLRow next() {
+            if (row == null) {
+                row = sheet.createRow().init(sst, sheet.styles, sheet.startRow > 0 ? sheet.startRow : 1);
+                row.setHeader(sheet.header);
+            }
+            for (int i; (i = indexOfRow(cb, pos, end)) >= 0; ) {
+                int j = i + 4;
+                for (; j < end && cb[j] != '>'; j++) ;
+                if (j >= end) break;
+                // Empty row
+                if (cb[j - 1] == '/') {
+                    pos = j + 1;
+                    continue;
+                }
+                // Find end of row tag
+                for (; j < end - 5 && (cb[j] != '<' || cb[j + 1] != '/' || cb[j + 2] != 'r'
+                    || cb[j + 3] != 'o' || cb[j + 4] != 'w' || cb[j + 5] != '>'); j++) ;
+                if (j >= end - 5) break;
+                pos = j + 6;
+                XMLRow r = row.with(cb, i, pos - i);
+                if (!r.isBlank()) {
+                    if (est > 0L) est--;
+                    return r;
+                }
+            }
+            pos = end;
+            return null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Row> action) {
+            XMLRow r = next();
+            if (r == null) return false;
+            action.accept(r);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Row> action) {
+            for (XMLRow r; (r = next()) != null; action.accept(r)) ;
+        }
+
+        @Override
+        public Spliterator<Row> trySplit() {
+            if (end - pos < MIN_SPLIT_SIZE) return null;
+            int mid = indexOfRow(cb, pos + ((end - pos) >>> 1), end);
+            if (mid <= pos) return null;
+            Chunk prefix = new Chunk(cb, pos, mid, est >>> 1);
+            pos = mid;
+            est -= prefix.est;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return est;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+}
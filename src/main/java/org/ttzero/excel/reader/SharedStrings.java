@@ -26,6 +26,8 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static java.lang.Character.highSurrogate;
 import static java.lang.Character.isBmpCodePoint;
@@ -53,6 +55,13 @@ public class SharedStrings implements Closeable {
      */
     static final int MAXIMUM_CAPACITY = 1 << 20;
 
+    /**
+     * The default max number of strings copied into an immutable array by
+     * {@link #toConcurrent(int)}, more strings are shared by the per-thread
+     * views over the {@link IndexSharedStringTable}
+     */
+    public static final int DEFAULT_CONCURRENT_COPY_LIMIT = 1 << 14;
+
     /**
      * Constructs a SharedStrings containing the elements of the
      * specified data array
@@ -113,7 +122,9 @@ public class SharedStrings implements Closeable {
         this.hotSize = hotSize;
         init();
         // Load forward
-        limit_forward = sst.get(offset_forward = 0, forward);
+        synchronized (sst) {
+            limit_forward = sst.get(offset_forward = 0, forward);
+        }
     }
 
     /**
@@ -188,8 +199,13 @@ public class SharedStrings implements Closeable {
      */
     StringBuilder buf = null;
 
+    /**
+     * Thread-safe copy, see {@link #toConcurrent(int)}
+     */
+    private boolean concurrent;
+
     // For debug
-    private int total, total_forward, total_backward, total_hot, total_sst;
+    private int total, total_forward, total_backward, total_hot, total_sst, total_load;
 
     /**
      * @return the shared string unique count
@@ -199,6 +215,78 @@ public class SharedStrings implements Closeable {
         return max;
     }
 
+    /**
+     * Returns the number of lookups
+     *
+     * @return the number of lookups
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the number of lookups hit in the forward page
+     *
+     * @return the number of forward hits
+     */
+    public int getForwardHits() {
+        return total_forward;
+    }
+
+    /**
+     * Returns the number of lookups hit in the backward page
+     *
+     * @return the number of backward hits
+     */
+    public int getBackwardHits() {
+        return total_backward;
+    }
+
+    /**
+     * Returns the number of lookups hit in the hot cache
+     *
+     * @return the number of hot hits
+     */
+    public int getHotHits() {
+        return total_hot;
+    }
+
+    /**
+     * Returns the number of pages parsed from the xml
+     *
+     * @return the number of page loads
+     */
+    public int getPageLoads() {
+        return total_load;
+    }
+
+    /**
+     * Returns the number of pages read from the {@link IndexSharedStringTable}
+     *
+     * @return the number of disk reads
+     */
+    public int getDiskReads() {
+        return total_sst;
+    }
+
+    /**
+     * Returns the number of strings per page
+     *
+     * @return the page size
+     */
+    public int getPageSize() {
+        return page;
+    }
+
+    /**
+     * Returns the size of hot cache
+     *
+     * @return the hot size
+     */
+    public int getHotSize() {
+        return hotSize;
+    }
+
     /**
      * Returns a power of two size for the given target capacity.
      *
@@ -352,15 +440,16 @@ public class SharedStrings implements Closeable {
             forward[0] = null;
             if (status == 4 && index < sst.size()) {
                 try {
-                    // Load from SharedStringTable
-                    limit_forward = sst.get(offset_forward, forward);
+                    // Load from SharedStringTable, the table may be shared by the concurrent views
+                    synchronized (sst) {
+                        limit_forward = sst.get(offset_forward, forward);
+                    }
                 } catch (IOException e) {
                     throw new ExcelReadException(e);
                 }
                 total_sst++;
             } else {
                 readMore();
-                total_forward++;
             }
             if (forward[0] == null) {
                 throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + max);
@@ -433,6 +522,7 @@ public class SharedStrings implements Closeable {
      * @throws IOException if I/O error occur
      */
     protected int readData() throws IOException {
+        total_load++;
         // Read forward area data
         int n = 0, len = length, offset;
         for (; ;) {
@@ -457,10 +547,17 @@ public class SharedStrings implements Closeable {
             else offset = 0;
 
             // Read more
-            if ((len = reader.read(cb, offset, cb.length - offset)) <= 0) break;
+            if ((len = reader.read(cb, offset, cb.length - offset)) <= 0) {
+                // EOF, only the moved remaining characters are valid
+                len = offset;
+                nChar = 0;
+                break;
+            }
             len += offset;
             nChar = 0;
         }
+        // Keep the valid length for the next page
+        length = len;
 
         // Reset totals when unknown size
         if (max < n) {
@@ -594,8 +691,8 @@ public class SharedStrings implements Closeable {
         return new int[] { a, nChar };
     }
 
-    // Buffer cache (Maximum 64K)
-    private static char[] charBuffer = {};
+    // Buffer cache (Maximum 64K), one buffer per thread
+    private static final ThreadLocal<char[]> charBuffer = ThreadLocal.withInitial(() -> new char[0]);
 
     /**
      * escape
@@ -613,10 +710,11 @@ public class SharedStrings implements Closeable {
 
         if (idx_38 < from || idx_38 >= idx_59 || idx_59 > to) return new String(cb, from, to - from);
 
-        char[] buf;
-        if (n <= charBuffer.length) buf = charBuffer;
-        else if (n <= MAX_CHARACTERS_PER_CELL) charBuffer = buf = new char[Math.min(n + 100, MAX_CHARACTERS_PER_CELL)];
-        else buf = new char[n];
+        char[] buf = charBuffer.get();
+        if (n > buf.length) {
+            if (n <= MAX_CHARACTERS_PER_CELL) charBuffer.set(buf = new char[Math.min(n + 100, MAX_CHARACTERS_PER_CELL)]);
+            else buf = new char[n];
+        }
 
         int offset = 0;
         do {
@@ -692,6 +790,59 @@ public class SharedStrings implements Closeable {
         return n;
     }
 
+    /**
+     * Returns a thread-safe copy of current shared strings, all the remaining strings will be
+     * read from the xml first. If the unique count does not exceed {@code copyLimit} the strings
+     * are copied into an immutable array, otherwise each thread has its own forward, backward and
+     * hot pages over the completed {@link IndexSharedStringTable}, only the page loading from disk
+     * is synchronized.
+     * <p>
+     * Current shared strings is closed after copy.
+     *
+     * @param copyLimit the max number of strings copied into memory,
+     *                  see {@link #DEFAULT_CONCURRENT_COPY_LIMIT}
+     * @return the thread-safe {@link SharedStrings}
+     * @throws IOException if I/O error occur
+     */
+    SharedStrings toConcurrent(int copyLimit) throws IOException {
+        SharedStrings copy;
+        if (status == 4) {
+            // Read the remaining strings into the index table
+            if (reader != null) while (readData() == page) ;
+            max = sst.size();
+            if (max > copyLimit) {
+                copy = new ConcurrentSharedStrings(sst, page, hotSize);
+                sst = null; // Transfer the table to the copy
+            } else {
+                String[] data = new String[max];
+                if (max > 0) sst.get(0, data);
+                copy = new SharedStrings(data);
+            }
+        } else {
+            String[] data = new String[Math.max(max, 0)];
+            int i = 0;
+            try {
+                for (; i < data.length; i++) data[i] = get(i);
+            } catch (IndexOutOfBoundsException e) {
+                // The count attribute is greater than the unique count
+                data = Arrays.copyOf(data, i);
+            }
+            copy = new SharedStrings(data);
+        }
+        copy.concurrent = true;
+        close();
+        return copy;
+    }
+
+    /**
+     * Test current shared strings can be shared by multiple threads
+     *
+     * @return true if it is thread-safe
+     */
+    boolean isConcurrent() {
+        return concurrent;
+    }
+
     /**
      * close stream and free space
      */
@@ -722,6 +873,142 @@ public class SharedStrings implements Closeable {
         return "Count: " + (total <= 0 ? max : total) + "，UniqueCount: " + max;
     }
 
+    /**
+     * Returns a thread-safe view of the shared strings, all lookups are synchronized on
+     * the specified shared strings
+     *
+     * @param sst the shared strings
+     * @return the synchronized view
+     */
+    static SharedStrings synchronizedView(SharedStrings sst) {
+        return new SynchronizedSharedStrings(sst);
+    }
+
+    /**
+     * A synchronized view, it is used if the worksheet is parsed in parallel
+     * but the shared strings is not switched to the concurrent copy
+     */
+    static class SynchronizedSharedStrings extends SharedStrings {
+        private final SharedStrings sst;
+
+        SynchronizedSharedStrings(SharedStrings sst) {
+            super(new String[0]);
+            this.sst = sst;
+            super.concurrent = true;
+        }
+
+        @Override
+        public String get(int index) {
+            synchronized (sst) {
+                return sst.get(index);
+            }
+        }
+
+        @Override
+        public int size() {
+            return sst.size();
+        }
+
+        @Override
+        public void close() {
+            // The shared strings is closed by the owner
+        }
+
+        @Override
+        public String toString() {
+            return "Synchronized, " + sst;
+        }
+    }
+
+    /**
+     * A thread-safe shared strings over a completed {@link IndexSharedStringTable}, each thread
+     * has its own view with the forward, backward and hot pages, the views share the index table
+     * and only the page loading from disk is synchronized.
+     */
+    static class ConcurrentSharedStrings extends SharedStrings {
+        private final IndexSharedStringTable table;
+        private final int cacheSize, hotSize;
+        /**
+         * All views for statistics
+         */
+        private final List<SharedStrings> views = new CopyOnWriteArrayList<>();
+        private final ThreadLocal<SharedStrings> local = ThreadLocal.withInitial(this::newView);
+
+        ConcurrentSharedStrings(IndexSharedStringTable table, int cacheSize, int hotSize) {
+            super(new String[0]);
+            this.table = table;
+            this.cacheSize = cacheSize;
+            this.hotSize = hotSize;
+        }
+
+        private SharedStrings newView() {
+            SharedStrings view;
+            try {
+                view = new SharedStrings(table, cacheSize, hotSize);
+            } catch (IOException e) {
+                throw new ExcelReadException(e);
+            }
+            views.add(view);
+            return view;
+        }
+
+        @Override
+        public String get(int index) {
+            return local.get().get(index);
+        }
+
+        @Override
+        public int size() {
+            return table.size();
+        }
+
+        @Override
+        public int getTotal() {
+            return views.stream().mapToInt(SharedStrings::getTotal).sum();
+        }
+
+        @Override
+        public int getForwardHits() {
+            return views.stream().mapToInt(SharedStrings::getForwardHits).sum();
+        }
+
+        @Override
+        public int getBackwardHits() {
+            return views.stream().mapToInt(SharedStrings::getBackwardHits).sum();
+        }
+
+        @Override
+        public int getHotHits() {
+            return views.stream().mapToInt(SharedStrings::getHotHits).sum();
+        }
+
+        @Override
+        public int getDiskReads() {
+            return views.stream().mapToInt(SharedStrings::getDiskReads).sum();
+        }
+
+        @Override
+        public int getPageSize() {
+            return views.isEmpty() ? tableSizeFor(cacheSize) : views.get(0).getPageSize();
+        }
+
+        @Override
+        public int getHotSize() {
+            return hotSize;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The views only hold the memory pages
+            views.clear();
+            table.close();
+        }
+
+        @Override
+        public String toString() {
+            return "Concurrent, UniqueCount: " + size();
+        }
+    }
 }
 
 interface Tester {
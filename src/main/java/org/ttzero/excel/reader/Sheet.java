@@ -237,6 +237,22 @@ public interface Sheet extends Closeable {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * 移动游标到指定行，之后通过{@link #iterator()}或{@link #rows()}从该行开始读取，如果该行不存在则从它之后的第一行开始。
+     * 实现类可以通过行检查点索引跳过之前的行，不需要解析之前的行和单元格
+     *
+     * <p>注意：未指定表头行号时{@link #dataIterator()}会将第一个非空行作为表头，所以定位之后应该使用{@link #iterator()}，
+     * 需要表头时请在定位前通过{@link #header(int)}指定</p>
+     *
+     * @param rowNum 行号（从1开始）
+     * @return 当前工作表
+     * @throws ExcelReadException            读取异常
+     * @throws UnsupportedOperationException 如果实现类不支持定位时抛此异常
+     */
+    default Sheet seek(int rowNum) {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * 返回一个行流，它与{@link #iterator()}具有相同的功能
      *
@@ -247,6 +263,24 @@ public interface Sheet extends Closeable {
             iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
     }
 
+    /**
+     * 返回指定行号范围内的行流，包含空行，先通过{@link #seek(int)}定位到起始行然后读到结束行为止
+     *
+     * @param fromRowNum 起始行号（从1开始，包含）
+     * @param toRowNum   结束行号（包含）
+     * @return 行流
+     * @throws UnsupportedOperationException 如果实现类不支持定位时抛此异常
+     */
+    default Stream<Row> rows(int fromRowNum, int toRowNum) {
+        XMLSheet.rangeCheck(fromRowNum, toRowNum);
+        Iterator<Row> iter = seek(fromRowNum).iterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new RowSetIterator(() -> {
+            if (!iter.hasNext()) return null;
+            Row row = iter.next();
+            return row.getRowNum() <= toRowNum ? row : null;
+        }), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
     /**
      * 返回一个非空行流，它与{@link #dataIterator}具有相同的功能
      *
@@ -257,6 +291,19 @@ public interface Sheet extends Closeable {
             dataIterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
     }
 
+    /**
+     * 返回一个可并行解析的非空行流，它与{@link #dataRows}具有相同的功能，不同的是单元格解析可以在多个线程中同时进行，
+     * 结果默认按行顺序返回，调用{@code unordered()}后按解析完成的顺序返回。
+     *
+     * <p>注意返回的{@code Row}对象在同一个分片内是内存共享的，与{@link #dataRows}一样需要先转为对象或Map再收集。
+     * 不支持并行解析的工作表将返回顺序流</p>
+     *
+     * @return 可并行的非空行流
+     */
+    default Stream<Row> parallelDataRows() {
+        return dataRows();
+    }
+
 
     /**
      * 将当前工作表另存为{@code CSV}格式并保存到{@code path}文件中，默认以{@code UTF-8}字符集保存
@@ -80,6 +80,10 @@ public class XMLRow extends Row {
     protected char[] cb;
     protected int from, to;
     protected int cursor, e;
+    /**
+     * The column index of the previous cell, it is used to locate the cells without {@code r} attribute
+     */
+    protected int lastCellIndex;
 
     ///////////////////////////////////////////////////////
     protected XMLRow with(char[] cb, int from, int size) {
@@ -89,7 +93,13 @@ public class XMLRow extends Row {
         this.to = from + size;
         this.cursor = from;
         this.index = this.lc = -1;
-        parseCells();
+        if (stats == null) parseCells();
+        else {
+            long start = System.nanoTime();
+            parseCells();
+            stats.parseNanos += System.nanoTime() - start;
+            if (lc > fc) stats.cells += lc - fc;
+        }
         return this;
     }
 
@@ -122,6 +132,7 @@ public class XMLRow extends Row {
 
     protected int searchSpan() {
         int i = from + 4, _lc = lc;
+        lastCellIndex = 0;
         for (; cb[i] != '>'; i++) {
             if (cb[i] <= ' ' && cb[i + 1] == 's' && cb[i + 2] == 'p'
                 && cb[i + 3] == 'a' && cb[i + 4] == 'n' && cb[i + 5] == 's'
@@ -170,14 +181,13 @@ public class XMLRow extends Row {
      * @return the {@link Cell}
      */
     protected Cell nextCell() {
-        for (; cursor < to && (cb[cursor] != '<' || cb[cursor + 1] != 'c'
-            || cb[cursor + 2] > ' '); cursor++) ;
+        for (; cursor < to && !isCellTag(cursor); cursor++) ;
         // end of row
         if (cursor >= to) return null;
         cursor += 2;
         // find end of cell
         e = cursor;
-        for (; e < to && (cb[e] != '<' || cb[e + 1] != 'c' || cb[e + 2] > ' '); e++) ;
+        for (; e < to && !isCellTag(e); e++) ;
 
         Cell cell = null;
         // find type
@@ -190,16 +200,7 @@ public class XMLRow extends Row {
                 int a = cursor += 4;
                 for (; cb[cursor] != '"'; cursor++) ;
                 i = toCellIndex(cb, a, cursor);
-                // The `spans` attribute is not be set
-                if (i - 1 >= cells.length) {
-                    // Bound check
-                    if (i - 1 > Const.Limit.MAX_COLUMNS_ON_SHEET) {
-                        throw new TooManyColumnsException(i, Const.Limit.MAX_COLUMNS_ON_SHEET);
-                    }
-                    // Resize cell buffer
-                    cells = copyCells(Math.min(i + 99, Const.Limit.MAX_COLUMNS_ON_SHEET));
-                }
-                cell = cells[i - 1];
+                cell = cellAt(i);
             }
             // Cell type
             if (cb[cursor] <= ' ' && cb[cursor + 1] == 't' && cb[cursor + 2] == '=') {
@@ -223,7 +224,9 @@ public class XMLRow extends Row {
             }
         }
 
-        if (cell == null) return null;
+        // The `r` attribute is omitted, the cell follows the previous one
+        if (cell == null) cell = cellAt(i = lastCellIndex + 1);
+        lastCellIndex = i;
 
         // The style index
         cell.xf = xf;
@@ -233,6 +236,35 @@ public class XMLRow extends Row {
         return cell;
     }
 
+    /**
+     * Test the cell tag {@code <c}, the tag may be without any attributes in compact mode
+     *
+     * @param i the index of {@code '<'}
+     * @return true if it is the beginning of a cell
+     */
+    protected boolean isCellTag(int i) {
+        return cb[i] == '<' && cb[i + 1] == 'c' && (cb[i + 2] <= ' ' || cb[i + 2] == '>' || cb[i + 2] == '/');
+    }
+
+    /**
+     * Returns the cell at the column index, the cell buffer will be resized if the
+     * {@code spans} attribute is not be set
+     *
+     * @param i the column index (one base)
+     * @return the {@link Cell}
+     */
+    protected Cell cellAt(int i) {
+        if (i - 1 >= cells.length) {
+            // Bound check
+            if (i - 1 > Const.Limit.MAX_COLUMNS_ON_SHEET) {
+                throw new TooManyColumnsException(i, Const.Limit.MAX_COLUMNS_ON_SHEET);
+            }
+            // Resize cell buffer
+            cells = copyCells(Math.min(i + 99, Const.Limit.MAX_COLUMNS_ON_SHEET));
+        }
+        return cells[i - 1];
+    }
+
     protected static long toLong(char[] cb, int a, int b) {
         boolean _n;
         if (_n = cb[a] == '-') a++;
@@ -502,6 +534,7 @@ class XMLFullRow extends XMLRow {
         this.sst = row.sst;
         this.styles = row.styles;
         this.startRow = row.startRow;
+        this.stats = row.stats;
     }
 
     @Override
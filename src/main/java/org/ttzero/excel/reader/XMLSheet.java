@@ -26,6 +26,7 @@ import org.ttzero.excel.entity.Panes;
 import org.ttzero.excel.entity.style.Styles;
 import org.ttzero.excel.util.StringUtil;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -39,6 +40,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -81,6 +84,9 @@ public class XMLSheet implements Sheet {
         this.zipFile = sheet.zipFile;
         this.entry = sheet.entry;
         this.option = sheet.option;
+        this.stats = sheet.stats;
+        this.rowIndex = sheet.rowIndex;
+        if (this.sRow != null) this.sRow.stats = stats;
     }
 
     protected String name;
@@ -112,6 +118,10 @@ public class XMLSheet implements Sheet {
     // Simple properties
     // The low 16 bits are allocated to the header, while the high 16 bits are occupied by the sheet
     protected int option;
+    // The parse statistics, null if disabled
+    protected ReaderStats.SheetStats stats;
+    // The row checkpoint index, it is built on the first seeking
+    protected RowIndex rowIndex;
 
     /**
      * Setting the worksheet name
@@ -156,6 +166,7 @@ public class XMLSheet implements Sheet {
      */
     protected void setSharedStrings(SharedStrings sst) {
         this.sst = sst;
+        if (sRow != null) sRow.sst = sst;
     }
 
     /**
@@ -441,7 +452,7 @@ public class XMLSheet implements Sheet {
             return this;
         }
         LOGGER.debug("Load {}", path);
-        reader = new InputStreamReader(zipFile.getInputStream(entry), StandardCharsets.UTF_8);
+        reader = openReader();
         cb = new char[8192];
         nChar = 0; mark = 0;
 
@@ -450,7 +461,10 @@ public class XMLSheet implements Sheet {
 
         // Empty sheet
         if (length <= 0) eof = true;
-        if (!eof) sRow = createRow().init(sst, styles, this.startRow > 0 ? this.startRow : 1);
+        if (!eof) {
+            sRow = createRow().init(sst, styles, this.startRow > 0 ? this.startRow : 1);
+            sRow.stats = stats;
+        }
 
         LOGGER.debug("eof: {}, mark: {}", eof, mark);
         if (dimension != null) LOGGER.debug("Dimension-Range: {}", dimension);
@@ -525,6 +539,15 @@ public class XMLSheet implements Sheet {
      * @return Row
      */
     private XMLRow nextRow() {
+        if (stats == null) return nextRow0();
+        long start = System.nanoTime(), parsed = stats.parseNanos;
+        XMLRow row = nextRow0();
+        stats.nextRowNanos += System.nanoTime() - start - (stats.parseNanos - parsed);
+        if (row != null) stats.rows++;
+        return row;
+    }
+
+    private XMLRow nextRow0() {
         if (eof) return null;
         boolean endTag = false;
         int start = nChar;
@@ -575,13 +598,37 @@ public class XMLSheet implements Sheet {
             }
             nChar = 0;
             length += n;
-            return nextRow();
+            return nextRow0();
         }
 
         // share row
         return sRow.with(cb, start, nChar - start);
     }
 
+    /**
+     * Returns a parallel stream over data rows, the worksheet is inflated by the thread which
+     * splits the stream and the rows are parsed by the fork-join workers, see {@link RowSpliterator}.
+     * The merged and calc rows depend on the previous rows, so it returns a sequential stream.
+     *
+     * @return a parallel stream of data rows
+     */
+    @Override
+    public Stream<Row> parallelDataRows() {
+        if (sRow != null && sRow.getClass() != XMLRow.class) return dataRows();
+        // If the header row number is specified, the header will be parsed first
+        if (hrf > 0) getHeader();
+        // The first non-blank row is the header like the data iterator
+        else if (!eof) {
+            XMLRow row;
+            for (; (row = nextRow()) != null && row.isBlank(); ) ;
+            if (row != null) {
+                if (header == null) header = row.asHeader().setOptions(option << 16 >>> 16);
+                row.setHeader(header);
+            }
+        }
+        return StreamSupport.stream(new RowSpliterator(this), true);
+    }
+
     protected Row findRow0() {
         // 临时保存工作表现有状态
         Marker marker = Marker.of(this);
@@ -715,7 +762,7 @@ public class XMLSheet implements Sheet {
                 return this.load();
             }
             // Reload
-            reader = new InputStreamReader(zipFile.getInputStream(entry), StandardCharsets.UTF_8);
+            reader = openReader();
             reader.skip(mark);
             length = reader.read(cb);
             nChar = 0;
@@ -731,6 +778,184 @@ public class XMLSheet implements Sheet {
         return new XMLRow();
     }
 
+    /**
+     * Enable or disable the parse statistics, it should be called before reading
+     *
+     * @param enabled true: collect the statistics of current worksheet
+     * @return current {@link XMLSheet}
+     */
+    protected XMLSheet setStatsEnabled(boolean enabled) {
+        if (!enabled) stats = null;
+        else if (stats == null) stats = new ReaderStats.SheetStats(name);
+        if (sRow != null) sRow.stats = stats;
+        return this;
+    }
+
+    /**
+     * Open the worksheet reader
+     *
+     * @return the worksheet reader
+     * @throws IOException if I/O error occur
+     */
+    protected Reader openReader() throws IOException {
+        return openReader(openEntryStream());
+    }
+
+    private Reader openReader(InputStream is) {
+        return new InputStreamReader(is, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the row checkpoint index of current worksheet, it will be built by scanning
+     * the inflated bytes if not exists
+     *
+     * @return the {@link RowIndex}
+     */
+    public RowIndex getRowIndex() {
+        if (rowIndex == null) {
+            try (InputStream is = zipFile.getInputStream(entry)) {
+                rowIndex = RowIndex.build(is, entry.getSize(), entry.getCrc(), RowIndex.DEFAULT_INTERVAL);
+            } catch (IOException e) {
+                throw new ExcelReadException("Build row index of worksheet[" + getName() + "] error occur.", e);
+            }
+            LOGGER.debug("Build row index {}", rowIndex);
+        }
+        return rowIndex;
+    }
+
+    /**
+     * Setting a persisted row checkpoint index, the index which does not belong to current
+     * worksheet (size or crc mismatch) will be discarded and rebuilt on demand
+     *
+     * @param rowIndex the {@link RowIndex} loaded by {@link RowIndex#load(java.nio.file.Path)}
+     * @return current {@link XMLSheet}
+     */
+    public XMLSheet setRowIndex(RowIndex rowIndex) {
+        if (rowIndex != null && !rowIndex.matches(entry.getSize(), entry.getCrc())) {
+            LOGGER.warn("The row index does not match worksheet[{}], it will be discarded", getName());
+            rowIndex = null;
+        }
+        this.rowIndex = rowIndex;
+        return this;
+    }
+
+    /**
+     * Move the cursor to the specified row. It jumps to the nearest checkpoint of the
+     * {@link RowIndex} by skipping the inflated bytes without decoding and parsing, and
+     * moves forward in the current buffer if the row is ahead of the cursor and no
+     * checkpoint is closer.
+     *
+     * @param rowNum the row number (one base)
+     * @return current {@link XMLSheet}
+     */
+    @Override
+    public XMLSheet seek(int rowNum) {
+        if (rowNum <= 0) throw new IndexOutOfBoundsException("rowNum = " + rowNum);
+        try {
+            if (sRow == null) load();
+            // If the header row number is specified, the header will be parsed first
+            if (hrf > 0) getHeader();
+            if (sRow == null) return this;
+
+            RowIndex index = getRowIndex();
+            if (index.size() == 0) {
+                closeReader();
+                return this;
+            }
+            int i = Math.max(index.floor(rowNum), 0), current = sRow.getRowNum(), last;
+            if (!eof && current > 0 && current < rowNum && index.getRowNum(i) <= current) last = current;
+            else {
+                if (reader != null) reader.close();
+                InputStream is = openEntryStream();
+                long n = index.getOffset(i);
+                for (long k; n > 0L && (k = is.skip(n)) > 0L; n -= k) ;
+                reader = openReader(is);
+                if (cb == null) cb = new char[8192];
+                length = reader.read(cb);
+                nChar = 0;
+                eof = length <= 0;
+                last = index.getRowNum(i) - 1;
+            }
+
+            // Find the first row whose row number is not less than rowNum
+            for (int j, k, r; !eof; ) {
+                if ((j = RowSpliterator.indexOfRow(cb, nChar, length)) < 0) {
+                    if (!fill(Math.max(nChar, length - 5))) closeReader();
+                    continue;
+                }
+                for (k = j + 4; k < length && cb[k] != '>'; k++) ;
+                if (k >= length) {
+                    if (!fill(j)) closeReader();
+                    continue;
+                }
+                // The r attribute is omitted, the row follows the previous one
+                if ((r = RowSpliterator.rowNumAt(cb, j, length)) <= 0) r = last + 1;
+                if (r >= rowNum) {
+                    nChar = j;
+                    break;
+                }
+                last = r;
+                nChar = k;
+            }
+            sRow.index = rowNum - 1;
+        } catch (IOException e) {
+            throw new ExcelReadException("Seek worksheet[" + getName() + "] error occur.", e);
+        }
+        return this;
+    }
+
+    /**
+     * Move the characters from the specified position to the beginning and read more
+     *
+     * @param from the start position of remaining characters
+     * @return false if end of file
+     * @throws IOException if I/O error occur
+     */
+    private boolean fill(int from) throws IOException {
+        int n = Math.max(length - from, 0);
+        if (from > 0 && n > 0) System.arraycopy(cb, from, cb, 0, n);
+        else if (n == cb.length) cb = Arrays.copyOf(cb, cb.length << 1);
+        nChar = 0;
+        int len = reader.read(cb, n, cb.length - n);
+        length = len < 0 ? n : n + len;
+        return len >= 0;
+    }
+
+    private void closeReader() throws IOException {
+        eof = true;
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+
+    /**
+     * Open the worksheet entry, the inflated bytes are counted if the statistics is enabled
+     *
+     * @return the entry input stream
+     * @throws IOException if I/O error occur
+     */
+    protected InputStream openEntryStream() throws IOException {
+        InputStream is = zipFile.getInputStream(entry);
+        if (stats == null) return is;
+        ReaderStats.SheetStats stats = this.stats;
+        return new FilterInputStream(is) {
+            @Override
+            public int read() throws IOException {
+                int n = super.read();
+                if (n >= 0) stats.inflatedBytes++;
+                return n;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) stats.inflatedBytes += n;
+                return n;
+            }
+        };
+    }
+
     /*
     If the Dimension information is not write in header,
     Read from tail and look at the line number of the last line
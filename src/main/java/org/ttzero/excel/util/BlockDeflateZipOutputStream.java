@@ -0,0 +1,453 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A zip output stream which compresses the entries by {@link ZipCompression}.
+ * <p>
+ * The deflated entry is split into blocks, every block is compressed by an independent
+ * {@link Deflater} with the last 32K of previous block as the preset dictionary and ends
+ * with a {@code SYNC_FLUSH} (the last block ends with {@code FINISH}), so the compressed
+ * blocks can be concatenated into one valid DEFLATE stream. If an {@link Executor} is
+ * specified, the blocks are compressed concurrently and written in order, the CRC32 is
+ * calculated in the writing thread. Without an {@link Executor} there is nothing to gain
+ * from splitting, so every deflated entry is compressed as one stream by a single
+ * {@link Deflater} which is reset and reused across the entries.
+ * <p>
+ * The deflated entry uses the data descriptor, the stored entry is buffered in memory until
+ * it is closed because the CRC32 and size must be written in the local header, so it's only
+ * suitable for small entries or media files.
+ * <p>
+ * This class replaces the whole implementation of {@link ZipOutputStream}, the inherited
+ * methods such as {@code setLevel} and {@code setMethod} take no effect.
+ *
+ * @author guanquan.wang at 2024-03-18 14:35
+ */
+public class BlockDeflateZipOutputStream extends ZipOutputStream {
+    /**
+     * The dictionary size of DEFLATE
+     */
+    static final int DICTIONARY_SIZE = 1 << 15;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+    private final ZipCompression compression;
+    private final Executor executor;
+    private final int maxPending;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Set<String> names = new HashSet<>();
+    private final CRC32 crc = new CRC32();
+    private final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+    private final byte[] scratch = new byte[8];
+    private Entry current;
+    private byte[] block, dictionary;
+    private int position;
+    private ByteArrayOutputStream stored;
+    /**
+     * The serial deflater and its output buffer, only used if no executor is specified
+     */
+    private Deflater deflater;
+    private byte[] buf;
+    private long written;
+    private boolean finished;
+
+    public BlockDeflateZipOutputStream(OutputStream out, ZipCompression compression) {
+        super(out);
+        this.compression = compression;
+        this.executor = compression.getExecutor();
+        this.maxPending = Runtime.getRuntime().availableProcessors() << 1;
+    }
+
+    @Override
+    public void putNextEntry(ZipEntry e) throws IOException {
+        ensureOpen();
+        if (current != null) closeEntry();
+        if (!names.add(e.getName())) throw new ZipException("duplicate entry: " + e.getName());
+
+        Entry entry = current = new Entry();
+        entry.name = e.getName().getBytes(StandardCharsets.UTF_8);
+        entry.dosTime = javaToDosTime(e.getTime() != -1 ? e.getTime() : System.currentTimeMillis());
+        entry.level = compression.getLevel(ZipCompression.Type.of(e.getName()));
+        entry.offset = written;
+        crc.reset();
+
+        if (entry.level == ZipCompression.STORED) {
+            entry.method = ZipEntry.STORED;
+            if (stored == null) stored = new ByteArrayOutputStream();
+            else stored.reset();
+        } else {
+            entry.method = ZipEntry.DEFLATED;
+            entry.flag = 8; // data descriptor
+            if (executor == null) {
+                if (deflater == null) {
+                    deflater = new Deflater(entry.level, true);
+                    buf = new byte[1 << 13];
+                } else {
+                    deflater.reset();
+                    deflater.setLevel(entry.level);
+                }
+            } else {
+                if (block == null || block.length != compression.getBlockSize()) block = new byte[compression.getBlockSize()];
+                position = 0;
+                dictionary = null;
+            }
+            // Sizes and CRC32 are written in the data descriptor
+            writeLocalHeader(entry);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (current == null) throw new ZipException("no current ZIP entry");
+        if (len <= 0) return;
+        crc.update(b, off, len);
+        current.size += len;
+        if (current.method == ZipEntry.STORED) {
+            stored.write(b, off, len);
+            return;
+        }
+        if (executor == null) {
+            deflater.setInput(b, off, len);
+            while (!deflater.needsInput()) writeDeflated();
+            return;
+        }
+        while (len > 0) {
+            int n = Math.min(block.length - position, len);
+            System.arraycopy(b, off, block, position, n);
+            position += n;
+            off += n;
+            len -= n;
+            if (position == block.length) submit(false);
+        }
+    }
+
+    @Override
+    public void closeEntry() throws IOException {
+        ensureOpen();
+        Entry entry = current;
+        if (entry == null) return;
+        entry.crc = crc.getValue();
+        if (entry.method == ZipEntry.STORED) {
+            entry.csize = entry.size;
+            writeLocalHeader(entry);
+            stored.writeTo(out);
+            written += stored.size();
+            // Do not hold the large buffer
+            stored = stored.size() > compression.getBlockSize() ? null : stored;
+        } else {
+            if (executor == null) {
+                deflater.finish();
+                while (!deflater.finished()) writeDeflated();
+            } else {
+                submit(true);
+                drain(true);
+            }
+            // Data descriptor
+            writeInt(0x08074b50L);
+            writeInt(entry.crc);
+            if (entry.csize >= ZIP64_MAGIC || entry.size >= ZIP64_MAGIC) {
+                writeLong(entry.csize);
+                writeLong(entry.size);
+            } else {
+                writeInt(entry.csize);
+                writeInt(entry.size);
+            }
+        }
+        entries.add(entry);
+        current = null;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (finished) return;
+        if (current != null) closeEntry();
+
+        // Central directory
+        long start = written;
+        for (Entry entry : entries) writeCentralHeader(entry);
+        long size = written - start;
+
+        int count = entries.size();
+        if (count >= ZIP64_MAGIC_COUNT || start >= ZIP64_MAGIC || size >= ZIP64_MAGIC) {
+            long zip64End = written;
+            // Zip64 end of central directory record
+            writeInt(0x06064b50L);
+            writeLong(44L);
+            writeShort(45);
+            writeShort(45);
+            writeInt(0L);
+            writeInt(0L);
+            writeLong(count);
+            writeLong(count);
+            writeLong(size);
+            writeLong(start);
+            // Zip64 end of central directory locator
+            writeInt(0x07064b50L);
+            writeInt(0L);
+            writeLong(zip64End);
+            writeInt(1L);
+        }
+        // End of central directory record
+        writeInt(0x06054b50L);
+        writeShort(0);
+        writeShort(0);
+        writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+        writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+        writeInt(Math.min(size, ZIP64_MAGIC));
+        writeInt(Math.min(start, ZIP64_MAGIC));
+        writeShort(0);
+        out.flush();
+        finished = true;
+        endDeflater();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            // Release the native memory even if the stream failed
+            endDeflater();
+        }
+    }
+
+    private void endDeflater() {
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (finished) throw new IOException("Stream finished");
+    }
+
+    /**
+     * Write the output of serial deflater
+     *
+     * @throws IOException if I/O error occur
+     */
+    private void writeDeflated() throws IOException {
+        int n = deflater.deflate(buf, 0, buf.length);
+        if (n > 0) {
+            out.write(buf, 0, n);
+            written += n;
+            current.csize += n;
+        }
+    }
+
+    /**
+     * Compress the current block concurrently, the last block is compressed in the current thread
+     * if there are no pending blocks
+     *
+     * @param last the last block of current entry
+     * @throws IOException if I/O error occur
+     */
+    private void submit(boolean last) throws IOException {
+        byte[] input = block, dict = dictionary;
+        int len = position, level = current.level;
+        if (!(last && pending.isEmpty())) {
+            pending.add(CompletableFuture.supplyAsync(() -> deflate(input, len, dict, level, last), executor));
+            // The submitted block is in use, so allocate a new one
+            if (!last) block = new byte[input.length];
+            drain(false);
+        } else {
+            // The last block without pending blocks
+            drain(true);
+            byte[] bytes = deflate(input, len, dict, level, true);
+            out.write(bytes);
+            written += bytes.length;
+            current.csize += bytes.length;
+        }
+        dictionary = input;
+        position = 0;
+    }
+
+    /**
+     * Write the compressed blocks in order
+     *
+     * @param all wait and write all pending blocks if true
+     * @throws IOException if I/O error occur
+     */
+    private void drain(boolean all) throws IOException {
+        CompletableFuture<byte[]> future;
+        while ((future = pending.peek()) != null && (all || future.isDone() || pending.size() > maxPending)) {
+            byte[] bytes = future.join();
+            pending.poll();
+            out.write(bytes);
+            written += bytes.length;
+            current.csize += bytes.length;
+        }
+    }
+
+    /**
+     * Compress one block
+     *
+     * @param input      the uncompressed data
+     * @param len        the data length
+     * @param dictionary the previous block, it's {@code null} for the first block
+     * @param level      the compression level
+     * @param last       the last block of current entry
+     * @return the compressed data
+     */
+    static byte[] deflate(byte[] input, int len, byte[] dictionary, int level, boolean last) {
+        Deflater def = new Deflater(level, true);
+        try {
+            if (dictionary != null) def.setDictionary(dictionary, dictionary.length - DICTIONARY_SIZE, DICTIONARY_SIZE);
+            def.setInput(input, 0, len);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(len >> 2, 64));
+            byte[] buf = new byte[Math.max(len >> 3, 1 << 10)];
+            int n;
+            if (last) {
+                def.finish();
+                while (!def.finished()) {
+                    n = def.deflate(buf);
+                    bos.write(buf, 0, n);
+                }
+            } else {
+                // Flush to the byte boundary so that the next block can be appended
+                do {
+                    n = def.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH);
+                    bos.write(buf, 0, n);
+                } while (n == buf.length);
+            }
+            return bos.toByteArray();
+        } finally {
+            def.end();
+        }
+    }
+
+    private void writeLocalHeader(Entry entry) throws IOException {
+        writeInt(0x04034b50L);
+        writeShort(20);
+        writeShort(entry.flag | 0x800); // UTF-8 name
+        writeShort(entry.method);
+        writeInt(entry.dosTime);
+        if ((entry.flag & 8) == 8) {
+            writeInt(0L);
+            writeInt(0L);
+            writeInt(0L);
+        } else {
+            writeInt(entry.crc);
+            writeInt(entry.csize);
+            writeInt(entry.size);
+        }
+        writeShort(entry.name.length);
+        writeShort(0);
+        writeBytes(entry.name);
+    }
+
+    private void writeCentralHeader(Entry entry) throws IOException {
+        boolean zip64Size = entry.csize >= ZIP64_MAGIC || entry.size >= ZIP64_MAGIC, zip64Offset = entry.offset >= ZIP64_MAGIC;
+        int extraLen = (zip64Size ? 16 : 0) + (zip64Offset ? 8 : 0), version = extraLen > 0 ? 45 : 20;
+        writeInt(0x02014b50L);
+        writeShort(version);
+        writeShort(version);
+        writeShort(entry.flag | 0x800);
+        writeShort(entry.method);
+        writeInt(entry.dosTime);
+        writeInt(entry.crc);
+        writeInt(zip64Size ? ZIP64_MAGIC : entry.csize);
+        writeInt(zip64Size ? ZIP64_MAGIC : entry.size);
+        writeShort(entry.name.length);
+        writeShort(extraLen > 0 ? extraLen + 4 : 0);
+        writeShort(0);
+        writeShort(0);
+        writeShort(0);
+        writeInt(0L);
+        writeInt(zip64Offset ? ZIP64_MAGIC : entry.offset);
+        writeBytes(entry.name);
+        if (extraLen > 0) {
+            writeShort(1); // Zip64 extended information
+            writeShort(extraLen);
+            if (zip64Size) {
+                writeLong(entry.size);
+                writeLong(entry.csize);
+            }
+            if (zip64Offset) writeLong(entry.offset);
+        }
+    }
+
+    private void writeShort(int v) throws IOException {
+        scratch[0] = (byte) v;
+        scratch[1] = (byte) (v >>> 8);
+        out.write(scratch, 0, 2);
+        written += 2;
+    }
+
+    private void writeInt(long v) throws IOException {
+        scratch[0] = (byte) v;
+        scratch[1] = (byte) (v >>> 8);
+        scratch[2] = (byte) (v >>> 16);
+        scratch[3] = (byte) (v >>> 24);
+        out.write(scratch, 0, 4);
+        written += 4;
+    }
+
+    private void writeLong(long v) throws IOException {
+        for (int i = 0; i < 8; i++) scratch[i] = (byte) (v >>> (i << 3));
+        out.write(scratch, 0, 8);
+        written += 8;
+    }
+
+    private void writeBytes(byte[] b) throws IOException {
+        out.write(b, 0, b.length);
+        written += b.length;
+    }
+
+    /**
+     * Converts Java time to DOS time
+     *
+     * @param time milliseconds since epoch
+     * @return the DOS time
+     */
+    static long javaToDosTime(long time) {
+        LocalDateTime ldt = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        int year = ldt.getYear() - 1980;
+        if (year < 0) return (1 << 21) | (1 << 16);
+        return (year << 25 | ldt.getMonthValue() << 21 | ldt.getDayOfMonth() << 16
+            | ldt.getHour() << 11 | ldt.getMinute() << 5 | ldt.getSecond() >> 1) & 0xFFFFFFFFL;
+    }
+
+    private static class Entry {
+        private byte[] name;
+        private int method, level, flag;
+        private long dosTime, crc, size, csize, offset;
+    }
+}
@@ -73,6 +73,16 @@ public class ExtBufferedWriter extends BufferedWriter {
         write(temp);
     }
 
+    /**
+     * Write pre-encoded ASCII bytes, such as the tag constants
+     *
+     * @param b the ASCII bytes
+     * @throws IOException if I/O error occur
+     */
+    public void write(byte[] b) throws IOException {
+        for (byte c : b) write(c & 0xFF);
+    }
+
     /**
      * Write long value
      *
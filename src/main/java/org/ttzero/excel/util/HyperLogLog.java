@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.util;
+
+import org.ttzero.excel.common.hash.HashFunction;
+import org.ttzero.excel.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A HyperLogLog cardinality sketch over the 32-bit murmur3 hash, it estimates
+ * the number of distinct values in fixed {@code 2^precision} bytes, the standard
+ * error is about {@code 1.04 / sqrt(2^precision)}.
+ * <p>
+ * The small cardinalities are estimated by linear counting, so the sketch is
+ * also accurate when there are only a few distinct values. Not thread-safe.
+ *
+ * @author guanquan.wang at 2024-03-28 10:05
+ */
+public class HyperLogLog {
+    private static final HashFunction MURMUR3_32 = Hashing.murmur3_32();
+    private static final double TWO_32 = 4294967296D;
+
+    /**
+     * The number of index bits
+     */
+    private final int precision;
+    /**
+     * The max leading zero rank of each register
+     */
+    private final byte[] registers;
+
+    /**
+     * Create a sketch with {@code 2^12} registers, the standard error is about {@code 1.6%}
+     */
+    public HyperLogLog() {
+        this(12);
+    }
+
+    /**
+     * Create a sketch with {@code 2^precision} registers
+     *
+     * @param precision the number of index bits, range from 4 to 16
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16)
+            throw new IllegalArgumentException("The precision must be between 4 and 16");
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Add a string value
+     *
+     * @param value the string value, {@code null} is treated as an empty string
+     */
+    public void add(String value) {
+        addHash(MURMUR3_32.newHasher().putString(value != null ? value : "", StandardCharsets.UTF_8).hash().asInt());
+    }
+
+    /**
+     * Add a well distributed 32-bit hash
+     *
+     * @param hash the hash value
+     */
+    public void addHash(int hash) {
+        int index = hash >>> (32 - precision), w = hash << precision;
+        int rank = w == 0 ? 33 - precision : Integer.numberOfLeadingZeros(w) + 1;
+        if (rank > registers[index]) registers[index] = (byte) rank;
+    }
+
+    /**
+     * Estimate the number of distinct values
+     *
+     * @return the estimated cardinality
+     */
+    public long cardinality() {
+        int m = registers.length, zeros = 0;
+        double sum = 0D;
+        for (byte r : registers) {
+            sum += 1D / (1L << r);
+            if (r == 0) zeros++;
+        }
+        double alpha = m == 16 ? 0.673D : m == 32 ? 0.697D : m == 64 ? 0.709D : 0.7213D / (1D + 1.079D / m);
+        double e = alpha * m * m / sum;
+        // Small range correction
+        if (e <= 2.5D * m && zeros > 0) e = m * Math.log((double) m / zeros);
+        // Large range correction of 32-bit hash
+        else if (e > TWO_32 / 30D) e = -TWO_32 * Math.log(1D - e / TWO_32);
+        return Math.round(e);
+    }
+
+    /**
+     * Reset all registers
+     */
+    public void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+}
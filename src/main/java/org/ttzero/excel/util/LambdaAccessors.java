@@ -0,0 +1,457 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.util;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Generate the reflection-free getters of the no-arg methods and fields, and the
+ * setters of the single-arg methods and fields.
+ * <p>
+ * The public methods of the public classes are linked by {@link LambdaMetafactory},
+ * so the getter is a direct call after JIT. Others (fields, non-public methods or
+ * the classes invisible to this class-loader) are invoked by a {@link MethodHandle}
+ * which created from the accessible {@code Method} or {@code Field}.
+ * <p>
+ * All factory methods return {@code null} if the access is denied or the type does
+ * not match, the caller should fall back to reflection.
+ *
+ * @author guanquan.wang at 2024-03-29 09:40
+ */
+public final class LambdaAccessors {
+    private LambdaAccessors() { }
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * Create a getter of the no-arg method
+     *
+     * @param method the no-arg instance method
+     * @return the getter, {@code null} if access denied
+     */
+    public static Function<Object, Object> getter(Method method) {
+        return accessor(method, false, Function.class, LambdaAccessors::getter);
+    }
+
+    /**
+     * Create a getter of the field
+     *
+     * @param field the instance field
+     * @return the getter, {@code null} if access denied
+     */
+    public static Function<Object, Object> getter(Field field) {
+        return accessor(field, false, LambdaAccessors::getter);
+    }
+
+    /**
+     * Create an int getter of the method returns {@code int}, {@code short} or {@code byte}
+     *
+     * @param method the no-arg instance method
+     * @return the getter, {@code null} if access denied or the return type does not match
+     */
+    public static ToIntFunction<Object> intGetter(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type != int.class && type != short.class && type != byte.class) return null;
+        return accessor(method, false, ToIntFunction.class, LambdaAccessors::intGetter);
+    }
+
+    /**
+     * Create an int getter of the field typed {@code int}, {@code short} or {@code byte}
+     *
+     * @param field the instance field
+     * @return the getter, {@code null} if access denied or the type does not match
+     */
+    public static ToIntFunction<Object> intGetter(Field field) {
+        Class<?> type = field.getType();
+        if (type != int.class && type != short.class && type != byte.class) return null;
+        return accessor(field, false, LambdaAccessors::intGetter);
+    }
+
+    /**
+     * Create a long getter of the method returns {@code long}
+     *
+     * @param method the no-arg instance method
+     * @return the getter, {@code null} if access denied or the return type does not match
+     */
+    public static ToLongFunction<Object> longGetter(Method method) {
+        if (method.getReturnType() != long.class) return null;
+        return accessor(method, false, ToLongFunction.class, LambdaAccessors::longGetter);
+    }
+
+    /**
+     * Create a long getter of the field typed {@code long}
+     *
+     * @param field the instance field
+     * @return the getter, {@code null} if access denied or the type does not match
+     */
+    public static ToLongFunction<Object> longGetter(Field field) {
+        if (field.getType() != long.class) return null;
+        return accessor(field, false, LambdaAccessors::longGetter);
+    }
+
+    /**
+     * Create a double getter of the method returns {@code double} or {@code float}
+     *
+     * @param method the no-arg instance method
+     * @return the getter, {@code null} if access denied or the return type does not match
+     */
+    public static ToDoubleFunction<Object> doubleGetter(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type != double.class && type != float.class) return null;
+        return accessor(method, false, ToDoubleFunction.class, LambdaAccessors::doubleGetter);
+    }
+
+    /**
+     * Create a double getter of the field typed {@code double} or {@code float}
+     *
+     * @param field the instance field
+     * @return the getter, {@code null} if access denied or the type does not match
+     */
+    public static ToDoubleFunction<Object> doubleGetter(Field field) {
+        Class<?> type = field.getType();
+        if (type != double.class && type != float.class) return null;
+        return accessor(field, false, LambdaAccessors::doubleGetter);
+    }
+
+    /**
+     * Create a setter of the single-arg method, the return value of method is ignored
+     *
+     * @param method the single-arg instance method
+     * @return the setter, {@code null} if access denied
+     */
+    public static BiConsumer<Object, Object> setter(Method method) {
+        return accessor(method, true, BiConsumer.class, LambdaAccessors::setter);
+    }
+
+    /**
+     * Create a setter of the field
+     *
+     * @param field the instance field
+     * @return the setter, {@code null} if access denied
+     */
+    public static BiConsumer<Object, Object> setter(Field field) {
+        return accessor(field, true, LambdaAccessors::setter);
+    }
+
+    /**
+     * Create an int setter of the single-arg method which parameter is {@code int}
+     *
+     * @param method the single-arg instance method
+     * @return the setter, {@code null} if access denied or the parameter type does not match
+     */
+    public static ObjIntConsumer<Object> intSetter(Method method) {
+        if (method.getParameterCount() != 1 || method.getParameterTypes()[0] != int.class) return null;
+        return accessor(method, true, ObjIntConsumer.class, LambdaAccessors::intSetter);
+    }
+
+    /**
+     * Create an int setter of the field typed {@code int}
+     *
+     * @param field the instance field
+     * @return the setter, {@code null} if access denied or the type does not match
+     */
+    public static ObjIntConsumer<Object> intSetter(Field field) {
+        if (field.getType() != int.class) return null;
+        return accessor(field, true, LambdaAccessors::intSetter);
+    }
+
+    /**
+     * Create a long setter of the single-arg method which parameter is {@code long}
+     *
+     * @param method the single-arg instance method
+     * @return the setter, {@code null} if access denied or the parameter type does not match
+     */
+    public static ObjLongConsumer<Object> longSetter(Method method) {
+        if (method.getParameterCount() != 1 || method.getParameterTypes()[0] != long.class) return null;
+        return accessor(method, true, ObjLongConsumer.class, LambdaAccessors::longSetter);
+    }
+
+    /**
+     * Create a long setter of the field typed {@code long}
+     *
+     * @param field the instance field
+     * @return the setter, {@code null} if access denied or the type does not match
+     */
+    public static ObjLongConsumer<Object> longSetter(Field field) {
+        if (field.getType() != long.class) return null;
+        return accessor(field, true, LambdaAccessors::longSetter);
+    }
+
+    /**
+     * Create a double setter of the single-arg method which parameter is {@code double}
+     *
+     * @param method the single-arg instance method
+     * @return the setter, {@code null} if access denied or the parameter type does not match
+     */
+    public static ObjDoubleConsumer<Object> doubleSetter(Method method) {
+        if (method.getParameterCount() != 1 || method.getParameterTypes()[0] != double.class) return null;
+        return accessor(method, true, ObjDoubleConsumer.class, LambdaAccessors::doubleSetter);
+    }
+
+    /**
+     * Create a double setter of the field typed {@code double}
+     *
+     * @param field the instance field
+     * @return the setter, {@code null} if access denied or the type does not match
+     */
+    public static ObjDoubleConsumer<Object> doubleSetter(Field field) {
+        if (field.getType() != double.class) return null;
+        return accessor(field, true, LambdaAccessors::doubleSetter);
+    }
+
+    /**
+     * Link the method by {@link LambdaMetafactory} if possible, otherwise wrap its method handle
+     *
+     * @param method the instance method
+     * @param setter true if the method is a single-arg setter, false if a no-arg getter
+     * @param samType the functional interface to implement
+     * @param fallback wraps the method handle if the method can not be linked
+     * @return the accessor, {@code null} if access denied
+     */
+    private static <T> T accessor(Method method, boolean setter, Class<? super T> samType, Function<MethodHandle, T> fallback) {
+        try {
+            MethodHandle mh = setter ? unreflectSetter(method) : unreflect(method);
+            if (mh == null) return null;
+            return canLink(method) ? metafactory(LOOKUP, samType, mh) : fallback.apply(mh);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * Wrap the getter or setter method handle of the field
+     *
+     * @param field the instance field
+     * @param setter true to create a setter, false to create a getter
+     * @param fallback wraps the method handle
+     * @return the accessor, {@code null} if access denied
+     */
+    private static <T> T accessor(Field field, boolean setter, Function<MethodHandle, T> fallback) {
+        try {
+            MethodHandle mh = setter ? unreflectSetter(field) : unreflectGetter(field);
+            return mh != null ? fallback.apply(mh) : null;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * Implement the functional interface by {@link LambdaMetafactory}, the reference parameters
+     * and the {@code Object} return type of the single abstract method are specialized to the
+     * types of the implementation method
+     *
+     * @param lookup the lookup which can access the implementation method
+     * @param samType the functional interface to implement
+     * @param impl the method handle of implementation method
+     * @return an instance of the functional interface
+     * @throws Throwable if the method can not be linked
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T metafactory(MethodHandles.Lookup lookup, Class<? super T> samType, MethodHandle impl) throws Throwable {
+        Method sam = null;
+        for (Method m : samType.getMethods()) {
+            if (Modifier.isAbstract(m.getModifiers())) {
+                sam = m;
+                break;
+            }
+        }
+        if (sam == null) throw new IllegalArgumentException(samType + " is not a functional interface");
+        MethodType samMethodType = methodType(sam.getReturnType(), sam.getParameterTypes()), instantiatedType = samMethodType;
+        for (int i = 0; i < samMethodType.parameterCount(); i++) {
+            if (!samMethodType.parameterType(i).isPrimitive())
+                instantiatedType = instantiatedType.changeParameterType(i, wrap(impl.type().parameterType(i)));
+        }
+        if (samMethodType.returnType() == Object.class)
+            instantiatedType = instantiatedType.changeReturnType(wrap(impl.type().returnType()));
+        return (T) LambdaMetafactory.metafactory(lookup, sam.getName(), methodType(samType)
+            , samMethodType, impl, instantiatedType).getTarget().invoke();
+    }
+
+    private static Function<Object, Object> getter(MethodHandle mh) {
+        MethodHandle h = mh.asType(methodType(Object.class, Object.class));
+        return o -> {
+            try {
+                return h.invokeExact(o);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    private static BiConsumer<Object, Object> setter(MethodHandle mh) {
+        MethodHandle h = mh.asType(methodType(void.class, Object.class, Object.class));
+        return (o, v) -> {
+            try {
+                h.invokeExact(o, v);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    private static ToIntFunction<Object> intGetter(MethodHandle mh) {
+        MethodHandle h = mh.asType(methodType(int.class, Object.class));
+        return o -> {
+            try {
+                return (int) h.invokeExact(o);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    private static ToLongFunction<Object> longGetter(MethodHandle mh) {
+        MethodHandle h = mh.asType(methodType(long.class, Object.class));
+        return o -> {
+            try {
+                return (long) h.invokeExact(o);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    private static ToDoubleFunction<Object> doubleGetter(MethodHandle mh) {
+        MethodHandle h = mh.asType(methodType(double.class, Object.class));
+        return o -> {
+            try {
+                return (double) h.invokeExact(o);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    private static ObjIntConsumer<Object> intSetter(MethodHandle mh) {
+        MethodHandle h = mh.asType(methodType(void.class, Object.class, int.class));
+        return (o, v) -> {
+            try {
+                h.invokeExact(o, v);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    private static ObjLongConsumer<Object> longSetter(MethodHandle mh) {
+        MethodHandle h = mh.asType(methodType(void.class, Object.class, long.class));
+        return (o, v) -> {
+            try {
+                h.invokeExact(o, v);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    private static ObjDoubleConsumer<Object> doubleSetter(MethodHandle mh) {
+        MethodHandle h = mh.asType(methodType(void.class, Object.class, double.class));
+        return (o, v) -> {
+            try {
+                h.invokeExact(o, v);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        };
+    }
+
+    /**
+     * Create a method handle of the no-arg instance method, the method should be accessible
+     */
+    private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+        if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() > 0 || method.getReturnType() == void.class)
+            return null;
+        method.setAccessible(true);
+        return LOOKUP.unreflect(method);
+    }
+
+    /**
+     * Create a getter method handle of the instance field, the field should be accessible
+     */
+    private static MethodHandle unreflectGetter(Field field) throws IllegalAccessException {
+        if (Modifier.isStatic(field.getModifiers())) return null;
+        field.setAccessible(true);
+        return LOOKUP.unreflectGetter(field);
+    }
+
+    /**
+     * Create a method handle of the single-arg instance method, the method should be accessible
+     */
+    private static MethodHandle unreflectSetter(Method method) throws IllegalAccessException {
+        if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() != 1) return null;
+        method.setAccessible(true);
+        return LOOKUP.unreflect(method);
+    }
+
+    /**
+     * Create a setter method handle of the instance field, the field should be accessible
+     */
+    private static MethodHandle unreflectSetter(Field field) throws IllegalAccessException {
+        if (Modifier.isStatic(field.getModifiers())) return null;
+        field.setAccessible(true);
+        return LOOKUP.unreflectSetter(field);
+    }
+
+    /**
+     * The generated lambda class calls the method directly, so both the method and
+     * its class must be public and visible to this class-loader
+     */
+    private static boolean canLink(Method method) {
+        Class<?> clazz = method.getDeclaringClass();
+        if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(clazz.getModifiers())) return false;
+        try {
+            return Class.forName(clazz.getName(), false, LambdaAccessors.class.getClassLoader()) == clazz;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) return type;
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == double.class) return Double.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == char.class) return Character.class;
+        if (type == float.class) return Float.class;
+        if (type == short.class) return Short.class;
+        return Byte.class;
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) return (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        return new IllegalStateException(t);
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A bounded concurrent downloader of the remote media, the resources are streamed
+ * into the target files instead of the heap.
+ * <p>
+ * The total number of concurrent downloads is limited by {@link #setMaxConcurrency}
+ * and the number of concurrent downloads of each host is limited by {@link #setMaxPerHost}.
+ * The downloads wait in the per-host queues and are handed to the executor only when both
+ * limits allow, so a busy host never occupies the executor threads while other hosts wait.
+ * If no executor is specified, the virtual threads are used on JDK 21+, otherwise a fixed
+ * pool of daemon threads is created, it is shut down by {@link #close}.
+ * <p>
+ * Only HTTP and HTTPS protocols are supported by default, override {@link #open} to
+ * support authentication or other protocols.
+ *
+ * <pre>
+ * new Workbook()
+ *     .setRemoteMediaDownloader(new RemoteMediaDownloader()
+ *         .setMaxConcurrency(32)
+ *         .setMaxPerHost(8))
+ *     .addSheet(...)</pre>
+ *
+ * @author guanquan.wang at 2024-03-31 10:20
+ */
+public class RemoteMediaDownloader implements Closeable {
+    protected static final Logger LOGGER = LoggerFactory.getLogger(RemoteMediaDownloader.class);
+    /**
+     * The max number of concurrent downloads
+     */
+    private int maxConcurrency = 16;
+    /**
+     * The max number of concurrent downloads of each host
+     */
+    private int maxPerHost = 4;
+    /**
+     * The connect and read timeout in milliseconds
+     */
+    private int connectTimeout = 10_000, readTimeout = 30_000;
+    private Executor executor;
+    private ExecutorService ownExecutor;
+    /**
+     * The number of running downloads, guarded by {@code this}
+     */
+    private int running;
+    /**
+     * The hosts which have pending downloads, guarded by {@code this}
+     */
+    private final Map<String, Host> hosts = new HashMap<>();
+    /**
+     * The hosts which have pending downloads and free permits, in round-robin order
+     */
+    private final Deque<Host> ready = new ArrayDeque<>();
+
+    /**
+     * Setting the max number of concurrent downloads, default 16
+     *
+     * @param maxConcurrency the max number of concurrent downloads
+     * @return current {@link RemoteMediaDownloader}
+     */
+    public RemoteMediaDownloader setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) throw new IllegalArgumentException("The max concurrency must be greater than 0");
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * Returns the max number of concurrent downloads
+     *
+     * @return the max number of concurrent downloads
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Setting the max number of concurrent downloads of each host, default 4
+     *
+     * @param maxPerHost the max number of concurrent downloads of each host
+     * @return current {@link RemoteMediaDownloader}
+     */
+    public RemoteMediaDownloader setMaxPerHost(int maxPerHost) {
+        if (maxPerHost < 1) throw new IllegalArgumentException("The max per-host concurrency must be greater than 0");
+        this.maxPerHost = maxPerHost;
+        return this;
+    }
+
+    /**
+     * Returns the max number of concurrent downloads of each host
+     *
+     * @return the max number of concurrent downloads of each host
+     */
+    public int getMaxPerHost() {
+        return maxPerHost;
+    }
+
+    /**
+     * Setting the connect timeout, default 10 seconds
+     *
+     * @param connectTimeout the timeout in milliseconds, 0 means infinite
+     * @return current {@link RemoteMediaDownloader}
+     */
+    public RemoteMediaDownloader setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * Setting the read timeout, default 30 seconds
+     *
+     * @param readTimeout the timeout in milliseconds, 0 means infinite
+     * @return current {@link RemoteMediaDownloader}
+     */
+    public RemoteMediaDownloader setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+        return this;
+    }
+
+    /**
+     * Setting the executor to download resources, the executor is managed by the caller
+     * and will not be shut down.
+     *
+     * @param executor the executor
+     * @return current {@link RemoteMediaDownloader}
+     */
+    public RemoteMediaDownloader setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Download the remote resource into the target file asynchronously
+     *
+     * @param url    the remote url
+     * @param target the target file, it is deleted if download failed
+     * @return the future of target file, the result is {@code null} if download failed
+     */
+    public CompletableFuture<Path> download(String url, Path target) {
+        Task task = new Task(url, target);
+        synchronized (this) {
+            Host host = hosts.computeIfAbsent(task.host, k -> new Host());
+            host.queue.add(task);
+            if (!host.ready && host.active < maxPerHost) {
+                host.ready = true;
+                ready.add(host);
+            }
+        }
+        dispatch();
+        return task.future;
+    }
+
+    /**
+     * Hand the pending downloads to the executor while the total and per-host limits allow
+     */
+    private void dispatch() {
+        List<Task> tasks = null;
+        Executor executor;
+        synchronized (this) {
+            executor = executor();
+            for (Host host; running < maxConcurrency && (host = ready.poll()) != null; ) {
+                Task task = host.queue.poll();
+                host.active++;
+                running++;
+                // Round-robin between the hosts
+                host.ready = !host.queue.isEmpty() && host.active < maxPerHost;
+                if (host.ready) ready.add(host);
+                if (tasks == null) tasks = new ArrayList<>();
+                tasks.add(task);
+            }
+        }
+        // Submit outside the lock, the executor may run the task in the caller thread
+        if (tasks != null) {
+            for (Task task : tasks) {
+                try {
+                    executor.execute(task);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Submit download [{}] error", task.url, e);
+                    task.complete(null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Release the permits of a finished download and dispatch the next ones
+     *
+     * @param name the host of finished download
+     */
+    private void release(String name) {
+        synchronized (this) {
+            running--;
+            Host host = hosts.get(name);
+            host.active--;
+            if (host.queue.isEmpty()) {
+                if (host.active == 0) hosts.remove(name);
+            } else if (!host.ready) {
+                host.ready = true;
+                ready.add(host);
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Open the input stream of remote resource
+     *
+     * @param url the remote url
+     * @return the input stream, {@code null} if the protocol is not supported or the response is not OK
+     * @throws IOException if I/O error occur
+     */
+    protected InputStream open(String url) throws IOException {
+        if (!url.startsWith("http")) return null;
+        HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
+        con.setConnectTimeout(connectTimeout);
+        con.setReadTimeout(readTimeout);
+        con.connect();
+        int code = con.getResponseCode();
+        if (code < 200 || code >= 300) {
+            LOGGER.warn("Download remote resource [{}] failed, response code: {}", url, code);
+            con.disconnect();
+            return null;
+        }
+        return con.getInputStream();
+    }
+
+    private boolean transfer(String url, Path target) {
+        try (InputStream is = open(url)) {
+            if (is != null) {
+                Files.copy(is, target, StandardCopyOption.REPLACE_EXISTING);
+                return true;
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Download remote resource [{}] error", url, e);
+        }
+        try {
+            Files.deleteIfExists(target);
+        } catch (IOException e) { } // Ignore
+        return false;
+    }
+
+    static String hostOf(String url) {
+        int i = url.indexOf("://");
+        if (i < 0) return "";
+        int j = i + 3, len = url.length();
+        for (char c; j < len && (c = url.charAt(j)) != '/' && c != '?' && c != '#'; j++);
+        return url.substring(i + 3, j);
+    }
+
+    private synchronized Executor executor() {
+        if (executor == null) {
+            ExecutorService service = newVirtualThreadExecutor();
+            if (service == null) {
+                service = Executors.newFixedThreadPool(maxConcurrency, r -> {
+                    Thread t = new Thread(r, "eec-media-downloader");
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+            executor = ownExecutor = service;
+        }
+        return executor;
+    }
+
+    /**
+     * Create a virtual-thread-per-task executor on JDK 21+
+     *
+     * @return the executor, {@code null} if the virtual thread is not supported
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The pending downloads and permits of a host
+     */
+    private static class Host {
+        private final Deque<Task> queue = new ArrayDeque<>();
+        private int active;
+        // In the ready queue
+        private boolean ready;
+    }
+
+    /**
+     * A pending download
+     */
+    private class Task implements Runnable {
+        private final String url, host;
+        private final Path target;
+        private final CompletableFuture<Path> future = new CompletableFuture<>();
+
+        Task(String url, Path target) {
+            this.url = url;
+            this.host = hostOf(url);
+            this.target = target;
+        }
+
+        @Override
+        public void run() {
+            Path path = null;
+            try {
+                path = transfer(url, target) ? target : null;
+            } finally {
+                complete(path);
+            }
+        }
+
+        void complete(Path path) {
+            release(host);
+            future.complete(path);
+        }
+    }
+
+    /**
+     * Shutdown the internal executor, the submitted downloads are still executed
+     */
+    @Override
+    public synchronized void close() {
+        if (ownExecutor != null) {
+            ownExecutor.shutdown();
+            ownExecutor = null;
+            executor = null;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+import static java.lang.Character.isHighSurrogate;
+import static java.lang.Character.isLowSurrogate;
+import static java.lang.Character.toCodePoint;
+
+/**
+ * A byte oriented {@link ExtBufferedWriter}, the characters are encoded as UTF-8 directly
+ * into an internal {@code byte[]} buffer instead of being buffered as chars and encoded again
+ * by a charset encoder, the numbers are written as ASCII digits without temporary strings and the
+ * pre-encoded tag constants can be written by {@link #write(byte[])}.
+ * <p>
+ * The malformed surrogate characters are replaced by {@link ExtBufferedWriter#MALFORMED_CHAR}.
+ * Single-threaded operation stream.
+ *
+ * @author guanquan.wang at 2024-03-26 09:45
+ */
+public class UTF8BufferedWriter extends ExtBufferedWriter {
+    private static final int defaultByteBufferSize = 1 << 14;
+    private static final byte[] MALFORMED_BYTES = { (byte) 0xEF, (byte) 0xBF, (byte) 0xBD };
+    private static final byte[][] ESCAPE_BYTES = new byte[63][];
+    private static final byte[] MIN_INTEGER_BYTES = ascii(MIN_INTEGER_CHARS), MIN_LONG_BYTES = ascii(MIN_LONG_CHARS);
+
+    static {
+        ESCAPE_BYTES['<'] = ascii("&lt;".toCharArray());
+        ESCAPE_BYTES['>'] = ascii("&gt;".toCharArray());
+        ESCAPE_BYTES['&'] = ascii("&amp;".toCharArray());
+        ESCAPE_BYTES['"'] = ascii("&quot;".toCharArray());
+    }
+
+    private OutputStream out;
+    private final byte[] buf;
+    private int count;
+    /**
+     * The number of bytes flushed to the underlying stream
+     */
+    private long flushed;
+    /**
+     * The pending high surrogate of single char writing
+     */
+    private char highSurrogate;
+
+    public UTF8BufferedWriter(OutputStream out) {
+        this(out, defaultByteBufferSize);
+    }
+
+    public UTF8BufferedWriter(OutputStream out, int sz) {
+        super(NULL_WRITER, 1);
+        if (sz < 64) throw new IllegalArgumentException("Buffer size must be greater than 63");
+        this.out = out;
+        this.buf = new byte[sz];
+    }
+
+    /**
+     * Encode the ASCII characters to bytes
+     *
+     * @param cs the ASCII characters
+     * @return the bytes
+     */
+    public static byte[] ascii(char[] cs) {
+        byte[] b = new byte[cs.length];
+        for (int i = 0; i < cs.length; i++) b[i] = (byte) cs[i];
+        return b;
+    }
+
+    /**
+     * Encode the ASCII string to bytes, it is used to create the pre-encoded tag constants
+     *
+     * @param s the ASCII string
+     * @return the bytes
+     */
+    public static byte[] ascii(String s) {
+        return ascii(s.toCharArray());
+    }
+
+    private void ensureOpen() throws IOException {
+        if (out == null) throw new IOException("Stream closed");
+    }
+
+    private void flushBuffer() throws IOException {
+        ensureOpen();
+        if (count > 0) {
+            out.write(buf, 0, count);
+            flushed += count;
+            count = 0;
+        }
+    }
+
+    /**
+     * Make sure there has at least {@code n} bytes free space, {@code n} must be less than the buffer size
+     */
+    private void require(int n) throws IOException {
+        if (buf.length - count < n) flushBuffer();
+    }
+
+    /**
+     * Write pre-encoded bytes
+     *
+     * @param b the bytes
+     * @throws IOException if I/O error occur
+     */
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    /**
+     * Write pre-encoded bytes
+     *
+     * @param b   the bytes
+     * @param off the start offset in the bytes
+     * @param len the number of bytes to write
+     * @throws IOException if I/O error occur
+     */
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len > buf.length) {
+            flushBuffer();
+            out.write(b, off, len);
+            flushed += len;
+            return;
+        }
+        require(len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        char ch = (char) c;
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (isLowSurrogate(ch)) {
+                writeCodePoint(toCodePoint(high, ch));
+                return;
+            }
+            write(MALFORMED_BYTES);
+        }
+        if (ch < 0x80) {
+            require(1);
+            buf[count++] = (byte) ch;
+        }
+        else if (isHighSurrogate(ch)) highSurrogate = ch;
+        else if (isLowSurrogate(ch)) write(MALFORMED_BYTES);
+        else writeBMP(ch);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int end = off + len; off < end; ) {
+            char c = cbuf[off];
+            // ASCII fast path
+            if (c < 0x80 && highSurrogate == 0) {
+                require(1);
+                int n = Math.min(end, off + buf.length - count);
+                do buf[count++] = (byte) c; while (++off < n && (c = cbuf[off]) < 0x80);
+            } else {
+                write(c);
+                off++;
+            }
+        }
+    }
+
+    @Override
+    public void write(String s, int off, int len) throws IOException {
+        for (int end = off + len; off < end; ) {
+            char c = s.charAt(off);
+            // ASCII fast path
+            if (c < 0x80 && highSurrogate == 0) {
+                require(1);
+                int n = Math.min(end, off + buf.length - count);
+                do buf[count++] = (byte) c; while (++off < n && (c = s.charAt(off)) < 0x80);
+            } else {
+                write(c);
+                off++;
+            }
+        }
+    }
+
+    @Override
+    public void write(String s) throws IOException {
+        write(s, 0, s.length());
+    }
+
+    @Override
+    public void writeUTF8(char[] cb, int off, int len) throws IOException {
+        write(cb, off, len);
+    }
+
+    @Override
+    public void newLine() throws IOException {
+        write(System.lineSeparator());
+    }
+
+    /**
+     * Write integer value as ASCII digits
+     *
+     * @param n the integer value
+     * @throws IOException if I/O error occur
+     */
+    @Override
+    public void writeInt(int n) throws IOException {
+        if (n == Integer.MIN_VALUE) {
+            write(MIN_INTEGER_BYTES);
+            return;
+        }
+        require(11);
+        int size = stringSize(n), index = count + size;
+        if (n < 0) {
+            buf[count] = '-';
+            n = -n;
+        }
+        do {
+            buf[--index] = (byte) ('0' + n % 10);
+            n /= 10;
+        } while (n > 0);
+        count += size;
+    }
+
+    /**
+     * Write long value as ASCII digits
+     *
+     * @param l the long value
+     * @throws IOException if I/O error occur
+     */
+    @Override
+    public void write(long l) throws IOException {
+        if (l == Long.MIN_VALUE) {
+            write(MIN_LONG_BYTES);
+            return;
+        }
+        require(20);
+        int size = stringSize(l), index = count + size;
+        if (l < 0) {
+            buf[count] = '-';
+            l = -l;
+        }
+        do {
+            buf[--index] = (byte) ('0' + l % 10);
+            l /= 10;
+        } while (l > 0);
+        count += size;
+    }
+
+    /**
+     * Write double-precision floating-point value, the output is the same as {@link Double#toString(double)}
+     *
+     * @param d the double-precision floating-point value
+     * @throws IOException if I/O error occur
+     */
+    @Override
+    public void write(double d) throws IOException {
+        // Integral values less than 10^7 are printed as "digits.0"
+        long l = (long) d;
+        if (l == d && l > -10_000_000L && l < 10_000_000L && (l != 0 || 1 / d > 0)) {
+            write(l);
+            require(2);
+            buf[count++] = '.';
+            buf[count++] = '0';
+        } else write(Double.toString(d));
+    }
+
+    /**
+     * Write as escape text, the runs of plain ASCII characters are copied in bulk
+     *
+     * @param text string
+     * @throws IOException if I/O error occur
+     */
+    @Override
+    public void escapeWrite(String text) throws IOException {
+        int i = 0, size = text.length();
+        while (i < size) {
+            require(1);
+            // ASCII fast path
+            char c = 0;
+            for (int n = Math.min(size, i + buf.length - count); i < n; buf[count++] = (byte) c, i++) {
+                c = text.charAt(i);
+                if (c >= 0x80 || c < 32 || c <= 62 && ESCAPE_BYTES[c] != null) break;
+            }
+            if (i >= size) break;
+            c = text.charAt(i);
+            if (c >= 0x80) {
+                // Surrogate pair
+                if (isHighSurrogate(c)) {
+                    if (i + 1 < size && isLowSurrogate(text.charAt(i + 1))) {
+                        writeCodePoint(toCodePoint(c, text.charAt(i + 1)));
+                        i += 2;
+                    } else {
+                        write(MALFORMED_BYTES);
+                        i++;
+                    }
+                }
+                else if (isLowSurrogate(c)) {
+                    write(MALFORMED_BYTES);
+                    i++;
+                }
+                else {
+                    writeBMP(c);
+                    i++;
+                }
+            }
+            // UnDisplay char
+            else if (c < 32) {
+                if (c == 9 || c == 10 || c == 13) write((int) c);
+                else write(MALFORMED_BYTES);
+                i++;
+            }
+            // html escape char
+            else if (c <= 62 && ESCAPE_BYTES[c] != null) {
+                write(ESCAPE_BYTES[c]);
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Write as escape character
+     *
+     * @param c a character value
+     * @throws IOException if I/O error occur
+     */
+    @Override
+    public void escapeWrite(char c) throws IOException {
+        if (c < 0x80) {
+            if (c >= 32) {
+                byte[] eb = c <= 62 ? ESCAPE_BYTES[c] : null;
+                if (eb != null) write(eb);
+                else write((int) c);
+            }
+            else if (c == 9 || c == 10 || c == 13) write((int) c);
+            else write(MALFORMED_BYTES);
+        }
+        else if (isHighSurrogate(c) || isLowSurrogate(c)) write(MALFORMED_BYTES);
+        else writeBMP(c);
+    }
+
+    private void writeBMP(char c) throws IOException {
+        require(3);
+        if (c < 0x800) {
+            buf[count++] = (byte) (0xC0 | (c >> 6));
+        } else {
+            buf[count++] = (byte) (0xE0 | (c >> 12));
+            buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        }
+        buf[count++] = (byte) (0x80 | (c & 0x3F));
+    }
+
+    private void writeCodePoint(int cp) throws IOException {
+        require(4);
+        buf[count++] = (byte) (0xF0 | (cp >> 18));
+        buf[count++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+        buf[count++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        buf[count++] = (byte) (0x80 | (cp & 0x3F));
+    }
+
+    /**
+     * Returns the number of bytes written, including the buffered bytes
+     *
+     * @return the number of bytes
+     */
+    public long size() {
+        return flushed + count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out == null) return;
+        try {
+            if (highSurrogate != 0) {
+                highSurrogate = 0;
+                write(MALFORMED_BYTES);
+            }
+            flushBuffer();
+        } finally {
+            out.close();
+            out = null;
+        }
+    }
+
+    private static final Writer NULL_WRITER = new Writer() {
+        @Override public void write(char[] cbuf, int off, int len) { }
+        @Override public void flush() { }
+        @Override public void close() { }
+    };
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.util;
+
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+
+/**
+ * Compression settings of the workbook zip file.
+ * <p>
+ * The compression method and level can be specified by entry type, the worksheet
+ * XML is usually the largest part and compresses very well, the media files (png, jpeg)
+ * are already compressed so {@code STORED} may be a better choice, the others are small parts.
+ * <p>
+ * When an {@link Executor} is specified, the large deflated entries are split into
+ * independent blocks of {@link #getBlockSize()} bytes and compressed concurrently,
+ * each block uses the last 32K of previous block as the preset dictionary so the
+ * compression ratio is almost the same as the serial compressing.
+ *
+ * <blockquote><pre>
+ * new Workbook()
+ *     .setCompression(new ZipCompression()
+ *         .setLevel(ZipCompression.Type.WORKSHEET, 3)
+ *         .setStored(ZipCompression.Type.MEDIA)
+ *         .setExecutor(executor))
+ *     .addSheet(...)
+ *     .writeTo(...);</pre></blockquote>
+ *
+ * @author guanquan.wang at 2024-03-18 14:02
+ */
+public class ZipCompression {
+    /**
+     * The entry type
+     */
+    public enum Type {
+        /**
+         * The worksheet XML ({@code xl/worksheets/*.xml})
+         */
+        WORKSHEET,
+        /**
+         * The media files ({@code xl/media/*})
+         */
+        MEDIA,
+        /**
+         * The other small parts, such as styles, shared strings and relationships
+         */
+        OTHERS;
+
+        /**
+         * Returns the entry type of the entry name
+         *
+         * @param name the entry name
+         * @return the entry type
+         */
+        public static Type of(String name) {
+            if (name.startsWith("xl/worksheets/") && name.endsWith(".xml")) return WORKSHEET;
+            if (name.startsWith("xl/media/")) return MEDIA;
+            return OTHERS;
+        }
+    }
+
+    /**
+     * Stored (no compression) flag
+     */
+    public static final int STORED = -2;
+
+    /**
+     * Compression levels by entry type, {@link #STORED} means not compressed
+     */
+    private final int[] levels;
+    /**
+     * The executor to compress blocks concurrently
+     */
+    private Executor executor;
+    /**
+     * The block size
+     */
+    private int blockSize = 1 << 17;
+
+    public ZipCompression() {
+        levels = new int[Type.values().length];
+        for (int i = 0; i < levels.length; i++) levels[i] = ZipUtil.MIDDLE_COMPRESSION;
+    }
+
+    /**
+     * Setting the compression level of the entry type
+     *
+     * @param type  the entry type
+     * @param level the compression level (0-9)
+     * @return current {@link ZipCompression}
+     */
+    public ZipCompression setLevel(Type type, int level) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION)
+            throw new IllegalArgumentException("Invalid compression level " + level);
+        levels[type.ordinal()] = level;
+        return this;
+    }
+
+    /**
+     * Store the entry type without compression
+     *
+     * @param type the entry type
+     * @return current {@link ZipCompression}
+     */
+    public ZipCompression setStored(Type type) {
+        levels[type.ordinal()] = STORED;
+        return this;
+    }
+
+    /**
+     * Returns the compression level of the entry type
+     *
+     * @param type the entry type
+     * @return the compression level or {@link #STORED}
+     */
+    public int getLevel(Type type) {
+        return levels[type.ordinal()];
+    }
+
+    /**
+     * Setting the executor to compress blocks concurrently, the executor is
+     * managed by the caller and will not be shut down.
+     *
+     * @param executor the executor, {@code null} means compressing in the current thread
+     * @return current {@link ZipCompression}
+     */
+    public ZipCompression setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Returns the executor to compress blocks concurrently
+     *
+     * @return the executor
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Setting the uncompressed size of each block, default 128K
+     *
+     * @param blockSize the block size, it must be larger than the 32K dictionary
+     * @return current {@link ZipCompression}
+     */
+    public ZipCompression setBlockSize(int blockSize) {
+        if (blockSize < BlockDeflateZipOutputStream.DICTIONARY_SIZE)
+            throw new IllegalArgumentException("The block size must be larger than " + BlockDeflateZipOutputStream.DICTIONARY_SIZE);
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    /**
+     * Returns the uncompressed size of each block
+     *
+     * @return the block size
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+}
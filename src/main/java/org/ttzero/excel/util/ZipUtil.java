@@ -16,14 +16,19 @@
 
 package org.ttzero.excel.util;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.Adler32;
@@ -146,6 +151,145 @@ public class ZipUtil {
         }
     }
 
+    /**
+     * Append all files in the source path into an opened {@link ZipOutputStream},
+     * the entry name is relative to the source path and the source path itself is excluded.
+     * The zip stream will not be closed or finished.
+     *
+     * @param zos     the opened zip stream
+     * @param srcPath the source path
+     * @throws IOException if error occur.
+     */
+    public static void zipExcludeRoot(ZipOutputStream zos, Path srcPath) throws IOException {
+        zipExcludeRoot(zos, srcPath, null);
+    }
+
+    /**
+     * Compress the regular files of the source path into the opened zip stream,
+     * the entry listener is notified with the entry name and the uncompressed size
+     * after each entry closed. The zip stream will not be closed or finished.
+     *
+     * @param zos      the opened zip stream
+     * @param srcPath  the source path
+     * @param listener the entry listener, nullable
+     * @throws IOException if error occur.
+     */
+    public static void zipExcludeRoot(ZipOutputStream zos, Path srcPath, BiConsumer<String, Long> listener) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> fileStream = Files.walk(srcPath)) {
+            paths = fileStream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            String name = srcPath.relativize(path).toString().replace(File.separatorChar, '/');
+            zos.putNextEntry(new ZipEntry(name));
+            long size = Files.copy(path, zos);
+            zos.closeEntry();
+            if (listener != null) listener.accept(name, size);
+        }
+    }
+
+    /**
+     * Create a {@link ZipOutputStream} on the specified output stream, closing the zip stream
+     * only finishes the zip file and flushes the data, the specified output stream is still open.
+     *
+     * @param os the destination output stream
+     * @return the zip stream
+     */
+    public static ZipOutputStream openZipStream(OutputStream os) {
+        return openZipStream(os, null);
+    }
+
+    /**
+     * Create a {@link ZipOutputStream} on the specified output stream with the compression settings,
+     * closing the zip stream only finishes the zip file and flushes the data, the specified output
+     * stream is still open.
+     *
+     * @param os          the destination output stream
+     * @param compression the compression settings, use the default {@link #MIDDLE_COMPRESSION}
+     *                    level for all entries if null
+     * @return the zip stream
+     */
+    public static ZipOutputStream openZipStream(OutputStream os, ZipCompression compression) {
+        OutputStream out = new UnclosedOutputStream(new BufferedOutputStream(os, 1 << 16));
+        if (compression != null) return new BlockDeflateZipOutputStream(out, compression);
+        ZipOutputStream zos = new ZipOutputStream(out);
+        zos.setLevel(MIDDLE_COMPRESSION);
+        return zos;
+    }
+
+    /**
+     * zip files exclude root path with the compression settings
+     *
+     * @param destPath    the destination path
+     * @param compression the compression settings
+     * @param srcPath     the source path
+     * @return the result zip file path
+     * @throws IOException if error occur.
+     */
+    public static Path zipExcludeRoot(Path destPath, ZipCompression compression, Path srcPath) throws IOException {
+        return zipExcludeRoot(destPath, compression, srcPath, null);
+    }
+
+    /**
+     * zip files exclude root path with the compression settings and notify
+     * the entry listener after each entry closed
+     *
+     * @param destPath    the destination path
+     * @param compression the compression settings, use the default {@link #MIDDLE_COMPRESSION}
+     *                    level for all entries if null
+     * @param srcPath     the source path
+     * @param listener    the entry listener, nullable
+     * @return the result zip file path
+     * @throws IOException if error occur.
+     */
+    public static Path zipExcludeRoot(Path destPath, ZipCompression compression, Path srcPath, BiConsumer<String, Long> listener) throws IOException {
+        if (!destPath.toString().endsWith(suffix)) {
+            destPath = Paths.get(destPath.toString() + suffix);
+        }
+        if (!exists(destPath.getParent())) {
+            FileUtil.mkdir(destPath.getParent());
+        }
+        try (OutputStream os = Files.newOutputStream(destPath); ZipOutputStream zos = openZipStream(os, compression)) {
+            zipExcludeRoot(zos, srcPath, listener);
+        }
+        return destPath;
+    }
+
+    /**
+     * Returns an output stream that writes into the current entry of the zip stream,
+     * closing it closes the current entry instead of the zip stream.
+     *
+     * @param zos the zip stream which entry has been put
+     * @return the entry output stream
+     */
+    public static OutputStream entryOutputStream(ZipOutputStream zos) {
+        return new UnclosedOutputStream(zos) {
+            @Override
+            public void close() throws IOException {
+                zos.closeEntry();
+            }
+        };
+    }
+
+    /**
+     * An output stream that flushes instead of closing the underlying stream
+     */
+    private static class UnclosedOutputStream extends FilterOutputStream {
+        UnclosedOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
     /**
      * unzip file to descPath
      *
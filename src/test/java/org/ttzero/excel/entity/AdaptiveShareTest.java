@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.junit.Test;
+import org.ttzero.excel.reader.ExcelReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.ttzero.excel.entity.CompactWorkbookTest.sheetXml;
+
+/**
+ * @author guanquan.wang at 2024-03-28 14:02
+ */
+public class AdaptiveShareTest extends WorkbookTest {
+
+    @Test public void testAdaptiveShare() throws IOException {
+        testAdaptiveShare(false);
+    }
+
+    @Test public void testAdaptiveSharePipelined() throws IOException {
+        // The columns are filled in the producer thread, the decisions are written back at the end
+        testAdaptiveShare(true);
+    }
+
+    private static void testAdaptiveShare(boolean pipelined) throws IOException {
+        List<Map<String, ?>> data = new ArrayList<>(5000);
+        for (int i = 0; i < 5000; i++) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("id", "ID-" + i);
+            map.put("category", "category-" + (i % 10));
+            data.add(map);
+        }
+        Column id = new Column("ID", "id").setShare(true), category = new Column("Category", "category");
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new Workbook().setPipelined(pipelined).addSheet(new ListMapSheet(data, id, category).setAdaptiveShareSamples(1000)).writeTo(os);
+
+        // The unique ids are written as inline string, the categories are shared
+        assertFalse(id.isShare());
+        assertTrue(id.getDistinctRatio() > 0.9D);
+        assertTrue(category.isShare());
+        assertTrue(category.getDistinctRatio() < 0.1D);
+        String xml = sheetXml(os.toByteArray());
+        assertTrue(xml.contains("<is><t>ID-4999</t></is>"));
+        // The samples are written as the original setting
+        assertTrue(xml.contains("<is><t>category-9</t></is>"));
+        assertTrue(xml.contains("<c r=\"B5001\" s=\"1\" t=\"s\">"));
+
+        try (ExcelReader reader = ExcelReader.read(new ByteArrayInputStream(os.toByteArray()))) {
+            Iterator<Map<String, Object>> iter = reader.sheet(0).header(1).dataRows().map(org.ttzero.excel.reader.Row::toMap).iterator();
+            for (Map<String, ?> expect : data) {
+                assertTrue(iter.hasNext());
+                Map<String, Object> row = iter.next();
+                assertEquals(expect.get("id"), row.get("ID"));
+                assertEquals(expect.get("category"), row.get("Category"));
+            }
+            assertFalse(iter.hasNext());
+        }
+    }
+
+    @Test public void testLessThanSamples() throws IOException {
+        List<Map<String, ?>> data = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("name", i % 2 == 0 ? "even" : "odd");
+            data.add(map);
+        }
+        Column name = new Column("Name", "name");
+        new Workbook().addSheet(new ListMapSheet(data, name).setAdaptiveShareSamples(10_000)).writeTo(new ByteArrayOutputStream());
+
+        // Decided at the end of sheet
+        assertTrue(name.isShare());
+        assertEquals(0.02D, name.getDistinctRatio(), 0.0001D);
+    }
+
+    @Test public void testDisabled() throws IOException {
+        Column name = new Column("Name", "name");
+        List<Map<String, ?>> data = new ArrayList<>();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", "a");
+        data.add(map);
+        new Workbook().addSheet(new ListMapSheet(data, name)).writeTo(new ByteArrayOutputStream());
+        assertFalse(name.isShare());
+        assertEquals(-1D, name.getDistinctRatio(), 0D);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.junit.Test;
+import org.ttzero.excel.reader.ExcelReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.ttzero.excel.entity.StreamingWorkbookTest.assertItems;
+
+/**
+ * @author guanquan.wang at 2024-03-25 14:20
+ */
+public class AutoSizeSampleTest extends WorkbookTest {
+    private static final Pattern COLS = Pattern.compile("<cols>.*</cols>");
+
+    @Test public void testSampleAllBlocks() throws IOException {
+        List<ListObjectSheetTest.Item> expectList = ListObjectSheetTest.Item.randomTestData(100);
+        ByteArrayOutputStream rewrite = new ByteArrayOutputStream(), sampled = new ByteArrayOutputStream();
+        new Workbook().addSheet(new ListSheet<>(expectList).autoSize()).writeTo(rewrite);
+        new Workbook().setStreaming(true).addSheet(new ListSheet<>(expectList).autoSize().setAutoSizeSampleBlocks(100)).writeTo(sampled);
+
+        // The same widths as scanning all rows
+        assertEquals(cols(rewrite.toByteArray()), cols(sampled.toByteArray()));
+        try (ExcelReader reader = ExcelReader.read(new ByteArrayInputStream(sampled.toByteArray()))) {
+            assertItems(expectList, reader, 0);
+        }
+    }
+
+    @Test public void testSampleFirstBlock() throws IOException {
+        List<ListObjectSheetTest.Item> expectList = ListObjectSheetTest.Item.randomTestData(100);
+        // The long values out of the first block do not affect the width
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 20; i++) buf.append("long long ");
+        for (int i = 40; i < expectList.size(); i++) expectList.get(i).setName(buf.toString() + i);
+        ByteArrayOutputStream rewrite = new ByteArrayOutputStream(), sampled = new ByteArrayOutputStream();
+        new Workbook().addSheet(new ListSheet<>(expectList).autoSize()).writeTo(rewrite);
+        new Workbook().setStreaming(true).setAutoSizeSampleBlocks(1).addSheet(new ListSheet<>(expectList).autoSize()).writeTo(sampled);
+
+        String cols = cols(sampled.toByteArray());
+        assertNotNull(cols);
+        assertNotEquals(cols(rewrite.toByteArray()), cols);
+        try (ExcelReader reader = ExcelReader.read(new ByteArrayInputStream(sampled.toByteArray()))) {
+            assertItems(expectList, reader, 0);
+        }
+    }
+
+    @Test public void testSamplePipelined() throws IOException {
+        List<ListObjectSheetTest.Item> expectList = ListObjectSheetTest.Item.randomTestData(1000);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new Workbook().setStreaming(true).setPipelined(true).setAutoSizeSampleBlocks(2)
+            .addSheet(new ListSheet<>(expectList).autoSize()).writeTo(os);
+
+        try (ExcelReader reader = ExcelReader.read(new ByteArrayInputStream(os.toByteArray()))) {
+            assertItems(expectList, reader, 0);
+        }
+    }
+
+    @Test public void testSampleEmpty() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new Workbook().setStreaming(true).addSheet(new ListSheet<ListObjectSheetTest.Item>().autoSize().setAutoSizeSampleBlocks(1)).writeTo(os);
+
+        try (ExcelReader reader = ExcelReader.read(new ByteArrayInputStream(os.toByteArray()))) {
+            assertEquals(0L, reader.sheet(0).rows().count());
+        }
+    }
+
+    static String cols(byte[] bytes) throws IOException {
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                if (!"xl/worksheets/sheet1.xml".equals(entry.getName())) continue;
+                ByteArrayOutputStream os = new ByteArrayOutputStream();
+                byte[] buf = new byte[8192];
+                for (int n; (n = zis.read(buf)) > 0; ) os.write(buf, 0, n);
+                Matcher matcher = COLS.matcher(new String(os.toByteArray(), StandardCharsets.UTF_8));
+                return matcher.find() ? matcher.group() : null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.junit.Test;
+import org.ttzero.excel.entity.e7.XMLCellValueAndStyle;
+import org.ttzero.excel.reader.Cell;
+import org.ttzero.excel.reader.ExcelReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author guanquan.wang at 2024-03-30 11:20
+ */
+public class CellValueWriterTest {
+
+    @Test public void testSameAsSetCellValue() {
+        Object[] values = { "abc", new Date(), new java.sql.Date(System.currentTimeMillis()), new Timestamp(System.currentTimeMillis())
+            , 'c', (short) 12, 123, 1L << 40, 1.5F, 3.14D, true, new BigDecimal("12.345"), LocalDate.now(), LocalDateTime.now()
+            , Time.valueOf("12:34:56"), LocalTime.of(1, 2, 3) };
+        ICellValueAndStyle generic = new ICellValueAndStyle() { };
+        for (Object e : values) {
+            Column hc = new Column().setClazz(e.getClass());
+            CellValueWriter writer = hc.getCellValueWriter();
+            assertTrue(e.getClass().getName(), writer != null);
+
+            Cell expect = new Cell(), cell = new Cell();
+            generic.setCellValue(null, expect, e, hc, hc.getClazz(), false);
+            writer.write(cell, e);
+            assertCellEquals(expect, cell);
+        }
+    }
+
+    @Test public void testColumnType() {
+        assertSame(CellValueWriter.STRING, new Column().setClazz(String.class).getCellValueWriter());
+        assertSame(CellValueWriter.HYPERLINK, new Column().setClazz(String.class).writeAsHyperlink().getCellValueWriter());
+        // Media and unknown types
+        assertNull(new Column().setClazz(String.class).writeAsMedia().getCellValueWriter());
+        assertNull(new Column().setClazz(Paths.get(".").getClass()).getCellValueWriter());
+        assertNull(new Column().getCellValueWriter());
+
+        // Re-resolve after the type changed
+        Column hc = new Column().setClazz(int.class);
+        assertSame(CellValueWriter.INT, hc.getCellValueWriter());
+        hc.setClazz(Long.class);
+        assertSame(CellValueWriter.LONG, hc.getCellValueWriter());
+    }
+
+    @Test public void testOverrideSetCellValue() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new Workbook().addSheet(new ListSheet<>(ListObjectSheetTest.Item.randomTestData()).setCellValueAndStyle(new XMLCellValueAndStyle() {
+            @Override
+            public void setCellValue(Row row, Cell cell, Object e, Column hc, Class<?> clazz, boolean hasConversion) {
+                cell.setString("custom");
+            }
+        })).writeTo(os);
+
+        try (ExcelReader reader = ExcelReader.read(new ByteArrayInputStream(os.toByteArray()))) {
+            assertTrue(reader.sheet(0).dataRows().allMatch(row -> "custom".equals(row.getString(0)) && "custom".equals(row.getString(1))));
+        }
+    }
+
+    static void assertCellEquals(Cell expect, Cell cell) {
+        assertEquals(expect.t, cell.t);
+        assertEquals(expect.stringVal, cell.stringVal);
+        assertEquals(expect.intVal, cell.intVal);
+        assertEquals(expect.longVal, cell.longVal);
+        assertEquals(expect.doubleVal, cell.doubleVal, 0D);
+        assertEquals(expect.boolVal, cell.boolVal);
+        assertEquals(expect.charVal, cell.charVal);
+        assertEquals(expect.decimal, cell.decimal);
+        assertEquals(expect.h, cell.h);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.junit.Test;
+import org.ttzero.excel.entity.style.NumFmt;
+import org.ttzero.excel.reader.ExcelReader;
+import org.ttzero.excel.reader.Row;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author guanquan.wang at 2024-04-02 11:30
+ */
+public class ColumnarSheetTest extends WorkbookTest {
+
+    @Test public void testColumnarSheet() throws IOException {
+        String fileName = "columnar sheet.xlsx";
+        int size = 100;
+        int[] ids = new int[size], codes = new int[size];
+        long[] times = new long[size];
+        double[] amounts = new double[size];
+        String[] names = new String[size], dictionary = { "Beijing", "Shanghai", "Guangzhou" };
+        for (int i = 0; i < size; i++) {
+            ids[i] = i + 1;
+            times[i] = 1_700_000_000_000L + i;
+            amounts[i] = i * 1.25D;
+            names[i] = i % 10 == 0 ? null : "name" + i;
+            codes[i] = i % 7 == 0 ? -1 : i % dictionary.length;
+        }
+        new Workbook()
+            .addSheet(new ColumnarSheet("Columnar")
+                .addColumn(new Column("ID"), ids)
+                .addColumn(new Column("TIME"), times)
+                .addColumn(new Column("AMOUNT").setNumFmt("#,##0.00"), amounts)
+                .addColumn(new Column("NAME"), names)
+                .addColumn(new Column("CITY"), codes, dictionary))
+            .writeTo(defaultTestPath.resolve(fileName));
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            Iterator<Row> iter = reader.sheet(0).header(1).iterator();
+            for (int i = 0; i < size; i++) {
+                assertTrue(iter.hasNext());
+                Row row = iter.next();
+                assertEquals(ids[i], (int) row.getInt("ID"));
+                assertEquals(times[i], (long) row.getLong("TIME"));
+                assertEquals(amounts[i], row.getDouble("AMOUNT"), 0.000001D);
+                assertEquals(names[i], row.getString("NAME"));
+                assertEquals(codes[i] >= 0 ? dictionary[codes[i]] : null, row.getString("CITY"));
+
+                NumFmt numFmt = row.getStyles().getNumFmt(row.getCellStyle(2));
+                assertNotNull(numFmt);
+                assertEquals("#,##0.00", numFmt.getCode());
+            }
+            assertFalse(iter.hasNext());
+        }
+    }
+
+    @Test public void testPaging() throws IOException {
+        String fileName = "columnar sheet paging.xlsx";
+        int size = 1000;
+        int[] ids = new int[size];
+        String[] names = new String[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i;
+            names[i] = "name" + i;
+        }
+        Workbook workbook = new Workbook()
+            .addSheet(new ColumnarSheet().addColumn(new Column("ID"), ids).addColumn(new Column("NAME"), names))
+            .setWorkbookWriter(new ReLimitXMLWorkbookWriter());
+        workbook.writeTo(defaultTestPath.resolve(fileName));
+
+        int rowLimit = workbook.getSheetAt(0).getSheetWriter().getRowLimit();
+        List<Integer> list = new ArrayList<>(size);
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertEquals((size + rowLimit - 2) / (rowLimit - 1), reader.getSheetCount());
+            for (int i = 0; i < reader.getSheetCount(); i++) {
+                reader.sheet(i).header(1).rows().forEach(row -> {
+                    assertEquals("name" + row.getInt("ID"), row.getString("NAME"));
+                    list.add(row.getInt("ID"));
+                });
+            }
+        }
+        assertEquals(size, list.size());
+        for (int i = 0; i < size; i++) assertEquals(i, (int) list.get(i));
+    }
+
+    @Test public void testConversion() throws IOException {
+        String fileName = "columnar sheet conversion.xlsx";
+        new Workbook()
+            .addSheet(new ColumnarSheet()
+                .addColumn(new Column("STATUS").setProcessor(n -> (int) n == 0 ? "Off" : "On"), new int[] { 0, 1, 0 })
+                .addColumn(new Column("SCORE").setStyleProcessor((n, style, sst) -> style), new double[] { 1.5D, 2.5D, 3.5D }))
+            .writeTo(defaultTestPath.resolve(fileName));
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            List<String> status = new ArrayList<>();
+            List<Double> scores = new ArrayList<>();
+            reader.sheet(0).header(1).rows().forEach(row -> {
+                status.add(row.getString("STATUS"));
+                scores.add(row.getDouble("SCORE"));
+            });
+            assertEquals(Arrays.asList("Off", "On", "Off"), status);
+            assertEquals(Arrays.asList(1.5D, 2.5D, 3.5D), scores);
+        }
+    }
+
+    @Test public void testHyperlinkAndMedia() throws IOException {
+        String fileName = "columnar hyperlink and media.xlsx";
+        int size = 5;
+        String[] links = new String[size], images = new String[size];
+        for (int i = 0; i < size; i++) {
+            links[i] = "https://www.ttzero.org/excel/" + i;
+            images[i] = "data:image/png;base64," + Base64.getEncoder().encodeToString(ParallelWorkbookTest.createImage(i, "png"));
+        }
+        new Workbook()
+            .addSheet(new ColumnarSheet("Columnar")
+                .addColumn(new Column("LINK").writeAsHyperlink(), links)
+                .addColumn(new Column("IMAGE").writeAsMedia(), images))
+            .writeTo(defaultTestPath.resolve(fileName));
+
+        try (ZipFile zipFile = new ZipFile(defaultTestPath.resolve(fileName).toFile())) {
+            ZipEntry entry = zipFile.getEntry("xl/worksheets/sheet1.xml");
+            String xml;
+            try (InputStream is = zipFile.getInputStream(entry)) {
+                ByteArrayOutputStream os = new ByteArrayOutputStream();
+                byte[] buf = new byte[1 << 12];
+                for (int n; (n = is.read(buf)) > 0; ) os.write(buf, 0, n);
+                xml = new String(os.toByteArray(), StandardCharsets.UTF_8);
+            }
+            assertTrue(xml.contains("<hyperlinks>"));
+            // The base64 string is not written as plain text
+            assertFalse(xml.contains("base64"));
+        }
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertEquals(size, reader.sheet(0).listPictures().size());
+            List<String> list = reader.sheet(0).reset().header(1).rows().map(row -> row.getString("LINK")).collect(Collectors.toList());
+            assertEquals(Arrays.asList(links), list);
+        }
+    }
+
+    @Test(expected = ExcelWriteException.class) public void testLengthMismatch() throws IOException {
+        new Workbook()
+            .addSheet(new ColumnarSheet().addColumn(new Column("A"), new int[3]).addColumn(new Column("B"), new long[2]))
+            .writeTo(defaultTestPath.resolve("columnar sheet mismatch.xlsx"));
+    }
+
+    @Test public void testEmpty() throws IOException {
+        String fileName = "columnar sheet empty.xlsx";
+        new Workbook()
+            .addSheet(new ColumnarSheet().addColumn(new Column("A"), new int[0]))
+            .writeTo(defaultTestPath.resolve(fileName));
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertNull(reader.sheet(0).header(1).rows().findFirst().orElse(null));
+        }
+    }
+}
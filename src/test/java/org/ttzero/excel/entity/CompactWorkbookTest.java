@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.junit.Test;
+import org.ttzero.excel.reader.ExcelReader;
+import org.ttzero.excel.reader.HeaderRow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.ttzero.excel.Print.println;
+import static org.ttzero.excel.entity.StreamingWorkbookTest.assertItems;
+
+/**
+ * @author guanquan.wang at 2024-03-27 10:12
+ */
+public class CompactWorkbookTest extends WorkbookTest {
+
+    @Test public void testCompactListSheet() throws IOException {
+        List<ListObjectSheetTest.Item> expectList = ListObjectSheetTest.Item.randomTestData();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new Workbook().setCompact(true).addSheet(new ListSheet<>(expectList)).writeTo(os);
+
+        String xml = sheetXml(os.toByteArray());
+        assertFalse(xml.contains(" spans=\""));
+        assertFalse(xml.contains("<c r=\"B"));
+        try (ExcelReader reader = ExcelReader.read(new ByteArrayInputStream(os.toByteArray()))) {
+            assertItems(expectList, reader, 0);
+        }
+    }
+
+    @Test public void testCompactDiscontinuousColumns() throws IOException {
+        List<ListObjectSheetTest.Student> expectList = ListObjectSheetTest.Student.randomTestData();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new Workbook().setCompact(true)
+            .addSheet(new ListSheet<>(expectList
+                , new Column("学号", "id").setColIndex(3)
+                , new Column("姓名", "name")
+                , new Column("成绩", "score").setColIndex(5)
+            )).writeTo(os);
+
+        // The reference is kept after a gap
+        assertTrue(sheetXml(os.toByteArray()).contains("<c r=\"D"));
+        try (ExcelReader reader = ExcelReader.read(new ByteArrayInputStream(os.toByteArray()))) {
+            org.ttzero.excel.reader.Sheet sheet = reader.sheet(0).header(1);
+            HeaderRow header = (HeaderRow) sheet.getHeader();
+            assertEquals("姓名", header.get(0));
+            assertEquals("学号", header.get(3));
+            assertEquals("成绩", header.get(5));
+
+            Iterator<org.ttzero.excel.reader.Row> iter = sheet.iterator();
+            for (ListObjectSheetTest.Student expect : expectList) {
+                assertTrue(iter.hasNext());
+                org.ttzero.excel.reader.Row row = iter.next();
+                assertEquals(expect.getName(), row.getString(0));
+                assertEquals(expect.getId(), (int) row.getInt(3));
+                assertEquals(expect.getScore(), (int) row.getInt(5));
+            }
+        }
+    }
+
+    @Test public void testCompactBenchmark() throws IOException {
+        List<Map<String, ?>> data = numericData(10_000, 30);
+        // Warm up
+        write(data, false);
+        write(data, true);
+
+        long t1 = System.nanoTime();
+        byte[] normal = write(data, false);
+        long t2 = System.nanoTime();
+        byte[] compact = write(data, true);
+        long t3 = System.nanoTime();
+
+        int normalXml = sheetXml(normal).length(), compactXml = sheetXml(compact).length();
+        println("Normal  mode: xml " + normalXml + " bytes, xlsx " + normal.length + " bytes, " + (t2 - t1) / 1_000_000 + " ms");
+        println("Compact mode: xml " + compactXml + " bytes, xlsx " + compact.length + " bytes, " + (t3 - t2) / 1_000_000 + " ms");
+        assertTrue(compactXml < normalXml);
+        assertTrue(compact.length < normal.length);
+
+        try (ExcelReader normalReader = ExcelReader.read(new ByteArrayInputStream(normal));
+             ExcelReader compactReader = ExcelReader.read(new ByteArrayInputStream(compact))) {
+            Iterator<org.ttzero.excel.reader.Row> iter = normalReader.sheet(0).iterator();
+            for (Iterator<org.ttzero.excel.reader.Row> compactIter = compactReader.sheet(0).iterator(); compactIter.hasNext(); ) {
+                assertTrue(iter.hasNext());
+                assertEquals(iter.next().toString(), compactIter.next().toString());
+            }
+            assertFalse(iter.hasNext());
+        }
+    }
+
+    static byte[] write(List<Map<String, ?>> data, boolean compact) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new Workbook().setCompact(compact).addSheet(new ListMapSheet(data)).writeTo(os);
+        return os.toByteArray();
+    }
+
+    static List<Map<String, ?>> numericData(int rows, int columns) {
+        Random random = new Random(1);
+        List<Map<String, ?>> list = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int j = 0; j < columns; j++) {
+                map.put("c" + j, (j & 1) == 0 ? random.nextInt(100_000) : random.nextDouble() * 1000);
+            }
+            list.add(map);
+        }
+        return list;
+    }
+
+    static String sheetXml(byte[] bytes) throws IOException {
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                if (!"xl/worksheets/sheet1.xml".equals(entry.getName())) continue;
+                ByteArrayOutputStream os = new ByteArrayOutputStream();
+                byte[] buf = new byte[8192];
+                for (int n; (n = zis.read(buf)) > 0; ) os.write(buf, 0, n);
+                return new String(os.toByteArray(), StandardCharsets.UTF_8);
+            }
+        }
+        return "";
+    }
+}
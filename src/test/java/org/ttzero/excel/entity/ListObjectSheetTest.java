@@ -19,6 +19,8 @@ package org.ttzero.excel.entity;
 import org.junit.Test;
 import org.ttzero.excel.annotation.ExcelColumn;
 import org.ttzero.excel.annotation.IgnoreExport;
+import org.ttzero.excel.entity.e7.XMLCellValueAndStyle;
+import org.ttzero.excel.entity.e7.XMLZebraLineCellValueAndStyle;
 import org.ttzero.excel.entity.style.Fill;
 import org.ttzero.excel.entity.style.Font;
 import org.ttzero.excel.entity.style.PatternType;
@@ -1303,6 +1305,19 @@ public class ListObjectSheetTest extends WorkbookTest {
         }
     }
 
+    @Test public void testTypedValueSupported() {
+        assertTrue(new XMLCellValueAndStyle().isTypedValueSupported());
+        assertTrue(new XMLZebraLineCellValueAndStyle(1).isTypedValueSupported());
+        // A harmless subclass keeps the unboxed path
+        assertTrue(new XMLCellValueAndStyle() { }.isTypedValueSupported());
+        assertFalse(new XMLCellValueAndStyle() {
+            @Override
+            public int getStyleIndex(org.ttzero.excel.entity.Row row, Column hc, Object o) {
+                return super.getStyleIndex(row, hc, o);
+            }
+        }.isTypedValueSupported());
+    }
+
     public static class Item {
         @ExcelColumn
         private int id;
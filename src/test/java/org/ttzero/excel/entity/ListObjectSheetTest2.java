@@ -532,6 +532,66 @@ public class ListObjectSheetTest2 extends WorkbookTest {
         }
     }
 
+    @Test public void testPrefetchDataSupplier() throws IOException {
+        final String fileName = "list prefetch data supplier.xlsx";
+        List<ListObjectSheetTest.Item> expectList = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>(), sizes = new ArrayList<>();
+        List<Boolean> lastMatches = new ArrayList<>();
+        Thread main = Thread.currentThread();
+        boolean[] async = { false };
+        new Workbook()
+            .addSheet(new ListSheet<ListObjectSheetTest.Item>().setData((i, lastOne) -> {
+                if (i >= 1000) return null;
+                async[0] |= Thread.currentThread() != main;
+                offsets.add(i);
+                lastMatches.add(expectList.isEmpty() ? lastOne == null : expectList.get(expectList.size() - 1) == lastOne);
+                List<ListObjectSheetTest.Item> sub = ListObjectSheetTest.Item.randomTestData();
+                sizes.add(sub.size());
+                expectList.addAll(sub);
+                return sub;
+            }).setPrefetch(2))
+            .writeTo(defaultTestPath.resolve(fileName));
+
+        assertTrue(async[0]);
+        // The offset is the number of pulled records
+        for (int i = 0, n = 0; i < offsets.size(); n += sizes.get(i++)) assertEquals(n, (int) offsets.get(i));
+        assertTrue(lastMatches.stream().allMatch(Boolean::booleanValue));
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            List<ListObjectSheetTest.Item> list = reader.sheet(0).dataRows().map(row -> row.to(ListObjectSheetTest.Item.class)).collect(Collectors.toList());
+            assertEquals(expectList.size(), list.size());
+            for (int i = 0, len = expectList.size(); i < len; i++) {
+                assertEquals(expectList.get(i), list.get(i));
+            }
+        }
+    }
+
+    @Test public void testPrefetchPaging() throws IOException {
+        final String fileName = "list prefetch paging.xlsx";
+        List<ListObjectSheetTest.Item> expectList = new ArrayList<>();
+        new Workbook()
+            .addSheet(new ListSheet<ListObjectSheetTest.Item>().setData((i, lastOne) -> {
+                if (i >= 1000) return null;
+                List<ListObjectSheetTest.Item> sub = ListObjectSheetTest.Item.randomTestData();
+                expectList.addAll(sub);
+                return sub;
+            }).setPrefetch(3).setSheetWriter(new XMLWorksheetWriter() {
+                @Override
+                public int getRowLimit() {
+                    return 150;
+                }
+            }))
+            .writeTo(defaultTestPath.resolve(fileName));
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertEquals((expectList.size() + 148) / 149, reader.getSheetCount()); // Include header row
+            List<ListObjectSheetTest.Item> list = new ArrayList<>(expectList.size());
+            for (int i = 0; i < reader.getSheetCount(); i++) {
+                reader.sheet(i).dataRows().map(row -> row.to(ListObjectSheetTest.Item.class)).forEach(list::add);
+            }
+            assertEquals(expectList, list);
+        }
+    }
+
     @Test public void testTreeStyle() throws IOException {
         List<TreeNode> root = new ArrayList<>();
         TreeNode class1 = new TreeNode("一年级", (94 + 97) / 2.0D);
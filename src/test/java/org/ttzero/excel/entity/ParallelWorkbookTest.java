@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.ttzero.excel.entity.e7.XMLWorksheetWriter;
+import org.ttzero.excel.reader.Drawings;
+import org.ttzero.excel.reader.ExcelReader;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author guanquan.wang at 2024-03-14 10:37
+ */
+public class ParallelWorkbookTest extends WorkbookTest {
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterClass public static void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test public void testParallel() throws IOException {
+        List<List<ListObjectSheetTest.Item>> expectLists = new ArrayList<>();
+        for (int i = 0; i < 6; i++) expectLists.add(ListObjectSheetTest.Item.randomTestData());
+
+        String fileName = "parallel write.xlsx";
+        Workbook workbook = new Workbook().setParallelExecutor(executor);
+        for (List<ListObjectSheetTest.Item> expectList : expectLists) workbook.addSheet(new ListSheet<>(expectList));
+        workbook.writeTo(defaultTestPath.resolve(fileName));
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertEquals(expectLists.size(), reader.getSheetCount());
+            for (int i = 0; i < expectLists.size(); i++) {
+                StreamingWorkbookTest.assertItems(expectLists.get(i), reader, i);
+            }
+        }
+    }
+
+    @Test public void testParallelPaging() throws IOException {
+        List<List<ListObjectSheetTest.Item>> expectLists = new ArrayList<>();
+        for (int i = 0; i < 4; i++) expectLists.add(ListObjectSheetTest.Item.randomTestData(i * 20 + 5));
+
+        Path sequentialPath = defaultTestPath.resolve("sequential paging.xlsx"), parallelPath = defaultTestPath.resolve("parallel paging.xlsx");
+        createPagingWorkbook(expectLists).writeTo(sequentialPath);
+        createPagingWorkbook(expectLists).setParallelExecutor(executor).writeTo(parallelPath);
+
+        // The workbook.xml and relationships must be identical to sequential writing
+        try (ZipFile sequential = new ZipFile(sequentialPath.toFile()); ZipFile parallel = new ZipFile(parallelPath.toFile())) {
+            for (String name : new String[] { "xl/workbook.xml", "xl/_rels/workbook.xml.rels" }) {
+                assertArrayEquals(name, readEntry(sequential, name), readEntry(parallel, name));
+            }
+        }
+
+        try (ExcelReader reader = ExcelReader.read(parallelPath)) {
+            List<ListObjectSheetTest.Item> list = reader.sheets().flatMap(s -> s.bind(ListObjectSheetTest.Item.class, 1).rows())
+                .map(row -> (ListObjectSheetTest.Item) row.get()).collect(Collectors.toList());
+            assertEquals(expectLists.stream().flatMap(List::stream).collect(Collectors.toList()), list);
+        }
+    }
+
+    @Test public void testParallelStreaming() throws IOException {
+        List<List<ListObjectSheetTest.Item>> expectLists = new ArrayList<>();
+        for (int i = 0; i < 3; i++) expectLists.add(ListObjectSheetTest.Item.randomTestData());
+
+        String fileName = "parallel streaming write.xlsx";
+        Workbook workbook = new Workbook().setParallelExecutor(executor).setStreaming(true);
+        for (List<ListObjectSheetTest.Item> expectList : expectLists) workbook.addSheet(new ListSheet<>(expectList).autoSize());
+        workbook.writeTo(defaultTestPath.resolve(fileName));
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertEquals(expectLists.size(), reader.getSheetCount());
+            for (int i = 0; i < expectLists.size(); i++) {
+                StreamingWorkbookTest.assertItems(expectLists.get(i), reader, i);
+            }
+        }
+    }
+
+    @Test public void testParallelPictures() throws IOException {
+        int sheets = 8, rows = 10;
+        String fileName = "parallel pictures.xlsx";
+        Workbook workbook = new Workbook().setParallelExecutor(executor);
+        for (int i = 0; i < sheets; i++) {
+            List<byte[]> images = new ArrayList<>();
+            // Distinct pictures per worksheet, the even worksheets write jpeg pictures
+            for (int j = 0; j < rows; j++) images.add(createImage(i * rows + j, (i & 1) == 0 ? "jpg" : "png"));
+            workbook.addSheet(new ListSheet<>(images).setColumns(new Column().writeAsMedia()));
+        }
+        workbook.writeTo(defaultTestPath.resolve(fileName));
+
+        try (ZipFile zipFile = new ZipFile(defaultTestPath.resolve(fileName).toFile())) {
+            String contentTypes = new String(readEntry(zipFile, "[Content_Types].xml"), StandardCharsets.UTF_8);
+            for (int i = 1; i <= sheets; i++) assertTrue(contentTypes.contains("/xl/drawings/drawing" + i + ".xml"));
+            assertTrue(contentTypes.contains("Extension=\"png\""));
+            assertTrue(contentTypes.contains("Extension=\"jpeg\"") || contentTypes.contains("Extension=\"jpg\""));
+        }
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertEquals(sheets, reader.getSheetCount());
+            for (int i = 0; i < sheets; i++) {
+                List<Drawings.Picture> pictures = reader.sheet(i).listPictures();
+                assertEquals(rows, pictures.size());
+            }
+        }
+    }
+
+    @Test public void testParallelPicturesIdentical() throws IOException {
+        Path sequentialPath = defaultTestPath.resolve("sequential pictures.xlsx"), parallelPath = defaultTestPath.resolve("parallel pictures identical.xlsx");
+        createPictureWorkbook().writeTo(sequentialPath);
+        createPictureWorkbook().setParallelExecutor(executor).writeTo(parallelPath);
+
+        // The media, drawings and all relationships must be identical to sequential writing
+        try (ZipFile sequential = new ZipFile(sequentialPath.toFile()); ZipFile parallel = new ZipFile(parallelPath.toFile())) {
+            assertEntriesEquals(sequential, parallel);
+            // The shared picture is stored once and only the stored pictures take a media number
+            assertEquals(17, countEntries(parallel, "xl/media/"));
+            assertTrue(parallel.getEntry("xl/media/image17.png") != null);
+            assertEquals(8, countEntries(parallel, "xl/drawings/drawing"));
+        }
+    }
+
+    @Test public void testParallelComments() throws IOException {
+        List<List<CommentTest.Student>> expectLists = new ArrayList<>();
+        for (int i = 0; i < 4; i++) expectLists.add(CommentTest.Student.randomTestData(i * 10 + 5));
+
+        Path sequentialPath = defaultTestPath.resolve("sequential comments.xlsx"), parallelPath = defaultTestPath.resolve("parallel comments.xlsx");
+        createCommentsWorkbook(expectLists).writeTo(sequentialPath);
+        createCommentsWorkbook(expectLists).setParallelExecutor(executor).writeTo(parallelPath);
+
+        try (ZipFile sequential = new ZipFile(sequentialPath.toFile()); ZipFile parallel = new ZipFile(parallelPath.toFile())) {
+            assertEntriesEquals(sequential, parallel);
+            // Every paging copy writes the header comments
+            long sheets = countEntries(parallel, "xl/worksheets/sheet");
+            assertTrue(sheets > 4);
+            assertEquals(sheets, countEntries(parallel, "xl/comments"));
+            assertEquals(sheets, countEntries(parallel, "xl/drawings/vmlDrawing"));
+            // Only the first worksheet is selected
+            for (int i = 1; i <= sheets; i++) {
+                String sheet = new String(readEntry(parallel, "xl/worksheets/sheet" + i + ".xml"), StandardCharsets.UTF_8);
+                assertEquals(i == 1, sheet.contains("tabSelected=\"1\""));
+            }
+        }
+    }
+
+    private static void assertEntriesEquals(ZipFile expect, ZipFile zipFile) throws IOException {
+        // The core properties contain the creation time
+        List<String> names = expect.stream().map(ZipEntry::getName).filter(n -> !n.equals("docProps/core.xml")).sorted().collect(Collectors.toList());
+        assertEquals(names, zipFile.stream().map(ZipEntry::getName).filter(n -> !n.equals("docProps/core.xml")).sorted().collect(Collectors.toList()));
+        for (String name : names) assertArrayEquals(name, readEntry(expect, name), readEntry(zipFile, name));
+    }
+
+    private static long countEntries(ZipFile zipFile, String prefix) {
+        return zipFile.stream().filter(e -> e.getName().startsWith(prefix)).count();
+    }
+
+    private static Workbook createPictureWorkbook() throws IOException {
+        Workbook workbook = new Workbook();
+        byte[] shared = createImage(-1, "png");
+        for (int i = 0; i < 4; i++) {
+            List<byte[]> images = new ArrayList<>();
+            // The shared picture is stored by the first worksheet only
+            for (int j = 0; j < 6; j++) images.add(j % 3 == 0 ? shared : createImage(i * 6 + j, "png"));
+            // Paging every 4 rows, so each worksheet has two drawings
+            workbook.addSheet(new ListSheet<>(images).setColumns(new Column().writeAsMedia()).setSheetWriter(new XMLWorksheetWriter() {
+                @Override
+                public int getRowLimit() {
+                    return 4;
+                }
+            }));
+        }
+        return workbook;
+    }
+
+    static byte[] createImage(int seq, String format) throws IOException {
+        BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        // Multiplying by an odd number is a bijection, so each sequence has a different color
+        g.setColor(new Color(seq * 0x9E3779 & 0xFFFFFF));
+        g.fillRect(0, 0, 16, 16);
+        g.dispose();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ImageIO.write(image, format, os);
+        return os.toByteArray();
+    }
+
+    private static Workbook createCommentsWorkbook(List<List<CommentTest.Student>> expectLists) {
+        Workbook workbook = new Workbook();
+        for (List<CommentTest.Student> expectList : expectLists) {
+            workbook.addSheet(new ListSheet<>(expectList).setSheetWriter(new XMLWorksheetWriter() {
+                @Override
+                public int getRowLimit() {
+                    return 10;
+                }
+            }));
+        }
+        return workbook;
+    }
+
+    private static Workbook createPagingWorkbook(List<List<ListObjectSheetTest.Item>> expectLists) {
+        Workbook workbook = new Workbook();
+        for (List<ListObjectSheetTest.Item> expectList : expectLists) {
+            workbook.addSheet(new ListSheet<>(expectList).setSheetWriter(new XMLWorksheetWriter() {
+                @Override
+                public int getRowLimit() {
+                    return 20;
+                }
+            }));
+        }
+        return workbook;
+    }
+
+    private static byte[] readEntry(ZipFile zipFile, String name) throws IOException {
+        ZipEntry entry = zipFile.getEntry(name);
+        try (InputStream is = zipFile.getInputStream(entry)) {
+            byte[] bytes = new byte[(int) entry.getSize()];
+            int n = 0;
+            while (n < bytes.length) n += is.read(bytes, n, bytes.length - n);
+            return bytes;
+        }
+    }
+}
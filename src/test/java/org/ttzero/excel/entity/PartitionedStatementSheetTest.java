@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.junit.Test;
+import org.ttzero.excel.processor.ParamProcessor;
+import org.ttzero.excel.reader.ExcelReader;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author guanquan.wang at 2024-04-01 14:20
+ */
+public class PartitionedStatementSheetTest extends SQLWorkbookTest {
+
+    @Test public void testRanges() throws SQLException, IOException {
+        List<Long> expect = queryIds("select id from student order by id");
+        String fileName = "partitioned statement ranges.xlsx";
+        AtomicInteger connections = new AtomicInteger();
+        new Workbook()
+            .addSheet(new PartitionedStatementSheet(() -> {
+                connections.incrementAndGet();
+                return getConnection();
+            }, "select id, name, age from student where id between ? and ? order by id"
+                , PartitionedStatementSheet.ranges(expect.get(0), expect.get(expect.size() - 1), 7)).setParallelism(3))
+            .writeTo(defaultTestPath.resolve(fileName));
+
+        assertEquals(7, connections.get());
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertEquals(1, reader.getSheetCount());
+            assertEquals(expect, reader.sheet(0).header(1).rows().map(row -> row.getLong("id")).collect(Collectors.toList()));
+        }
+    }
+
+    @Test public void testRangesPaging() throws SQLException, IOException {
+        List<Long> expect = queryIds("select id from student order by id");
+        String fileName = "partitioned statement paging.xlsx";
+        Workbook workbook = new Workbook()
+            .addSheet(new PartitionedStatementSheet(this::getConnection, "select id, name from student where id between ? and ? order by id"
+                , PartitionedStatementSheet.ranges(expect.get(0), expect.get(expect.size() - 1), 3), new Column("ID", "id", int.class), new Column("NAME", "name", String.class)))
+            .setWorkbookWriter(new ReLimitXMLWorkbookWriter());
+        workbook.writeTo(defaultTestPath.resolve(fileName));
+
+        int rowLimit = workbook.getSheetAt(0).getSheetWriter().getRowLimit();
+        List<Long> ids = new ArrayList<>(expect.size());
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertEquals((expect.size() + rowLimit - 2) / (rowLimit - 1), reader.getSheetCount());
+            for (int i = 0; i < reader.getSheetCount(); i++) {
+                reader.sheet(i).header(1).rows().forEach(row -> ids.add(row.getLong("ID")));
+            }
+        }
+        assertEquals(expect, ids);
+    }
+
+    @Test public void testSplitModulo() throws SQLException, IOException {
+        List<Long> expect = queryIds("select id from student order by id");
+        String fileName = "partitioned statement split.xlsx";
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Workbook workbook = new Workbook().setParallelExecutor(executor);
+            for (Sheet sheet : new PartitionedStatementSheet("Student", this::getConnection, "select id, name from student where id % ? = ? order by id"
+                , PartitionedStatementSheet.modulo(4)).split()) {
+                workbook.addSheet(sheet);
+            }
+            workbook.writeTo(defaultTestPath.resolve(fileName));
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Long> ids = new ArrayList<>(expect.size());
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertEquals(4, reader.getSheetCount());
+            for (int i = 0; i < 4; i++) {
+                assertEquals("Student-" + (i + 1), reader.sheet(i).getName());
+                int remainder = i;
+                List<Long> list = reader.sheet(i).header(1).rows().map(row -> row.getLong("id")).collect(Collectors.toList());
+                assertTrue(list.stream().allMatch(id -> id % 4 == remainder));
+                ids.addAll(list);
+            }
+        }
+        ids.sort(Long::compare);
+        assertEquals(expect, ids);
+    }
+
+    @Test public void testRangeBounds() throws SQLException {
+        ParamProcessor[] partitions = PartitionedStatementSheet.ranges(1, 10, 3);
+        assertEquals(3, partitions.length);
+        try (Connection con = getConnection()) {
+            long[][] bounds = new long[partitions.length][];
+            for (int i = 0; i < partitions.length; i++) {
+                try (PreparedStatement ps = con.prepareStatement("select ?, ?")) {
+                    partitions[i].build(ps);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        assertTrue(rs.next());
+                        bounds[i] = new long[] { rs.getLong(1), rs.getLong(2) };
+                    }
+                }
+            }
+            assertEquals(1L, bounds[0][0]);
+            assertEquals(4L, bounds[0][1]);
+            assertEquals(5L, bounds[1][0]);
+            assertEquals(8L, bounds[1][1]);
+            assertEquals(9L, bounds[2][0]);
+            assertEquals(10L, bounds[2][1]);
+        }
+    }
+
+    private List<Long> queryIds(String sql) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Connection con = getConnection(); PreparedStatement ps = con.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) ids.add(rs.getLong(1));
+        }
+        return ids;
+    }
+}
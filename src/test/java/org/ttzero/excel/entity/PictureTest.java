@@ -24,6 +24,7 @@ import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
 import okhttp3.ConnectionPool;
+import com.sun.net.httpserver.HttpServer;
 import org.junit.Test;
 import org.ttzero.excel.Print;
 import org.ttzero.excel.annotation.ExcelColumn;
@@ -33,9 +34,12 @@ import org.ttzero.excel.entity.e7.XMLWorksheetWriter;
 import org.ttzero.excel.reader.Drawings;
 import org.ttzero.excel.reader.ExcelReader;
 import org.ttzero.excel.util.FileSignatures;
+import org.ttzero.excel.util.RemoteMediaDownloader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
@@ -53,6 +57,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.zip.ZipFile;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
@@ -497,6 +504,83 @@ public class PictureTest extends WorkbookTest {
         return new byte[] { };
     }
 
+    @Test public void testConcurrentRemoteImage() throws IOException {
+        List<Path> images = Arrays.asList(testResourceRoot().resolve("mark.png"), testResourceRoot().resolve("elven-eyes.jpg"));
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            String name = exchange.getRequestURI().getPath().substring(1);
+            Path path = images.stream().filter(p -> name.startsWith(p.getFileName().toString())).findFirst().orElse(null);
+            if (path != null) {
+                exchange.sendResponseHeaders(200, Files.size(path));
+                Files.copy(path, exchange.getResponseBody());
+            } else exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        String root = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+        List<Pic> urls = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Pic p = new Pic();
+            p.addr = String.valueOf(i);
+            p.pic = root + (i % 5 == 4 ? "not-found" : images.get(i & 1).getFileName() + "?i=" + i);
+            urls.add(p);
+        }
+
+        try (RemoteMediaDownloader downloader = new RemoteMediaDownloader().setMaxConcurrency(4).setMaxPerHost(2)) {
+            new Workbook().setRemoteMediaDownloader(downloader).addSheet(new ListSheet<>(urls).setRowHeight(100))
+                .writeTo(defaultTestPath.resolve("Concurrent download remote image.xlsx"));
+        } finally {
+            server.stop(0);
+            ((ExecutorService) server.getExecutor()).shutdown();
+        }
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve("Concurrent download remote image.xlsx"))) {
+            List<Drawings.Picture> list = reader.sheet(0).listPictures();
+            assertEquals(40, list.size());
+            for (Drawings.Picture pic : list) {
+                // The header is the first row and the 404 rows are skipped
+                int i = pic.getDimension().firstRow - 2;
+                assertTrue(i % 5 != 4);
+                assertEquals(crc32(images.get(i & 1)), crc32(pic.getLocalPath()));
+            }
+        }
+    }
+
+    @Test public void testDeduplicateMedia() throws IOException {
+        Path mark = testResourceRoot().resolve("mark.png"), eyes = testResourceRoot().resolve("elven-eyes.jpg");
+        byte[] markBytes = Files.readAllBytes(mark);
+        List<Media> list = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Media m = new Media();
+            m.path = mark;
+            m.bytes = markBytes;
+            m.buffer = ByteBuffer.wrap(markBytes);
+            m.stream = Files.newInputStream(i % 5 == 0 ? eyes : mark);
+            list.add(m);
+        }
+        Path path = defaultTestPath.resolve("Deduplicate media.xlsx");
+        new Workbook()
+            .addSheet(new ListSheet<>(list))
+            .addSheet(new ListSheet<>(Pic2.randomTestData()))
+            .writeTo(path);
+
+        // Only two images are stored
+        try (ZipFile zip = new ZipFile(path.toFile())) {
+            assertEquals(2L, zip.stream().filter(e -> e.getName().startsWith("xl/media/")).count());
+        }
+
+        try (ExcelReader reader = ExcelReader.read(path)) {
+            List<Drawings.Picture> pictures = reader.listPictures();
+            assertEquals(100 + PresetPictureEffect.values().length, pictures.size());
+            for (Drawings.Picture pic : pictures) {
+                int i = pic.getDimension().firstRow - 2;
+                boolean isEyes = pic.getSheet().getIndex() == 1 || pic.getDimension().firstColumn == 4 && i % 5 == 0;
+                assertEquals(crc32(isEyes ? eyes : mark), crc32(pic.getLocalPath()));
+            }
+        }
+    }
+
     static List<Path> getLocalImages() throws IOException {
         Path picturesPath = Paths.get(System.getProperty("user.home"), "Pictures");
         return Files.list(picturesPath).filter(p -> {
@@ -533,6 +617,21 @@ public class PictureTest extends WorkbookTest {
         }
     }
 
+    public static class Media {
+        @MediaColumn
+        @ExcelColumn
+        private Path path;
+        @MediaColumn
+        @ExcelColumn
+        private byte[] bytes;
+        @MediaColumn
+        @ExcelColumn
+        private ByteBuffer buffer;
+        @MediaColumn
+        @ExcelColumn
+        private InputStream stream;
+    }
+
     public static class Pic2 {
         @ExcelColumn("Effect")
         private String effect;
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author guanquan.wang at 2024-03-30 17:05
+ */
+public class PrefetchSupplierTest {
+
+    @Test public void testDepth() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        try (PrefetchSupplier<Integer> supplier = new PrefetchSupplier<>((i, last) -> {
+            calls.incrementAndGet();
+            return Arrays.asList(i, i + 1);
+        }, 3)) {
+            assertEquals(Arrays.asList(0, 1), supplier.apply(0, null));
+            Thread.sleep(100L);
+            // The current page and 3 prefetched pages
+            assertEquals(4, calls.get());
+            assertEquals(Arrays.asList(2, 3), supplier.apply(2, 1));
+            assertEquals(Arrays.asList(4, 5), supplier.apply(4, 3));
+            Thread.sleep(100L);
+            assertEquals(6, calls.get());
+        }
+    }
+
+    @Test public void testCursor() {
+        List<String> params = new ArrayList<>();
+        try (PrefetchSupplier<Integer> supplier = new PrefetchSupplier<>((i, last) -> {
+            synchronized (params) {
+                params.add(i + ":" + last);
+            }
+            return i < 6 ? Arrays.asList(i, i + 1, i + 2) : null;
+        }, 1)) {
+            assertEquals(Arrays.asList(0, 1, 2), supplier.apply(0, null));
+            assertEquals(Arrays.asList(3, 4, 5), supplier.apply(3, 2));
+            // Cursor mismatch, fetch again
+            assertEquals(Arrays.asList(1, 2, 3), supplier.apply(1, 0));
+            assertEquals(Arrays.asList(4, 5, 6), supplier.apply(4, 3));
+            assertNull(supplier.apply(7, 6));
+        }
+        synchronized (params) {
+            assertTrue(params.containsAll(Arrays.asList("0:null", "3:2", "1:0", "4:3", "7:6")));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class) public void testThrows() {
+        try (PrefetchSupplier<Integer> supplier = new PrefetchSupplier<>((i, last) -> {
+            if (i > 0) throw new IllegalStateException();
+            return Arrays.asList(1, 2);
+        }, 2)) {
+            supplier.apply(0, null);
+            supplier.apply(2, 2);
+        }
+    }
+}
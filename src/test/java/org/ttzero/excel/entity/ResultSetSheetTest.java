@@ -17,6 +17,7 @@
 package org.ttzero.excel.entity;
 
 import org.junit.Test;
+import org.ttzero.excel.entity.e7.XMLCellValueAndStyle;
 import org.ttzero.excel.entity.style.Fill;
 import org.ttzero.excel.entity.style.PatternType;
 import org.ttzero.excel.entity.style.Styles;
@@ -26,16 +27,22 @@ import org.ttzero.excel.reader.ExcelReader;
 import org.ttzero.excel.reader.Row;
 
 import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -659,5 +666,52 @@ public class ResultSetSheetTest extends SQLWorkbookTest {
         }
     }
 
+    @Test public void testTypedValueExtractor() throws SQLException, IOException {
+        ResultSetSheet sheet = new ResultSetSheet();
+        assertSame(ResultSetSheet.SQLValueExtractor.INT, sheet.extractorOf(new ResultSetSheet.SQLColumn("a", Types.SMALLINT, Short.class)));
+        assertSame(ResultSetSheet.SQLValueExtractor.LONG, sheet.extractorOf(new ResultSetSheet.SQLColumn("a", Types.BIGINT, long.class)));
+        assertSame(ResultSetSheet.SQLValueExtractor.DOUBLE, sheet.extractorOf(new ResultSetSheet.SQLColumn("a", Types.REAL, Float.class)));
+        assertSame(ResultSetSheet.SQLValueExtractor.STRING, sheet.extractorOf(new ResultSetSheet.SQLColumn("a", Types.VARCHAR, String.class)));
+        // Different type, media, hyperlink and unsupported type
+        assertNull(sheet.extractorOf(new ResultSetSheet.SQLColumn("a", Types.INTEGER, String.class)));
+        assertNull(sheet.extractorOf((ResultSetSheet.SQLColumn) new ResultSetSheet.SQLColumn("a", Types.VARCHAR, String.class).writeAsMedia()));
+        assertNull(sheet.extractorOf((ResultSetSheet.SQLColumn) new ResultSetSheet.SQLColumn("a", Types.VARCHAR, String.class).writeAsHyperlink()));
+        assertNull(sheet.extractorOf(new ResultSetSheet.SQLColumn("a", Types.TIMESTAMP, Timestamp.class)));
+
+        String sql = "select id, name, age from student limit 100";
+        ByteArrayOutputStream typed = new ByteArrayOutputStream(), boxed = new ByteArrayOutputStream();
+        try (Connection con = getConnection()) {
+            try (PreparedStatement ps = con.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+                new Workbook().addSheet(new ResultSetSheet(rs)).writeTo(typed);
+            }
+            // Overridden setCellValue disables the typed path
+            try (PreparedStatement ps = con.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+                new Workbook().addSheet(new ResultSetSheet(rs).setCellValueAndStyle(new XMLCellValueAndStyle() {
+                    @Override
+                    public void setCellValue(org.ttzero.excel.entity.Row row, org.ttzero.excel.reader.Cell cell, Object e, Column hc, Class<?> clazz, boolean hasConversion) {
+                        super.setCellValue(row, cell, e, hc, clazz, hasConversion);
+                    }
+                })).writeTo(boxed);
+            }
+        }
 
+        try (ExcelReader expect = ExcelReader.read(new ByteArrayInputStream(boxed.toByteArray()));
+             ExcelReader reader = ExcelReader.read(new ByteArrayInputStream(typed.toByteArray()))) {
+            // The reader reuses the row instance, so compare while iterating both sheets
+            Iterator<Row> expectIter = expect.sheet(0).iterator(), iter = reader.sheet(0).iterator();
+            int n = 0;
+            for (; expectIter.hasNext(); n++) {
+                assertTrue(iter.hasNext());
+                Row e = expectIter.next(), o = iter.next();
+                assertEquals(e.getRowNum(), o.getRowNum());
+                for (int j = 0; j < 3; j++) {
+                    assertEquals(e.getCellType(j), o.getCellType(j));
+                    assertEquals(e.getString(j), o.getString(j));
+                }
+            }
+            assertFalse(iter.hasNext());
+            // Header and 100 rows
+            assertEquals(101, n);
+        }
+    }
 }
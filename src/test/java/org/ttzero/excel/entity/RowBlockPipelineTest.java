@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.junit.Test;
+import org.ttzero.excel.entity.e7.XMLWorksheetWriter;
+import org.ttzero.excel.reader.ExcelReader;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author guanquan.wang at 2024-03-21 16:40
+ */
+public class RowBlockPipelineTest extends SQLWorkbookTest {
+    @Test public void testListSheet() throws IOException {
+        String fileName = "pipelined list sheet.xlsx";
+        List<ListObjectSheetTest.Item> expectList = ListObjectSheetTest.Item.randomTestData(1000);
+        new Workbook().setPipelined(true).addSheet(new ListSheet<>(expectList)).writeTo(defaultTestPath.resolve(fileName));
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            StreamingWorkbookTest.assertItems(expectList, reader, 0);
+        }
+    }
+
+    @Test public void testMoreData() throws IOException {
+        String fileName = "pipelined more data.xlsx";
+        List<ListObjectSheetTest.Item> expectList = new ArrayList<>();
+        new Workbook().setPipelined(true).addSheet(new ListSheet<ListObjectSheetTest.Item>() {
+            int n = 0;
+            @Override
+            protected List<ListObjectSheetTest.Item> more() {
+                if (n++ >= 10) return null;
+                List<ListObjectSheetTest.Item> list = ListObjectSheetTest.Item.randomTestData(53);
+                expectList.addAll(list);
+                return list;
+            }
+        }.setSheetWriter(new XMLWorksheetWriter() {
+            @Override
+            public int getRowLimit() {
+                return 200;
+            }
+        })).writeTo(defaultTestPath.resolve(fileName));
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertEquals(3, reader.getSheetCount());
+            List<ListObjectSheetTest.Item> list = reader.sheets().flatMap(s -> s.bind(ListObjectSheetTest.Item.class, 1).rows())
+                .map(row -> (ListObjectSheetTest.Item) row.get()).collect(Collectors.toList());
+            assertEquals(expectList, list);
+        }
+    }
+
+    @Test public void testStatementSheet() throws SQLException, IOException {
+        String fileName = "pipelined statement sheet.xlsx";
+        try (Connection con = getConnection()) {
+            new Workbook().setPipelined(true)
+                .addSheet(new StatementSheet(con, "select id, name, age, create_date, update_date from student"))
+                .writeTo(defaultTestPath.resolve(fileName));
+        }
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertEquals(reader.sheet(0).getDimension().lastRow - 1, reader.sheet(0).dataRows().count());
+        }
+    }
+
+    @Test(expected = ExcelWriteException.class) public void testProducerError() throws IOException {
+        new Workbook().setPipelined(true).addSheet(new ListSheet<ListObjectSheetTest.Item>() {
+            int n = 0;
+            @Override
+            protected List<ListObjectSheetTest.Item> more() {
+                if (n++ >= 5) throw new ExcelWriteException("Producer error");
+                return ListObjectSheetTest.Item.randomTestData(40);
+            }
+        }).writeTo(defaultTestPath.resolve("pipelined error.xlsx"));
+    }
+
+    @Test public void testExecutor() throws IOException, InterruptedException, ExecutionException {
+        String fileName = "pipelined executor.xlsx";
+        List<ListObjectSheetTest.Item> expectList = new ArrayList<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(1, r -> new Thread(r, "pipeline-pool"));
+        try {
+            new Workbook().setPipelined(true, executor).addSheet(new ListSheet<ListObjectSheetTest.Item>() {
+                int n = 0;
+                @Override
+                protected List<ListObjectSheetTest.Item> more() {
+                    threads.add(Thread.currentThread().getName());
+                    if (n++ >= 10) return null;
+                    List<ListObjectSheetTest.Item> list = ListObjectSheetTest.Item.randomTestData(53);
+                    expectList.addAll(list);
+                    return list;
+                }
+            }).writeTo(defaultTestPath.resolve(fileName));
+
+            assertTrue(threads.contains("pipeline-pool"));
+            // The pooled thread is reusable and not interrupted
+            assertFalse(executor.submit(() -> Thread.currentThread().isInterrupted()).get());
+        } finally {
+            executor.shutdown();
+        }
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            StreamingWorkbookTest.assertItems(expectList, reader, 0);
+        }
+    }
+
+    @Test public void testCloseTimeout() throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        Sheet sheet = new Sheet() {
+            int n = 0;
+            @Override
+            protected void resetBlockData() {
+                // Blocked in an I/O which ignores the interruption
+                if (n++ == 2) {
+                    long end = System.currentTimeMillis() + 1000L;
+                    for (long now; (now = System.currentTimeMillis()) < end; ) {
+                        try {
+                            Thread.sleep(end - now);
+                        } catch (InterruptedException e) {
+                            // Ignore
+                        }
+                    }
+                }
+                for (int i = 0; i < rowBlock.capacity(); i++) rowBlock.next();
+            }
+
+            @Override
+            public int getRowBlockSize() {
+                return 4;
+            }
+        };
+        sheet.columns = new Column[] { new Column("ID") };
+        try {
+            RowBlockPipeline pipeline = new RowBlockPipeline(sheet, RowBlockPipeline.DEFAULT_RING_SIZE, executor).setCloseTimeout(100L);
+            assertEquals(4, pipeline.get().size());
+            assertEquals(4, pipeline.get().size());
+            long start = System.currentTimeMillis();
+            pipeline.close();
+            assertTrue(System.currentTimeMillis() - start < 900L);
+
+            // The interruption does not leak to the next task
+            assertFalse(executor.submit(() -> Thread.currentThread().isInterrupted()).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
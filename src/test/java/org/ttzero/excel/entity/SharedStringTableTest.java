@@ -113,4 +113,61 @@ public class SharedStringTableTest {
         }
     }
 
+    @Test public void testIndexExistsEntries() throws IOException {
+        try (SharedStringTable sst = new SharedStringTable()) {
+            StringBuilder buf = new StringBuilder();
+            for (int i = 0; i < 1000; i++) buf.append("中文");
+            String large = buf.toString();
+            // Push before the first search, part of entries are flushed to disk
+            for (int i = 0; i < 5000; i++) {
+                sst.push(i % 3 == 0 ? String.valueOf((char) ('a' + i % 26)) : i % 1000 == 1 ? large + i : "v" + i);
+            }
+            assertEquals(1, sst.find(large + 1));
+            assertEquals(0, sst.find('a'));
+            assertEquals(2, sst.find("v2"));
+            assertEquals(4999, sst.find("v4999"));
+            assertEquals(-1, sst.find("v3"));
+
+            // Push after the index created
+            assertEquals(5000, sst.push("v3"));
+            assertEquals(5001, sst.push(large));
+            assertEquals(5000, sst.find("v3"));
+            assertEquals(5001, sst.find(large));
+            // Return the first index of duplicates
+            sst.push("v2");
+            assertEquals(2, sst.find("v2"));
+        }
+    }
+
+    @Test public void testFindLarge() throws IOException {
+        try (SharedStringTable sst = new SharedStringTable()) {
+            int size = 300_000;
+            for (int i = 0; i < size; i++) {
+                assertEquals(-1, sst.find("key-" + i));
+                assertEquals(i, sst.push("key-" + i));
+            }
+            for (int i = 0; i < size; i += 3) {
+                assertEquals(i, sst.find("key-" + i));
+            }
+        }
+    }
+
+    @Test public void testSpillIndex() throws IOException {
+        try (SharedStringTable sst = new SharedStringTable()) {
+            // Spill the index to a temp file after 2K entries
+            sst.setMaxHeapSlots(1 << 12);
+            int size = 100_000;
+            for (int i = 0; i < size; i++) {
+                assertEquals(-1, sst.find("key-" + i));
+                assertEquals(i, sst.push("key-" + i));
+            }
+            assertEquals(-1, sst.find('a'));
+            assertEquals(size, sst.push('a'));
+            for (int i = 0; i < size; i += 3) {
+                assertEquals(i, sst.find("key-" + i));
+            }
+            assertEquals(size, sst.find('a'));
+        }
+    }
+
 }
@@ -83,4 +83,19 @@ public class SharedStringsTest {
             }
         }
     }
+
+    @Test public void testLargeUniqueStrings() throws IOException {
+        try (SharedStrings sst = new SharedStrings().init()) {
+            // Exceed the old 2^17 limit
+            int size = 300_000;
+            for (int i = 0; i < size; i++) {
+                assertEquals(i, sst.get("key-" + i));
+            }
+            // The duplicates are deduplicated after the limit
+            for (int i = size - 1; i >= 0; i -= 7) {
+                assertEquals(i, sst.get("key-" + i));
+            }
+            assertEquals(size, sst.get("key-" + size));
+        }
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.junit.Test;
+import org.ttzero.excel.entity.e7.XMLWorksheetWriter;
+import org.ttzero.excel.reader.ExcelReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author guanquan.wang at 2024-03-12 09:21
+ */
+public class StreamingWorkbookTest extends WorkbookTest {
+    @Test public void testWriteToOutputStream() throws IOException {
+        List<ListObjectSheetTest.Item> expectList = ListObjectSheetTest.Item.randomTestData();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new Workbook().setStreaming(true).addSheet(new ListSheet<>(expectList)).writeTo(os);
+
+        try (ExcelReader reader = ExcelReader.read(new ByteArrayInputStream(os.toByteArray()))) {
+            assertItems(expectList, reader, 0);
+        }
+    }
+
+    @Test public void testWriteToChannel() throws IOException {
+        List<ListObjectSheetTest.Item> expectList = ListObjectSheetTest.Item.randomTestData();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new Workbook().setStreaming(true).addSheet(new ListSheet<>(expectList)).writeTo(Channels.newChannel(os));
+
+        try (ExcelReader reader = ExcelReader.read(new ByteArrayInputStream(os.toByteArray()))) {
+            assertItems(expectList, reader, 0);
+        }
+    }
+
+    @Test public void testWriteToPath() throws IOException {
+        String fileName = "streaming write to path.xlsx";
+        List<ListObjectSheetTest.Item> expectList = ListObjectSheetTest.Item.randomTestData();
+        new Workbook().setStreaming(true).addSheet(new ListSheet<>(expectList)).writeTo(defaultTestPath.resolve(fileName));
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertItems(expectList, reader, 0);
+        }
+    }
+
+    @Test public void testWriteToDirectory() throws IOException {
+        Path path = defaultTestPath.resolve("streaming"), resultPath = path.resolve("streaming write to directory.xlsx");
+        Files.deleteIfExists(resultPath);
+        List<ListObjectSheetTest.Item> expectList = ListObjectSheetTest.Item.randomTestData();
+        new Workbook("streaming write to directory").setStreaming(true).addSheet(new ListSheet<>(expectList)).writeTo(path);
+
+        assertTrue(Files.exists(resultPath));
+        try (ExcelReader reader = ExcelReader.read(resultPath)) {
+            assertItems(expectList, reader, 0);
+        }
+    }
+
+    @Test public void testAutoSizeFallback() throws IOException {
+        String fileName = "streaming auto-size.xlsx";
+        List<ListObjectSheetTest.Item> expectList = ListObjectSheetTest.Item.randomTestData();
+        new Workbook().setStreaming(true)
+            .addSheet(new ListSheet<>("fixed", expectList))
+            .addSheet(new ListSheet<>("auto", expectList).autoSize())
+            .writeTo(defaultTestPath.resolve(fileName).toFile());
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertEquals(2, reader.getSheetCount());
+            assertItems(expectList, reader, 0);
+            assertItems(expectList, reader, 1);
+        }
+    }
+
+    @Test public void testPaging() throws IOException {
+        String fileName = "streaming paging.xlsx";
+        List<ListObjectSheetTest.Item> expectList = ListObjectSheetTest.Item.randomTestData(95);
+        Workbook workbook = new Workbook().setStreaming(true)
+            .addSheet(new ListSheet<>(expectList).setSheetWriter(new XMLWorksheetWriter() {
+                @Override
+                public int getRowLimit() {
+                    return 10;
+                }
+            }));
+        workbook.writeTo(defaultTestPath.resolve(fileName));
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertEquals(11, reader.getSheetCount()); // 9 data rows each worksheet
+            List<ListObjectSheetTest.Item> list = reader.sheets().flatMap(s -> s.bind(ListObjectSheetTest.Item.class, 1).rows())
+                .map(row -> (ListObjectSheetTest.Item) row.get()).collect(Collectors.toList());
+            assertEquals(expectList, list);
+        }
+    }
+
+    static void assertItems(List<ListObjectSheetTest.Item> expectList, ExcelReader reader, int index) {
+        List<ListObjectSheetTest.Item> list = reader.sheet(index).bind(ListObjectSheetTest.Item.class, 1).rows()
+            .map(row -> (ListObjectSheetTest.Item) row.get()).collect(Collectors.toList());
+        assertEquals(expectList, list);
+    }
+}
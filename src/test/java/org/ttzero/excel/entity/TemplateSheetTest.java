@@ -343,6 +343,31 @@ public class TemplateSheetTest extends WorkbookTest {
         }
     }
 
+    @Test public void testFillSupplierPrefetch() throws IOException {
+        final String fileName = "fill supplier prefetch.xlsx";
+        List<YzOrderEntity> expectList = new ArrayList<>();
+        new Workbook()
+            .addSheet(new TemplateSheet(testResourceRoot().resolve("template2.xlsx"), "混合命名空间")
+                .setPrefetch(2)
+                .setData(YzEntity.mock())
+                .setData("YzEntity", (i, o) -> {
+                    List<YzOrderEntity> sub = null;
+                    // 拉取100条数据
+                    if (i < 100) {
+                        YzOrderEntity lastOne = (YzOrderEntity) o;
+                        sub = YzOrderEntity.randomData(lastOne != null ? lastOne.xh : 0);
+                        expectList.addAll(sub);
+                    }
+                    return sub;
+                })
+                .setData("summary", YzSummary.mock())
+            ).writeTo(defaultTestPath.resolve(fileName));
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve(fileName))) {
+            assertListObject(reader.sheet(0).asFullSheet(), expectList);
+        }
+    }
+
     @Test public void testFillSupplierListMap() throws IOException {
         final String fileName = "fill supplier list map.xlsx";
         List<Map<String, Object>> expectList = new ArrayList<>();
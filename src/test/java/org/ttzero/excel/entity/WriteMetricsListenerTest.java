@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.entity;
+
+import org.junit.Test;
+import org.ttzero.excel.entity.WriteMetricsListener.Stage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author guanquan.wang at 2024-04-03 14:10
+ */
+public class WriteMetricsListenerTest extends WorkbookTest {
+
+    @Test public void testMetrics() throws IOException {
+        RecordMetricsListener listener = new RecordMetricsListener();
+        writeTestWorkbook(new Workbook().setWriteMetricsListener(listener), "write metrics.xlsx");
+        assertMetrics(listener);
+    }
+
+    @Test public void testStreamingMetrics() throws IOException {
+        RecordMetricsListener listener = new RecordMetricsListener();
+        writeTestWorkbook(new Workbook().setStreaming(true).setWriteMetricsListener(listener), "write metrics streaming.xlsx");
+        assertMetrics(listener);
+    }
+
+    private static void writeTestWorkbook(Workbook workbook, String fileName) throws IOException {
+        int size = 500;
+        int[] ids = new int[size], codes = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i;
+            codes[i] = i % 3;
+        }
+        workbook.addSheet(new ColumnarSheet("Columnar").addColumn(new Column("ID"), ids).addColumn(new Column("CODE").setShare(true), codes, new String[] { "a", "bb", "ccc" }))
+            .addSheet(new ListSheet<>("Student", ListObjectSheetTest.Student.randomTestData(size)))
+            .writeTo(defaultTestPath.resolve(fileName));
+    }
+
+    private static void assertMetrics(RecordMetricsListener listener) {
+        assertEquals(2, listener.rows.size());
+        for (Map.Entry<String, Integer> entry : listener.rows.entrySet()) {
+            assertEquals(500, (int) entry.getValue());
+            assertNotNull(listener.stages.get(entry.getKey() + ":" + Stage.FETCH));
+            assertTrue(listener.stages.get(entry.getKey() + ":" + Stage.SERIALIZE) > 0L);
+        }
+        assertNotNull(listener.stages.get("null:" + Stage.STYLE));
+        assertTrue(listener.stages.get("null:" + Stage.COMPRESS) > 0L);
+
+        assertEquals(1, listener.sharedStrings.size());
+        long[] sst = listener.sharedStrings.get(0);
+        assertTrue(sst[0] >= 500L);
+        // The dictionary values are looked up from the hot zone after the first occurrence
+        assertTrue(sst[1] > 0L);
+        // The new strings are always missed in the hash index
+        assertTrue(sst[2] >= 2L && sst[2] <= sst[3]);
+        assertTrue(sst[0] >= sst[1] + sst[2]);
+
+        assertTrue(listener.parts.get("xl/worksheets/sheet1.xml") > 0L);
+        assertTrue(listener.parts.get("xl/worksheets/sheet2.xml") > 0L);
+        assertTrue(listener.parts.get("xl/sharedStrings.xml") > 0L);
+        assertTrue(listener.parts.get("xl/styles.xml") > 0L);
+        assertNotNull(listener.parts.get("[Content_Types].xml"));
+    }
+
+    static class RecordMetricsListener implements WriteMetricsListener {
+        final Map<String, Long> stages = new ConcurrentHashMap<>();
+        final Map<String, Integer> rows = new ConcurrentHashMap<>();
+        final Map<String, Long> parts = new ConcurrentHashMap<>();
+        final List<long[]> sharedStrings = new ArrayList<>();
+
+        @Override
+        public void onStage(Sheet sheet, Stage stage, long nanos) {
+            stages.merge((sheet != null ? sheet.getName() : null) + ":" + stage, nanos, Long::sum);
+        }
+
+        @Override
+        public void onSheetCompleted(Sheet sheet, int rows, long nanos) {
+            this.rows.put(sheet.getName(), rows);
+        }
+
+        @Override
+        public void onSharedStrings(long lookups, long hotHits, long indexMisses, long diskFinds) {
+            sharedStrings.add(new long[] { lookups, hotHits, indexMisses, diskFinds });
+        }
+
+        @Override
+        public void onPartWritten(String part, long bytes) {
+            assertTrue(parts.put(part, bytes) == null);
+        }
+    }
+}
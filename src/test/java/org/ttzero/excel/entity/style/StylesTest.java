@@ -244,4 +244,28 @@ public class StylesTest {
         awtFont2 = font.toAwtFont();
         assertEquals(awtFont, awtFont2);
     }
+
+    @Test public void testOfManyStyles() {
+        int size = styles.size();
+        // Trigger the table rehash
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(size + i, styles.of((i << INDEX_FONT) | (i & 3) << INDEX_HORIZONTAL | 1));
+        }
+        for (int i = 9_999; i >= 0; i--) {
+            int index = styles.of((i << INDEX_FONT) | (i & 3) << INDEX_HORIZONTAL | 1);
+            assertEquals(size + i, index);
+            assertEquals((i << INDEX_FONT) | (i & 3) << INDEX_HORIZONTAL | 1, styles.getStyleByIndex(index));
+        }
+        assertEquals(size + 10_000, styles.size());
+    }
+
+    @Test public void testColumnStyleIndexMemo() {
+        org.ttzero.excel.entity.Column column = new org.ttzero.excel.entity.Column();
+        column.styles = styles;
+        int[] values = new int[100];
+        for (int i = 0; i < values.length; i++) values[i] = (i + 1) << INDEX_FILL;
+        for (int k = 0; k < 3; k++) {
+            for (int v : values) assertEquals(styles.of(v), column.styleIndexOf(v));
+        }
+    }
 }
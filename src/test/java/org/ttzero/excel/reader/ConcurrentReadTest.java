@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.reader;
+
+import org.junit.Test;
+import org.ttzero.excel.entity.Column;
+import org.ttzero.excel.entity.ColumnarSheet;
+import org.ttzero.excel.entity.Workbook;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.ttzero.excel.entity.WorkbookTest.defaultTestPath;
+
+/**
+ * @author guanquan.wang at 2024-04-06 10:40
+ */
+public class ConcurrentReadTest {
+    static final int SHEETS = 8;
+
+    @Test public void testSmallSharedStrings() throws IOException {
+        // 8 * 1000 unique strings, it is held in memory
+        testParallel("concurrent small.xlsx", 1000, SharedStrings.DEFAULT_CONCURRENT_COPY_LIMIT);
+    }
+
+    @Test public void testLargeSharedStrings() throws IOException {
+        // 8 * 5000 unique strings, it is indexed on disk
+        testParallel("concurrent large.xlsx", 5000, SharedStrings.DEFAULT_CONCURRENT_COPY_LIMIT);
+    }
+
+    @Test public void testCopyLimit() throws IOException {
+        // 8 * 5000 unique strings, it is copied into memory
+        testParallel("concurrent copy limit.xlsx", 5000, 1 << 16);
+    }
+
+    private static void testParallel(String fileName, int size, int copyLimit) throws IOException {
+        Path path = defaultTestPath.resolve(fileName);
+        Workbook workbook = new Workbook();
+        for (int i = 0; i < SHEETS; i++) {
+            int[] ids = new int[size];
+            String[] names = new String[size];
+            for (int j = 0; j < size; j++) {
+                ids[j] = j;
+                names[j] = name(i, j);
+            }
+            workbook.addSheet(new ColumnarSheet("Sheet" + i).addColumn(new Column("ID"), ids)
+                .addColumn(new Column("NAME").setShare(true), names));
+        }
+        workbook.writeTo(path);
+
+        try (ExcelReader reader = ExcelReader.read(path)) {
+            assertFalse(reader.getSharedStrings().isConcurrent());
+            // Read a few strings before switching
+            Iterator<Row> iter = reader.sheet(0).header(1).iterator();
+            assertEquals(name(0, 0), iter.next().getString("NAME"));
+
+            reader.concurrent(copyLimit);
+            assertTrue(reader.getSharedStrings().isConcurrent());
+            assertEquals(SHEETS * size > copyLimit, reader.getSharedStrings() instanceof SharedStrings.ConcurrentSharedStrings);
+
+            Map<String, Integer> counts = new ConcurrentHashMap<>();
+            reader.sheets().parallel().forEach(sheet -> {
+                int i = Integer.parseInt(sheet.getName().substring(5)), n = 0;
+                for (Iterator<Row> it = sheet.reset().header(1).iterator(); it.hasNext(); n++) {
+                    Row row = it.next();
+                    int j = row.getInt("ID");
+                    assertEquals(name(i, j), row.getString("NAME"));
+                }
+                counts.put(sheet.getName(), n);
+            });
+            assertEquals(SHEETS, counts.size());
+            for (Integer n : counts.values()) assertEquals(size, (int) n);
+            assertTrue(reader.getStats().getSstLookups() >= SHEETS * size);
+        }
+    }
+
+    private static String name(int sheet, int row) {
+        return "name-" + sheet + "-" + row + (row % 7 == 0 ? " & <" + row + ">" : "");
+    }
+}
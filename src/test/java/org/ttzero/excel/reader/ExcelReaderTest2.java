@@ -338,6 +338,35 @@ public class ExcelReaderTest2 {
         }
     }
 
+    @Test public void testCompiledSetters() throws IOException {
+        List<P> expectList = P.data();
+        new Workbook().addSheet(new ListSheet<>(expectList)).writeTo(defaultTestPath.resolve("Compiled Setters.xlsx"));
+
+        try (ExcelReader reader = ExcelReader.read(defaultTestPath.resolve("Compiled Setters.xlsx"))) {
+            List<P> list = reader.sheet(0).dataRows().map(row -> row.to(P.class)).collect(Collectors.toList());
+            assertEquals(expectList.size(), list.size());
+            for (int i = 0; i < list.size(); i++) {
+                assertEquals(expectList.get(i).toString(), list.get(i).toString());
+            }
+
+            // Exception in setter method
+            Iterator<Row> iter = reader.sheet(0).reset().dataRows().iterator();
+            assertTrue(iter.hasNext());
+            Row row = iter.next();
+            P.failed = true;
+            try {
+                row.to(P.class);
+                assertTrue(false);
+            } catch (UncheckedTypeException e) {
+                assertTrue(e.getCause() instanceof java.lang.reflect.InvocationTargetException);
+                assertTrue(e.getCause().getCause() instanceof IllegalStateException);
+            } finally {
+                P.failed = false;
+            }
+        }
+    }
+
+
     public static <T> boolean listEquals(List<T> list, List<T> expectList) {
         if (list == expectList) return true;
         if (list == null || expectList == null) return false;
@@ -375,6 +404,50 @@ public class ExcelReaderTest2 {
         }
     }
 
+    public static class P {
+        static boolean failed;
+        @ExcelColumn
+        private int id;
+        @ExcelColumn
+        private long count;
+        @ExcelColumn
+        private double score;
+        @ExcelColumn
+        private String name;
+        @ExcelColumn
+        private boolean man;
+        @ExcelColumn
+        private Integer level;
+        @ExcelColumn
+        private short rank;
+
+        public void setCount(long count) {
+            if (failed) throw new IllegalStateException();
+            this.count = count;
+        }
+
+        public static List<P> data() {
+            List<P> list = new ArrayList<>(1000);
+            for (int i = 0; i < 1000; i++) {
+                P e = new P();
+                list.add(e);
+                e.id = random.nextInt();
+                e.count = random.nextLong();
+                e.score = random.nextDouble();
+                e.name = getRandomString();
+                e.man = random.nextBoolean();
+                e.level = i % 3 == 0 ? null : random.nextInt(10);
+                e.rank = (short) random.nextInt(100);
+            }
+            return list;
+        }
+
+        @Override
+        public String toString() {
+            return id + ": " + count + ": " + score + ": " + name + ": " + man + ": " + level + ": " + rank;
+        }
+    }
+
     public static class E {
         @ExcelColumn
         private int nv;
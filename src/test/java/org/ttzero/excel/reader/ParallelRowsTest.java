@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.reader;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.ttzero.excel.annotation.ExcelColumn;
+import org.ttzero.excel.entity.Column;
+import org.ttzero.excel.entity.ColumnarSheet;
+import org.ttzero.excel.entity.Workbook;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.ttzero.excel.entity.WorkbookTest.defaultTestPath;
+
+/**
+ * @author guanquan.wang at 2024-04-07 15:10
+ */
+public class ParallelRowsTest {
+    static final int SIZE = 50000;
+    static final String[] CITIES = { "Beijing", "Shanghai", "Guangzhou & Shenzhen", "<Hangzhou>" };
+    static Path path;
+
+    @BeforeClass public static void write() throws IOException {
+        int[] ids = new int[SIZE], codes = new int[SIZE];
+        double[] scores = new double[SIZE];
+        String[] names = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            ids[i] = i;
+            codes[i] = i % CITIES.length;
+            scores[i] = i * 0.25D;
+            names[i] = "name" + i + (i % 5 == 0 ? " & <" + i + ">" : "");
+        }
+        path = defaultTestPath.resolve("parallel rows.xlsx");
+        new Workbook().addSheet(new ColumnarSheet("Parallel").addColumn(new Column("ID"), ids)
+            .addColumn(new Column("CITY").setShare(true), codes, CITIES)
+            .addColumn(new Column("SCORE"), scores).addColumn(new Column("NAME"), names)).writeTo(path);
+    }
+
+    @Test public void testOrdered() throws IOException {
+        try (ExcelReader reader = ExcelReader.read(path)) {
+            List<Item> list = reader.sheet(0).parallelDataRows().map(row -> row.to(Item.class)).collect(Collectors.toList());
+            assertItems(list);
+        }
+    }
+
+    @Test public void testConcurrentHeader() throws IOException {
+        try (ExcelReader reader = ExcelReader.read(path).concurrent()) {
+            List<Item> list = reader.sheet(0).header(1).parallelDataRows().map(row -> row.to(Item.class)).collect(Collectors.toList());
+            assertItems(list);
+        }
+    }
+
+    @Test public void testUnordered() throws IOException {
+        try (ExcelReader reader = ExcelReader.read(path)) {
+            long sum = reader.sheet(0).parallelDataRows().unordered().mapToLong(row -> {
+                int id = row.getInt("ID");
+                assertEquals(CITIES[id % CITIES.length], row.getString("CITY"));
+                return id;
+            }).sum();
+            assertEquals((long) SIZE * (SIZE - 1) / 2, sum);
+        }
+    }
+
+    @Test public void testSplit() throws IOException {
+        try (ExcelReader reader = ExcelReader.read(path)) {
+            XMLSheet sheet = (XMLSheet) reader.sheet(0).header(1);
+            sheet.getHeader();
+            // The dimension is unknown
+            assertEquals(Long.MAX_VALUE, new RowSpliterator(sheet).estimateSize());
+            sheet.dimension = Dimension.of("A1:D" + (SIZE + 1));
+            RowSpliterator spliterator = new RowSpliterator(sheet);
+            // Estimated by the dimension
+            assertEquals(SIZE, spliterator.estimateSize());
+
+            Spliterator<Row> chunk = spliterator.trySplit();
+            assertNotNull(chunk);
+            long est = chunk.estimateSize();
+            assertTrue(est > 0L && est < SIZE);
+            Spliterator<Row> half = chunk.trySplit();
+            assertNotNull(half);
+
+            int[] n = { 0 }, last = { -1 };
+            // The prefix first
+            half.forEachRemaining(row -> { assertEquals(++last[0], (int) row.getInt("ID")); n[0]++; });
+            chunk.forEachRemaining(row -> { assertEquals(++last[0], (int) row.getInt("ID")); n[0]++; });
+            assertEquals(est, n[0], est / 10D);
+            spliterator.forEachRemaining(row -> { assertEquals(++last[0], (int) row.getInt("ID")); n[0]++; });
+            assertEquals(SIZE, n[0]);
+        }
+    }
+
+    private static void assertItems(List<Item> list) {
+        assertEquals(SIZE, list.size());
+        for (int i = 0; i < SIZE; i++) {
+            Item item = list.get(i);
+            assertEquals(i, item.id);
+            assertEquals(CITIES[i % CITIES.length], item.city);
+            assertEquals(i * 0.25D, item.score, 0.000001D);
+            assertEquals("name" + i + (i % 5 == 0 ? " & <" + i + ">" : ""), item.name);
+        }
+    }
+
+    public static class Item {
+        @ExcelColumn("ID")
+        private int id;
+        @ExcelColumn("CITY")
+        private String city;
+        @ExcelColumn("SCORE")
+        private double score;
+        @ExcelColumn("NAME")
+        private String name;
+    }
+}
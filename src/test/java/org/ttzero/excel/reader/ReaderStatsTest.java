@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.reader;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.ttzero.excel.annotation.ExcelColumn;
+import org.ttzero.excel.entity.Column;
+import org.ttzero.excel.entity.ColumnarSheet;
+import org.ttzero.excel.entity.Workbook;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.ttzero.excel.entity.WorkbookTest.defaultTestPath;
+
+/**
+ * @author guanquan.wang at 2024-04-04 15:20
+ */
+public class ReaderStatsTest {
+    static final int SIZE = 1000;
+    static final String[] CITIES = { "Beijing", "Shanghai", "Guangzhou", "Shenzhen" };
+    static Path path;
+
+    @BeforeClass public static void write() throws IOException {
+        int[] ids = new int[SIZE], codes = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            ids[i] = i;
+            codes[i] = i % CITIES.length;
+        }
+        path = defaultTestPath.resolve("reader stats.xlsx");
+        new Workbook()
+            .addSheet(new ColumnarSheet("Stats").addColumn(new Column("ID"), ids).addColumn(new Column("CITY").setShare(true), codes, CITIES))
+            .addSheet(new ColumnarSheet("Unread").addColumn(new Column("ID"), ids))
+            .writeTo(path);
+    }
+
+    @Test public void testStats() throws IOException {
+        try (ExcelReader reader = ExcelReader.read(path).setStatsEnabled(true)) {
+            List<City> list = reader.sheet(0).header(1).rows().map(row -> row.to(City.class)).collect(Collectors.toList());
+            assertEquals(SIZE, list.size());
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals(i, list.get(i).id);
+                assertEquals(CITIES[i % CITIES.length], list.get(i).city);
+            }
+
+            ReaderStats stats = reader.getStats();
+            // The shared header and values
+            assertEquals(SIZE + 1, stats.getSstLookups());
+            assertTrue(stats.getSstForwardHits() + stats.getSstBackwardHits() + stats.getSstHotHits() <= stats.getSstLookups());
+            assertTrue(stats.getSstPageLoads() > 0L);
+            assertTrue(stats.getSstPageSize() > 0);
+
+            assertEquals(2, stats.getSheets().size());
+            ReaderStats.SheetStats sheetStats = stats.getSheets().get(0);
+            assertEquals("Stats", sheetStats.getName());
+            // Including the header row
+            assertEquals(SIZE + 1, sheetStats.getRows());
+            assertEquals((SIZE + 1) * 2, sheetStats.getCells());
+            assertTrue(sheetStats.getInflatedBytes() > 0L);
+            assertTrue(sheetStats.getNextRowNanos() > 0L);
+            assertTrue(sheetStats.getParseNanos() > 0L);
+            assertTrue(sheetStats.getBindNanos() > 0L);
+
+            // The unread worksheet
+            ReaderStats.SheetStats unread = stats.getSheets().get(1);
+            assertEquals("Unread", unread.getName());
+            assertEquals(0L, unread.getRows());
+            assertEquals(0L, unread.getInflatedBytes());
+        }
+    }
+
+    @Test public void testDisabled() throws IOException {
+        try (ExcelReader reader = ExcelReader.read(path)) {
+            assertEquals(SIZE, reader.sheet(0).header(1).rows().map(row -> row.getString("CITY")).count());
+            ReaderStats stats = reader.getStats();
+            assertEquals(SIZE + 1, stats.getSstLookups());
+            assertTrue(stats.getSheets().isEmpty());
+        }
+    }
+
+    public static class City {
+        @ExcelColumn("ID")
+        private int id;
+        @ExcelColumn("CITY")
+        private String city;
+    }
+}
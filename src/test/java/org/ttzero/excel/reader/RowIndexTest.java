@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.reader;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.ttzero.excel.entity.Column;
+import org.ttzero.excel.entity.ColumnarSheet;
+import org.ttzero.excel.entity.Workbook;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.ttzero.excel.entity.WorkbookTest.defaultTestPath;
+
+/**
+ * @author guanquan.wang at 2024-04-08 15:40
+ */
+public class RowIndexTest {
+    static final int SIZE = 5000;
+    static final String[] CITIES = { "Beijing", "Shanghai", "Guangzhou", "Shenzhen" };
+    static Path path;
+
+    @BeforeClass public static void write() throws IOException {
+        int[] ids = new int[SIZE], codes = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            ids[i] = i;
+            codes[i] = i % CITIES.length;
+        }
+        path = defaultTestPath.resolve("row index.xlsx");
+        new Workbook()
+            .addSheet(new ColumnarSheet("Index").addColumn(new Column("ID"), ids).addColumn(new Column("CITY").setShare(true), codes, CITIES))
+            .addSheet(new ColumnarSheet("Other").addColumn(new Column("ID"), ids))
+            .writeTo(path);
+    }
+
+    @Test public void testBuild() throws IOException {
+        String xml = "<worksheet><sheetData><row r=\"1\"><c r=\"A1\"/></row><row r=\"3\"/><row><c/></row>"
+            + "<rowBreaks/><row r=\"10\" spans=\"1:2\"></row></sheetData></worksheet>";
+        byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+        RowIndex index = RowIndex.build(new ByteArrayInputStream(bytes), bytes.length, 0L, 2);
+        // Row 1 and the row without r attribute (4)
+        assertEquals(2, index.size());
+        assertEquals(1, index.getRowNum(0));
+        assertEquals(xml.indexOf("<row r=\"1\""), index.getOffset(0));
+        assertEquals(4, index.getRowNum(1));
+        assertEquals(xml.indexOf("<row><c/>"), index.getOffset(1));
+
+        assertEquals(-1, index.floor(0));
+        assertEquals(0, index.floor(3));
+        assertEquals(1, index.floor(4));
+        assertEquals(1, index.floor(100));
+    }
+
+    @Test public void testSeek() throws IOException {
+        try (ExcelReader reader = ExcelReader.read(path)) {
+            Sheet sheet = reader.sheet(0).header(1);
+            // Row 3001 is the id 2999
+            List<Integer> ids = sheet.rows(3001, 3100).map(row -> row.getInt("ID")).collect(Collectors.toList());
+            assertEquals(100, ids.size());
+            for (int i = 0; i < ids.size(); i++) assertEquals(2999 + i, (int) ids.get(i));
+
+            // Seek forward
+            Row row = sheet.seek(4500).iterator().next();
+            assertEquals(4500, row.getRowNum());
+            assertEquals(4498, (int) row.getInt("ID"));
+            assertEquals(CITIES[4498 % CITIES.length], row.getString("CITY"));
+
+            // Seek backward
+            ids = sheet.rows(2, 11).map(r -> r.getInt("ID")).collect(Collectors.toList());
+            assertEquals(10, ids.size());
+            for (int i = 0; i < ids.size(); i++) assertEquals(i, (int) ids.get(i));
+
+            // The tail of sheet
+            ids = sheet.rows(SIZE, SIZE + 100).map(r -> r.getInt("ID")).collect(Collectors.toList());
+            assertEquals(2, ids.size());
+            assertEquals(SIZE - 2, (int) ids.get(0));
+            assertEquals(SIZE - 1, (int) ids.get(1));
+
+            // Out of range
+            assertEquals(0L, sheet.rows(SIZE + 2, SIZE + 10).count());
+        }
+    }
+
+    @Test public void testSaveAndLoad() throws IOException {
+        Path indexPath = defaultTestPath.resolve("row index.idx");
+        try (ExcelReader reader = ExcelReader.read(path)) {
+            RowIndex index = ((XMLSheet) reader.sheet(0)).getRowIndex();
+            assertEquals(RowIndex.DEFAULT_INTERVAL, index.getInterval());
+            // Including the header row
+            assertEquals((SIZE + 1 + RowIndex.DEFAULT_INTERVAL - 1) / RowIndex.DEFAULT_INTERVAL, index.size());
+            index.save(indexPath);
+        }
+
+        try (ExcelReader reader = ExcelReader.read(path)) {
+            RowIndex index = RowIndex.load(indexPath);
+            XMLSheet sheet = (XMLSheet) reader.sheet(0);
+            assertSame(index, sheet.setRowIndex(index).getRowIndex());
+            for (int i = 0; i < index.size(); i++) assertTrue(index.getOffset(i) > 0L);
+            assertEquals(1024, (int) sheet.header(1).rows(1026, 1026).findFirst().map(row -> row.getInt("ID")).orElse(-1));
+
+            // The index of another worksheet is discarded
+            XMLSheet other = (XMLSheet) reader.sheet(1);
+            other.setRowIndex(index);
+            assertNotSame(index, other.getRowIndex());
+            assertEquals(100L, other.header(1).rows(SIZE - 98, SIZE + 1).count());
+        }
+    }
+}
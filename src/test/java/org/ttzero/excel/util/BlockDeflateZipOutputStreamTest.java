@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.ttzero.excel.util;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.ttzero.excel.entity.ListObjectSheetTest;
+import org.ttzero.excel.entity.ListSheet;
+import org.ttzero.excel.entity.Workbook;
+import org.ttzero.excel.reader.ExcelReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.ttzero.excel.entity.WorkbookTest.defaultTestPath;
+import static org.ttzero.excel.entity.WorkbookTest.getRandomString;
+
+/**
+ * @author guanquan.wang at 2024-03-19 09:40
+ */
+public class BlockDeflateZipOutputStreamTest {
+    private static final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterClass public static void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test public void testSerialBlocks() throws IOException {
+        testBlocks(new ZipCompression().setBlockSize(1 << 15));
+    }
+
+    @Test public void testSerialStream() throws IOException {
+        ZipCompression compression = new ZipCompression().setBlockSize(1 << 15);
+        String name = "xl/worksheets/sheet1.xml";
+        byte[] content = createContent(1 << 20);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = ZipUtil.openZipStream(os, compression)) {
+            zos.putNextEntry(new ZipEntry(name));
+            zos.write(content);
+            zos.closeEntry();
+        }
+
+        // Without executor the entry is one DEFLATE stream, not split into blocks
+        Deflater deflater = new Deflater(compression.getLevel(ZipCompression.Type.of(name)), true);
+        deflater.setInput(content);
+        deflater.finish();
+        byte[] buf = new byte[content.length];
+        int csize = 0;
+        while (!deflater.finished()) csize += deflater.deflate(buf);
+        deflater.end();
+
+        Path path = defaultTestPath.resolve("serial deflate.zip");
+        FileUtil.mkdir(defaultTestPath);
+        Files.write(path, os.toByteArray());
+        try (ZipFile zipFile = new ZipFile(path.toFile())) {
+            assertEquals(csize, zipFile.getEntry(name).getCompressedSize());
+        }
+    }
+
+    @Test public void testParallelBlocks() throws IOException {
+        testBlocks(new ZipCompression().setBlockSize(1 << 15).setExecutor(executor));
+    }
+
+    @Test public void testStoredEntry() throws IOException {
+        testBlocks(new ZipCompression().setStored(ZipCompression.Type.MEDIA).setLevel(ZipCompression.Type.OTHERS, 1).setExecutor(executor));
+    }
+
+    @Test public void testWorkbook() throws IOException {
+        Path path = defaultTestPath.resolve("block deflate.xlsx");
+        List<ListObjectSheetTest.Item> expectList = ListObjectSheetTest.Item.randomTestData(5000);
+        new Workbook().setCompression(new ZipCompression().setBlockSize(1 << 15).setExecutor(executor))
+            .addSheet(new ListSheet<>(expectList)).writeTo(path);
+
+        try (ExcelReader reader = ExcelReader.read(path)) {
+            List<ListObjectSheetTest.Item> list = reader.sheet(0).bind(ListObjectSheetTest.Item.class, 1).rows()
+                .map(row -> (ListObjectSheetTest.Item) row.get()).collect(Collectors.toList());
+            assertEquals(expectList, list);
+        }
+    }
+
+    private static void testBlocks(ZipCompression compression) throws IOException {
+        byte[][] contents = { createContent(1 << 20), createContent(100), new byte[0], createContent((1 << 15) * 3) };
+        String[] names = { "xl/worksheets/sheet1.xml", "xl/styles.xml", "xl/empty.xml", "xl/media/image1.png" };
+
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = ZipUtil.openZipStream(os, compression)) {
+            for (int i = 0; i < names.length; i++) {
+                zos.putNextEntry(new ZipEntry(names[i]));
+                // Write in small pieces
+                for (int off = 0; off < contents[i].length; off += 1000) {
+                    zos.write(contents[i], off, Math.min(1000, contents[i].length - off));
+                }
+                zos.closeEntry();
+            }
+        }
+
+        byte[] bytes = os.toByteArray();
+        // Read by ZipInputStream
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+            for (int i = 0; i < names.length; i++) {
+                ZipEntry entry = zis.getNextEntry();
+                assertEquals(names[i], entry.getName());
+                assertArrayEquals(contents[i], readAll(zis));
+            }
+            assertNull(zis.getNextEntry());
+        }
+
+        // Read by ZipFile
+        Path path = defaultTestPath.resolve("block deflate.zip");
+        FileUtil.mkdir(defaultTestPath);
+        Files.write(path, bytes);
+        try (ZipFile zipFile = new ZipFile(path.toFile())) {
+            assertEquals(names.length, zipFile.size());
+            for (int i = 0; i < names.length; i++) {
+                ZipEntry entry = zipFile.getEntry(names[i]);
+                assertEquals(contents[i].length, entry.getSize());
+                assertEquals(compression.getLevel(ZipCompression.Type.of(names[i])) == ZipCompression.STORED ? ZipEntry.STORED : ZipEntry.DEFLATED, entry.getMethod());
+                try (InputStream is = zipFile.getInputStream(entry)) {
+                    assertArrayEquals(contents[i], readAll(is));
+                }
+            }
+        }
+    }
+
+    private static byte[] createContent(int size) {
+        StringBuilder buf = new StringBuilder(size);
+        for (int i = 0; buf.length() < size; i++) {
+            buf.append("<row r=\"").append(i).append("\"><c t=\"inlineStr\"><is><t>").append(getRandomString()).append("</t></is></c></row>");
+        }
+        buf.setLength(size);
+        return buf.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] readAll(InputStream is) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        int n;
+        while ((n = is.read(buf)) > 0) bos.write(buf, 0, n);
+        return bos.toByteArray();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author guanquan.wang at 2024-03-28 11:20
+ */
+public class HyperLogLogTest {
+
+    @Test public void testSmallCardinality() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertEquals(0L, sketch.cardinality());
+        for (int i = 0; i < 10_000; i++) sketch.add("category-" + (i % 20));
+        assertEquals(20L, sketch.cardinality());
+    }
+
+    @Test public void testLargeCardinality() {
+        HyperLogLog sketch = new HyperLogLog();
+        int n = 1_000_000;
+        for (int i = 0; i < n; i++) sketch.add("ID" + i);
+        double error = Math.abs(sketch.cardinality() - n) / (double) n;
+        assertTrue("error: " + error, error < 0.05D);
+    }
+
+    @Test public void testClear() {
+        HyperLogLog sketch = new HyperLogLog(8);
+        for (int i = 0; i < 1000; i++) sketch.add(String.valueOf(i));
+        sketch.clear();
+        assertEquals(0L, sketch.cardinality());
+        sketch.add(null);
+        sketch.add("");
+        assertEquals(1L, sketch.cardinality());
+    }
+}
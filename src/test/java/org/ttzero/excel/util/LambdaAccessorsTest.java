@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.util;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author guanquan.wang at 2024-03-29 11:02
+ */
+public class LambdaAccessorsTest {
+
+    @Test public void testPublicMethod() throws ReflectiveOperationException {
+        Bean bean = new Bean();
+        assertEquals("abc", LambdaAccessors.getter(Bean.class.getMethod("getName")).apply(bean));
+        assertEquals(7, LambdaAccessors.getter(Bean.class.getMethod("getId")).apply(bean));
+        assertEquals(7, LambdaAccessors.intGetter(Bean.class.getMethod("getId")).applyAsInt(bean));
+        assertEquals(1L << 40, LambdaAccessors.longGetter(Bean.class.getMethod("getCount")).applyAsLong(bean));
+        assertEquals(1.5D, LambdaAccessors.doubleGetter(Bean.class.getMethod("getScore")).applyAsDouble(bean), 0D);
+        // Type mismatch
+        assertNull(LambdaAccessors.intGetter(Bean.class.getMethod("getName")));
+        assertNull(LambdaAccessors.longGetter(Bean.class.getMethod("getId")));
+    }
+
+    @Test public void testPrivateMember() throws ReflectiveOperationException {
+        Hidden hidden = new Hidden();
+        Method method = Hidden.class.getDeclaredMethod("value");
+        assertEquals((short) 3, LambdaAccessors.getter(method).apply(hidden));
+        assertEquals(3, LambdaAccessors.intGetter(method).applyAsInt(hidden));
+
+        Field field = Hidden.class.getDeclaredField("ratio");
+        assertEquals(0.25F, LambdaAccessors.getter(field).apply(hidden));
+        assertEquals(0.25D, LambdaAccessors.doubleGetter(field).applyAsDouble(hidden), 0D);
+    }
+
+    @Test public void testNullValue() throws ReflectiveOperationException {
+        Bean bean = new Bean();
+        bean.name = null;
+        assertNull(LambdaAccessors.getter(Bean.class.getMethod("getName")).apply(bean));
+        assertNotNull(LambdaAccessors.getter(Bean.class.getDeclaredField("name")));
+    }
+
+    @Test(expected = IllegalArgumentException.class) public void testThrows() throws ReflectiveOperationException {
+        LambdaAccessors.getter(Bean.class.getMethod("fail")).apply(new Bean());
+    }
+
+    @Test public void testSetter() throws ReflectiveOperationException {
+        Bean bean = new Bean();
+        LambdaAccessors.setter(Bean.class.getMethod("setName", String.class)).accept(bean, "xyz");
+        LambdaAccessors.intSetter(Bean.class.getMethod("setId", int.class)).accept(bean, 9);
+        // Fluent setter
+        LambdaAccessors.longSetter(Bean.class.getMethod("setCount", long.class)).accept(bean, 3L);
+        LambdaAccessors.doubleSetter(Bean.class.getDeclaredField("score")).accept(bean, 2.5D);
+        assertEquals("xyz", bean.getName());
+        assertEquals(9, bean.getId());
+        assertEquals(3L, bean.getCount());
+        assertEquals(2.5D, bean.getScore(), 0D);
+        // Boxed value
+        LambdaAccessors.setter(Bean.class.getMethod("setId", int.class)).accept(bean, 11);
+        assertEquals(11, bean.getId());
+        // Type mismatch
+        assertNull(LambdaAccessors.intSetter(Bean.class.getMethod("setName", String.class)));
+        assertNull(LambdaAccessors.doubleSetter(Bean.class.getDeclaredField("count")));
+    }
+
+    @Test public void testPrivateSetter() throws ReflectiveOperationException {
+        Hidden hidden = new Hidden();
+        LambdaAccessors.setter(Hidden.class.getDeclaredMethod("tag", String.class)).accept(hidden, "a");
+        LambdaAccessors.intSetter(Hidden.class.getDeclaredField("size")).accept(hidden, 5);
+        assertEquals("a", hidden.tag);
+        assertEquals(5, hidden.size);
+    }
+
+    public static class Bean {
+        private String name = "abc";
+        private int id = 7;
+        private long count = 1L << 40;
+        private double score = 1.5D;
+
+        public String getName() {
+            return name;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public Bean setCount(long count) {
+            this.count = count;
+            return this;
+        }
+
+        public String fail() {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    private static class Hidden {
+        private final float ratio = 0.25F;
+        private int size;
+        private String tag;
+
+        private void tag(String tag) {
+            this.tag = tag;
+        }
+
+        private short value() {
+            return 3;
+        }
+    }
+}
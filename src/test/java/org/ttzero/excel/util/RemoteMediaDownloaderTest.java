@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.util;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author guanquan.wang at 2024-03-31 14:36
+ */
+public class RemoteMediaDownloaderTest {
+    static final byte[] BODY = "remote media".getBytes(StandardCharsets.UTF_8);
+    static HttpServer server;
+    static ExecutorService serverExecutor;
+    static String root;
+    static final AtomicInteger active = new AtomicInteger(), maxActive = new AtomicInteger();
+
+    @BeforeClass public static void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/ok", exchange -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50L);
+                exchange.sendResponseHeaders(200, BODY.length);
+                exchange.getResponseBody().write(BODY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                active.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(1000L);
+                exchange.sendResponseHeaders(200, BODY.length);
+                exchange.getResponseBody().write(BODY);
+            } catch (InterruptedException | IOException e) {
+                // Ignore
+            } finally {
+                exchange.close();
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverExecutor);
+        server.start();
+        root = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @AfterClass public static void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test public void testMaxPerHost() throws IOException {
+        Path tmp = FileUtil.mktmp("eec-download-");
+        maxActive.set(0);
+        try (RemoteMediaDownloader downloader = new RemoteMediaDownloader().setMaxConcurrency(8).setMaxPerHost(2)) {
+            List<CompletableFuture<Path>> futures = new ArrayList<>();
+            for (int i = 0; i < 12; i++) futures.add(downloader.download(root + "/ok?i=" + i, tmp.resolve(i + ".download")));
+            for (int i = 0; i < futures.size(); i++) {
+                Path path = futures.get(i).join();
+                assertEquals(tmp.resolve(i + ".download"), path);
+                assertArrayEquals(BODY, Files.readAllBytes(path));
+            }
+            assertTrue(maxActive.get() <= 2);
+        } finally {
+            FileUtil.rm_rf(tmp.toFile(), true);
+        }
+    }
+
+    @Test public void testBusyHostNotBlockOthers() throws IOException {
+        Path tmp = FileUtil.mktmp("eec-download-");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        // The same server with two host names
+        String busy = root.replace(server.getAddress().getHostString(), "localhost");
+        try (RemoteMediaDownloader downloader = new RemoteMediaDownloader().setExecutor(executor).setMaxConcurrency(2).setMaxPerHost(1)) {
+            List<CompletableFuture<Path>> futures = new ArrayList<>();
+            for (int i = 0; i < 3; i++) futures.add(downloader.download(busy + "/slow?i=" + i, tmp.resolve(i + ".download")));
+            CompletableFuture<Path> other = downloader.download(root + "/ok", tmp.resolve("other.download"));
+            // The waiting downloads of busy host do not occupy the executor threads
+            assertEquals(tmp.resolve("other.download"), other.join());
+            assertFalse(futures.get(1).isDone());
+            for (int i = 0; i < futures.size(); i++) assertEquals(tmp.resolve(i + ".download"), futures.get(i).join());
+        } finally {
+            executor.shutdown();
+            FileUtil.rm_rf(tmp.toFile(), true);
+        }
+    }
+
+    @Test public void testFailed() throws IOException {
+        Path tmp = FileUtil.mktmp("eec-download-");
+        try (RemoteMediaDownloader downloader = new RemoteMediaDownloader().setReadTimeout(200)) {
+            // Not found
+            assertNull(downloader.download(root + "/not-found", tmp.resolve("404.download")).join());
+            assertFalse(Files.exists(tmp.resolve("404.download")));
+            // Read timeout
+            assertNull(downloader.download(root + "/slow", tmp.resolve("slow.download")).join());
+            assertFalse(Files.exists(tmp.resolve("slow.download")));
+            // Unsupported protocol
+            assertNull(downloader.download("ftp://localhost/a.png", tmp.resolve("ftp.download")).join());
+        } finally {
+            FileUtil.rm_rf(tmp.toFile(), true);
+        }
+    }
+
+    @Test public void testHostOf() {
+        assertEquals("example.com:8080", RemoteMediaDownloader.hostOf("http://example.com:8080/a.png"));
+        assertEquals("example.com", RemoteMediaDownloader.hostOf("https://example.com?a=1"));
+        assertEquals("example.com", RemoteMediaDownloader.hostOf("https://example.com"));
+        assertEquals("", RemoteMediaDownloader.hostOf("a.png"));
+    }
+}
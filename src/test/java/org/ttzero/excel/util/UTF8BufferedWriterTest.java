@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017-2024, guanquan.wang@yandex.com All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.ttzero.excel.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author guanquan.wang at 2024-03-26 15:10
+ */
+public class UTF8BufferedWriterTest {
+    private static final String[] TEXTS = {
+        "", "abc", "a<b>c&d\"e'f", "中文汉字", "tab\tline\ncr\r", "bell\u0007null\u0000",
+        "emoji 😀!", "lone high \uD800 end", "lone low \uDC00 end", "trailing high \uD800",
+        "é ü ß ©", "<<<>>>&&&\"\"\""
+    };
+
+    @Test public void testEscapeWrite() throws IOException {
+        for (String text : TEXTS) {
+            assertEquals(text, ext(w -> w.escapeWrite(text)), utf8(w -> w.escapeWrite(text)));
+        }
+    }
+
+    @Test public void testEscapeWriteChar() throws IOException {
+        for (char c : "a<>&\"\t\u0001中é\uD800".toCharArray()) {
+            assertEquals(String.valueOf((int) c), ext(w -> w.escapeWrite(c)), utf8(w -> w.escapeWrite(c)));
+        }
+    }
+
+    @Test public void testWriteString() throws IOException {
+        for (String text : TEXTS) {
+            if (text.contains("\uD800") || text.contains("\uDC00")) continue;
+            assertEquals(text, ext(w -> w.write(text)), utf8(w -> w.write(text)));
+        }
+    }
+
+    @Test public void testWriteNumber() throws IOException {
+        int[] ints = { 0, 1, -1, 9, 10, -10, 123456789, Integer.MAX_VALUE, Integer.MIN_VALUE };
+        long[] longs = { 0L, -1L, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE };
+        double[] doubles = { 0D, -0D, 1D, -1D, 1.5D, 9_999_999D, 10_000_000D, -9_999_999D, 1e-5, 3.14159D,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.MAX_VALUE, Double.MIN_VALUE };
+        for (int n : ints) assertEquals(ext(w -> w.writeInt(n)), utf8(w -> w.writeInt(n)));
+        for (long n : longs) assertEquals(ext(w -> w.write(n)), utf8(w -> w.write(n)));
+        for (double n : doubles) assertEquals(ext(w -> w.write(n)), utf8(w -> w.write(n)));
+    }
+
+    @Test public void testLargeRandomText() throws IOException {
+        Random random = new Random(7);
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            int k = random.nextInt(10);
+            buf.append(k < 6 ? (char) ('a' + random.nextInt(26)) : k < 8 ? (char) (0x4E00 + random.nextInt(1000)) : "<>&\"\n".charAt(random.nextInt(5)));
+        }
+        String text = buf.toString();
+        assertEquals(ext(w -> w.escapeWrite(text)), utf8(w -> w.escapeWrite(text)));
+        assertEquals(ext(w -> w.write(text)), utf8(w -> w.write(text)));
+    }
+
+    @Test public void testWriteBytes() throws IOException {
+        byte[] tag = UTF8BufferedWriter.ascii("<c r=\"");
+        assertArrayEquals(tag, utf8(w -> w.write(tag)).getBytes(StandardCharsets.UTF_8));
+        assertEquals("<c r=\"", ext(w -> w.write(tag)));
+    }
+
+    interface WriterConsumer {
+        void accept(ExtBufferedWriter writer) throws IOException;
+    }
+
+    static String ext(WriterConsumer consumer) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try (ExtBufferedWriter writer = new ExtBufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8))) {
+            consumer.accept(writer);
+        }
+        return new String(os.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    static String utf8(WriterConsumer consumer) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try (ExtBufferedWriter writer = new UTF8BufferedWriter(os, 64)) {
+            consumer.accept(writer);
+        }
+        return new String(os.toByteArray(), StandardCharsets.UTF_8);
+    }
+}